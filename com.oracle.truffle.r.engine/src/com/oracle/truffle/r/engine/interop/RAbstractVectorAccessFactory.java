@@ -22,8 +22,12 @@
  */
 package com.oracle.truffle.r.engine.interop;
 
+import java.lang.reflect.Array;
+import java.util.List;
+
 import com.oracle.truffle.api.CallTarget;
 import com.oracle.truffle.api.CompilerDirectives.CompilationFinal;
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
 import com.oracle.truffle.api.Truffle;
 import com.oracle.truffle.api.dsl.Specialization;
 import com.oracle.truffle.api.frame.VirtualFrame;
@@ -37,8 +41,13 @@ import com.oracle.truffle.r.nodes.access.vector.ElementAccessMode;
 import com.oracle.truffle.r.nodes.access.vector.ExtractVectorNode;
 import com.oracle.truffle.r.nodes.builtin.base.InfixFunctions.AccessArraySubscriptBuiltin;
 import com.oracle.truffle.r.nodes.control.RLengthNode;
+import com.oracle.truffle.r.runtime.RError;
 import com.oracle.truffle.r.runtime.RInternalError;
+import com.oracle.truffle.r.runtime.data.RComplexVector;
 import com.oracle.truffle.r.runtime.data.RLogical;
+import com.oracle.truffle.r.runtime.data.RVector;
+import com.oracle.truffle.r.runtime.data.model.RAbstractDoubleVector;
+import com.oracle.truffle.r.runtime.data.model.RAbstractIntVector;
 import com.oracle.truffle.r.runtime.data.model.RAbstractVector;
 
 public final class RAbstractVectorAccessFactory implements Factory10 {
@@ -78,6 +87,25 @@ public final class RAbstractVectorAccessFactory implements Factory10 {
 
         protected abstract Object execute(VirtualFrame frame, Object reciever, Object label);
 
+        protected static boolean inBounds(RAbstractVector receiver, int label) {
+            return label >= 0 && label < receiver.getLength();
+        }
+
+        /*
+         * Single elements of double and integer vectors are read directly, the result is the same
+         * as that of the "[[" extraction.
+         */
+
+        @Specialization(guards = "inBounds(receiver, label)")
+        protected double readDouble(RAbstractDoubleVector receiver, int label) {
+            return receiver.getDataAt(label);
+        }
+
+        @Specialization(guards = "inBounds(receiver, label)")
+        protected int readInt(RAbstractIntVector receiver, int label) {
+            return receiver.getDataAt(label);
+        }
+
         @Specialization
         protected Object readIndexed(VirtualFrame frame, Object receiver, int label) {
             return extract.apply(frame, receiver, new Object[]{label + 1}, RLogical.TRUE, RLogical.TRUE);
@@ -89,6 +117,46 @@ public final class RAbstractVectorAccessFactory implements Factory10 {
         }
     }
 
+    static final class VectorReadArrayNode extends RootNode {
+
+        VectorReadArrayNode() {
+            super(TruffleRLanguage.class, null, null);
+        }
+
+        @Override
+        public Object execute(VirtualFrame frame) {
+            RAbstractVector vector = (RAbstractVector) ForeignAccess.getReceiver(frame);
+            List<Object> arguments = ForeignAccess.getArguments(frame);
+            int length = vector.getLength();
+            if (arguments.isEmpty()) {
+                return readArray(vector, 0, length);
+            }
+            if (arguments.size() != 2 || !(arguments.get(0) instanceof Integer) || !(arguments.get(1) instanceof Integer)) {
+                throw RError.error(RError.NO_CALLER, RError.Message.INVALID_ARGUMENT, "range");
+            }
+            int offset = (Integer) arguments.get(0);
+            int count = (Integer) arguments.get(1);
+            if (offset < 0 || count < 0 || offset > length - count) {
+                throw RError.error(RError.NO_CALLER, RError.Message.SUBSCRIPT_BOUNDS);
+            }
+            return readArray(vector, offset, count);
+        }
+
+        @TruffleBoundary
+        private static Object readArray(RAbstractVector vector, int offset, int count) {
+            RVector materialized = vector.materialize();
+            Object store = materialized.getInternalStore();
+            if (offset == 0 && count == vector.getLength() && materialized.isTemporary()) {
+                return store;
+            }
+            // complex vectors store real and imaginary parts interleaved
+            int width = materialized instanceof RComplexVector ? 2 : 1;
+            Object result = Array.newInstance(store.getClass().getComponentType(), count * width);
+            System.arraycopy(store, offset * width, result, 0, count * width);
+            return result;
+        }
+    }
+
     private abstract class InteropRootNode extends RootNode {
         InteropRootNode() {
             super(TruffleRLanguage.class, null, null);
@@ -169,6 +237,9 @@ public final class RAbstractVectorAccessFactory implements Factory10 {
 
     @Override
     public CallTarget accessMessage(Message unknown) {
+        if (unknown instanceof ReadArrayMessage) {
+            return Truffle.getRuntime().createCallTarget(new VectorReadArrayNode());
+        }
         throw RInternalError.shouldNotReachHere("message: " + unknown);
     }
 
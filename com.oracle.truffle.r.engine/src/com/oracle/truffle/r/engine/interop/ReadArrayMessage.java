@@ -0,0 +1,54 @@
+/*
+ * Copyright (c) 2016, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.truffle.r.engine.interop;
+
+import com.oracle.truffle.api.interop.Message;
+
+/**
+ * Reads the elements of an R vector into a Java array in one message, instead of one
+ * {@link Message#READ} per element. Without arguments the whole vector is read, with two
+ * {@code int} arguments {@code (offset, length)} only that range.
+ *
+ * The result is a {@code double[]} for double vectors, an {@code int[]} for integer vectors, a
+ * {@code byte[]} for logical (in the R representation) and raw vectors, a {@code String[]} for
+ * character vectors and a {@code double[]} of interleaved real and imaginary parts for complex
+ * vectors. Lists are not supported.
+ *
+ * If the vector is temporary and is read as a whole, its backing array is returned without copying.
+ * That array is still shared with the R vector: writing to it changes the R value, so callers that
+ * modify the result must copy it first.
+ */
+public final class ReadArrayMessage extends Message {
+
+    public static final ReadArrayMessage INSTANCE = new ReadArrayMessage();
+
+    @Override
+    public boolean equals(Object message) {
+        return message instanceof ReadArrayMessage;
+    }
+
+    @Override
+    public int hashCode() {
+        return ReadArrayMessage.class.hashCode();
+    }
+}
@@ -15,9 +15,13 @@
 package com.oracle.truffle.r.library.grDevices;
 
 import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+import com.oracle.truffle.r.library.grDevices.headless.HeadlessGraphicsDevice;
+import com.oracle.truffle.r.library.grDevices.headless.PngGraphicsDevice;
+import com.oracle.truffle.r.library.grDevices.headless.SvgGraphicsDevice;
 import com.oracle.truffle.r.library.grDevices.pdf.PdfGraphicsDevice;
 import com.oracle.truffle.r.library.graphics.core.GraphicsEngineImpl;
 import com.oracle.truffle.r.nodes.builtin.RExternalBuiltinNode;
+import com.oracle.truffle.r.runtime.RError;
 import com.oracle.truffle.r.runtime.data.RArgsValuesAndNames;
 import com.oracle.truffle.r.runtime.data.RNull;
 import com.oracle.truffle.r.runtime.data.RStringVector;
@@ -29,7 +33,8 @@ public class DevicesCCalls {
         @TruffleBoundary
         public Object call(RArgsValuesAndNames args) {
             Object firstArgument = args.getArgument(0);
-            int deviceIndex = castInt(castVector(firstArgument));
+            // R level device numbers are 1-based
+            int deviceIndex = castInt(castVector(firstArgument)) - 1;
             GraphicsEngineImpl.getInstance().killGraphicsDeviceByIndex(deviceIndex);
             return RNull.instance;
         }
@@ -40,7 +45,52 @@ public class DevicesCCalls {
         @Override
         @TruffleBoundary
         public Object call(RArgsValuesAndNames args) {
-            return GraphicsEngineImpl.getInstance().getCurrentGraphicsDeviceIndex();
+            return GraphicsEngineImpl.getInstance().getCurrentGraphicsDeviceIndex() + 1;
+        }
+    }
+
+    /**
+     * The cairo based devices of GNU R: {@code png(type = "cairo")} and {@code svg()} are rendered
+     * by the headless devices, the other types are not supported.
+     */
+    public static final class C_DevCairo extends RExternalBuiltinNode {
+        // indices into the devtable of cairoBM.c
+        private static final int PNG = 2;
+        private static final int SVG = 4;
+        private static final int PNG_DIRECT = 5;
+        // antialias = "none"
+        private static final int ANTIALIAS_NONE = 2;
+
+        @Override
+        @TruffleBoundary
+        public Object call(RArgsValuesAndNames args) {
+            String filePath = isString(args.getArgument(0));
+            int type = castInt(castVector(args.getArgument(1)));
+            int width = (int) castDouble(castVector(args.getArgument(2))).getDataAt(0);
+            int height = (int) castDouble(castVector(args.getArgument(3))).getDataAt(0);
+            String bg = isString(args.getArgument(5));
+            int antialias = castInt(castVector(args.getArgument(7)));
+            if (filePath == null || width <= 0 || height <= 0) {
+                throw RError.error(this, RError.Message.GENERIC, "invalid device arguments");
+            }
+            HeadlessGraphicsDevice device;
+            switch (type) {
+                case PNG:
+                case PNG_DIRECT:
+                    device = new PngGraphicsDevice(filePath, width, height, bg, antialias != ANTIALIAS_NONE);
+                    break;
+                case SVG:
+                    device = new SvgGraphicsDevice(filePath, width, height, bg);
+                    break;
+                default:
+                    throw RError.error(this, RError.Message.GENERIC, "unsupported cairo device type");
+            }
+            try {
+                GraphicsEngineImpl.getInstance().registerGraphicsDevice(device);
+            } catch (Exception e) {
+                throw RError.error(this, RError.Message.GENERIC, e.getMessage());
+            }
+            return RNull.instance;
         }
     }
 
@@ -25,6 +25,11 @@ public final class NullGraphicsDevice implements GraphicsDevice {
         return instance;
     }
 
+    @Override
+    public String getName() {
+        return "null device";
+    }
+
     @Override
     public void deactivate() {
         throw createExceptionForMethod("deactivate");
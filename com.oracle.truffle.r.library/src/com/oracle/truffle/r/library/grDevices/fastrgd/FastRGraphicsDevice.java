@@ -48,6 +48,11 @@ public class FastRGraphicsDevice implements GraphicsDevice {
     private FastRFrame fastRFrame;
     private CoordinateSystem currentCoordinateSystem = new CoordinateSystem(GNUR_DEFAULT_X_AXIS, GNUR_DEFAULT_Y_AXIS);
 
+    @Override
+    public String getName() {
+        return "FastR";
+    }
+
     @Override
     public void deactivate() {
         // todo impl
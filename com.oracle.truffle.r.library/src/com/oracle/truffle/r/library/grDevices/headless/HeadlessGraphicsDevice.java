@@ -0,0 +1,184 @@
+/*
+ * Copyright (c) 2016, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.truffle.r.library.grDevices.headless;
+
+import java.io.IOException;
+
+import com.oracle.truffle.r.library.graphics.core.DrawingParameters;
+import com.oracle.truffle.r.library.graphics.core.GraphicsDevice;
+import com.oracle.truffle.r.library.graphics.core.geometry.Coordinates;
+import com.oracle.truffle.r.runtime.RError;
+import com.oracle.truffle.r.runtime.Utils;
+
+/**
+ * Base class of the devices that render to a file without a display, so that FastR can plot in
+ * server processes. The devices are independent of each other and of any window system, several of
+ * them can render in parallel threads.
+ *
+ * Coordinates are expected in the normalized [0,1] range (as for the {@code FastRGraphicsDevice})
+ * and are mapped to the device area, the y axis pointing upwards. The file is written when the
+ * device is closed.
+ */
+public abstract class HeadlessGraphicsDevice implements GraphicsDevice {
+    private final String name;
+    private final String filePath;
+    protected final int width;
+    protected final int height;
+    protected final String background;
+
+    private Mode mode = Mode.GRAPHICS_OFF;
+    private double clipX1;
+    private double clipY1;
+    private double clipX2;
+    private double clipY2;
+
+    protected HeadlessGraphicsDevice(String name, String filePath, int width, int height, String background) {
+        this.name = name;
+        this.filePath = filePath;
+        this.width = width;
+        this.height = height;
+        this.background = background;
+        this.clipX2 = width;
+        this.clipY2 = height;
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public void deactivate() {
+        // nothing to do, output is not shown anywhere
+    }
+
+    @Override
+    public void activate() {
+        // nothing to do, output is not shown anywhere
+    }
+
+    @Override
+    public void close() {
+        String path = Utils.tildeExpand(filePath);
+        if (path.indexOf('%') >= 0) {
+            // only the first page is produced
+            path = String.format(path, 1);
+        }
+        try {
+            writeTo(path);
+        } catch (IOException e) {
+            throw RError.error(RError.NO_CALLER, RError.Message.CANNOT_OPEN_FILE, path, e.getMessage());
+        }
+    }
+
+    @Override
+    public DrawingParameters getDrawingParameters() {
+        return null;
+    }
+
+    @Override
+    public void setMode(Mode newMode) {
+        mode = newMode;
+    }
+
+    @Override
+    public Mode getMode() {
+        return mode;
+    }
+
+    /**
+     * An empty rectangle (as passed by the engine until clipping is implemented there) resets
+     * clipping to the whole device.
+     */
+    @Override
+    public void setClipRect(double x1, double y1, double x2, double y2) {
+        double newX1 = 0;
+        double newY1 = 0;
+        double newX2 = width;
+        double newY2 = height;
+        if (x1 != x2 && y1 != y2) {
+            newX1 = Math.min(toDeviceX(x1), toDeviceX(x2));
+            newX2 = Math.max(toDeviceX(x1), toDeviceX(x2));
+            newY1 = Math.min(toDeviceY(y1), toDeviceY(y2));
+            newY2 = Math.max(toDeviceY(y1), toDeviceY(y2));
+        }
+        if (newX1 != clipX1 || newY1 != clipY1 || newX2 != clipX2 || newY2 != clipY2) {
+            clipX1 = newX1;
+            clipY1 = newY1;
+            clipX2 = newX2;
+            clipY2 = newY2;
+            setClip(clipX1, clipY1, clipX2 - clipX1, clipY2 - clipY1);
+        }
+    }
+
+    /**
+     * Draws the whole coordinate vector as one path, which is broken at non-finite (e.g.
+     * {@code NA}) coordinates like in GNU R.
+     */
+    @Override
+    public void drawPolyline(Coordinates coordinates, DrawingParameters drawingParameters) {
+        double[] xs = coordinates.getXCoordinatesAsDoubles();
+        double[] ys = coordinates.getYCoordinatesAsDoubles();
+        boolean penDown = false;
+        for (int i = 0; i < xs.length; i++) {
+            double x = toDeviceX(xs[i]);
+            double y = toDeviceY(ys[i]);
+            if (Double.isFinite(x) && Double.isFinite(y)) {
+                if (penDown) {
+                    lineTo(x, y);
+                } else {
+                    moveTo(x, y);
+                    penDown = true;
+                }
+            } else {
+                penDown = false;
+            }
+        }
+        strokePath();
+    }
+
+    private double toDeviceX(double x) {
+        return x * width;
+    }
+
+    private double toDeviceY(double y) {
+        return (1 - y) * height;
+    }
+
+    protected static boolean isTransparent(String color) {
+        return color == null || color.equals("transparent") || color.equals("NA");
+    }
+
+    protected abstract void setClip(double x, double y, double w, double h);
+
+    protected abstract void moveTo(double x, double y);
+
+    protected abstract void lineTo(double x, double y);
+
+    /**
+     * Strokes the path built by {@link #moveTo} and {@link #lineTo} since the last call.
+     */
+    protected abstract void strokePath();
+
+    protected abstract void writeTo(String path) throws IOException;
+}
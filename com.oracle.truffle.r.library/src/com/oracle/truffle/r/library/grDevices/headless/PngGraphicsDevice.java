@@ -0,0 +1,102 @@
+/*
+ * Copyright (c) 2016, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.truffle.r.library.grDevices.headless;
+
+import java.awt.BasicStroke;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.geom.Path2D;
+import java.awt.geom.Rectangle2D;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+
+import javax.imageio.ImageIO;
+
+/**
+ * Renders into a Java2D {@link BufferedImage}, which needs no display, and writes it as PNG. The
+ * dimensions are in pixels.
+ */
+public final class PngGraphicsDevice extends HeadlessGraphicsDevice {
+    private final BufferedImage image;
+    private final Graphics2D graphics;
+    private final Path2D.Double path = new Path2D.Double();
+
+    public PngGraphicsDevice(String filePath, int width, int height, String background, boolean antialias) {
+        super("png", filePath, width, height, background);
+        image = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+        graphics = image.createGraphics();
+        graphics.setRenderingHint(RenderingHints.KEY_ANTIALIASING, antialias ? RenderingHints.VALUE_ANTIALIAS_ON : RenderingHints.VALUE_ANTIALIAS_OFF);
+        if (!isTransparent(background)) {
+            graphics.setColor(decodeColor(background));
+            graphics.fillRect(0, 0, width, height);
+        }
+        graphics.setColor(Color.BLACK);
+        graphics.setStroke(new BasicStroke(1f));
+    }
+
+    /**
+     * Only the "#RRGGBB" form and white are understood until {@code DrawingParameters} carries
+     * colors.
+     */
+    private static Color decodeColor(String color) {
+        if (color.startsWith("#") && color.length() >= 7) {
+            try {
+                return Color.decode(color.substring(0, 7));
+            } catch (NumberFormatException e) {
+                // fall through to the default
+            }
+        }
+        return Color.WHITE;
+    }
+
+    @Override
+    protected void setClip(double x, double y, double w, double h) {
+        graphics.setClip(new Rectangle2D.Double(x, y, w, h));
+    }
+
+    @Override
+    protected void moveTo(double x, double y) {
+        path.moveTo(x, y);
+    }
+
+    @Override
+    protected void lineTo(double x, double y) {
+        path.lineTo(x, y);
+    }
+
+    @Override
+    protected void strokePath() {
+        graphics.draw(path);
+        path.reset();
+    }
+
+    @Override
+    protected void writeTo(String filePath) throws IOException {
+        graphics.dispose();
+        if (!ImageIO.write(image, "png", new File(filePath))) {
+            throw new IOException("no PNG writer available");
+        }
+    }
+}
@@ -0,0 +1,116 @@
+/*
+ * Copyright (c) 2016, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.truffle.r.library.grDevices.headless;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+
+/**
+ * Writes an SVG document. The dimensions are in points, each polyline becomes a single
+ * {@code path} element.
+ */
+public final class SvgGraphicsDevice extends HeadlessGraphicsDevice {
+    private final StringBuilder content = new StringBuilder();
+    private final StringBuilder pathData = new StringBuilder();
+    private int clipPaths;
+
+    public SvgGraphicsDevice(String filePath, int width, int height, String background) {
+        super("svg", filePath, width, height, background);
+    }
+
+    @Override
+    protected void setClip(double x, double y, double w, double h) {
+        if (clipPaths > 0) {
+            content.append("</g>\n");
+        }
+        clipPaths++;
+        content.append("<clipPath id=\"clip").append(clipPaths).append("\"><rect x=\"");
+        appendCoordinate(content, x).append("\" y=\"");
+        appendCoordinate(content, y).append("\" width=\"");
+        appendCoordinate(content, w).append("\" height=\"");
+        appendCoordinate(content, h).append("\"/></clipPath>\n");
+        content.append("<g clip-path=\"url(#clip").append(clipPaths).append(")\">\n");
+    }
+
+    @Override
+    protected void moveTo(double x, double y) {
+        pathData.append(pathData.length() == 0 ? "M" : " M");
+        appendCoordinate(pathData, x).append(' ');
+        appendCoordinate(pathData, y);
+    }
+
+    @Override
+    protected void lineTo(double x, double y) {
+        pathData.append(" L");
+        appendCoordinate(pathData, x).append(' ');
+        appendCoordinate(pathData, y);
+    }
+
+    @Override
+    protected void strokePath() {
+        if (pathData.length() != 0) {
+            content.append("<path fill=\"none\" stroke=\"black\" stroke-width=\"0.75\" d=\"").append(pathData).append("\"/>\n");
+            pathData.setLength(0);
+        }
+    }
+
+    /**
+     * Appends {@code value} rounded to two decimals, without going through {@code String.format}
+     * for each of possibly millions of points.
+     */
+    private static StringBuilder appendCoordinate(StringBuilder sb, double value) {
+        long hundredths = Math.round(value * 100);
+        if (hundredths < 0) {
+            sb.append('-');
+            hundredths = -hundredths;
+        }
+        sb.append(hundredths / 100);
+        int fraction = (int) (hundredths % 100);
+        if (fraction != 0) {
+            sb.append('.').append((char) ('0' + fraction / 10));
+            if (fraction % 10 != 0) {
+                sb.append((char) ('0' + fraction % 10));
+            }
+        }
+        return sb;
+    }
+
+    @Override
+    protected void writeTo(String filePath) throws IOException {
+        try (BufferedWriter writer = Files.newBufferedWriter(Paths.get(filePath), StandardCharsets.UTF_8)) {
+            writer.write("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n");
+            writer.write("<svg xmlns=\"http://www.w3.org/2000/svg\" width=\"" + width + "pt\" height=\"" + height + "pt\" viewBox=\"0 0 " + width + " " + height + "\" version=\"1.1\">\n");
+            if (!isTransparent(background)) {
+                writer.write("<rect width=\"100%\" height=\"100%\" fill=\"" + background + "\"/>\n");
+            }
+            writer.append(content);
+            if (clipPaths > 0) {
+                writer.write("</g>\n");
+            }
+            writer.write("</svg>\n");
+        }
+    }
+}
@@ -26,6 +26,11 @@ public class PdfGraphicsDevice implements GraphicsDevice {
         this.deviceParameters = deviceParameters;
     }
 
+    @Override
+    public String getName() {
+        return "pdf";
+    }
+
     @Override
     public void deactivate() {
 
@@ -17,6 +17,11 @@ package com.oracle.truffle.r.library.graphics.core;
 import com.oracle.truffle.r.library.graphics.core.geometry.Coordinates;
 
 public interface GraphicsDevice {
+    /**
+     * The name shown for the device in '.Devices'.
+     */
+    String getName();
+
     void deactivate();
 
     void activate();
@@ -17,11 +17,23 @@ package com.oracle.truffle.r.library.graphics.core;
 import static com.oracle.truffle.r.library.graphics.core.GraphicsEvent.GE_FINAL_STATE;
 import static com.oracle.truffle.r.library.graphics.core.GraphicsEvent.GE_INIT_STATE;
 
+import java.util.Map;
+import java.util.WeakHashMap;
+
 import com.oracle.truffle.r.library.grDevices.NullGraphicsDevice;
 import com.oracle.truffle.r.library.grDevices.fastrgd.FastRGraphicsDevice;
 import com.oracle.truffle.r.library.graphics.core.geometry.Coordinates;
 import com.oracle.truffle.r.runtime.Utils;
-
+import com.oracle.truffle.r.runtime.context.RContext;
+import com.oracle.truffle.r.runtime.data.RDataFactory;
+import com.oracle.truffle.r.runtime.data.RNull;
+import com.oracle.truffle.r.runtime.env.REnvironment;
+
+/**
+ * The graphics systems are shared by all contexts, but each context has its own table of devices
+ * and its own current device (like the '.Devices' list it is reflected in), so that contexts
+ * running in parallel threads can each plot to their own devices.
+ */
 // todo implement 'active' devices array from devices.c
 public final class GraphicsEngineImpl implements GraphicsEngine {
     // GNUR: GraphicsEngine.h (original value: 24)
@@ -30,31 +42,24 @@ public final class GraphicsEngineImpl implements GraphicsEngine {
     private static final int NULL_GRAPHICS_DEVICE_INDEX = 0;
     private static final int LAST_GRAPHICS_DEVICE_INDEX = MAX_GRAPHICS_DEVICES_AMOUNT - 1;
     private static final int NOT_FOUND = -1;
+    private static final String DOT_DEVICE = ".Device";
+    private static final String DOT_DEVICES = ".Devices";
     private static final GraphicsEngine instance = new GraphicsEngineImpl();
 
-    /**
-     * According to GNUR devices.c: 0 - null device, 63 - empty.
-     */
-    private final GraphicsDevice[] graphicsDevices = new GraphicsDevice[MAX_GRAPHICS_DEVICES_AMOUNT];
     private final GraphicsSystem[] graphicsSystems = new AbstractGraphicsSystem[MAX_GRAPHICS_SYSTEMS_AMOUNT];
+    private final Map<RContext, DeviceTable> deviceTables = new WeakHashMap<>();
 
     private int graphicsSystemsAmount = 0;
-    private int devicesAmountWithoutNullDevice = 0;
-    private CurrentGraphicsDevice currentGraphicsDevice = new CurrentGraphicsDevice(NullGraphicsDevice.getInstance(), NULL_GRAPHICS_DEVICE_INDEX);
 
     public static GraphicsEngine getInstance() {
         return instance;
     }
 
     private GraphicsEngineImpl() {
-        initNullGraphicsDevice();
     }
 
-    /**
-     * According to GNUR 0 index is for the Null graphics device.
-     */
-    private void initNullGraphicsDevice() {
-        graphicsDevices[NULL_GRAPHICS_DEVICE_INDEX] = NullGraphicsDevice.getInstance();
+    private synchronized DeviceTable getDeviceTable() {
+        return deviceTables.computeIfAbsent(RContext.getInstance(), context -> new DeviceTable());
     }
 
     @Override
@@ -62,26 +67,30 @@ public final class GraphicsEngineImpl implements GraphicsEngine {
         if (newGraphicsSystem == null) {
             throw new NullPointerException("Graphics system to register is null");
         }
-        int index = findElementIndexInArray(null, graphicsSystems); // find null in the
-        // graphicsSystems
-        if (NOT_FOUND == index) {
-            throw handleErrorAndMakeException("too many graphics systems registered");
+        synchronized (this) {
+            int index = findElementIndexInArray(null, graphicsSystems); // find null in the
+            // graphicsSystems
+            if (NOT_FOUND == index) {
+                throw handleErrorAndMakeException("too many graphics systems registered");
+            }
+            newGraphicsSystem.setId(index);
+            graphicsSystems[index] = newGraphicsSystem;
+            graphicsSystemsAmount++;
         }
-        newGraphicsSystem.setId(index);
-        graphicsSystems[index] = newGraphicsSystem;
         callListenerForEachDevice(newGraphicsSystem.getGraphicsEventsListener(), GE_INIT_STATE);
-        graphicsSystemsAmount++;
     }
 
+    /**
+     * The tables are snapshot first, the table locks must not be taken while holding the engine
+     * lock.
+     */
     private void callListenerForEachDevice(AbstractGraphicsSystem.GraphicsEventsListener listener, GraphicsEvent event) {
-        if (noGraphicsDevices()) {
-            return;
+        DeviceTable[] tables;
+        synchronized (this) {
+            tables = deviceTables.values().toArray(new DeviceTable[0]);
         }
-        for (int i = NULL_GRAPHICS_DEVICE_INDEX + 1; i < LAST_GRAPHICS_DEVICE_INDEX; i++) {
-            GraphicsDevice graphicsDevice = graphicsDevices[i];
-            if (graphicsDevice != null) {
-                listener.onEvent(event, graphicsDevice);
-            }
+        for (DeviceTable table : tables) {
+            table.callListenerForEachDevice(listener, event);
         }
     }
 
@@ -99,13 +108,17 @@ public final class GraphicsEngineImpl implements GraphicsEngine {
     public void unRegisterGraphicsSystem(GraphicsSystem graphicsSystem) {
         int graphicsSystemId = graphicsSystem.getId();
         checkGraphicsSystemIndex(graphicsSystemId);
-        if (graphicsSystemsAmount == 0) {
-            issueWarning("no graphics system to unregister");
-            return;
+        synchronized (this) {
+            if (graphicsSystemsAmount == 0) {
+                issueWarning("no graphics system to unregister");
+                return;
+            }
         }
         callListenerForEachDevice(graphicsSystem.getGraphicsEventsListener(), GE_FINAL_STATE);
-        graphicsSystems[graphicsSystemId] = null;
-        graphicsSystemsAmount--;
+        synchronized (this) {
+            graphicsSystems[graphicsSystemId] = null;
+            graphicsSystemsAmount--;
+        }
     }
 
     private void checkGraphicsSystemIndex(int graphicsSystemIndex) {
@@ -114,29 +127,18 @@ public final class GraphicsEngineImpl implements GraphicsEngine {
         }
     }
 
-    // todo implement '.Devices' list related logic from GEaddDevices (devices.c)
     @Override
     public void registerGraphicsDevice(GraphicsDevice newGraphicsDevice) throws Exception {
-        if (newGraphicsDevice == null) {
-            throw new NullPointerException("Graphics device to register is null");
-        }
-        if (!noGraphicsDevices()) {
-            getCurrentGraphicsDevice().deactivate();
-        }
-        int index = findElementIndexInArray(NULL_GRAPHICS_DEVICE_INDEX + 1, LAST_GRAPHICS_DEVICE_INDEX, null, graphicsDevices);
-        if (index == NOT_FOUND) {
-            throw handleErrorAndMakeException("too many open devices");
-        }
-        graphicsDevices[index] = newGraphicsDevice;
-        devicesAmountWithoutNullDevice++;
-        currentGraphicsDevice = new CurrentGraphicsDevice(newGraphicsDevice, index);
-        notifyEachGraphicsSystem(newGraphicsDevice, GE_INIT_STATE);
-        newGraphicsDevice.activate();
+        getDeviceTable().register(newGraphicsDevice);
     }
 
     private void notifyEachGraphicsSystem(GraphicsDevice graphicsDevice, GraphicsEvent event) {
+        GraphicsSystem[] systems;
+        synchronized (this) {
+            systems = graphicsSystems.clone();
+        }
         for (int i = 0; i < MAX_GRAPHICS_SYSTEMS_AMOUNT; i++) {
-            GraphicsSystem graphicsSystem = graphicsSystems[i];
+            GraphicsSystem graphicsSystem = systems[i];
             if (graphicsSystem != null) {
                 graphicsSystem.getGraphicsEventsListener().onEvent(event, graphicsDevice);
             }
@@ -145,80 +147,49 @@ public final class GraphicsEngineImpl implements GraphicsEngine {
 
     @Override
     public void unRegisterGraphicsDevice(GraphicsDevice deviceToUnregister) {
-        if (deviceToUnregister == null) {
-            throw new NullPointerException("Graphics device to unregister is null");
-        }
-        doUnregisterGraphicsDevice(deviceToUnregister);
-        GraphicsDevice nextGraphicsDevice = getGraphicsDeviceNextTo(deviceToUnregister);
-        int index = findElementIndexInArray(nextGraphicsDevice, graphicsDevices);
-        currentGraphicsDevice = new CurrentGraphicsDevice(nextGraphicsDevice, index);
-        nextGraphicsDevice.activate();
-        // todo Interesting that in GNUR a GraphicsSystem is not notified when a GraphicsDevice is
-        // killed
-    }
-
-    private void doUnregisterGraphicsDevice(GraphicsDevice deviceToUnregister) {
-        int index = findElementIndexInArray(deviceToUnregister, graphicsDevices);
-        if (index == NOT_FOUND) {
-            issueWarning("no graphics device to unregister");
-            return;
-        }
-        graphicsDevices[index] = null;
-        devicesAmountWithoutNullDevice--;
-        currentGraphicsDevice = new CurrentGraphicsDevice(getNullGraphicsDevice(), NULL_GRAPHICS_DEVICE_INDEX);
-        deviceToUnregister.close();
+        getDeviceTable().unRegister(deviceToUnregister);
     }
 
     @Override
     public int getGraphicsDevicesAmount() {
-        return devicesAmountWithoutNullDevice;
+        DeviceTable table = getDeviceTable();
+        synchronized (table) {
+            return table.devicesAmountWithoutNullDevice;
+        }
     }
 
     @Override
     public boolean noGraphicsDevices() {
-        return devicesAmountWithoutNullDevice == 0;
+        return getGraphicsDevicesAmount() == 0;
     }
 
     @Override
     public int getCurrentGraphicsDeviceIndex() {
-        return currentGraphicsDevice.graphicsDeviceIndex;
+        DeviceTable table = getDeviceTable();
+        synchronized (table) {
+            return table.currentGraphicsDevice.graphicsDeviceIndex;
+        }
     }
 
     @Override
     public GraphicsDevice getCurrentGraphicsDevice() {
-        if (isNullDeviceIsCurrent()) {
-            try {
-                // todo transcribe device installation from GNUR GEcurrentDevice (devices.c)
-                installCurrentGraphicsDevice();
-            } catch (Exception e) {
-                e.printStackTrace();
+        DeviceTable table = getDeviceTable();
+        synchronized (table) {
+            if (table.isNullDeviceIsCurrent()) {
+                try {
+                    // todo transcribe device installation from GNUR GEcurrentDevice (devices.c)
+                    table.register(new FastRGraphicsDevice());
+                } catch (Exception e) {
+                    e.printStackTrace();
+                }
             }
+            return table.currentGraphicsDevice.graphicsDevice;
         }
-        return currentGraphicsDevice.graphicsDevice;
-    }
-
-    private boolean isNullDeviceIsCurrent() {
-        return currentGraphicsDevice.graphicsDevice == getNullGraphicsDevice();
-    }
-
-    private void installCurrentGraphicsDevice() throws Exception {
-        registerGraphicsDevice(new FastRGraphicsDevice());
     }
 
     @Override
     public GraphicsDevice getGraphicsDeviceNextTo(GraphicsDevice graphicsDevice) {
-        if (graphicsDevice == null) {
-            throw new NullPointerException("Graphics device is null");
-        }
-        int startIndex = findElementIndexInArray(graphicsDevice, graphicsDevices);
-        if (startIndex == NOT_FOUND) {
-            return getNullGraphicsDevice();
-        }
-        GraphicsDevice foundDevice = findNotNullGraphicsDevice(startIndex + 1, graphicsDevices.length, SearchDirection.FORWARD);
-        if (foundDevice == null) {
-            foundDevice = findNotNullGraphicsDevice(startIndex - 1, NULL_GRAPHICS_DEVICE_INDEX, SearchDirection.BACKWARD);
-        }
-        return foundDevice == null ? getNullGraphicsDevice() : foundDevice;
+        return getDeviceTable().getGraphicsDeviceNextTo(graphicsDevice);
     }
 
     @Override
@@ -231,18 +202,7 @@ public final class GraphicsEngineImpl implements GraphicsEngine {
 
     @Override
     public GraphicsDevice getGraphicsDevicePrevTo(GraphicsDevice graphicsDevice) {
-        if (graphicsDevice == null) {
-            throw new NullPointerException("Graphics device is null");
-        }
-        int startIndex = findElementIndexInArray(graphicsDevice, graphicsDevices);
-        if (startIndex == NOT_FOUND) {
-            return getNullGraphicsDevice();
-        }
-        GraphicsDevice foundDevice = findNotNullGraphicsDevice(startIndex - 1, NULL_GRAPHICS_DEVICE_INDEX, SearchDirection.BACKWARD);
-        if (foundDevice == null) {
-            foundDevice = findNotNullGraphicsDevice(startIndex + 1, graphicsDevices.length, SearchDirection.FORWARD);
-        }
-        return foundDevice == null ? getNullGraphicsDevice() : foundDevice;
+        return getDeviceTable().getGraphicsDevicePrevTo(graphicsDevice);
     }
 
     private static <T> int findElementIndexInArray(T element, T[] array) {
@@ -258,31 +218,6 @@ public final class GraphicsEngineImpl implements GraphicsEngine {
         return NOT_FOUND;
     }
 
-    private GraphicsDevice findNotNullGraphicsDevice(int startIndexInclusive, int endIndexNotInclusive, SearchDirection direction) {
-        switch (direction) {
-            case FORWARD:
-                for (int i = startIndexInclusive; i < endIndexNotInclusive; i++) {
-                    GraphicsDevice graphicsDevice = graphicsDevices[i];
-                    if (graphicsDevice != null) {
-                        return graphicsDevice;
-                    }
-                }
-                break;
-            case BACKWARD:
-                for (int i = startIndexInclusive; i > endIndexNotInclusive; i--) {
-                    GraphicsDevice graphicsDevice = graphicsDevices[i];
-                    if (graphicsDevice != null) {
-                        return graphicsDevice;
-                    }
-                }
-        }
-        return getNullGraphicsDevice();
-    }
-
-    private GraphicsDevice getNullGraphicsDevice() {
-        return graphicsDevices[NULL_GRAPHICS_DEVICE_INDEX];
-    }
-
     @Override
     public void setCurrentGraphicsDeviceClipRect(double x1, double y1, double x2, double y2) {
         // todo transcribe from GESetClip() (engine.c)
@@ -296,10 +231,10 @@ public final class GraphicsEngineImpl implements GraphicsEngine {
 
     @Override
     public void killGraphicsDeviceByIndex(int graphicsDeviceIndex) {
-        // todo TBD
+        getDeviceTable().kill(graphicsDeviceIndex);
     }
 
-    private final class CurrentGraphicsDevice {
+    private static final class CurrentGraphicsDevice {
         private final GraphicsDevice graphicsDevice;
         private final int graphicsDeviceIndex;
 
@@ -309,6 +244,170 @@ public final class GraphicsEngineImpl implements GraphicsEngine {
         }
     }
 
+    /**
+     * The devices of one context.
+     */
+    private final class DeviceTable {
+        /**
+         * According to GNUR devices.c: 0 - null device, 63 - empty.
+         */
+        private final GraphicsDevice[] graphicsDevices = new GraphicsDevice[MAX_GRAPHICS_DEVICES_AMOUNT];
+        private int devicesAmountWithoutNullDevice = 0;
+        private CurrentGraphicsDevice currentGraphicsDevice;
+
+        /**
+         * According to GNUR 0 index is for the Null graphics device.
+         */
+        DeviceTable() {
+            graphicsDevices[NULL_GRAPHICS_DEVICE_INDEX] = NullGraphicsDevice.getInstance();
+            currentGraphicsDevice = new CurrentGraphicsDevice(NullGraphicsDevice.getInstance(), NULL_GRAPHICS_DEVICE_INDEX);
+        }
+
+        synchronized void register(GraphicsDevice newGraphicsDevice) throws Exception {
+            if (newGraphicsDevice == null) {
+                throw new NullPointerException("Graphics device to register is null");
+            }
+            if (devicesAmountWithoutNullDevice != 0) {
+                currentGraphicsDevice.graphicsDevice.deactivate();
+            }
+            int index = findElementIndexInArray(NULL_GRAPHICS_DEVICE_INDEX + 1, LAST_GRAPHICS_DEVICE_INDEX, null, graphicsDevices);
+            if (index == NOT_FOUND) {
+                throw handleErrorAndMakeException("too many open devices");
+            }
+            graphicsDevices[index] = newGraphicsDevice;
+            devicesAmountWithoutNullDevice++;
+            currentGraphicsDevice = new CurrentGraphicsDevice(newGraphicsDevice, index);
+            notifyEachGraphicsSystem(newGraphicsDevice, GE_INIT_STATE);
+            newGraphicsDevice.activate();
+            updateDotDevices();
+        }
+
+        synchronized void unRegister(GraphicsDevice deviceToUnregister) {
+            if (deviceToUnregister == null) {
+                throw new NullPointerException("Graphics device to unregister is null");
+            }
+            int index = findElementIndexInArray(deviceToUnregister, graphicsDevices);
+            if (index == NOT_FOUND) {
+                issueWarning("no graphics device to unregister");
+                return;
+            }
+            GraphicsDevice nextGraphicsDevice = getGraphicsDeviceNextTo(deviceToUnregister);
+            graphicsDevices[index] = null;
+            devicesAmountWithoutNullDevice--;
+            int nextIndex = findElementIndexInArray(nextGraphicsDevice, graphicsDevices);
+            currentGraphicsDevice = new CurrentGraphicsDevice(nextGraphicsDevice, nextIndex);
+            updateDotDevices();
+            try {
+                // the table is already consistent if closing fails, e.g. writing a file device
+                deviceToUnregister.close();
+            } finally {
+                if (nextIndex != NULL_GRAPHICS_DEVICE_INDEX) {
+                    nextGraphicsDevice.activate();
+                }
+            }
+            // todo Interesting that in GNUR a GraphicsSystem is not notified when a GraphicsDevice
+            // is killed
+        }
+
+        synchronized void kill(int index) {
+            if (index > NULL_GRAPHICS_DEVICE_INDEX && index < MAX_GRAPHICS_DEVICES_AMOUNT && graphicsDevices[index] != null) {
+                unRegister(graphicsDevices[index]);
+            }
+        }
+
+        synchronized void callListenerForEachDevice(AbstractGraphicsSystem.GraphicsEventsListener listener, GraphicsEvent event) {
+            for (int i = NULL_GRAPHICS_DEVICE_INDEX + 1; i < LAST_GRAPHICS_DEVICE_INDEX; i++) {
+                GraphicsDevice graphicsDevice = graphicsDevices[i];
+                if (graphicsDevice != null) {
+                    listener.onEvent(event, graphicsDevice);
+                }
+            }
+        }
+
+        /**
+         * Mirrors the table in the '.Devices' and '.Device' variables of the base environment, the
+         * R level device functions (e.g. {@code dev.cur}) look up the device names there.
+         */
+        private void updateDotDevices() {
+            int last = NULL_GRAPHICS_DEVICE_INDEX;
+            for (int i = NULL_GRAPHICS_DEVICE_INDEX; i < MAX_GRAPHICS_DEVICES_AMOUNT; i++) {
+                if (graphicsDevices[i] != null) {
+                    last = i;
+                }
+            }
+            Object devices = RNull.instance;
+            for (int i = last; i >= NULL_GRAPHICS_DEVICE_INDEX; i--) {
+                devices = RDataFactory.createPairList(RDataFactory.createStringVectorFromScalar(getDeviceName(graphicsDevices[i])), devices);
+            }
+            REnvironment baseEnv = REnvironment.baseEnv();
+            baseEnv.safePut(DOT_DEVICES, devices);
+            baseEnv.safePut(DOT_DEVICE, RDataFactory.createStringVectorFromScalar(getDeviceName(currentGraphicsDevice.graphicsDevice)));
+        }
+
+        private static String getDeviceName(GraphicsDevice graphicsDevice) {
+            return graphicsDevice == null ? "" : graphicsDevice.getName();
+        }
+
+        boolean isNullDeviceIsCurrent() {
+            return currentGraphicsDevice.graphicsDevice == graphicsDevices[NULL_GRAPHICS_DEVICE_INDEX];
+        }
+
+        synchronized GraphicsDevice getGraphicsDeviceNextTo(GraphicsDevice graphicsDevice) {
+            if (graphicsDevice == null) {
+                throw new NullPointerException("Graphics device is null");
+            }
+            int startIndex = findElementIndexInArray(graphicsDevice, graphicsDevices);
+            if (startIndex == NOT_FOUND) {
+                return getNullGraphicsDevice();
+            }
+            GraphicsDevice foundDevice = findNotNullGraphicsDevice(startIndex + 1, graphicsDevices.length, SearchDirection.FORWARD);
+            if (foundDevice == null) {
+                foundDevice = findNotNullGraphicsDevice(startIndex - 1, NULL_GRAPHICS_DEVICE_INDEX, SearchDirection.BACKWARD);
+            }
+            return foundDevice == null ? getNullGraphicsDevice() : foundDevice;
+        }
+
+        synchronized GraphicsDevice getGraphicsDevicePrevTo(GraphicsDevice graphicsDevice) {
+            if (graphicsDevice == null) {
+                throw new NullPointerException("Graphics device is null");
+            }
+            int startIndex = findElementIndexInArray(graphicsDevice, graphicsDevices);
+            if (startIndex == NOT_FOUND) {
+                return getNullGraphicsDevice();
+            }
+            GraphicsDevice foundDevice = findNotNullGraphicsDevice(startIndex - 1, NULL_GRAPHICS_DEVICE_INDEX, SearchDirection.BACKWARD);
+            if (foundDevice == null) {
+                foundDevice = findNotNullGraphicsDevice(startIndex + 1, graphicsDevices.length, SearchDirection.FORWARD);
+            }
+            return foundDevice == null ? getNullGraphicsDevice() : foundDevice;
+        }
+
+        private GraphicsDevice findNotNullGraphicsDevice(int startIndexInclusive, int endIndexNotInclusive, SearchDirection direction) {
+            switch (direction) {
+                case FORWARD:
+                    for (int i = startIndexInclusive; i < endIndexNotInclusive; i++) {
+                        GraphicsDevice graphicsDevice = graphicsDevices[i];
+                        if (graphicsDevice != null) {
+                            return graphicsDevice;
+                        }
+                    }
+                    break;
+                case BACKWARD:
+                    for (int i = startIndexInclusive; i > endIndexNotInclusive; i--) {
+                        GraphicsDevice graphicsDevice = graphicsDevices[i];
+                        if (graphicsDevice != null) {
+                            return graphicsDevice;
+                        }
+                    }
+            }
+            return getNullGraphicsDevice();
+        }
+
+        private GraphicsDevice getNullGraphicsDevice() {
+            return graphicsDevices[NULL_GRAPHICS_DEVICE_INDEX];
+        }
+    }
+
     private enum SearchDirection {
         FORWARD,
         BACKWARD
@@ -91,18 +91,51 @@ public class MethodsListDispatch {
 
     public abstract static class R_getClassFromCache extends RExternalBuiltinNode.Arg2 {
 
+        protected static final int CACHE_LIMIT = 8;
+
         protected AttributeAccess createPckgAttrAccess() {
             return AttributeAccessNodeGen.create(RRuntime.PCKG_ATTR_KEY);
         }
 
-        @Specialization
+        protected static String getClassName(RAbstractStringVector klass) {
+            return klass.getLength() == 0 ? RRuntime.STRING_NA : klass.getDataAt(0);
+        }
+
+        protected static boolean sameClassName(RAbstractStringVector klass, String cachedName) {
+            String name = getClassName(klass);
+            return name == cachedName || name.equals(cachedName);
+        }
+
+        protected static LocalReadVariableNode createTableRead(String name) {
+            return LocalReadVariableNode.create(name, false);
+        }
+
+        /**
+         * Looks up the class definition in the frame of the class table directly, which avoids
+         * hashing the class name and crossing a boundary for the few classes seen at a call site.
+         */
+        @SuppressWarnings("unused")
+        @Specialization(limit = "CACHE_LIMIT", guards = {"table == cachedTable", "sameClassName(klass, cachedName)"})
+        protected Object getClassFromCacheCached(RAbstractStringVector klass, REnvironment table, //
+                        @Cached("table") REnvironment cachedTable, //
+                        @Cached("getClassName(klass)") String cachedName, //
+                        @Cached("createTableRead(cachedName)") LocalReadVariableNode tableRead, //
+                        @Cached("createPckgAttrAccess()") AttributeAccess klassPckgAttrAccess, //
+                        @Cached("createPckgAttrAccess()") AttributeAccess valPckgAttrAccess) {
+            Object value = tableRead.execute(null, cachedTable.getFrame());
+            return checkPackage(klass, value, klassPckgAttrAccess, valPckgAttrAccess);
+        }
+
+        @Specialization(contains = "getClassFromCacheCached")
         @TruffleBoundary
         protected Object callGetClassFromCache(RAbstractStringVector klass, REnvironment table, //
                         @Cached("createPckgAttrAccess()") AttributeAccess klassPckgAttrAccess, //
                         @Cached("createPckgAttrAccess()") AttributeAccess valPckgAttrAccess) {
-            String klassString = klass.getLength() == 0 ? RRuntime.STRING_NA : klass.getDataAt(0);
+            Object value = table.get(getClassName(klass));
+            return checkPackage(klass, value, klassPckgAttrAccess, valPckgAttrAccess);
+        }
 
-            Object value = table.get(klassString);
+        private static Object checkPackage(RAbstractStringVector klass, Object value, AttributeAccess klassPckgAttrAccess, AttributeAccess valPckgAttrAccess) {
             if (value == null) {
                 return RNull.instance;
             } else {
@@ -15,14 +15,13 @@ import java.util.Arrays;
 
 import com.oracle.truffle.api.profiles.BranchProfile;
 import com.oracle.truffle.api.profiles.ConditionProfile;
-import com.oracle.truffle.api.profiles.LoopConditionProfile;
 import com.oracle.truffle.r.nodes.builtin.RExternalBuiltinNode;
 import com.oracle.truffle.r.runtime.RError;
+import com.oracle.truffle.r.runtime.RParallel;
 import com.oracle.truffle.r.runtime.RRuntime;
 import com.oracle.truffle.r.runtime.data.RArgsValuesAndNames;
 import com.oracle.truffle.r.runtime.data.RDataFactory;
 import com.oracle.truffle.r.runtime.data.RDoubleVector;
-import com.oracle.truffle.r.runtime.data.RIntVector;
 import com.oracle.truffle.r.runtime.data.RNull;
 import com.oracle.truffle.r.runtime.data.model.RAbstractDoubleVector;
 import com.oracle.truffle.r.runtime.data.model.RAbstractIntVector;
@@ -31,9 +30,20 @@ import com.oracle.truffle.r.runtime.ops.na.NACheck;
 
 /*
  * Logic derived from GNU-R, library/stats/src/cov.c
+ *
+ * The pearson sums of products are computed as a blocked crossproduct of the centered columns, and
+ * the crossproduct, Kendall's tau and the pairwise-complete statistics are computed in parallel
+ * over the columns of x (see RParallel). Every sum is accumulated in the same order as in GNU R, so
+ * the results do not depend on the blocking or on the number of threads.
  */
 public final class Covcor extends RExternalBuiltinNode {
 
+    /**
+     * Number of columns of y, resp. observations, processed together in the crossproduct.
+     */
+    private static final int COLUMN_BLOCK = 64;
+    private static final int OBSERVATION_BLOCK = 512;
+
     private final boolean isCor;
 
     public Covcor(boolean isCor) {
@@ -50,17 +60,12 @@ public final class Covcor extends RExternalBuiltinNode {
         RAbstractDoubleVector x = (RAbstractDoubleVector) argValues[0];
         RAbstractDoubleVector y = argValues[1] == RNull.instance ? null : (RAbstractDoubleVector) argValues[1];
         int method = ((RAbstractIntVector) argValues[2]).getDataAt(0);
-        if (method != 4) {
-            throw RError.nyi(this, "method");
-        }
         boolean iskendall = RRuntime.fromLogical(castLogical(castVector(argValues[3])));
         return corcov(x.materialize(), y != null ? y.materialize() : null, method, iskendall, this);
     }
 
     private final NACheck check = NACheck.create();
 
-    private final ConditionProfile noNAXProfile = ConditionProfile.createBinaryProfile();
-    private final ConditionProfile noNAYProfile = ConditionProfile.createBinaryProfile();
     private final ConditionProfile xCompleteProfile = ConditionProfile.createBinaryProfile();
     private final ConditionProfile yCompleteProfile = ConditionProfile.createBinaryProfile();
     private final ConditionProfile bothZeroProfile = ConditionProfile.createBinaryProfile();
@@ -69,14 +74,13 @@ public final class Covcor extends RExternalBuiltinNode {
     private final BranchProfile error = BranchProfile.create();
     private final BranchProfile warning = BranchProfile.create();
 
-    private final LoopConditionProfile loopLength = LoopConditionProfile.createCountingProfile();
-
-    public RDoubleVector corcov(RDoubleVector x, RDoubleVector y, @SuppressWarnings("unused") int method, boolean iskendall, RBaseNode invokingNode) throws RError {
+    public RDoubleVector corcov(RDoubleVector x, RDoubleVector y, int method, boolean iskendall, RBaseNode invokingNode) throws RError {
         boolean ansmat;
-        boolean naFail;
-        boolean everything;
+        boolean naFail = false;
+        boolean everything = false;
+        boolean pairwise = false;
+        boolean emptyErr = true;
         boolean sd0;
-        boolean emptyErr;
         int n;
         int ncx;
         int ncy;
@@ -95,54 +99,78 @@ public final class Covcor extends RExternalBuiltinNode {
         } else if (y.isMatrix()) {
             if (nrows(y) != n) {
                 error.enter();
-                error("incompatible dimensions");
+                throw RError.error(this, RError.Message.INCOMPATIBLE_DIMENSIONS);
             }
             ncy = ncols(y);
             ansmat = true;
         } else {
             if (y.getLength() != n) {
                 error.enter();
-                error("incompatible dimensions");
+                throw RError.error(this, RError.Message.INCOMPATIBLE_DIMENSIONS);
             }
             ncy = 1;
         }
 
-        // TODO adopt full use semantics
-
-        /* "default: complete" (easier for -Wall) */
-        naFail = false;
-        everything = false;
-        emptyErr = true;
-
-        // case 4: /* "everything": NAs are propagated */
-        everything = true;
-        emptyErr = false;
+        switch (method) {
+            case 1: /* use all : no NAs */
+                naFail = true;
+                break;
+            case 2: /* complete */
+                /* did na.omit in R */
+                if (x.getLength() == 0) {
+                    error.enter();
+                    throw RError.error(this, RError.Message.NO_COMPLETE_ELEMENT_PAIRS);
+                }
+                break;
+            case 3: /* pairwise.complete */
+                pairwise = true;
+                break;
+            case 4: /* "everything": NAs are propagated */
+                everything = true;
+                emptyErr = false;
+                break;
+            case 5: /* "na.or.complete": NAs are propagated */
+                emptyErr = false;
+                break;
+            default:
+                error.enter();
+                throw RError.error(this, RError.Message.INVALID_USE_METHOD);
+        }
 
         if (emptyErr && x.getLength() == 0) {
             error.enter();
-            error("'x' is empty");
+            throw RError.error(this, RError.Message.IS_EMPTY, "x");
         }
 
         double[] answerData = new double[ncx * ncy];
-
-        double[] xm = new double[ncx];
-        if (y == null) {
-            if (everything) {
-                sd0 = covNA1(n, ncx, x, xm, answerData, isCor, iskendall);
-            } else {
-                RIntVector ind = RDataFactory.createIntVector(n);
-                complete1(n, ncx, x, ind, naFail);
-                sd0 = covComplete1(n, ncx, x, xm, ind, answerData, isCor, iskendall);
+        double[] xData = x.getDataWithoutCopying();
+        double[] yData = y == null ? null : y.getDataWithoutCopying();
+
+        if (everything) {
+            sd0 = covNA(n, ncx, ncy, xData, yData, x.isComplete(), y == null || y.isComplete(), answerData, isCor, iskendall);
+        } else if (!pairwise) {
+            /* all | complete: only the observations without NAs are used */
+            boolean[] complete = new boolean[n];
+            Arrays.fill(complete, true);
+            markIncomplete(n, ncx, xData, complete, naFail);
+            if (yData != null) {
+                markIncomplete(n, ncy, yData, complete, naFail);
+            }
+            int nobs = 0;
+            for (int k = 0; k < n; k++) {
+                if (complete[k]) {
+                    nobs++;
+                }
             }
-        } else {
-            double[] ym = new double[ncy];
-            if (everything) {
-                sd0 = covNA2(n, ncx, ncy, x, y, xm, ym, answerData, isCor, iskendall);
-            } else {
-                RIntVector ind = RDataFactory.createIntVector(n);
-                complete2(n, ncx, ncy, x, y, ind, naFail);
-                sd0 = covComplete2(n, ncx, ncy, x, y, xm, ym, ind, answerData, isCor, iskendall);
+            if (emptyErr && nobs == 0) {
+                error.enter();
+                throw RError.error(this, RError.Message.NO_COMPLETE_ELEMENT_PAIRS);
             }
+            double[] xComplete = compact(n, ncx, xData, complete, nobs);
+            double[] yComplete = yData == null ? null : compact(n, ncy, yData, complete, nobs);
+            sd0 = covNA(nobs, ncx, ncy, xComplete, yComplete, true, true, answerData, isCor, iskendall);
+        } else {
+            sd0 = covPairwise(n, ncx, ncy, xData, yData, answerData, isCor, iskendall);
         }
 
         if (sd0) { /* only in cor() */
@@ -178,359 +206,352 @@ public final class Covcor extends RExternalBuiltinNode {
         return x.getDimensions()[0];
     }
 
-    private void complete1(int n, int ncx, RDoubleVector x, RIntVector ind, boolean naFail) {
-        int i;
-        int j;
-        for (i = 0; i < n; i++) {
-            ind.updateDataAt(i, 1, check);
-        }
-        for (j = 0; j < ncx; j++) {
-            // z = &x[j * n];
-            for (i = 0; i < n; i++) {
-                if (Double.isNaN(x.getDataAt(j * n + i))) {
+    private void markIncomplete(int n, int nc, double[] data, boolean[] complete, boolean naFail) {
+        for (int j = 0; j < nc; j++) {
+            int offset = j * n;
+            for (int i = 0; i < n; i++) {
+                if (Double.isNaN(data[offset + i])) {
                     if (naFail) {
-                        error("missing observations in cov/cor");
+                        error.enter();
+                        throw RError.error(this, RError.Message.MISSING_OBSERVATIONS_COV);
                     } else {
-                        ind.updateDataAt(i, 0, check);
+                        complete[i] = false;
                     }
                 }
             }
         }
     }
 
-    private void complete2(int n, int ncx, int ncy, RDoubleVector x, RDoubleVector y, RIntVector ind, boolean naFail) {
-        int i;
-        int j;
-        for (i = 0; i < n; i++) {
-            ind.updateDataAt(i, 1, check);
+    /**
+     * Returns the columns of {@code data} restricted to the complete observations.
+     */
+    private static double[] compact(int n, int nc, double[] data, boolean[] complete, int nobs) {
+        if (nobs == n) {
+            return data;
         }
-        for (j = 0; j < ncx; j++) {
-            // z = &x[j * n];
-            for (i = 0; i < n; i++) {
-                if (Double.isNaN(x.getDataAt(j * n + i))) {
-                    if (naFail) {
-                        error("missing observations in cov/cor");
-                    } else {
-                        ind.updateDataAt(i, 0, check);
-                    }
+        double[] result = new double[nobs * nc];
+        int pos = 0;
+        for (int j = 0; j < nc; j++) {
+            int offset = j * n;
+            for (int i = 0; i < n; i++) {
+                if (complete[i]) {
+                    result[pos++] = data[offset + i];
                 }
             }
         }
+        return result;
+    }
 
-        for (j = 0; j < ncy; j++) {
-            // z = &y[j * n];
-            for (i = 0; i < n; i++) {
-                if (Double.isNaN(y.getDataAt(j * n + i))) {
-                    if (naFail) {
-                        error("missing observations in cov/cor");
-                    } else {
-                        ind.updateDataAt(i, 0, check);
-                    }
+    private static boolean[] findNAs(int n, int nc, double[] data) {
+        boolean[] hasNA = new boolean[nc];
+        for (int j = 0; j < nc; j++) {
+            for (int i = 0; i < n; i++) {
+                if (Double.isNaN(data[j * n + i])) {
+                    hasNA[j] = true;
+                    break;
                 }
             }
         }
+        return hasNA;
     }
 
-    private static boolean covComplete1(int n, int ncx, RDoubleVector x, double[] xm, RIntVector indInput, double[] ans, boolean cor, boolean kendall) {
+    /**
+     * Covariance/correlation with NAs propagated (GNU R's {@code cov_na_1} and {@code cov_na_2}).
+     * If {@code y} is {@code null}, the (symmetric) result for x with itself is computed.
+     */
+    private boolean covNA(int n, int ncx, int ncy, double[] x, double[] y, boolean xComplete, boolean yComplete, double[] ans, boolean cor, boolean iskendall) {
+        boolean symmetric = y == null;
         int n1 = -1;
-        int nobs;
-        boolean isSd0 = false;
+        boolean sd0 = false;
 
-        /* total number of complete observations */
-        nobs = 0;
-        for (int k = 0; k < n; k++) {
-            if (indInput.getDataAt(k) != 0) {
-                nobs++;
-            }
-        }
-        if (nobs <= 1) { /* too many missing */
-            for (int i = 0; i < ans.length; i++) {
-                ans[i] = RRuntime.DOUBLE_NA;
-            }
-            return isSd0;
-        }
+        boolean[] hasNAx = findNAs(n, ncx, x);
+        boolean[] hasNAy = symmetric ? hasNAx : findNAs(n, ncy, y);
 
-        RIntVector ind = indInput;
-        if (nobs == ind.getLength()) {
-            // No values of ind are zeroed.
-            ind = null;
+        if (n <= 1) { /* too many missing */
+            tooManyMissing.enter();
+            Arrays.fill(ans, RRuntime.DOUBLE_NA);
+            return sd0;
         }
 
-        if (!kendall) {
-            mean(x, xm, ind, n, ncx, nobs);
-            n1 = nobs - 1;
+        double[] xm = new double[ncx];
+        double[] ym = symmetric ? xm : new double[ncy];
+        if (!iskendall) {
+            if (xCompleteProfile.profile(xComplete)) {
+                meanNoNA(n, ncx, x, xm, hasNAx);
+            } else {
+                mean(n, ncx, x, xm, hasNAx);
+            }
+            if (!symmetric) {
+                if (yCompleteProfile.profile(yComplete)) {
+                    meanNoNA(n, ncy, y, ym, hasNAy);
+                } else {
+                    mean(n, ncy, y, ym, hasNAy);
+                }
+            }
+            n1 = n - 1;
+            double[] xc = center(n, ncx, x, xm, hasNAx);
+            double[] yc = symmetric ? xc : center(n, ncy, y, ym, hasNAy);
+            crossprod(n, ncx, ncy, xc, yc, hasNAx, hasNAy, symmetric, ans);
+        } else { /* Kendall's tau */
+            kendall(n, ncx, ncy, x, symmetric ? x : y, hasNAx, hasNAy, symmetric, ans);
         }
+
         for (int i = 0; i < ncx; i++) {
-            if (!kendall) {
-                double xxm = xm[i];
-                for (int j = 0; j <= i; j++) {
-                    double yym = xm[j];
-                    double sum = 0.0;
-                    for (int k = 0; k < n; k++) {
-                        if (ind == null || ind.getDataAt(k) != 0) {
-                            sum += (x.getDataAt(i * n + k) - xxm) * (x.getDataAt(j * n + k) - yym);
-                        }
-                    }
-                    double r = sum / n1;
-                    ans[i + j * ncx] = r;
+            int jEnd = symmetric ? i + 1 : ncy;
+            for (int j = 0; j < jEnd; j++) {
+                double r;
+                if (hasNAx[i] || hasNAy[j]) {
+                    r = RRuntime.DOUBLE_NA;
+                } else if (iskendall) {
+                    r = ans[i + j * ncx];
+                } else if (checkNAs(xm[i], ym[j])) {
+                    r = RRuntime.DOUBLE_NA;
+                } else {
+                    double sum = ans[i + j * ncx];
+                    r = checkNAs(sum) ? RRuntime.DOUBLE_NA : sum / n1;
+                }
+                ans[i + j * ncx] = r;
+                if (symmetric) {
                     ans[j + i * ncx] = r;
                 }
-            } else { /* Kendall's tau */
-                throw new UnsupportedOperationException("kendall's unsupported");
             }
         }
 
         if (cor) {
-            for (int i = 0; i < ncx; i++) {
-                xm[i] = Math.sqrt(ans[i + i * ncx]);
-            }
-            for (int i = 0; i < ncx; i++) {
-                for (int j = 0; j < i; j++) {
-                    if (xm[i] == 0 || xm[j] == 0) {
-                        isSd0 = true;
-                        ans[i + j * ncx] = RRuntime.DOUBLE_NA;
-                        ans[j + i * ncx] = RRuntime.DOUBLE_NA;
-                    } else {
-                        double sum = ans[i + j * ncx] / (xm[i] * xm[j]);
-                        if (sum > 1.0) {
-                            sum = 1.0;
+            if (symmetric) {
+                for (int i = 0; i < ncx; i++) {
+                    if (!hasNAx[i]) {
+                        double u = ans[i + i * ncx];
+                        xm[i] = checkNAs(u) ? RRuntime.DOUBLE_NA : Math.sqrt(u);
+                    }
+                }
+                for (int i = 0; i < ncx; i++) {
+                    if (!hasNAx[i]) {
+                        for (int j = 0; j < i; j++) {
+                            if (bothZeroProfile.profile(xm[i] == 0 || xm[j] == 0)) {
+                                sd0 = true;
+                                ans[j + i * ncx] = RRuntime.DOUBLE_NA;
+                                ans[i + j * ncx] = RRuntime.DOUBLE_NA;
+                            } else {
+                                double u = ans[i + j * ncx];
+                                double v = xm[i];
+                                double w = xm[j];
+                                double sum = checkNAs(u, v, w) ? RRuntime.DOUBLE_NA : u / (v * w);
+                                if (sum > 1.0) {
+                                    sum = 1.0;
+                                }
+                                ans[j + i * ncx] = sum;
+                                ans[i + j * ncx] = sum;
+                            }
+                        }
+                    }
+                    ans[i + i * ncx] = 1.0;
+                }
+            } else {
+                covsdev(n, n1, ncx, x, hasNAx, xm, iskendall);
+                covsdev(n, n1, ncy, y, hasNAy, ym, iskendall);
+
+                for (int i = 0; i < ncx; i++) {
+                    if (!hasNAx[i]) {
+                        for (int j = 0; j < ncy; j++) {
+                            if (!hasNAy[j]) {
+                                if (xm[i] == 0.0 || ym[j] == 0.0) {
+                                    sd0 = true;
+                                    ans[i + j * ncx] = RRuntime.DOUBLE_NA;
+                                } else {
+                                    double u = xm[i];
+                                    double v = ym[j];
+                                    if (checkNAs(u, v)) {
+                                        ans[i + j * ncx] = RRuntime.DOUBLE_NA;
+                                    } else {
+                                        ans[i + j * ncx] /= u * v;
+                                    }
+                                    if (ans[i + j * ncx] > 1.0) {
+                                        ans[i + j * ncx] = 1.0;
+                                    }
+                                }
+                            }
                         }
-                        ans[i + j * ncx] = sum;
-                        ans[j + i * ncx] = sum;
                     }
                 }
-                ans[i + i * ncx] = 1.0;
             }
         }
 
-        return isSd0;
+        return sd0;
     }
 
-    private static boolean covComplete2(int n, int ncx, int ncy, RDoubleVector x, RDoubleVector y, double[] xm, double[] ym, RIntVector indInput, double[] ans, boolean cor, boolean kendall) {
-        int n1 = -1;
-        int nobs;
-        boolean isSd0 = false;
-
-        /* total number of complete observations */
-        nobs = 0;
-        for (int k = 0; k < n; k++) {
-            if (indInput.getDataAt(k) != 0) {
-                nobs++;
-            }
-        }
-        if (nobs <= 1) { /* too many missing */
-            for (int i = 0; i < ans.length; i++) {
-                ans[i] = RRuntime.DOUBLE_NA;
-            }
-            return isSd0;
-        }
-
-        RIntVector ind = indInput;
-        if (nobs == ind.getLength()) {
-            // No values of ind are zeroed.
-            ind = null;
-        }
-
-        if (!kendall) {
-            mean(x, xm, ind, n, ncx, nobs);
-            mean(y, ym, ind, n, ncy, nobs);
-            n1 = nobs - 1;
-        }
-        for (int i = 0; i < ncx; i++) {
-            if (!kendall) {
-                double xxm = xm[i];
-                for (int j = 0; j < ncy; j++) {
-                    double yym = ym[j];
-                    double sum = 0;
-                    for (int k = 0; k < n; k++) {
-                        if (ind == null || ind.getDataAt(k) != 0) {
-                            sum += (x.getDataAt(i * n + k) - xxm) * (y.getDataAt(j * n + k) - yym);
-                        }
-                    }
-                    ans[i + j * ncx] = (sum / n1);
+    private static double[] center(int n, int nc, double[] data, double[] means, boolean[] hasNA) {
+        double[] result = new double[n * nc];
+        for (int i = 0; i < nc; i++) {
+            if (!hasNA[i] && !RRuntime.isNA(means[i])) {
+                double m = means[i];
+                int offset = i * n;
+                for (int k = 0; k < n; k++) {
+                    result[offset + k] = data[offset + k] - m;
                 }
-            } else { /* Kendall's tau */
-                throw new UnsupportedOperationException("kendall's unsupported");
             }
         }
+        return result;
+    }
 
-        if (cor) {
-            covsdev(x, xm, ind, n, ncx, n1, kendall); /* -> xm[.] */
-            covsdev(y, ym, ind, n, ncy, n1, kendall); /* -> ym[.] */
-
-            for (int i = 0; i < ncx; i++) {
-                for (int j = 0; j < ncy; j++) {
-                    double divisor = (xm[i] * ym[j]);
-                    if (divisor == 0.0) {
-                        isSd0 = true;
-                        ans[i + j * ncx] = RRuntime.DOUBLE_NA;
-                    } else {
-                        double value = ans[i + j * ncx] / divisor;
-                        if (value > 1) {
-                            value = 1;
+    /**
+     * Computes the sums of products of the centered columns {@code xc[i]} and {@code yc[j]} (only
+     * {@code j <= i} if {@code symmetric}) into {@code ans[i + j * ncx]}. The loops are blocked over
+     * the columns of y and over the observations, and every sum is still accumulated in the order
+     * of the observations.
+     */
+    private static void crossprod(int n, int ncx, int ncy, double[] xc, double[] yc, boolean[] hasNAx, boolean[] hasNAy, boolean symmetric, double[] ans) {
+        RParallel.forEach(ncx, (long) n * ncy, (from, to) -> {
+            for (int jBlock = 0; jBlock < ncy; jBlock += COLUMN_BLOCK) {
+                int jBlockEnd = Math.min(ncy, jBlock + COLUMN_BLOCK);
+                for (int kBlock = 0; kBlock < n; kBlock += OBSERVATION_BLOCK) {
+                    int kBlockEnd = Math.min(n, kBlock + OBSERVATION_BLOCK);
+                    for (int i = from; i < to; i++) {
+                        if (!hasNAx[i]) {
+                            int xOffset = i * n;
+                            int jEnd = symmetric ? Math.min(jBlockEnd, i + 1) : jBlockEnd;
+                            for (int j = jBlock; j < jEnd; j++) {
+                                if (!hasNAy[j]) {
+                                    int yOffset = j * n;
+                                    double sum = ans[i + j * ncx];
+                                    for (int k = kBlock; k < kBlockEnd; k++) {
+                                        sum += xc[xOffset + k] * yc[yOffset + k];
+                                    }
+                                    ans[i + j * ncx] = sum;
+                                }
+                            }
                         }
-                        ans[i + j * ncx] = value;
                     }
                 }
             }
-        }
-        return isSd0;
+        });
     }
 
-    private static void covsdev(RDoubleVector vector, double[] vectorM, RIntVector ind, int n, int len, int n1, boolean kendall) {
-        for (int i = 0; i < len; i++) {
-            double sum = 0;
-            if (!kendall) {
-                double xxm = vectorM[i];
-                for (int k = 0; k < n; k++) {
-                    if (ind == null || ind.getDataAt(k) != 0) {
-                        double value = vector.getDataAt(i * n + k);
-                        sum += (value - xxm) * (value - xxm);
+    private static void kendall(int n, int ncx, int ncy, double[] x, double[] y, boolean[] hasNAx, boolean[] hasNAy, boolean symmetric, double[] ans) {
+        RParallel.forEach(ncx, (long) n * n * ncy, (from, to) -> {
+            for (int i = from; i < to; i++) {
+                if (!hasNAx[i]) {
+                    int xOffset = i * n;
+                    int jEnd = symmetric ? i + 1 : ncy;
+                    for (int j = 0; j < jEnd; j++) {
+                        if (!hasNAy[j]) {
+                            int yOffset = j * n;
+                            double sum = 0.0;
+                            for (int k = 0; k < n; k++) {
+                                for (int l = 0; l < n; l++) {
+                                    sum += Math.signum(x[xOffset + k] - x[xOffset + l]) * Math.signum(y[yOffset + k] - y[yOffset + l]);
+                                }
+                            }
+                            ans[i + j * ncx] = sum;
+                        }
                     }
                 }
-                sum /= n1;
-            } else { /* Kendall's tau */
-                throw new UnsupportedOperationException("kendall's unsupported");
             }
-            vectorM[i] = Math.sqrt(sum);
-        }
+        });
     }
 
-    private static void mean(RDoubleVector vector, double[] vectorM, RIntVector ind, int n, int len, int nobs) {
-        /* variable means */
-        for (int i = 0; i < len; i++) {
-            double sum = 0.0;
-            for (int k = 0; k < n; k++) {
-                if (ind == null || ind.getDataAt(k) != 0) {
-                    sum += vector.getDataAt(i * n + k);
+    /**
+     * Covariance/correlation of each pair of columns over the observations that are complete for
+     * that pair (GNU R's {@code cov_pairwise1} and {@code cov_pairwise2}). No NA matrix is built,
+     * the completeness of each observation is tested while scanning the two columns.
+     */
+    private static boolean covPairwise(int n, int ncx, int ncy, double[] x, double[] y, double[] ans, boolean cor, boolean kendall) {
+        boolean symmetric = y == null;
+        double[] yData = symmetric ? x : y;
+        boolean[] sd0 = new boolean[ncx];
+        RParallel.forEach(ncx, (kendall ? (long) n * n : n) * ncy, (from, to) -> {
+            for (int i = from; i < to; i++) {
+                int jEnd = symmetric ? i + 1 : ncy;
+                for (int j = 0; j < jEnd; j++) {
+                    ans[i + j * ncx] = pairwise(n, x, i * n, yData, j * n, cor, kendall, sd0, i);
                 }
             }
-            double tmp = sum / nobs;
-            if (!Double.isInfinite(tmp)) {
-                sum = 0.0;
-                for (int k = 0; k < n; k++) {
-                    if (ind == null || ind.getDataAt(k) != 0) {
-                        sum += (vector.getDataAt(i * n + k) - tmp);
-                    }
+        });
+        if (symmetric) {
+            for (int i = 0; i < ncx; i++) {
+                for (int j = 0; j < i; j++) {
+                    ans[j + i * ncx] = ans[i + j * ncx];
                 }
-                tmp = tmp + sum / nobs;
             }
-            vectorM[i] = tmp;
         }
+        for (int i = 0; i < ncx; i++) {
+            if (sd0[i]) {
+                return true;
+            }
+        }
+        return false;
     }
 
-    private static boolean[] findNAs(int n, int nc, RDoubleVector v) {
-        boolean[] hasNA = new boolean[nc];
-        double[] data = v.getDataWithoutCopying();
-        for (int j = 0; j < nc; j++) {
-            for (int i = 0; i < n; i++) {
-                if (Double.isNaN(data[j * n + i])) {
-                    hasNA[j] = true;
-                    break;
+    private static double pairwise(int n, double[] x, int xOffset, double[] y, int yOffset, boolean cor, boolean kendall, boolean[] sd0, int sd0Index) {
+        int nobs = 0;
+        double xmean = 0.0;
+        double ymean = 0.0;
+        for (int k = 0; k < n; k++) {
+            if (!(Double.isNaN(x[xOffset + k]) || Double.isNaN(y[yOffset + k]))) {
+                nobs++;
+                if (!kendall) {
+                    xmean += x[xOffset + k];
+                    ymean += y[yOffset + k];
                 }
             }
         }
-        return hasNA;
-    }
-
-    private boolean covNA1(int n, int ncx, RDoubleVector x, double[] xm, double[] ans, boolean cor, boolean iskendall) {
-        double sum;
-        double xxm;
-        double yym;
-        int n1 = -1;
-        boolean sd0 = false;
-
-        double[] xData = x.getDataWithoutCopying();
-        boolean[] hasNAx = findNAs(n, ncx, x);
-
-        if (n <= 1) { /* too many missing */
-            tooManyMissing.enter();
-            Arrays.fill(ans, RRuntime.DOUBLE_NA);
-            return sd0;
+        if (nobs < 2) {
+            return RRuntime.DOUBLE_NA;
         }
-
-        if (!iskendall) {
-            if (xCompleteProfile.profile(x.isComplete())) {
-                meanNoNA(n, ncx, xData, xm, hasNAx);
-            } else {
-                mean(n, ncx, xData, xm, hasNAx);
-            }
-            n1 = n - 1;
+        double xsd = 0.0;
+        double ysd = 0.0;
+        double sum = 0.0;
+        int n1 = -1;
+        if (!kendall) {
+            xmean /= nobs;
+            ymean /= nobs;
+            n1 = nobs - 1;
         }
-
-        for (int i = 0; i < ncx; i++) {
-            double[] temp = new double[n];
-            if (noNAXProfile.profile(!hasNAx[i])) {
-                if (!iskendall) {
-                    xxm = xm[i];
-                    for (int j = 0; j <= i; j++) {
-                        double r;
-                        if (noNAXProfile.profile(!hasNAx[j])) {
-                            yym = xm[j];
-                            if (checkNAs(xxm, yym)) {
-                                r = RRuntime.DOUBLE_NA;
-                            } else {
-                                sum = 0.0;
-                                loopLength.profileCounted(n);
-                                for (int k = 0; loopLength.inject(k < n); k++) {
-                                    double u = xData[i * n + k];
-                                    double v = xData[j * n + k];
-                                    temp[k] = (u - xxm) * (v - yym);
-                                }
-                                for (int k = 0; loopLength.inject(k < n); k++) {
-                                    sum += temp[k];
-                                }
-                                r = checkNAs(sum) ? RRuntime.DOUBLE_NA : sum / n1;
+        for (int k = 0; k < n; k++) {
+            double xk = x[xOffset + k];
+            double yk = y[yOffset + k];
+            if (!(Double.isNaN(xk) || Double.isNaN(yk))) {
+                if (!kendall) {
+                    double xm = xk - xmean;
+                    double ym = yk - ymean;
+                    sum += xm * ym;
+                    if (cor) {
+                        xsd += xm * xm;
+                        ysd += ym * ym;
+                    }
+                } else { /* Kendall's tau */
+                    for (int l = 0; l < k; l++) {
+                        double xl = x[xOffset + l];
+                        double yl = y[yOffset + l];
+                        if (!(Double.isNaN(xl) || Double.isNaN(yl))) {
+                            double xm = Math.signum(xk - xl);
+                            double ym = Math.signum(yk - yl);
+                            sum += xm * ym;
+                            if (cor) {
+                                xsd += xm * xm;
+                                ysd += ym * ym;
                             }
-                        } else {
-                            r = RRuntime.DOUBLE_NA;
                         }
-                        ans[j + i * ncx] = r;
-                        ans[i + j * ncx] = r;
                     }
-                } else { /* Kendall's tau */
-                    throw new UnsupportedOperationException("kendall's unsupported");
-                }
-            } else {
-                for (int j = 0; j <= i; j++) {
-                    ans[j + i * ncx] = RRuntime.DOUBLE_NA;
-                    ans[i + j * ncx] = RRuntime.DOUBLE_NA;
                 }
             }
         }
-
         if (cor) {
-            for (int i = 0; i < ncx; i++) {
-                if (noNAXProfile.profile(!hasNAx[i])) {
-                    double u = ans[i + i * ncx];
-                    xm[i] = checkNAs(u) ? RRuntime.DOUBLE_NA : Math.sqrt(u);
-                }
+            if (xsd == 0.0 || ysd == 0.0) {
+                sd0[sd0Index] = true;
+                return RRuntime.DOUBLE_NA;
             }
-            for (int i = 0; i < ncx; i++) {
-                if (noNAXProfile.profile(!hasNAx[i])) {
-                    for (int j = 0; j < i; j++) {
-                        if (bothZeroProfile.profile(xm[i] == 0 || xm[j] == 0)) {
-                            sd0 = true;
-                            ans[j + i * ncx] = RRuntime.DOUBLE_NA;
-                            ans[i + j * ncx] = RRuntime.DOUBLE_NA;
-                        } else {
-                            double u = ans[i + j * ncx];
-                            double v = xm[i];
-                            double w = xm[j];
-                            sum = checkNAs(u, v, w) ? RRuntime.DOUBLE_NA : u / (v * w);
-                            if (sum > 1.0) {
-                                sum = 1.0;
-                            }
-                            ans[j + i * ncx] = sum;
-                            ans[i + j * ncx] = sum;
-                        }
-                    }
-                }
-                ans[i + i * ncx] = 1.0;
+            if (!kendall) {
+                xsd /= n1;
+                ysd /= n1;
+                sum /= n1;
             }
+            sum /= Math.sqrt(xsd) * Math.sqrt(ysd);
+            return sum > 1.0 ? 1.0 : sum;
+        } else if (!kendall) {
+            sum /= n1;
         }
-
-        return sd0;
+        return sum;
     }
 
     private static void meanNoNA(int n, int ncx, double[] x, double[] xm, boolean[] hasNA) {
@@ -599,109 +620,7 @@ public final class Covcor extends RExternalBuiltinNode {
         }
     }
 
-    private boolean covNA2(int n, int ncx, int ncy, RDoubleVector x, RDoubleVector y, double[] xm, double[] ym, double[] ans, boolean cor, boolean iskendall) {
-        double sum;
-        double xxm;
-        double yym;
-        int n1 = -1;
-        boolean sd0 = false;
-
-        double[] xData = x.getDataWithoutCopying();
-        double[] yData = y.getDataWithoutCopying();
-        boolean[] hasNAx = findNAs(n, ncx, x);
-        boolean[] hasNAy = findNAs(n, ncy, y);
-
-        if (n <= 1) { /* too many missing */
-            tooManyMissing.enter();
-            for (int i = 0; i < ncx; i++) {
-                for (int j = 0; j < ncy; j++) {
-                    ans[i + j * ncx] = RRuntime.DOUBLE_NA;
-                }
-            }
-            return sd0;
-        }
-
-        if (!iskendall) {
-            if (xCompleteProfile.profile(x.isComplete())) {
-                meanNoNA(n, ncx, xData, xm, hasNAx);
-            } else {
-                mean(n, ncx, xData, xm, hasNAx);
-            }
-            if (yCompleteProfile.profile(y.isComplete())) {
-                meanNoNA(n, ncy, yData, ym, hasNAy);
-            } else {
-                mean(n, ncy, yData, ym, hasNAy);
-            }
-            n1 = n - 1;
-        }
-
-        for (int i = 0; i < ncx; i++) {
-            if (noNAXProfile.profile(!hasNAx[i])) {
-                if (!iskendall) {
-                    xxm = xm[i];
-                    for (int j = 0; j < ncy; j++) {
-                        double r;
-                        if (noNAYProfile.profile(!hasNAy[j])) {
-                            yym = ym[j];
-                            if (checkNAs(xxm, yym)) {
-                                r = RRuntime.DOUBLE_NA;
-                            } else {
-                                sum = 0.0;
-                                for (int k = 0; k < n; k++) {
-                                    double u = xData[i * n + k];
-                                    double v = yData[j * n + k];
-                                    sum += (u - xxm) * (v - yym);
-                                }
-                                r = checkNAs(sum) ? RRuntime.DOUBLE_NA : sum / n1;
-                            }
-                        } else {
-                            r = RRuntime.DOUBLE_NA;
-                        }
-                        ans[i + j * ncx] = r;
-                    }
-                } else { /* Kendall's tau */
-                    throw new UnsupportedOperationException("kendall's unsupported");
-                }
-            } else {
-                for (int j = 0; j < ncy; j++) {
-                    ans[i + j * ncx] = RRuntime.DOUBLE_NA;
-                }
-            }
-        }
-
-        if (cor) {
-            covsdev(n, n1, ncx, x, hasNAx, xm, iskendall);
-            covsdev(n, n1, ncy, y, hasNAy, ym, iskendall);
-
-            for (int i = 0; i < ncx; i++) {
-                if (noNAXProfile.profile(!hasNAx[i])) {
-                    for (int j = 0; j < ncy; j++) {
-                        if (noNAYProfile.profile(!hasNAy[j])) {
-                            if (xm[i] == 0.0 || ym[j] == 0.0) {
-                                sd0 = true;
-                                ans[i + j * ncx] = RRuntime.DOUBLE_NA;
-                            } else {
-                                double u = xm[i];
-                                double v = ym[j];
-                                if (checkNAs(u, v)) {
-                                    ans[i + j * ncx] = RRuntime.DOUBLE_NA;
-                                } else {
-                                    ans[i + j * ncx] /= u * v;
-                                }
-                                if (ans[i + j * ncx] > 1.0) {
-                                    ans[i + j * ncx] = 1.0;
-                                }
-                            }
-                        }
-                    }
-                }
-            }
-        }
-
-        return sd0;
-    }
-
-    private void covsdev(int n, int n1, int ncx, RDoubleVector x, boolean[] hasNA, double[] xm, boolean iskendall) {
+    private void covsdev(int n, int n1, int ncx, double[] x, boolean[] hasNA, double[] xm, boolean iskendall) {
         for (int i = 0; i < ncx; i++) {
             if (!hasNA[i]) { /* Var(X[j]) */
                 double sum = 0.0;
@@ -711,31 +630,31 @@ public final class Covcor extends RExternalBuiltinNode {
                         sum = RRuntime.DOUBLE_NA;
                     } else {
                         for (int k = 0; k < n; k++) {
-                            double u = x.getDataAt(i * n + k);
-                            double v = x.getDataAt(i * n + k);
-                            if (checkNAs(u, v)) {
+                            double u = x[i * n + k];
+                            if (checkNAs(u)) {
                                 sum = RRuntime.DOUBLE_NA;
                                 break;
                             }
-                            sum += (u - xxm) * (v - xxm);
+                            sum += (u - xxm) * (u - xxm);
                         }
                     }
                     if (!checkNAs(sum)) {
                         sum /= n1;
                     }
                 } else { /* Kendall's tau */
-                    throw new UnsupportedOperationException("kendall's unsupported");
+                    for (int k = 0; k < n; k++) {
+                        for (int l = 0; l < n; l++) {
+                            if (x[i * n + k] != x[i * n + l]) {
+                                sum++; /* = sign(. - .)^2 */
+                            }
+                        }
+                    }
                 }
                 xm[i] = checkNAs(sum) ? RRuntime.DOUBLE_NA : Math.sqrt(sum);
             }
         }
     }
 
-    private static void error(String string) {
-        // TODO should be an R error
-        throw new UnsupportedOperationException("error: " + string);
-    }
-
     private boolean checkNAs(double... xs) {
         for (double x : xs) {
             check.enable(x);
@@ -48,11 +48,19 @@ public final class Dbinom implements StatsFunctions.Function3_1 {
             return DPQ.d0(giveLog);
         }
 
+        return dbinomInterior(x, n, GammaFunctions.stirlerr(n), n * p, n * q, giveLog);
+    }
+
+    /**
+     * The case {@code 0 < x < n}, {@code 0 < p < 1} of {@link #dbinomRaw}, with the terms that only
+     * depend on {@code n} and {@code p} supplied by the caller.
+     */
+    private static double dbinomInterior(double x, double n, double stirlerrN, double np, double nq, boolean giveLog) {
         /*
          * n*p or n*q can underflow to zero if n and p or q are small. This used to occur in dbeta,
          * and gives NaN as from R 2.3.0.
          */
-        double lc = GammaFunctions.stirlerr(n) - GammaFunctions.stirlerr(x) - GammaFunctions.stirlerr(n - x) - GammaFunctions.bd0(x, n * p) - GammaFunctions.bd0(n - x, n * q);
+        double lc = stirlerrN - GammaFunctions.stirlerr(x) - GammaFunctions.stirlerr(n - x) - GammaFunctions.bd0(x, np) - GammaFunctions.bd0(n - x, nq);
 
         /* f = (M_2PI*x*(n-x))/n; could overflow or underflow */
         /*
@@ -82,4 +90,33 @@ public final class Dbinom implements StatsFunctions.Function3_1 {
 
         return dbinomRaw(MathConstants.forceint(x), MathConstants.forceint(n), p, 1 - p, giveLog);
     }
+
+    @Override
+    public StatsFunctions.Function1 prepare(double initialN, double p, boolean giveLog) {
+        if (p <= 0 || p >= 1 || DPQ.dNegInonint(initialN)) {
+            // degenerate or invalid, left to evaluate
+            return null;
+        }
+        double n = MathConstants.forceint(initialN);
+        double q = 1 - p;
+        double stirlerrN = GammaFunctions.stirlerr(n);
+        double np = n * p;
+        double nq = n * q;
+        double atZero = dbinomRaw(0, n, p, q, giveLog);
+        double atN = dbinomRaw(n, n, p, q, giveLog);
+        return x -> {
+            if (DPQ.dNonintCheck(x) || x < 0 || !Double.isFinite(x)) {
+                return DPQ.d0(giveLog);
+            }
+            double xi = MathConstants.forceint(x);
+            if (xi == 0) {
+                return atZero;
+            } else if (xi == n) {
+                return atN;
+            } else if (xi > n) {
+                return DPQ.d0(giveLog);
+            }
+            return dbinomInterior(xi, n, stirlerrN, np, nq, giveLog);
+        };
+    }
 }
@@ -0,0 +1,595 @@
+/*
+ * Copyright (c) 2016, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.truffle.r.library.stats;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+import com.oracle.truffle.r.runtime.RParallel;
+
+/**
+ * A mixed-radix fast Fourier transform of complex data stored as interleaved {@code (re, im)}
+ * pairs. The transforms are unnormalized and use the sign convention of GNU R's {@code fft}, i.e.,
+ * the forward transform computes {@code sum(z[j] * exp(-2*pi*1i*j*k/n))} and the inverse transform
+ * uses {@code exp(+2*pi*1i*j*k/n)}.
+ *
+ * A {@link Plan} holds the factorization of a length and the twiddle factors of all stages, plans
+ * are immutable and cached per length, so that transforming many short windows of the same length
+ * does not repeat this setup. Radices 2, 3 and 4 have specialized butterflies, other prime factors
+ * up to {@link #MAX_RADIX} use a generic butterfly, and lengths with a larger prime factor are
+ * computed with Bluestein's algorithm as a convolution of power-of-two length.
+ */
+public final class FastFourierTransform {
+
+    /**
+     * Largest prime factor that is handled by a (quadratic) generic butterfly.
+     */
+    private static final int MAX_RADIX = 64;
+
+    private static final int MAX_PLANS = 64;
+
+    private static final LinkedHashMap<Integer, Plan> plans = new LinkedHashMap<Integer, Plan>(16, 0.75f, true) {
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Integer, Plan> eldest) {
+            return size() > MAX_PLANS;
+        }
+    };
+
+    private FastFourierTransform() {
+        // no instances
+    }
+
+    /**
+     * Returns the (cached) plan for transforms of length {@code n}.
+     */
+    @TruffleBoundary
+    public static synchronized Plan getPlan(int n) {
+        Plan plan = plans.get(n);
+        if (plan == null) {
+            plan = new Plan(n);
+            plans.put(n, plan);
+        }
+        return plan;
+    }
+
+    /**
+     * Transforms {@code nseg} segments of {@code z}, each consisting of {@code nspn} interleaved
+     * series of length {@code n}, i.e., element {@code i} of series {@code j} in segment
+     * {@code seg} is at (complex) index {@code j + nspn * (i + n * seg)}. This is the layout used
+     * to transform one dimension of an array, as in GNU R's {@code fft_work}.
+     */
+    @TruffleBoundary
+    public static void transform(double[] z, int nseg, int n, int nspn, boolean inverse) {
+        if (n <= 1) {
+            return;
+        }
+        Plan plan = getPlan(n);
+        double[] scratch = new double[plan.getScratchLength()];
+        if (nspn == 1) {
+            for (int seg = 0; seg < nseg; seg++) {
+                plan.transform(z, 2 * n * seg, inverse, scratch);
+            }
+            return;
+        }
+        double[] buffer = new double[2 * n];
+        for (int seg = 0; seg < nseg; seg++) {
+            int base = seg * n * nspn;
+            for (int j = 0; j < nspn; j++) {
+                for (int i = 0; i < n; i++) {
+                    int index = 2 * (base + j + i * nspn);
+                    buffer[2 * i] = z[index];
+                    buffer[2 * i + 1] = z[index + 1];
+                }
+                plan.transform(buffer, 0, inverse, scratch);
+                for (int i = 0; i < n; i++) {
+                    int index = 2 * (base + j + i * nspn);
+                    z[index] = buffer[2 * i];
+                    z[index + 1] = buffer[2 * i + 1];
+                }
+            }
+        }
+    }
+
+    /**
+     * Transforms the {@code columns} consecutive series of length {@code n} in {@code z}
+     * independently (as in {@code mvfft}). Long batches are split across threads.
+     */
+    @TruffleBoundary
+    public static void transformColumns(double[] z, int n, int columns, boolean inverse) {
+        if (n <= 1) {
+            return;
+        }
+        Plan plan = getPlan(n);
+        long cost = (long) n * (32 - Integer.numberOfLeadingZeros(n));
+        RParallel.forEach(columns, cost, (from, to) -> {
+            double[] scratch = new double[plan.getScratchLength()];
+            for (int column = from; column < to; column++) {
+                plan.transform(z, 2 * n * column, inverse, scratch);
+            }
+        });
+    }
+
+    /**
+     * Transforms the real series {@code x} of even length {@code 2 * n} by means of a complex
+     * transform of length {@code n} (of the even and odd elements packed as real and imaginary
+     * parts), which halves the work compared to transforming {@code x} as a complex series.
+     * Returns the interleaved complex result of length {@code 2 * n}.
+     */
+    @TruffleBoundary
+    public static double[] transformReal(double[] x, boolean inverse) {
+        assert x.length % 2 == 0 && x.length > 0;
+        int length = x.length;
+        int n = length / 2;
+        Plan plan = getPlan(n);
+        double[] result = new double[2 * length];
+        System.arraycopy(x, 0, result, 0, length);
+        plan.transform(result, 0, false, new double[plan.getScratchLength()]);
+
+        double[] w = plan.realTwiddles;
+        double zr = result[0];
+        double zi = result[1];
+        result[0] = zr + zi;
+        result[1] = 0;
+        result[2 * n] = zr - zi;
+        result[2 * n + 1] = 0;
+        for (int k = 1; k <= n / 2; k++) {
+            int j = n - k;
+            double zkr = result[2 * k];
+            double zki = result[2 * k + 1];
+            double zjr = result[2 * j];
+            double zji = result[2 * j + 1];
+            // even part E_k = (Z_k + conj(Z_j)) / 2, odd part O_k = (Z_k - conj(Z_j)) / 2i
+            double er = (zkr + zjr) * 0.5;
+            double ei = (zki - zji) * 0.5;
+            double or = (zki + zji) * 0.5;
+            double oi = (zjr - zkr) * 0.5;
+            // X_k = E_k + w^k * O_k and X_j = conj(E_k) + w^j * conj(O_k)
+            double xkr = er + w[2 * k] * or - w[2 * k + 1] * oi;
+            double xki = ei + w[2 * k] * oi + w[2 * k + 1] * or;
+            double xjr = er + w[2 * j] * or + w[2 * j + 1] * oi;
+            double xji = -ei - w[2 * j] * oi + w[2 * j + 1] * or;
+            result[2 * k] = xkr;
+            result[2 * k + 1] = xki;
+            result[2 * j] = xjr;
+            result[2 * j + 1] = xji;
+            // the second half is conjugate symmetric
+            result[2 * (length - k)] = xkr;
+            result[2 * (length - k) + 1] = -xki;
+            result[2 * (length - j)] = xjr;
+            result[2 * (length - j) + 1] = -xji;
+        }
+        if (inverse) {
+            // for real input, the inverse transform is the conjugate of the forward transform
+            for (int i = 1; i < result.length; i += 2) {
+                result[i] = -result[i];
+            }
+        }
+        return result;
+    }
+
+    public static final class Plan {
+        private final int n;
+        private final int[] factors;
+        /**
+         * Twiddle factors {@code exp(-2*pi*1i*q*k/(l*p))} of each stage, for {@code k < l} and
+         * {@code 0 < q < p}, where {@code p} is the radix and {@code l} the product of the radices
+         * of the previous stages.
+         */
+        private final double[][] twiddles;
+        /**
+         * The roots of unity {@code exp(-2*pi*1i*j/p)} for the stages with a generic butterfly.
+         */
+        private final double[][] roots;
+        /**
+         * {@code exp(-pi*1i*k/n)} for {@code k < n}, used to transform real series of length
+         * {@code 2 * n}.
+         */
+        private final double[] realTwiddles;
+
+        /*
+         * Bluestein's algorithm: the transform of length n is computed as the convolution of the
+         * input, multiplied by the chirp, with the conjugate chirp, using transforms of length m.
+         */
+        private final Plan convolution;
+        private final double[] chirp;
+        private final double[] chirpTransform;
+
+        private Plan(int n) {
+            this.n = n;
+            this.realTwiddles = roots(2 * n, n);
+            int[] primeFactors = factorize(n);
+            if (primeFactors.length > 0 && primeFactors[primeFactors.length - 1] > MAX_RADIX) {
+                int m = Integer.highestOneBit(2 * n - 1);
+                if (m < 2 * n - 1) {
+                    m *= 2;
+                }
+                this.factors = null;
+                this.twiddles = null;
+                this.roots = null;
+                this.convolution = getPlan(m);
+                this.chirp = new double[2 * n];
+                double[] filter = new double[2 * m];
+                for (int j = 0; j < n; j++) {
+                    double angle = Math.PI * ((long) j * j % (2L * n)) / n;
+                    double cos = Math.cos(angle);
+                    double sin = Math.sin(angle);
+                    chirp[2 * j] = cos;
+                    chirp[2 * j + 1] = -sin;
+                    filter[2 * j] = cos;
+                    filter[2 * j + 1] = sin;
+                    if (j > 0) {
+                        filter[2 * (m - j)] = cos;
+                        filter[2 * (m - j) + 1] = sin;
+                    }
+                }
+                convolution.transform(filter, 0, false, new double[convolution.getScratchLength()]);
+                this.chirpTransform = filter;
+            } else {
+                this.factors = radices(primeFactors);
+                this.twiddles = new double[factors.length][];
+                this.roots = new double[factors.length][];
+                int l = 1;
+                for (int stage = 0; stage < factors.length; stage++) {
+                    int p = factors[stage];
+                    double[] tw = new double[2 * l * (p - 1)];
+                    for (int k = 0; k < l; k++) {
+                        for (int q = 1; q < p; q++) {
+                            double angle = 2 * Math.PI * ((long) q * k) / ((long) l * p);
+                            int index = 2 * (k * (p - 1) + q - 1);
+                            tw[index] = Math.cos(angle);
+                            tw[index + 1] = -Math.sin(angle);
+                        }
+                    }
+                    twiddles[stage] = tw;
+                    if (p > 4) {
+                        roots[stage] = roots(p, p);
+                    }
+                    l *= p;
+                }
+                this.convolution = null;
+                this.chirp = null;
+                this.chirpTransform = null;
+            }
+        }
+
+        public int getLength() {
+            return n;
+        }
+
+        /**
+         * Returns the size of the scratch array to be passed to
+         * {@link #transform(double[], int, boolean, double[])}.
+         */
+        public int getScratchLength() {
+            return convolution == null ? 2 * n : 4 * convolution.n;
+        }
+
+        /**
+         * Transforms the series of length {@link #getLength()} starting at (double) index
+         * {@code offset} of {@code data} in place. The plan itself is not modified, so it can be
+         * used from several threads as long as each uses its own {@code scratch} array.
+         */
+        public void transform(double[] data, int offset, boolean inverse, double[] scratch) {
+            transform(data, offset, inverse, scratch, 0);
+        }
+
+        private void transform(double[] data, int offset, boolean inverse, double[] scratch, int scratchOffset) {
+            if (n <= 1) {
+                return;
+            }
+            if (convolution != null) {
+                bluestein(data, offset, inverse, scratch, scratchOffset);
+                return;
+            }
+            // the inverse transform uses the conjugate roots
+            double dir = inverse ? -1 : 1;
+            double[] x = data;
+            int xo = offset;
+            double[] y = scratch;
+            int yo = scratchOffset;
+            int l = 1;
+            for (int stage = 0; stage < factors.length; stage++) {
+                int p = factors[stage];
+                int s = n / (l * p);
+                switch (p) {
+                    case 2:
+                        pass2(x, xo, y, yo, l, s, twiddles[stage], dir);
+                        break;
+                    case 3:
+                        pass3(x, xo, y, yo, l, s, twiddles[stage], dir);
+                        break;
+                    case 4:
+                        pass4(x, xo, y, yo, l, s, twiddles[stage], dir);
+                        break;
+                    default:
+                        passGeneric(p, x, xo, y, yo, l, s, twiddles[stage], roots[stage], dir);
+                        break;
+                }
+                double[] tmp = x;
+                x = y;
+                y = tmp;
+                int tmpOffset = xo;
+                xo = yo;
+                yo = tmpOffset;
+                l *= p;
+            }
+            if (xo != offset || x != data) {
+                System.arraycopy(x, xo, data, offset, 2 * n);
+            }
+        }
+
+        private void bluestein(double[] data, int offset, boolean inverse, double[] scratch, int scratchOffset) {
+            int m = convolution.n;
+            // the inverse transform is computed as conj(fft(conj(z)))
+            double conj = inverse ? -1 : 1;
+            int a = scratchOffset;
+            for (int j = 0; j < n; j++) {
+                double xr = data[offset + 2 * j];
+                double xi = conj * data[offset + 2 * j + 1];
+                double cr = chirp[2 * j];
+                double ci = chirp[2 * j + 1];
+                scratch[a + 2 * j] = xr * cr - xi * ci;
+                scratch[a + 2 * j + 1] = xr * ci + xi * cr;
+            }
+            Arrays.fill(scratch, a + 2 * n, a + 2 * m, 0);
+            convolution.transform(scratch, a, false, scratch, a + 2 * m);
+            for (int k = 0; k < m; k++) {
+                double ar = scratch[a + 2 * k];
+                double ai = scratch[a + 2 * k + 1];
+                double br = chirpTransform[2 * k];
+                double bi = chirpTransform[2 * k + 1];
+                scratch[a + 2 * k] = ar * br - ai * bi;
+                scratch[a + 2 * k + 1] = ar * bi + ai * br;
+            }
+            convolution.transform(scratch, a, true, scratch, a + 2 * m);
+            for (int k = 0; k < n; k++) {
+                double vr = scratch[a + 2 * k] / m;
+                double vi = scratch[a + 2 * k + 1] / m;
+                double cr = chirp[2 * k];
+                double ci = chirp[2 * k + 1];
+                data[offset + 2 * k] = vr * cr - vi * ci;
+                data[offset + 2 * k + 1] = conj * (vr * ci + vi * cr);
+            }
+        }
+    }
+
+    /*
+     * One stage of the (self-sorting) Stockham algorithm: the input consists of s * p interleaved
+     * transforms of length l, at complex index r + s * p * k, which are combined into s transforms of
+     * length l * p, stored at r + s * k.
+     */
+
+    private static void pass2(double[] x, int xo, double[] y, int yo, int l, int s, double[] tw, double dir) {
+        for (int k = 0; k < l; k++) {
+            double w1r = tw[2 * k];
+            double w1i = dir * tw[2 * k + 1];
+            int in = xo + 4 * s * k;
+            int out = yo + 2 * s * k;
+            for (int r = 0; r < s; r++) {
+                int i0 = in + 2 * r;
+                int i1 = i0 + 2 * s;
+                double a1r = x[i1] * w1r - x[i1 + 1] * w1i;
+                double a1i = x[i1] * w1i + x[i1 + 1] * w1r;
+                int o0 = out + 2 * r;
+                int o1 = o0 + 2 * s * l;
+                y[o0] = x[i0] + a1r;
+                y[o0 + 1] = x[i0 + 1] + a1i;
+                y[o1] = x[i0] - a1r;
+                y[o1 + 1] = x[i0 + 1] - a1i;
+            }
+        }
+    }
+
+    private static final double SIN_60 = Math.sqrt(3) / 2;
+
+    private static void pass3(double[] x, int xo, double[] y, int yo, int l, int s, double[] tw, double dir) {
+        double sin = -dir * SIN_60;
+        for (int k = 0; k < l; k++) {
+            double w1r = tw[4 * k];
+            double w1i = dir * tw[4 * k + 1];
+            double w2r = tw[4 * k + 2];
+            double w2i = dir * tw[4 * k + 3];
+            int in = xo + 6 * s * k;
+            int out = yo + 2 * s * k;
+            for (int r = 0; r < s; r++) {
+                int i0 = in + 2 * r;
+                int i1 = i0 + 2 * s;
+                int i2 = i1 + 2 * s;
+                double a0r = x[i0];
+                double a0i = x[i0 + 1];
+                double a1r = x[i1] * w1r - x[i1 + 1] * w1i;
+                double a1i = x[i1] * w1i + x[i1 + 1] * w1r;
+                double a2r = x[i2] * w2r - x[i2 + 1] * w2i;
+                double a2i = x[i2] * w2i + x[i2 + 1] * w2r;
+                double tr = a1r + a2r;
+                double ti = a1i + a2i;
+                double mr = a0r - 0.5 * tr;
+                double mi = a0i - 0.5 * ti;
+                double dr = -sin * (a1i - a2i);
+                double di = sin * (a1r - a2r);
+                int o0 = out + 2 * r;
+                int o1 = o0 + 2 * s * l;
+                int o2 = o1 + 2 * s * l;
+                y[o0] = a0r + tr;
+                y[o0 + 1] = a0i + ti;
+                y[o1] = mr + dr;
+                y[o1 + 1] = mi + di;
+                y[o2] = mr - dr;
+                y[o2 + 1] = mi - di;
+            }
+        }
+    }
+
+    private static void pass4(double[] x, int xo, double[] y, int yo, int l, int s, double[] tw, double dir) {
+        for (int k = 0; k < l; k++) {
+            double w1r = tw[6 * k];
+            double w1i = dir * tw[6 * k + 1];
+            double w2r = tw[6 * k + 2];
+            double w2i = dir * tw[6 * k + 3];
+            double w3r = tw[6 * k + 4];
+            double w3i = dir * tw[6 * k + 5];
+            int in = xo + 8 * s * k;
+            int out = yo + 2 * s * k;
+            for (int r = 0; r < s; r++) {
+                int i0 = in + 2 * r;
+                int i1 = i0 + 2 * s;
+                int i2 = i1 + 2 * s;
+                int i3 = i2 + 2 * s;
+                double a0r = x[i0];
+                double a0i = x[i0 + 1];
+                double a1r = x[i1] * w1r - x[i1 + 1] * w1i;
+                double a1i = x[i1] * w1i + x[i1 + 1] * w1r;
+                double a2r = x[i2] * w2r - x[i2 + 1] * w2i;
+                double a2i = x[i2] * w2i + x[i2 + 1] * w2r;
+                double a3r = x[i3] * w3r - x[i3 + 1] * w3i;
+                double a3i = x[i3] * w3i + x[i3 + 1] * w3r;
+                double t0r = a0r + a2r;
+                double t0i = a0i + a2i;
+                double t1r = a0r - a2r;
+                double t1i = a0i - a2i;
+                double t2r = a1r + a3r;
+                double t2i = a1i + a3i;
+                // (a1 - a3) * exp(-2*pi*1i/4), i.e., times -1i for the forward transform
+                double t3r = dir * (a1i - a3i);
+                double t3i = -dir * (a1r - a3r);
+                int o0 = out + 2 * r;
+                int o1 = o0 + 2 * s * l;
+                int o2 = o1 + 2 * s * l;
+                int o3 = o2 + 2 * s * l;
+                y[o0] = t0r + t2r;
+                y[o0 + 1] = t0i + t2i;
+                y[o1] = t1r + t3r;
+                y[o1 + 1] = t1i + t3i;
+                y[o2] = t0r - t2r;
+                y[o2 + 1] = t0i - t2i;
+                y[o3] = t1r - t3r;
+                y[o3 + 1] = t1i - t3i;
+            }
+        }
+    }
+
+    private static void passGeneric(int p, double[] x, int xo, double[] y, int yo, int l, int s, double[] tw, double[] roots, double dir) {
+        double[] a = new double[2 * p];
+        for (int k = 0; k < l; k++) {
+            int twOffset = 2 * k * (p - 1);
+            int in = xo + 2 * s * p * k;
+            int out = yo + 2 * s * k;
+            for (int r = 0; r < s; r++) {
+                int i0 = in + 2 * r;
+                a[0] = x[i0];
+                a[1] = x[i0 + 1];
+                for (int q = 1; q < p; q++) {
+                    int iq = i0 + 2 * s * q;
+                    double wr = tw[twOffset + 2 * (q - 1)];
+                    double wi = dir * tw[twOffset + 2 * (q - 1) + 1];
+                    a[2 * q] = x[iq] * wr - x[iq + 1] * wi;
+                    a[2 * q + 1] = x[iq] * wi + x[iq + 1] * wr;
+                }
+                for (int t = 0; t < p; t++) {
+                    double sumr = a[0];
+                    double sumi = a[1];
+                    int index = 0;
+                    for (int q = 1; q < p; q++) {
+                        index += t;
+                        if (index >= p) {
+                            index -= p;
+                        }
+                        double wr = roots[2 * index];
+                        double wi = dir * roots[2 * index + 1];
+                        sumr += a[2 * q] * wr - a[2 * q + 1] * wi;
+                        sumi += a[2 * q] * wi + a[2 * q + 1] * wr;
+                    }
+                    int o = out + 2 * r + 2 * s * l * t;
+                    y[o] = sumr;
+                    y[o + 1] = sumi;
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns {@code exp(-2*pi*1i*j/n)} for {@code j < count} as interleaved pairs.
+     */
+    private static double[] roots(int n, int count) {
+        double[] result = new double[2 * count];
+        for (int j = 0; j < count; j++) {
+            double angle = 2 * Math.PI * j / n;
+            result[2 * j] = Math.cos(angle);
+            result[2 * j + 1] = -Math.sin(angle);
+        }
+        return result;
+    }
+
+    /**
+     * Returns the prime factors of {@code n} in ascending order.
+     */
+    private static int[] factorize(int n) {
+        ArrayList<Integer> result = new ArrayList<>();
+        int m = n;
+        while (m % 2 == 0 && m > 1) {
+            result.add(2);
+            m /= 2;
+        }
+        for (int p = 3; (long) p * p <= m; p += 2) {
+            while (m % p == 0) {
+                result.add(p);
+                m /= p;
+            }
+        }
+        if (m > 1) {
+            result.add(m);
+        }
+        int[] factors = new int[result.size()];
+        for (int i = 0; i < factors.length; i++) {
+            factors[i] = result.get(i);
+        }
+        return factors;
+    }
+
+    /**
+     * Combines pairs of factors 2 into radix-4 stages.
+     */
+    private static int[] radices(int[] primeFactors) {
+        int twos = 0;
+        while (twos < primeFactors.length && primeFactors[twos] == 2) {
+            twos++;
+        }
+        int[] result = new int[primeFactors.length - twos / 2];
+        int index = 0;
+        for (int i = 0; i < twos / 2; i++) {
+            result[index++] = 4;
+        }
+        if (twos % 2 != 0) {
+            result[index++] = 2;
+        }
+        for (int i = twos; i < primeFactors.length; i++) {
+            result[index++] = primeFactors[i];
+        }
+        return result;
+    }
+}
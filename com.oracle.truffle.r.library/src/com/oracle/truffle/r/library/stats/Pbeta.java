@@ -13,13 +13,36 @@ package com.oracle.truffle.r.library.stats;
 import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
 import com.oracle.truffle.api.profiles.BranchProfile;
 import com.oracle.truffle.r.library.stats.TOMS708.Bratio;
-import com.oracle.truffle.r.nodes.builtin.RExternalBuiltinNode;
 import com.oracle.truffle.r.runtime.RError;
 import com.oracle.truffle.r.runtime.RError.Message;
 
 // transcribed from pbeta.c
 
-public abstract class Pbeta extends RExternalBuiltinNode.Arg5 {
+public final class Pbeta implements StatsFunctions.Function3_2 {
+
+    private final BranchProfile nanProfile = BranchProfile.create();
+
+    @Override
+    public double evaluate(double x, double a, double b, boolean lowerTail, boolean logP) {
+        return pbeta(x, a, b, lowerTail, logP, nanProfile);
+    }
+
+    @Override
+    public StatsFunctions.Function1 prepare(double a, double b, boolean lowerTail, boolean logP) {
+        if (a < 0 || b < 0) {
+            // invalid, left to evaluate
+            return null;
+        }
+        return x -> {
+            if (x <= 0) {
+                return DPQ.dt0(logP, lowerTail);
+            }
+            if (x >= 1) {
+                return DPQ.dt1(logP, lowerTail);
+            }
+            return pbetaRaw(x, a, b, lowerTail, logP);
+        };
+    }
 
     @TruffleBoundary
     private static double pbetaRaw(double x, double a, double b, boolean lowerTail, boolean logProb) {
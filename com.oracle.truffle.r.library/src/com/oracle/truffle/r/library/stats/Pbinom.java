@@ -20,8 +20,7 @@ public final class Pbinom implements StatsFunctions.Function3_2 {
     private final BranchProfile nanProfile = BranchProfile.create();
 
     @Override
-    public double evaluate(double initialQ, double initialSize, double prob, boolean lowerTail, boolean logP) {
-        double q = initialQ;
+    public double evaluate(double q, double initialSize, double prob, boolean lowerTail, boolean logP) {
         double size = initialSize;
         if (Double.isNaN(q) || Double.isNaN(size) || Double.isNaN(prob)) {
             nanProfile.enter();
@@ -43,11 +42,27 @@ public final class Pbinom implements StatsFunctions.Function3_2 {
             nanProfile.enter();
             return Double.NaN;
         }
+        return cdf(q, size, prob, lowerTail, logP);
+    }
+
+    @Override
+    public StatsFunctions.Function1 prepare(double initialSize, double prob, boolean lowerTail, boolean logP) {
+        if (!Double.isFinite(initialSize) || !Double.isFinite(prob) || DPQ.nonint(initialSize)) {
+            // invalid, left to evaluate (which also reports non-integer sizes)
+            return null;
+        }
+        double size = Math.round(initialSize);
+        if (size < 0 || prob < 0 || prob > 1) {
+            return null;
+        }
+        return q -> cdf(q, size, prob, lowerTail, logP);
+    }
 
-        if (q < 0) {
+    private double cdf(double initialQ, double size, double prob, boolean lowerTail, boolean logP) {
+        if (initialQ < 0) {
             return DPQ.dt0(logP, lowerTail);
         }
-        q = Math.floor(q + 1e-7);
+        double q = Math.floor(initialQ + 1e-7);
         if (size <= q) {
             return DPQ.dt1(logP, lowerTail);
         }
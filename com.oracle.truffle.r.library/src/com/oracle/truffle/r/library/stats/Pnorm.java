@@ -12,6 +12,7 @@
  */
 package com.oracle.truffle.r.library.stats;
 
+import com.oracle.truffle.api.CompilerDirectives.CompilationFinal;
 import com.oracle.truffle.api.profiles.BranchProfile;
 import com.oracle.truffle.r.runtime.RRuntime;
 
@@ -48,6 +49,33 @@ public final class Pnorm implements StatsFunctions.Function3_2 {
             return (x < mu) ? DPQ.d0(logP) : DPQ.d1(logP);
         }
 
+        return pnormStandard(p, lowerTail, logP);
+    }
+
+    @Override
+    public StatsFunctions.Function1 prepare(double mu, double sigma, boolean lowerTail, boolean logP) {
+        if (sigma <= 0) {
+            // degenerate or invalid, left to evaluate
+            return null;
+        }
+        return x -> {
+            if (!Double.isFinite(x) && mu == x) {
+                return Double.NaN; /* x-mu is NaN */
+            }
+            double p = (x - mu) / sigma;
+            if (!Double.isFinite(p)) {
+                return (x < mu) ? DPQ.d0(logP) : DPQ.d1(logP);
+            }
+            return pnormStandard(p, lowerTail, logP);
+        };
+    }
+
+    @Override
+    public boolean isParallelizable() {
+        return true;
+    }
+
+    private static double pnormStandard(double p, boolean lowerTail, boolean logP) {
         PnormBoth pnormBoth = new PnormBoth(p);
         pnormBoth.pnormBoth(p, !lowerTail, logP);
 
@@ -88,20 +116,20 @@ public final class Pnorm implements StatsFunctions.Function3_2 {
             }
         }
 
+        @CompilationFinal private static final double[] A = new double[]{2.2352520354606839287, 161.02823106855587881, 1067.6894854603709582, 18154.981253343561249, 0.065682337918207449113};
+        @CompilationFinal private static final double[] B = new double[]{47.20258190468824187, 976.09855173777669322, 10260.932208618978205, 45507.789335026729956};
+        @CompilationFinal private static final double[] C = new double[]{0.39894151208813466764, 8.8831497943883759412, 93.506656132177855979, 597.27027639480026226, 2494.5375852903726711, 6848.1904505362823326, 11602.651437647350124,
+                        9842.7148383839780218, 1.0765576773720192317e-8};
+        @CompilationFinal private static final double[] D = new double[]{22.266688044328115691, 235.38790178262499861, 1519.377599407554805, 6485.558298266760755, 18615.571640885098091, 34900.952721145977266, 38912.003286093271411,
+                        19685.429676859990727};
+        @CompilationFinal private static final double[] P = new double[]{0.21589853405795699, 0.1274011611602473639, 0.022235277870649807, 0.001421619193227893466, 2.9112874951168792e-5, 0.02307344176494017303};
+        @CompilationFinal private static final double[] Q = new double[]{1.28426009614491121, 0.468238212480865118, 0.0659881378689285515, 0.00378239633202758244, 7.29751555083966205e-5};
+
         void pnormBoth(double x, boolean iTail, boolean logP) {
             /*
              * i_tail in {0,1,2} means: "lower", "upper", or "both" : if(lower) return *cum := P[X
              * <= x] if(upper) return *ccum := P[X > x] = 1 - P[X <= x]
              */
-            double[] a = {2.2352520354606839287, 161.02823106855587881, 1067.6894854603709582, 18154.981253343561249, 0.065682337918207449113};
-            double[] b = {47.20258190468824187, 976.09855173777669322, 10260.932208618978205, 45507.789335026729956};
-            double[] c = {0.39894151208813466764, 8.8831497943883759412, 93.506656132177855979, 597.27027639480026226, 2494.5375852903726711, 6848.1904505362823326, 11602.651437647350124,
-                            9842.7148383839780218, 1.0765576773720192317e-8};
-            double[] d = {22.266688044328115691, 235.38790178262499861, 1519.377599407554805, 6485.558298266760755, 18615.571640885098091, 34900.952721145977266, 38912.003286093271411,
-                            19685.429676859990727};
-            double[] p = {0.21589853405795699, 0.1274011611602473639, 0.022235277870649807, 0.001421619193227893466, 2.9112874951168792e-5, 0.02307344176494017303};
-            double[] q = {1.28426009614491121, 0.468238212480865118, 0.0659881378689285515, 0.00378239633202758244, 7.29751555083966205e-5};
-
             // #ifdef NO_DENORMS
             // double min = DBL_MIN;
             // #endif
@@ -124,17 +152,17 @@ public final class Pnorm implements StatsFunctions.Function3_2 {
                 double xden;
                 if (y > eps) {
                     double xsq = x * x;
-                    xnum = a[4] * xsq;
+                    xnum = A[4] * xsq;
                     xden = xsq;
                     for (int i = 0; i < 3; ++i) {
-                        xnum = (xnum + a[i]) * xsq;
-                        xden = (xden + b[i]) * xsq;
+                        xnum = (xnum + A[i]) * xsq;
+                        xden = (xden + B[i]) * xsq;
                     }
                 } else {
                     xnum = xden = 0.0;
                 }
 
-                double temp = x * (xnum + a[3]) / (xden + b[3]);
+                double temp = x * (xnum + A[3]) / (xden + B[3]);
                 if (lower) {
                     cum = 0.5 + temp;
                 }
@@ -153,13 +181,13 @@ public final class Pnorm implements StatsFunctions.Function3_2 {
 
                 /* Evaluate pnorm for 0.674.. = qnorm(3/4) < |x| <= sqrt(32) ~= 5.657 */
 
-                double xnum = c[8] * y;
+                double xnum = C[8] * y;
                 double xden = y;
                 for (int i = 0; i < 7; ++i) {
-                    xnum = (xnum + c[i]) * y;
-                    xden = (xden + d[i]) * y;
+                    xnum = (xnum + C[i]) * y;
+                    xden = (xden + D[i]) * y;
                 }
-                double temp = (xnum + c[7]) / (xden + d[7]);
+                double temp = (xnum + C[7]) / (xden + D[7]);
 
                 doDel(y, x, temp, logP, lower, upper);
                 swapTail(x, lower);
@@ -191,13 +219,13 @@ public final class Pnorm implements StatsFunctions.Function3_2 {
 
                 /* Evaluate pnorm for x in (-37.5, -5.657) union (5.657, 37.5) */
                 double xsq = 1.0 / (x * x); /* (1./x)*(1./x) might be better */
-                double xnum = p[5] * xsq;
+                double xnum = P[5] * xsq;
                 double xden = xsq;
                 for (int i = 0; i < 4; ++i) {
-                    xnum = (xnum + p[i]) * xsq;
-                    xden = (xden + q[i]) * xsq;
+                    xnum = (xnum + P[i]) * xsq;
+                    xden = (xden + Q[i]) * xsq;
                 }
-                double temp = xsq * (xnum + p[4]) / (xden + q[4]);
+                double temp = xsq * (xnum + P[4]) / (xden + Q[4]);
                 temp = (MathConstants.M_1_SQRT_2PI - temp) / y;
 
                 doDel(x, x, temp, logP, lower, upper);
@@ -57,29 +57,42 @@ public final class Qbinom implements StatsFunctions.Function3_2 {
     private final Pbinom pbinomSearch2 = new Pbinom();
 
     @Override
-    public double evaluate(double initialP, double n, double pr, boolean lowerTail, boolean logProb) {
-        double p = initialP;
-
+    public double evaluate(double p, double n, double pr, boolean lowerTail, boolean logProb) {
         if (Double.isNaN(p) || Double.isNaN(n) || Double.isNaN(pr)) {
             nanProfile.enter();
             return p + n + pr;
         }
-
-        if (!Double.isFinite(n) || !Double.isFinite(pr)) {
-            nanProfile.enter();
-            return Double.NaN;
-        }
-        /* if logP is true, p = -Inf is a legitimate value */
-        if (!Double.isFinite(p) && !logProb) {
+        if (!validParameters(n, pr)) {
             nanProfile.enter();
             return Double.NaN;
         }
+        double q = 1 - pr;
+        double sigma = Math.sqrt(n * pr * q);
+        return quantile(p, n, pr, q, n * pr, sigma, (q - pr) / sigma, lowerTail, logProb);
+    }
 
-        if (n != Math.floor(n + 0.5)) {
-            nanProfile.enter();
-            return Double.NaN;
+    @Override
+    public StatsFunctions.Function1 prepare(double n, double pr, boolean lowerTail, boolean logProb) {
+        if (!validParameters(n, pr)) {
+            // invalid, left to evaluate
+            return null;
         }
-        if (pr < 0 || pr > 1 || n < 0) {
+        double q = 1 - pr;
+        double mu = n * pr;
+        double sigma = Math.sqrt(n * pr * q);
+        double gamma = (q - pr) / sigma;
+        return p -> quantile(p, n, pr, q, mu, sigma, gamma, lowerTail, logProb);
+    }
+
+    private static boolean validParameters(double n, double pr) {
+        return Double.isFinite(n) && Double.isFinite(pr) && n == Math.floor(n + 0.5) && pr >= 0 && pr <= 1 && n >= 0;
+    }
+
+    private double quantile(double initialP, double n, double pr, double q, double mu, double sigma, double gamma, boolean lowerTail, boolean logProb) {
+        double p = initialP;
+
+        /* if logP is true, p = -Inf is a legitimate value */
+        if (!Double.isFinite(p) && !logProb) {
             nanProfile.enter();
             return Double.NaN;
         }
@@ -112,14 +125,10 @@ public final class Qbinom implements StatsFunctions.Function3_2 {
             return 0;
         }
 
-        double q = 1 - pr;
         if (q == 0) {
             /* covers the full range of the distribution */
             return n;
         }
-        double mu = n * pr;
-        double sigma = Math.sqrt(n * pr * q);
-        double gamma = (q - pr) / sigma;
 
         /*
          * Note : "same" code in qpois.c, qbinom.c, qnbinom.c -- FIXME: This is far from optimal
@@ -30,6 +30,24 @@ public final class Qnorm implements StatsFunctions.Function3_2 {
             nanProfile.enter();
             return p + mu + sigma;
         }
+        return qnorm(p, mu, sigma, lowerTail, logP, nanProfile);
+    }
+
+    @Override
+    public StatsFunctions.Function1 prepare(double mu, double sigma, boolean lowerTail, boolean logP) {
+        if (sigma < 0) {
+            // invalid, left to evaluate
+            return null;
+        }
+        return p -> qnorm(p, mu, sigma, lowerTail, logP, nanProfile);
+    }
+
+    @Override
+    public boolean isParallelizable() {
+        return true;
+    }
+
+    private static double qnorm(double p, double mu, double sigma, boolean lowerTail, boolean logP, BranchProfile nanProfile) {
         try {
             DPQ.qP01Boundaries(p, Double.NEGATIVE_INFINITY, Double.POSITIVE_INFINITY, lowerTail, logP);
         } catch (EarlyReturn early) {
@@ -19,6 +19,7 @@ import com.oracle.truffle.api.profiles.BranchProfile;
 import com.oracle.truffle.r.nodes.builtin.CastBuilder;
 import com.oracle.truffle.r.nodes.builtin.RExternalBuiltinNode;
 import com.oracle.truffle.r.runtime.RError;
+import com.oracle.truffle.r.runtime.RParallel;
 import com.oracle.truffle.r.runtime.RRuntime;
 import com.oracle.truffle.r.runtime.data.RDataFactory;
 import com.oracle.truffle.r.runtime.data.model.RAbstractDoubleVector;
@@ -32,8 +33,37 @@ public final class StatsFunctions {
         // private
     }
 
+    /**
+     * A distribution function with all but its first argument fixed, see
+     * {@link Function3_2#prepare(double, double, boolean, boolean)}. It is only applied to arguments
+     * that are not {@code NaN}.
+     */
+    public interface Function1 {
+        double evaluate(double a);
+    }
+
     public interface Function3_2 {
         double evaluate(double a, double b, double c, boolean x, boolean y);
+
+        /**
+         * Returns the function of the first argument alone for the given (non-{@code NaN}) values of
+         * the other arguments, with all work that only depends on these values done up-front. This
+         * is used when the parameter vectors have length one. Returns {@code null} if the
+         * parameters are degenerate or invalid, in which case every element is passed to
+         * {@link #evaluate(double, double, double, boolean, boolean)}.
+         */
+        default Function1 prepare(double b, double c, boolean x, boolean y) {
+            return null;
+        }
+
+        /**
+         * Returns {@code true} if the functions returned by
+         * {@link #prepare(double, double, boolean, boolean)} never report warnings (or touch any
+         * other context state), so that they may be applied to long vectors in parallel.
+         */
+        default boolean isParallelizable() {
+            return false;
+        }
     }
 
     public interface Function3_1 extends Function3_2 {
@@ -43,6 +73,70 @@ public final class StatsFunctions {
         }
 
         double evaluate(double a, double b, double c, boolean x);
+
+        @Override
+        default Function1 prepare(double b, double c, boolean x, boolean y) {
+            return prepare(b, c, x);
+        }
+
+        default Function1 prepare(double b, double c, boolean x) {
+            return null;
+        }
+    }
+
+    /**
+     * Approximate cost of one evaluation of a distribution function, in vector elements, for the
+     * purpose of deciding whether to go parallel.
+     */
+    private static final long KERNEL_COST = 16;
+
+    private static RAbstractDoubleVector evaluate3Scalar(Node node, Function3_2 function, RAbstractDoubleVector a, RAbstractDoubleVector b, RAbstractDoubleVector c, boolean x, boolean y,
+                    BranchProfile nan, NACheck aCheck, NACheck bCheck, NACheck cCheck) {
+        double bValue = b.getDataAt(0);
+        double cValue = c.getDataAt(0);
+        Function1 prepared = Double.isNaN(bValue) || Double.isNaN(cValue) ? null : function.prepare(bValue, cValue, x, y);
+        if (prepared == null) {
+            return evaluate3(node, function, a, b, c, x, y, nan, aCheck, bCheck, cCheck);
+        }
+        int length = a.getLength();
+        if (length == 0) {
+            return RDataFactory.createEmptyDoubleVector();
+        }
+        RNode.reportWork(node, length);
+        double[] aData = a.materialize().getDataWithoutCopying();
+        double[] result = new double[length];
+        int partitions = function.isParallelizable() ? RParallel.getPartitions(length, KERNEL_COST) : 1;
+        if (partitions == 1) {
+            applyPrepared(prepared, aData, result, 0, length);
+        } else {
+            RParallel.forEachPartition(length, partitions, (from, to) -> applyPrepared(prepared, aData, result, from, to));
+        }
+
+        boolean complete = true;
+        boolean nans = false;
+        for (int i = 0; i < length; i++) {
+            double value = result[i];
+            if (Double.isNaN(value)) {
+                nan.enter();
+                if (RRuntime.isNA(value)) {
+                    complete = false;
+                } else if (!Double.isNaN(aData[i])) {
+                    nans = true;
+                }
+            }
+        }
+        if (nans) {
+            RError.warning(RError.SHOW_CALLER, RError.Message.NAN_PRODUCED);
+        }
+        return RDataFactory.createDoubleVector(result, complete);
+    }
+
+    private static void applyPrepared(Function1 prepared, double[] aData, double[] result, int from, int to) {
+        for (int i = from; i < to; i++) {
+            double aValue = aData[i];
+            // NA and NaN arguments are passed through
+            result[i] = Double.isNaN(aValue) ? aValue : prepared.evaluate(aValue);
+        }
     }
 
     private static RAbstractDoubleVector evaluate3(Node node, Function3_2 function, RAbstractDoubleVector a, RAbstractDoubleVector b, RAbstractDoubleVector c, boolean x, boolean y,
@@ -102,6 +196,15 @@ public final class StatsFunctions {
             casts.toDouble(0).toDouble(1).toDouble(2).firstBoolean(3).firstBoolean(4);
         }
 
+        @Specialization(guards = {"b.getLength() == 1", "c.getLength() == 1"})
+        protected RAbstractDoubleVector evaluateScalarParameters(RAbstractDoubleVector a, RAbstractDoubleVector b, RAbstractDoubleVector c, boolean x, boolean y, //
+                        @Cached("create()") BranchProfile nan, //
+                        @Cached("create()") NACheck aCheck, //
+                        @Cached("create()") NACheck bCheck, //
+                        @Cached("create()") NACheck cCheck) {
+            return evaluate3Scalar(this, function, a, b, c, x, y, nan, aCheck, bCheck, cCheck);
+        }
+
         @Specialization
         protected RAbstractDoubleVector evaluate(RAbstractDoubleVector a, RAbstractDoubleVector b, RAbstractDoubleVector c, boolean x, boolean y, //
                         @Cached("create()") BranchProfile nan, //
@@ -124,6 +227,15 @@ public final class StatsFunctions {
             casts.toDouble(0).toDouble(1).toDouble(2).firstBoolean(3);
         }
 
+        @Specialization(guards = {"b.getLength() == 1", "c.getLength() == 1"})
+        protected RAbstractDoubleVector evaluateScalarParameters(RAbstractDoubleVector a, RAbstractDoubleVector b, RAbstractDoubleVector c, boolean x, //
+                        @Cached("create()") BranchProfile nan, //
+                        @Cached("create()") NACheck aCheck, //
+                        @Cached("create()") NACheck bCheck, //
+                        @Cached("create()") NACheck cCheck) {
+            return evaluate3Scalar(this, function, a, b, c, x, false /* dummy */, nan, aCheck, bCheck, cCheck);
+        }
+
         @Specialization
         protected RAbstractDoubleVector evaluate(RAbstractDoubleVector a, RAbstractDoubleVector b, RAbstractDoubleVector c, boolean x, //
                         @Cached("create()") BranchProfile nan, //
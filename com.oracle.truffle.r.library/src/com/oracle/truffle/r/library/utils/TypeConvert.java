@@ -23,6 +23,7 @@
 package com.oracle.truffle.r.library.utils;
 
 import java.util.Arrays;
+import java.util.HashMap;
 import java.util.TreeSet;
 
 import com.oracle.truffle.api.dsl.Specialization;
@@ -32,6 +33,7 @@ import com.oracle.truffle.r.runtime.data.RDataFactory;
 import com.oracle.truffle.r.runtime.data.RDoubleVector;
 import com.oracle.truffle.r.runtime.data.RIntVector;
 import com.oracle.truffle.r.runtime.data.RLogicalVector;
+import com.oracle.truffle.r.runtime.data.RStringPool;
 import com.oracle.truffle.r.runtime.data.RVector;
 import com.oracle.truffle.r.runtime.data.model.RAbstractStringVector;
 
@@ -156,18 +158,18 @@ public abstract class TypeConvert extends RExternalBuiltinNode.Arg5 {
             }
             String[] levelsArray = new String[levels.size()];
             levels.toArray(levelsArray);
+            HashMap<String, Integer> levelCodes = new HashMap<>();
+            for (int k = 0; k < levelsArray.length; k++) {
+                levelsArray[k] = RStringPool.intern(levelsArray[k]);
+                levelCodes.put(levelsArray[k], k + 1);
+            }
 
             int[] data = new int[x.getLength()];
             boolean complete = true;
             for (int j = 0; j < data.length; j++) {
                 s = x.getDataAt(j);
                 if (!isNA(s, naStrings)) {
-                    for (int k = 0; k < levelsArray.length; k++) {
-                        if (levelsArray[k].equals(s)) {
-                            data[j] = k + 1;
-                            break;
-                        }
-                    }
+                    data[j] = levelCodes.get(s);
                 } else {
                     data[j] = RRuntime.INT_NA;
                     complete = false;
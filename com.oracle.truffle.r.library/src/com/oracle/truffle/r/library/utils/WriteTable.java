@@ -324,6 +324,8 @@ public final class WriteTable extends RExternalBuiltinNode {
         }
         try (RConnection openConn = conn.forceOpen("wt")) {
             execute(openConn, argValues[0], nr, nc, rnamesArg, csep, ceol, cna, cdec.charAt(0), RRuntime.fromLogical(qmethod), quoteCol, quoteRn);
+            // e.g. a text connection only binds its variable when flushed
+            openConn.flush();
         } catch (IOException | IllegalArgumentException ex) {
             errorProfile.enter();
             throw RError.error(this, RError.Message.GENERIC, ex.getMessage());
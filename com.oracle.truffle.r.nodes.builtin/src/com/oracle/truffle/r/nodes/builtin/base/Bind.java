@@ -486,9 +486,8 @@ public abstract class Bind extends RBaseNode {
 
             // compute result vector values
             int vecLength = vec.getLength();
-            for (int j = 0; j < vecLength; j++) {
-                result.transferElementSameType(ind++, vec, j);
-            }
+            result.transferElementsSameType(ind, vec, 0, vecLength);
+            ind += vecLength;
             if (notEqualRows) {
                 everSeenNotEqualRows.enter();
                 if (vecLength < resultDimensions[0]) {
@@ -564,9 +563,8 @@ public abstract class Bind extends RBaseNode {
             int srcInd = 0;
             int j = 0;
             for (; j < vecLength / firstDims[i]; j++) {
-                for (int k = dstRowInd; k < dstRowInd + firstDims[i]; k++) {
-                    result.transferElementSameType(j * resultDimensions[0] + k, vec, srcInd++);
-                }
+                result.transferElementsSameType(j * resultDimensions[0] + dstRowInd, vec, srcInd, firstDims[i]);
+                srcInd += firstDims[i];
             }
             if (notEqualColumns) {
                 everSeenNotEqualColumns.enter();
@@ -14,25 +14,23 @@ import static com.oracle.truffle.r.nodes.builtin.CastBuilder.Predef.numericValue
 import static com.oracle.truffle.r.nodes.builtin.CastBuilder.Predef.toBoolean;
 
 import com.oracle.truffle.api.dsl.Specialization;
+import com.oracle.truffle.api.profiles.ConditionProfile;
 import com.oracle.truffle.r.nodes.builtin.CastBuilder;
 import com.oracle.truffle.r.nodes.builtin.RBuiltinNode;
 import com.oracle.truffle.r.runtime.RBuiltin;
 import com.oracle.truffle.r.runtime.RBuiltinKind;
 import com.oracle.truffle.r.runtime.RError;
-import com.oracle.truffle.r.runtime.RRuntime;
 import com.oracle.truffle.r.runtime.data.RDataFactory;
 import com.oracle.truffle.r.runtime.data.RDoubleVector;
 import com.oracle.truffle.r.runtime.data.RIntVector;
 import com.oracle.truffle.r.runtime.data.RLogicalVector;
-import com.oracle.truffle.r.runtime.ops.BinaryArithmetic;
-import com.oracle.truffle.r.runtime.ops.na.NACheck;
+import com.oracle.truffle.r.runtime.data.model.RAbstractVector;
 
 //Implements .colMeans
 @RBuiltin(name = "colMeans", kind = RBuiltinKind.INTERNAL, parameterNames = {"X", "m", "n", "na.rm"})
 public abstract class ColMeans extends RBuiltinNode {
 
-    @Child private BinaryArithmetic add = BinaryArithmetic.ADD.create();
-    private final NACheck na = NACheck.create();
+    private final ConditionProfile removeNA = ConditionProfile.createBinaryProfile();
 
     @Override
     protected void createCasts(CastBuilder casts) {
@@ -45,142 +43,23 @@ public abstract class ColMeans extends RBuiltinNode {
         casts.arg("na.rm").asLogicalVector().findFirst().map(toBoolean());
     }
 
-    @Specialization(guards = "!naRm")
-    protected RDoubleVector colMeansNaRmFalse(RDoubleVector x, int rowNum, int colNum, @SuppressWarnings("unused") boolean naRm) {
-        double[] result = new double[colNum];
-        boolean isComplete = true;
-        na.enable(x);
-        nextCol: for (int c = 0; c < colNum; c++) {
-            double sum = 0;
-            for (int i = 0; i < rowNum; i++) {
-                double el = x.getDataAt(c * rowNum + i);
-                if (na.check(el)) {
-                    result[c] = RRuntime.DOUBLE_NA;
-                    continue nextCol;
-                }
-                if (Double.isNaN(el)) {
-                    result[c] = Double.NaN;
-                    isComplete = false;
-                    continue nextCol;
-                }
-                sum = add.op(sum, el);
-            }
-            result[c] = sum / rowNum;
-        }
-        return RDataFactory.createDoubleVector(result, na.neverSeenNA() && isComplete);
+    private RDoubleVector reduce(RAbstractVector x, int rowNum, int colNum, boolean naRm) {
+        double[] result = MatrixReductions.colReduce(x, rowNum, colNum, removeNA.profile(naRm), true);
+        return RDataFactory.createDoubleVector(result, MatrixReductions.isComplete(result));
     }
 
-    @Specialization(guards = "naRm")
-    protected RDoubleVector colMeansNaRmTrue(RDoubleVector x, int rowNum, int colNum, @SuppressWarnings("unused") boolean naRm) {
-        double[] result = new double[colNum];
-        boolean isComplete = true;
-        na.enable(x);
-        for (int c = 0; c < colNum; c++) {
-            double sum = 0;
-            int nonNaNumCount = 0;
-            for (int i = 0; i < rowNum; i++) {
-                double el = x.getDataAt(c * rowNum + i);
-                if (!na.check(el) && !Double.isNaN(el)) {
-                    sum = add.op(sum, el);
-                    nonNaNumCount++;
-                }
-            }
-            if (nonNaNumCount == 0) {
-                result[c] = Double.NaN;
-                isComplete = false;
-            } else {
-                result[c] = sum / nonNaNumCount;
-            }
-        }
-        return RDataFactory.createDoubleVector(result, isComplete);
+    @Specialization
+    protected RDoubleVector colMeans(RDoubleVector x, int rowNum, int colNum, boolean naRm) {
+        return reduce(x, rowNum, colNum, naRm);
     }
 
-    @Specialization(guards = "!naRm")
-    protected RDoubleVector colMeansNaRmFalse(RLogicalVector x, int rowNum, int colNum, @SuppressWarnings("unused") boolean naRm) {
-        double[] result = new double[colNum];
-        na.enable(x);
-        nextCol: for (int c = 0; c < colNum; c++) {
-            double sum = 0;
-            for (int i = 0; i < rowNum; i++) {
-                byte el = x.getDataAt(c * rowNum + i);
-                if (na.check(el)) {
-                    result[c] = RRuntime.DOUBLE_NA;
-                    continue nextCol;
-                }
-                sum = add.op(sum, el);
-            }
-            result[c] = sum / rowNum;
-        }
-        return RDataFactory.createDoubleVector(result, na.neverSeenNA());
+    @Specialization
+    protected RDoubleVector colMeans(RLogicalVector x, int rowNum, int colNum, boolean naRm) {
+        return reduce(x, rowNum, colNum, naRm);
     }
 
-    @Specialization(guards = "naRm")
-    protected RDoubleVector colMeansNaRmTrue(RLogicalVector x, int rowNum, int colNum, @SuppressWarnings("unused") boolean naRm) {
-        double[] result = new double[colNum];
-        boolean isComplete = true;
-        na.enable(x);
-        for (int c = 0; c < colNum; c++) {
-            double sum = 0;
-            int nonNaNumCount = 0;
-            for (int i = 0; i < rowNum; i++) {
-                byte el = x.getDataAt(c * rowNum + i);
-                if (!na.check(el)) {
-                    sum = add.op(sum, el);
-                    nonNaNumCount++;
-                }
-            }
-            if (nonNaNumCount == 0) {
-                result[c] = Double.NaN;
-                isComplete = false;
-            } else {
-                result[c] = sum / nonNaNumCount;
-            }
-        }
-        return RDataFactory.createDoubleVector(result, isComplete);
+    @Specialization
+    protected RDoubleVector colMeans(RIntVector x, int rowNum, int colNum, boolean naRm) {
+        return reduce(x, rowNum, colNum, naRm);
     }
-
-    @Specialization(guards = "!naRm")
-    protected RDoubleVector colMeansNaRmFalse(RIntVector x, int rowNum, int colNum, @SuppressWarnings("unused") boolean naRm) {
-        double[] result = new double[colNum];
-        na.enable(x);
-        nextCol: for (int c = 0; c < colNum; c++) {
-            double sum = 0;
-            for (int i = 0; i < rowNum; i++) {
-                int el = x.getDataAt(c * rowNum + i);
-                if (na.check(el)) {
-                    result[c] = RRuntime.DOUBLE_NA;
-                    continue nextCol;
-                }
-                sum = add.op(sum, el);
-            }
-            result[c] = sum / rowNum;
-        }
-        return RDataFactory.createDoubleVector(result, na.neverSeenNA());
-    }
-
-    @Specialization(guards = "naRm")
-    protected RDoubleVector colMeansNaRmTrue(RIntVector x, int rowNum, int colNum, @SuppressWarnings("unused") boolean naRm) {
-        double[] result = new double[colNum];
-        boolean isComplete = true;
-        na.enable(x);
-        for (int c = 0; c < colNum; c++) {
-            double sum = 0;
-            int nonNaNumCount = 0;
-            for (int i = 0; i < rowNum; i++) {
-                int el = x.getDataAt(c * rowNum + i);
-                if (!na.check(el)) {
-                    sum = add.op(sum, el);
-                    nonNaNumCount++;
-                }
-            }
-            if (nonNaNumCount == 0) {
-                result[c] = Double.NaN;
-                isComplete = false;
-            } else {
-                result[c] = sum / nonNaNumCount;
-            }
-        }
-        return RDataFactory.createDoubleVector(result, isComplete);
-    }
-
 }
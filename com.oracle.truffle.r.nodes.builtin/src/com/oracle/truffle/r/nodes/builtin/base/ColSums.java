@@ -32,21 +32,15 @@ import com.oracle.truffle.r.nodes.builtin.RBuiltinNode;
 import com.oracle.truffle.r.runtime.RBuiltin;
 import com.oracle.truffle.r.runtime.RBuiltinKind;
 import com.oracle.truffle.r.runtime.RError;
-import com.oracle.truffle.r.runtime.RRuntime;
 import com.oracle.truffle.r.runtime.data.RDataFactory;
 import com.oracle.truffle.r.runtime.data.RDoubleVector;
 import com.oracle.truffle.r.runtime.data.RIntVector;
 import com.oracle.truffle.r.runtime.data.RLogicalVector;
-import com.oracle.truffle.r.runtime.ops.BinaryArithmetic;
-import com.oracle.truffle.r.runtime.ops.na.NACheck;
+import com.oracle.truffle.r.runtime.data.model.RAbstractVector;
 
 @RBuiltin(name = "colSums", kind = RBuiltinKind.INTERNAL, parameterNames = {"X", "m", "n", "na.rm"})
 public abstract class ColSums extends RBuiltinNode {
 
-    @Child private BinaryArithmetic add = BinaryArithmetic.ADD.create();
-
-    private final NACheck na = NACheck.create();
-
     private final ConditionProfile removeNA = ConditionProfile.createBinaryProfile();
 
     @Override
@@ -60,100 +54,23 @@ public abstract class ColSums extends RBuiltinNode {
         casts.arg("na.rm").asLogicalVector().findFirst().map(toBoolean());
     }
 
-    @Specialization
-    protected RDoubleVector colSums(RDoubleVector x, int rowNum, int colNum, boolean rnaParam) {
-        double[] result = new double[colNum];
-        boolean isComplete = true;
-        na.enable(x);
-        final boolean rna = removeNA.profile(rnaParam);
-        double[] data = x.getDataWithoutCopying();
-        int pos = 0;
-        nextCol: for (int c = 0; c < colNum; c++) {
-            double sum = 0;
-            for (int i = 0; i < rowNum; i++) {
-                double el = data[pos++];
-                if (rna) {
-                    if (!na.check(el) && !Double.isNaN(el)) {
-                        sum = add.op(sum, el);
-                    }
-                } else {
-                    if (na.check(el)) {
-                        result[c] = RRuntime.DOUBLE_NA;
-                        isComplete = false;
-                        pos += rowNum - i - 1;
-                        continue nextCol;
-                    }
-                    if (Double.isNaN(el)) {
-                        result[c] = Double.NaN;
-                        pos += rowNum - i - 1;
-                        continue nextCol;
-                    }
-                    sum = add.op(sum, el);
-                }
-            }
-            result[c] = sum;
-        }
-        return RDataFactory.createDoubleVector(result, isComplete);
+    private RDoubleVector reduce(RAbstractVector x, int rowNum, int colNum, boolean naRm) {
+        double[] result = MatrixReductions.colReduce(x, rowNum, colNum, removeNA.profile(naRm), false);
+        return RDataFactory.createDoubleVector(result, MatrixReductions.isComplete(result));
     }
 
     @Specialization
-    protected RDoubleVector colSums(RLogicalVector x, int rowNum, int colNum, boolean rna) {
-        double[] result = new double[colNum];
-        boolean isComplete = true;
-        na.enable(x);
-        byte[] data = x.getDataWithoutCopying();
-        int pos = 0;
-        nextCol: for (int c = 0; c < colNum; c++) {
-            double sum = 0;
-            for (int i = 0; i < rowNum; i++) {
-                byte el = data[pos++];
-                if (rna) {
-                    if (!na.check(el)) {
-                        sum = add.op(sum, el);
-                    }
-                } else {
-                    if (na.check(el)) {
-                        result[c] = RRuntime.DOUBLE_NA;
-                        pos += rowNum - i - 1;
-                        isComplete = false;
-                        continue nextCol;
-                    }
-                    sum = add.op(sum, el);
-                }
-            }
-            result[c] = sum;
-        }
-        return RDataFactory.createDoubleVector(result, isComplete);
+    protected RDoubleVector colSums(RDoubleVector x, int rowNum, int colNum, boolean naRm) {
+        return reduce(x, rowNum, colNum, naRm);
     }
 
     @Specialization
-    protected RDoubleVector colSums(RIntVector x, int rowNum, int colNum, boolean rna) {
-        double[] result = new double[colNum];
-        boolean isComplete = true;
-        na.enable(x);
-        int[] data = x.getDataWithoutCopying();
-        int pos = 0;
-        nextCol: for (int c = 0; c < colNum; c++) {
-            double sum = 0;
-            for (int i = 0; i < rowNum; i++) {
-                int el = data[pos++];
-                if (rna) {
-                    if (!na.check(el)) {
-                        sum = add.op(sum, el);
-                    }
-                } else {
-                    if (na.check(el)) {
-                        result[c] = RRuntime.DOUBLE_NA;
-                        pos += rowNum - i - 1;
-                        isComplete = false;
-                        continue nextCol;
-                    }
-                    sum = add.op(sum, el);
-                }
-            }
-            result[c] = sum;
-        }
-        return RDataFactory.createDoubleVector(result, isComplete);
+    protected RDoubleVector colSums(RLogicalVector x, int rowNum, int colNum, boolean naRm) {
+        return reduce(x, rowNum, colNum, naRm);
     }
 
+    @Specialization
+    protected RDoubleVector colSums(RIntVector x, int rowNum, int colNum, boolean naRm) {
+        return reduce(x, rowNum, colNum, naRm);
+    }
 }
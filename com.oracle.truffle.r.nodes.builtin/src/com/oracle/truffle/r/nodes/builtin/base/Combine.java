@@ -190,9 +190,7 @@ public abstract class Combine extends RBuiltinNode {
             RAbstractVector v = (RAbstractVector) element;
             RStringVector newNames = v.getNames(attrProfiles);
             if (newNames != null) {
-                for (int i1 = 0; i1 < newNames.getLength(); i1++) {
-                    result.transferElementSameType(pos + i1, newNames, i1);
-                }
+                result.transferElementsSameType(pos, newNames, 0, newNames.getLength());
                 if (!newNames.isComplete()) {
                     naNameBranch.enter();
                     result.setComplete(false);
@@ -225,9 +223,7 @@ public abstract class Combine extends RBuiltinNode {
     private static int processContentElement(BranchProfile naBranch, NACheck naCheck, RVector result, int pos, Object element) {
         if (element instanceof RAbstractVector) {
             RAbstractVector v = (RAbstractVector) element;
-            for (int i = 0; i < v.getLength(); i++) {
-                result.transferElementSameType(pos + i, v, i);
-            }
+            result.transferElementsSameType(pos, v, 0, v.getLength());
             if (!v.isComplete()) {
                 naBranch.enter();
                 result.setComplete(false);
@@ -446,12 +442,12 @@ public abstract class Combine extends RBuiltinNode {
 
             RStringVector vecNames = materialized.getInternalNames();
             if (hasNamesProfile.profile(vecNames != null)) {
-                result.initAttributes(RAttributes.createInitialized(new String[]{RRuntime.NAMES_ATTR_KEY}, new Object[]{vecNames}));
+                result.initAttributes(RAttributes.createInitialized(RAttributes.Shape.NAMES, new Object[]{vecNames}));
                 result.setInternalNames(vecNames);
             } else {
                 RList dimNames = materialized.getInternalDimNames();
                 if (hasDimNamesProfile.profile(dimNames != null)) {
-                    result.initAttributes(RAttributes.createInitialized(new String[]{RRuntime.DIMNAMES_ATTR_KEY}, new Object[]{dimNames}));
+                    result.initAttributes(RAttributes.createInitialized(RAttributes.Shape.DIMNAMES, new Object[]{dimNames}));
                     result.setInternalDimNames(dimNames);
                 }
             }
@@ -40,6 +40,7 @@ import java.nio.ByteOrder;
 import java.nio.DoubleBuffer;
 import java.nio.IntBuffer;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.zip.ZipException;
 
 import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
@@ -51,6 +52,7 @@ import com.oracle.truffle.r.nodes.builtin.CastBuilder;
 import com.oracle.truffle.r.nodes.builtin.RBuiltinNode;
 import com.oracle.truffle.r.nodes.builtin.base.ConnectionFunctionsFactory.WriteDataNodeGen;
 import com.oracle.truffle.r.runtime.RBuiltin;
+import com.oracle.truffle.r.runtime.RCompression;
 import com.oracle.truffle.r.runtime.RError;
 import com.oracle.truffle.r.runtime.RInternalError;
 import com.oracle.truffle.r.runtime.RRuntime;
@@ -59,6 +61,7 @@ import com.oracle.truffle.r.runtime.conn.ConnectionSupport.BaseRConnection;
 import com.oracle.truffle.r.runtime.conn.FileConnections.FileRConnection;
 import com.oracle.truffle.r.runtime.conn.GZIPConnections.GZIPRConnection;
 import com.oracle.truffle.r.runtime.conn.RConnection;
+import com.oracle.truffle.r.runtime.conn.SocketConnections;
 import com.oracle.truffle.r.runtime.conn.SocketConnections.RSocketConnection;
 import com.oracle.truffle.r.runtime.conn.TextConnections.TextRConnection;
 import com.oracle.truffle.r.runtime.conn.URLConnections.URLRConnection;
@@ -74,6 +77,7 @@ import com.oracle.truffle.r.runtime.data.RLogicalVector;
 import com.oracle.truffle.r.runtime.data.RNull;
 import com.oracle.truffle.r.runtime.data.RRaw;
 import com.oracle.truffle.r.runtime.data.RRawVector;
+import com.oracle.truffle.r.runtime.data.RStringPool;
 import com.oracle.truffle.r.runtime.data.RStringVector;
 import com.oracle.truffle.r.runtime.data.RTypes;
 import com.oracle.truffle.r.runtime.data.RVector;
@@ -173,8 +177,8 @@ public abstract class ConnectionFunctions {
 
     /**
      * {@code gzfile} is very versatile (unfortunately); it can open uncompressed files, and files
-     * compressed by {@code bzip2, xz, lzma}. Currently we only support {@code gzip} and
-     * uncompressed.
+     * compressed by {@code bzip2, xz, lzma}. The latter two are decompressed by an external process
+     * while they are read. Writing always produces {@code gzip}.
      */
     @RBuiltin(name = "gzfile", kind = INTERNAL, parameterNames = {"description", "open", "encoding", "compression"})
     public abstract static class GZFile extends RBuiltinNode {
@@ -202,6 +206,44 @@ public abstract class ConnectionFunctions {
         }
     }
 
+    /**
+     * Common part of {@code bzfile} and {@code xzfile}, which read the same formats as
+     * {@code gzfile} but write {@code bzip2}, resp. {@code xz} compressed files. The compression is
+     * done by an external process that the data is streamed to.
+     */
+    private abstract static class CompressedFile extends RBuiltinNode {
+        @Override
+        protected void createCasts(CastBuilder casts) {
+            casts.arg("compression").asIntegerVector().findFirst().notNA();
+        }
+
+        @TruffleBoundary
+        protected Object open(RAbstractStringVector description, RAbstractStringVector open, RCompression.Type type, int compression) {
+            try {
+                return new GZIPRConnection(description.getDataAt(0), open.getDataAt(0), type, compression);
+            } catch (IOException ex) {
+                RError.warning(this, RError.Message.CANNOT_OPEN_FILE, description.getDataAt(0), ex.getMessage());
+                throw RError.error(this, RError.Message.CANNOT_OPEN_CONNECTION);
+            }
+        }
+    }
+
+    @RBuiltin(name = "bzfile", kind = INTERNAL, parameterNames = {"description", "open", "encoding", "compression"})
+    public abstract static class BZFile extends CompressedFile {
+        @Specialization
+        protected Object bzFile(RAbstractStringVector description, RAbstractStringVector open, @SuppressWarnings("unused") RAbstractStringVector encoding, int compression) {
+            return open(description, open, RCompression.Type.BZIP2, compression);
+        }
+    }
+
+    @RBuiltin(name = "xzfile", kind = INTERNAL, parameterNames = {"description", "open", "encoding", "compression"})
+    public abstract static class XZFile extends CompressedFile {
+        @Specialization
+        protected Object xzFile(RAbstractStringVector description, RAbstractStringVector open, @SuppressWarnings("unused") RAbstractStringVector encoding, int compression) {
+            return open(description, open, RCompression.Type.LZMA, compression);
+        }
+    }
+
     @RBuiltin(name = "textConnection", kind = INTERNAL, parameterNames = {"nm", "object", "open", "env", "type"})
     public abstract static class TextConnection extends RBuiltinNode {
         @Specialization
@@ -218,6 +260,12 @@ public abstract class ConnectionFunctions {
             }
         }
 
+        @Specialization
+        @TruffleBoundary
+        protected Object textConnection(RAbstractStringVector nm, @SuppressWarnings("unused") RNull object, RAbstractStringVector open, REnvironment env, RAbstractIntVector encoding) {
+            return textConnection(nm, RDataFactory.createEmptyStringVector(), open, env, encoding);
+        }
+
         @SuppressWarnings("unused")
         @Fallback
         protected Object textConnection(Object nm, Object object, Object open, Object env, Object encoding) {
@@ -266,6 +314,42 @@ public abstract class ConnectionFunctions {
         }
     }
 
+    @RBuiltin(name = "sockSelect", kind = INTERNAL, parameterNames = {"socklist", "write", "timeout"})
+    public abstract static class SockSelect extends RBuiltinNode {
+
+        @Override
+        protected void createCasts(CastBuilder casts) {
+            casts.arg("write").asLogicalVector();
+            casts.arg("timeout").asDoubleVector().findFirst(-1.0);
+        }
+
+        @Specialization
+        @TruffleBoundary
+        protected RLogicalVector sockSelect(RList socklist, RAbstractLogicalVector write, double timeout) {
+            int n = socklist.getLength();
+            RSocketConnection[] connections = new RSocketConnection[n];
+            boolean[] writeFlags = new boolean[n];
+            for (int i = 0; i < n; i++) {
+                Object con = socklist.getDataAt(i);
+                if (!(con instanceof RConnection) || !(getBaseConnection((RConnection) con) instanceof RSocketConnection) || !getBaseConnection((RConnection) con).isOpen()) {
+                    throw RError.error(this, RError.Message.NOT_A_SOCKET_CONNECTION);
+                }
+                connections[i] = (RSocketConnection) getBaseConnection((RConnection) con);
+                writeFlags[i] = write.getLength() > 0 && RRuntime.fromLogical(write.getDataAt(i % write.getLength()));
+            }
+            try {
+                boolean[] ready = SocketConnections.select(connections, writeFlags, timeout < 0 ? -1 : (long) (timeout * 1000));
+                byte[] result = new byte[n];
+                for (int i = 0; i < n; i++) {
+                    result[i] = RRuntime.asLogical(ready[i]);
+                }
+                return RDataFactory.createLogicalVector(result, RDataFactory.COMPLETE_VECTOR);
+            } catch (IOException ex) {
+                throw RError.error(this, RError.Message.GENERIC, ex.getMessage());
+            }
+        }
+    }
+
     @RBuiltin(name = "url", kind = INTERNAL, parameterNames = {"description", "open", "blocking", "encoding"})
     public abstract static class URLConnection extends RBuiltinNode {
         @Specialization
@@ -437,7 +521,7 @@ public abstract class ConnectionFunctions {
                 if (n > 0 && lines.length < n && ok == RRuntime.LOGICAL_FALSE) {
                     throw RError.error(this, RError.Message.TOO_FEW_LINES_READ_LINES);
                 }
-                return RDataFactory.createStringVector(lines, RDataFactory.COMPLETE_VECTOR);
+                return RDataFactory.createStringVector(RStringPool.internAll(lines), RDataFactory.COMPLETE_VECTOR);
             } catch (IOException x) {
                 throw RError.error(this, RError.Message.ERROR_READING_CONNECTION, x.getMessage());
             }
@@ -690,55 +774,72 @@ public abstract class ConnectionFunctions {
             return result;
         }
 
+        /**
+         * Largest request passed to {@link RConnection#readBinBuffer(int)}, a multiple of every
+         * element size.
+         */
+        private static final int MAX_CHUNK_BYTES = 1 << 30;
+
         private static RIntVector readInteger(RConnection con, int n, boolean swap) throws IOException {
-            ByteBuffer buffer = ByteBuffer.allocate(n * 4);
-            int bytesRead = con.readBin(buffer);
-            if (bytesRead == 0) {
+            int[] data = new int[0];
+            int count = 0;
+            while (count < n) {
+                int requested = Math.min(n - count, MAX_CHUNK_BYTES / 4);
+                ByteBuffer buffer = con.readBinBuffer(requested * 4);
+                int nInts = buffer.remaining() / 4;
+                data = count == 0 ? new int[nInts] : Arrays.copyOf(data, count + nInts);
+                checkOrder(buffer, swap).asIntBuffer().get(data, count, nInts);
+                count += nInts;
+                if (nInts < requested) {
+                    break;
+                }
+            }
+            if (count == 0) {
                 return RDataFactory.createEmptyIntVector();
             }
-            buffer.flip();
-            IntBuffer intBuffer = checkOrder(buffer, swap).asIntBuffer();
-            int nInts = bytesRead / 4;
-            int[] data = new int[nInts];
             boolean complete = RDataFactory.COMPLETE_VECTOR;
-            for (int i = 0; i < nInts; i++) {
-                int d = intBuffer.get();
-                if (RRuntime.isNA(d)) {
+            for (int i = 0; i < count; i++) {
+                if (RRuntime.isNA(data[i])) {
                     complete = RDataFactory.INCOMPLETE_VECTOR;
+                    break;
                 }
-                data[i] = d;
             }
             return RDataFactory.createIntVector(data, complete);
         }
 
         private static RDoubleVector readDouble(RConnection con, int n, boolean swap) throws IOException {
-            ByteBuffer buffer = ByteBuffer.allocate(n * 8);
-            int bytesRead = con.readBin(buffer);
-            if (bytesRead == 0) {
+            double[] data = new double[0];
+            int count = 0;
+            while (count < n) {
+                int requested = Math.min(n - count, MAX_CHUNK_BYTES / 8);
+                ByteBuffer buffer = con.readBinBuffer(requested * 8);
+                int nDoubles = buffer.remaining() / 8;
+                data = count == 0 ? new double[nDoubles] : Arrays.copyOf(data, count + nDoubles);
+                checkOrder(buffer, swap).asDoubleBuffer().get(data, count, nDoubles);
+                count += nDoubles;
+                if (nDoubles < requested) {
+                    break;
+                }
+            }
+            if (count == 0) {
                 return RDataFactory.createEmptyDoubleVector();
             }
-            buffer.flip();
-            DoubleBuffer doubleBuffer = checkOrder(buffer, swap).asDoubleBuffer();
-            int nDoubles = bytesRead / 8;
             boolean complete = RDataFactory.COMPLETE_VECTOR;
-            double[] data = new double[nDoubles];
-            for (int i = 0; i < nDoubles; i++) {
-                double d = doubleBuffer.get();
-                if (RRuntime.isNA(d)) {
+            for (int i = 0; i < count; i++) {
+                if (RRuntime.isNA(data[i])) {
                     complete = RDataFactory.INCOMPLETE_VECTOR;
+                    break;
                 }
-                data[i] = d;
             }
             return RDataFactory.createDoubleVector(data, complete);
         }
 
         private static RComplexVector readComplex(RConnection con, int n, boolean swap) throws IOException {
-            ByteBuffer buffer = ByteBuffer.allocate(n * 16);
-            int bytesRead = con.readBin(buffer);
+            ByteBuffer buffer = con.readBinBuffer(n * 16);
+            int bytesRead = buffer.remaining();
             if (bytesRead == 0) {
                 return RDataFactory.createEmptyComplexVector();
             }
-            buffer.flip();
             DoubleBuffer doubleBuffer = checkOrder(buffer, swap).asDoubleBuffer();
             int nComplex = bytesRead / 16;
             boolean complete = RDataFactory.COMPLETE_VECTOR;
@@ -777,24 +878,22 @@ public abstract class ConnectionFunctions {
         }
 
         private static RRawVector readRaw(RConnection con, int n) throws IOException {
-            ByteBuffer buffer = ByteBuffer.allocate(n);
-            int bytesRead = con.readBin(buffer);
+            ByteBuffer buffer = con.readBinBuffer(n);
+            int bytesRead = buffer.remaining();
             if (bytesRead == 0) {
                 return RDataFactory.createEmptyRawVector();
             }
-            buffer.flip();
             byte[] data = new byte[bytesRead];
             buffer.get(data);
             return RDataFactory.createRawVector(data);
         }
 
         private static RLogicalVector readLogical(RConnection con, int n, boolean swap) throws IOException {
-            ByteBuffer buffer = ByteBuffer.allocate(n * 4);
-            int bytesRead = con.readBin(buffer);
+            ByteBuffer buffer = con.readBinBuffer(n * 4);
+            int bytesRead = buffer.remaining();
             if (bytesRead == 0) {
                 return RDataFactory.createEmptyLogicalVector();
             }
-            buffer.flip();
             IntBuffer intBuffer = checkOrder(buffer, swap).asIntBuffer();
             int nInts = bytesRead / 4;
             byte[] data = new byte[nInts];
@@ -915,6 +1014,8 @@ public abstract class ConnectionFunctions {
     @RBuiltin(name = "writeBin", visibility = RVisibility.CUSTOM, kind = INTERNAL, parameterNames = {"object", "con", "size", "swap", "useBytes"})
     public abstract static class WriteBin extends InternalCloseHelper {
 
+        private static final int WRITE_CHUNK_BYTES = 1 << 20;
+
         @Override
         protected void createCasts(CastBuilder casts) {
             casts.firstIntegerWithError(2, null, null);
@@ -931,9 +1032,11 @@ public abstract class ConnectionFunctions {
                     if (getBaseConnection(openConn).isTextMode()) {
                         throw RError.error(this, RError.Message.ONLY_WRITE_BINARY_CONNECTION);
                     }
-                    ByteBuffer buffer = writeData.execute(object, size, swap, useBytes);
-                    buffer.flip();
-                    con.writeBin(buffer);
+                    if (!writeChunked(object, con, swap)) {
+                        ByteBuffer buffer = writeData.execute(object, size, swap, useBytes);
+                        buffer.flip();
+                        con.writeBin(buffer);
+                    }
                 } catch (IOException x) {
                     throw RError.error(this, RError.Message.ERROR_WRITING_CONNECTION, x.getMessage());
                 }
@@ -942,6 +1045,39 @@ public abstract class ConnectionFunctions {
             return RNull.instance;
         }
 
+        /**
+         * Writes large double and integer vectors through a bounded direct buffer, filled with bulk
+         * puts, instead of encoding the whole vector into one heap buffer (which the channel would
+         * then copy again into a temporary direct buffer of the same size).
+         */
+        private static boolean writeChunked(RAbstractVector object, RConnection con, boolean swap) throws IOException {
+            int length = object.getLength();
+            if (length <= WRITE_CHUNK_BYTES / 8 || !(object instanceof RDoubleVector || object instanceof RIntVector)) {
+                return false;
+            }
+            ByteBuffer buffer = checkOrder(ByteBuffer.allocateDirect(WRITE_CHUNK_BYTES), swap);
+            if (object instanceof RDoubleVector) {
+                double[] data = ((RDoubleVector) object).getDataWithoutCopying();
+                for (int offset = 0; offset < length; offset += WRITE_CHUNK_BYTES / 8) {
+                    int count = Math.min(length - offset, WRITE_CHUNK_BYTES / 8);
+                    buffer.clear();
+                    buffer.asDoubleBuffer().put(data, offset, count);
+                    buffer.limit(count * 8);
+                    con.writeBin(buffer);
+                }
+            } else {
+                int[] data = ((RIntVector) object).getDataWithoutCopying();
+                for (int offset = 0; offset < length; offset += WRITE_CHUNK_BYTES / 4) {
+                    int count = Math.min(length - offset, WRITE_CHUNK_BYTES / 4);
+                    buffer.clear();
+                    buffer.asIntBuffer().put(data, offset, count);
+                    buffer.limit(count * 4);
+                    con.writeBin(buffer);
+                }
+            }
+            return true;
+        }
+
         @Specialization
         protected RRawVector writeBin(RAbstractVector object, @SuppressWarnings("unused") RAbstractRawVector con, int size, byte swapArg, byte useBytesArg, //
                         @Cached("create()") WriteDataNode writeData) {
@@ -997,9 +1133,16 @@ public abstract class ConnectionFunctions {
         @Specialization
         @TruffleBoundary
         protected long seek(RConnection con, RAbstractDoubleVector where, RAbstractIntVector origin, RAbstractIntVector rw) {
-            long offset = (long) where.getDataAt(0);
+            double whereValue = where.getDataAt(0);
+            // origin is 1-based ("start", "current", "end"), rw 0-based ("", "read", "write")
+            RConnection.SeekMode seekMode = RConnection.SeekMode.values()[origin.getDataAt(0) - 1];
+            RConnection.SeekRWMode seekRWMode = RConnection.SeekRWMode.values()[rw.getDataAt(0)];
             try {
-                return con.seek(offset, RConnection.SeekMode.values()[origin.getDataAt(0)], RConnection.SeekRWMode.values()[rw.getDataAt(0)]);
+                if (RRuntime.isNAorNaN(whereValue)) {
+                    // only queries the position
+                    return con.seek(0, RConnection.SeekMode.CURRENT, seekRWMode);
+                }
+                return con.seek((long) whereValue, seekMode, seekRWMode);
             } catch (IOException x) {
                 throw RError.error(this, RError.Message.GENERIC, x.getMessage());
             }
@@ -37,7 +37,7 @@ import com.oracle.truffle.r.runtime.RVisibility;
 import com.oracle.truffle.r.runtime.conn.RConnection;
 
 /**
- * The {@code dput .Internal}.
+ * The {@code dput .Internal}. The deparsed value is written to the connection as it is produced.
  */
 @RBuiltin(name = "dput", visibility = RVisibility.OFF, kind = INTERNAL, parameterNames = {"x", "file", "opts"})
 public abstract class DPut extends RBuiltinNode {
@@ -50,10 +50,8 @@ public abstract class DPut extends RBuiltinNode {
     @Specialization
     @TruffleBoundary
     protected Object dput(Object x, RConnection file, int opts) {
-
-        String string = RDeparse.deparse(x, RDeparse.DEFAULT_Cutoff, true, opts, -1);
         try (RConnection openConn = file.forceOpen("wt")) {
-            openConn.writeString(string, true);
+            RDeparse.deparse(openConn, x, RDeparse.DEFAULT_Cutoff, true, opts);
         } catch (IOException ex) {
             throw RError.error(this, RError.Message.GENERIC, ex.getMessage());
         }
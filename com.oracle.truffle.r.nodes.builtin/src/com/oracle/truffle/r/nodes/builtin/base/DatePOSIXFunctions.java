@@ -17,6 +17,7 @@ import java.time.Instant;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.ZoneId;
+import java.time.ZoneOffset;
 import java.time.ZonedDateTime;
 import java.time.format.DateTimeFormatter;
 import java.time.format.DateTimeFormatterBuilder;
@@ -24,8 +25,11 @@ import java.time.format.DateTimeParseException;
 import java.time.format.TextStyle;
 import java.time.temporal.ChronoField;
 import java.time.temporal.TemporalAccessor;
+import java.time.zone.ZoneOffsetTransition;
+import java.time.zone.ZoneRules;
 import java.util.HashMap;
 import java.util.TimeZone;
+import java.util.concurrent.ConcurrentHashMap;
 
 import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
 import com.oracle.truffle.api.dsl.Specialization;
@@ -34,6 +38,7 @@ import com.oracle.truffle.r.nodes.builtin.RBuiltinNode;
 import com.oracle.truffle.r.runtime.RBuiltin;
 import com.oracle.truffle.r.runtime.RBuiltinKind;
 import com.oracle.truffle.r.runtime.RInternalError;
+import com.oracle.truffle.r.runtime.RParallel;
 import com.oracle.truffle.r.runtime.RRuntime;
 import com.oracle.truffle.r.runtime.context.RContext;
 import com.oracle.truffle.r.runtime.data.RAttributeProfiles;
@@ -95,6 +100,28 @@ public class DatePOSIXFunctions {
             isdst[index] = newIsDst;
         }
 
+        /**
+         * Sets the entry for the given number of seconds since the epoch in local time, without
+         * allocating {@code java.time} objects.
+         */
+        public void setLocalTime(int index, long localSeconds) {
+            long days = Math.floorDiv(localSeconds, SECONDS_PER_DAY);
+            int secondOfDay = (int) Math.floorMod(localSeconds, SECONDS_PER_DAY);
+            setDate(index, days, secondOfDay % 60, (secondOfDay / 60) % 60, secondOfDay / 3600);
+        }
+
+        /**
+         * Sets the entry for the given date and time of day, where {@code days} counts the days
+         * since the epoch.
+         */
+        public void setDate(int index, long days, double newSec, int newMin, int newHour) {
+            long y = yearFromEpochDay(days);
+            long dayOfYear = days - epochDay(y, 1, 1);
+            int m = monthFromDayOfYear(y, (int) dayOfYear);
+            int d = (int) (days - epochDay(y, m, 1)) + 1;
+            setEntry(index, newSec, newMin, newHour, d, m - 1, (int) (y - 1900), (int) Math.floorMod(days + 3, 7L), (int) dayOfYear + 1, 0);
+        }
+
         public void setIncompleteEntry(int index) {
             sec[index] = RRuntime.DOUBLE_NA;
             min[index] = RRuntime.INT_NA;
@@ -126,6 +153,247 @@ public class DatePOSIXFunctions {
         }
     }
 
+    private static final long SECONDS_PER_DAY = 24 * 3600;
+    private static final int[] CUMULATIVE_DAYS = {0, 31, 59, 90, 120, 151, 181, 212, 243, 273, 304, 334, 365};
+
+    private static boolean isLeapYear(long year) {
+        return (year & 3) == 0 && (year % 100 != 0 || year % 400 == 0);
+    }
+
+    private static int lengthOfMonth(long year, int month) {
+        return CUMULATIVE_DAYS[month] - CUMULATIVE_DAYS[month - 1] + (month == 2 && isLeapYear(year) ? 1 : 0);
+    }
+
+    /**
+     * The number of days since 1970-01-01 of the given date in the proleptic Gregorian calendar.
+     */
+    private static long epochDay(long year, int month, int day) {
+        long y = month <= 2 ? year - 1 : year;
+        long era = Math.floorDiv(y, 400);
+        long yearOfEra = y - era * 400;
+        long dayOfYear = (153 * (month > 2 ? month - 3 : month + 9) + 2) / 5 + day - 1;
+        long dayOfEra = yearOfEra * 365 + yearOfEra / 4 - yearOfEra / 100 + dayOfYear;
+        return era * 146097 + dayOfEra - 719468;
+    }
+
+    private static long yearFromEpochDay(long days) {
+        long z = days + 719468;
+        long era = Math.floorDiv(z, 146097);
+        long dayOfEra = z - era * 146097;
+        long yearOfEra = (dayOfEra - dayOfEra / 1460 + dayOfEra / 36524 - dayOfEra / 146096) / 365;
+        long dayOfYear = dayOfEra - (365 * yearOfEra + yearOfEra / 4 - yearOfEra / 100);
+        // eras start on March 1st
+        return yearOfEra + era * 400 + (dayOfYear >= 306 ? 1 : 0);
+    }
+
+    private static int monthFromDayOfYear(long year, int dayOfYear) {
+        int leap = isLeapYear(year) ? 1 : 0;
+        int month = 1;
+        while (month < 12 && dayOfYear >= CUMULATIVE_DAYS[month] + (month >= 2 ? leap : 0)) {
+            month++;
+        }
+        return month;
+    }
+
+    /**
+     * A time zone resolved from its name, together with the abbreviation that is stored in the
+     * "tzone" attribute.
+     */
+    private static final class ResolvedZone {
+        private final ZoneId id;
+        private final ZoneRules rules;
+        private final String abbreviation;
+
+        ResolvedZone(TimeZone zone) {
+            this.id = zone.toZoneId();
+            this.rules = id.getRules();
+            this.abbreviation = zone.getDisplayName(false, TimeZone.SHORT);
+        }
+
+        ZoneOffset getFixedOffset() {
+            return rules.isFixedOffset() ? rules.getOffset(Instant.EPOCH) : null;
+        }
+    }
+
+    /**
+     * Caches the offset of a zone for the interval between two transitions, so that looking up the
+     * offsets of clustered instants (the common case) does not allocate. Not thread safe, each
+     * thread uses its own cursor.
+     */
+    private static final class OffsetCursor {
+        private final ZoneRules rules;
+        private long from = Long.MAX_VALUE;
+        private long to = Long.MIN_VALUE;
+        private int offset;
+
+        OffsetCursor(ZoneRules rules) {
+            this.rules = rules;
+        }
+
+        int getOffset(long epochSecond) {
+            if (epochSecond < from || epochSecond >= to) {
+                Instant instant = Instant.ofEpochSecond(epochSecond);
+                offset = rules.getOffset(instant).getTotalSeconds();
+                ZoneOffsetTransition previous = rules.previousTransition(instant.plusSeconds(1));
+                ZoneOffsetTransition next = rules.nextTransition(instant);
+                from = previous == null ? Long.MIN_VALUE : previous.toEpochSecond();
+                to = next == null ? Long.MAX_VALUE : next.toEpochSecond();
+            }
+            return offset;
+        }
+    }
+
+    private static final int CACHE_LIMIT = 64;
+    private static final ConcurrentHashMap<String, ResolvedZone> ZONES = new ConcurrentHashMap<>();
+    private static final ConcurrentHashMap<String, DateTimeFormatter> FORMATTERS = new ConcurrentHashMap<>();
+
+    /**
+     * Returns the zone with the given name, or the system time zone if the name is empty. Resolved
+     * zones do not depend on the context and are shared.
+     */
+    private static ResolvedZone getZone(String name) {
+        TimeZone systemZone = name.isEmpty() ? RContext.getInstance().getSystemTimeZone() : null;
+        // keep the system zone apart, it need not be the zone that its id resolves to
+        String key = systemZone == null ? name : "\0" + systemZone.getID();
+        ResolvedZone zone = ZONES.get(key);
+        if (zone == null) {
+            zone = new ResolvedZone(systemZone == null ? TimeZone.getTimeZone(name) : systemZone);
+            if (ZONES.size() >= CACHE_LIMIT) {
+                ZONES.clear();
+            }
+            ZONES.put(key, zone);
+        }
+        return zone;
+    }
+
+    private static DateTimeFormatter getFormatter(String format, boolean forInput, boolean withZone) {
+        String key = (forInput ? 'i' : withZone ? 'z' : 'o') + format;
+        DateTimeFormatter formatter = FORMATTERS.get(key);
+        if (formatter == null) {
+            DateTimeFormatterBuilder builder = createFormatter(format, forInput);
+            if (withZone) {
+                builder.appendLiteral(' ').appendZoneText(TextStyle.SHORT);
+            }
+            formatter = builder.toFormatter();
+            if (FORMATTERS.size() >= CACHE_LIMIT) {
+                FORMATTERS.clear();
+            }
+            FORMATTERS.put(key, formatter);
+        }
+        return formatter;
+    }
+
+    /**
+     * The ISO 8601 like formats "%Y-%m-%d", "%Y-%m-%d %H:%M" and "%Y-%m-%d %H:%M:%S" (also with
+     * '/' as date separator), which are parsed and printed directly. Input that does not match the
+     * fixed field widths or has out of range fields is left to the general formatter.
+     */
+    private static final class IsoFormat {
+        private static final IsoFormat[] FORMATS = {new IsoFormat('-', 0), new IsoFormat('-', 2), new IsoFormat('-', 3), new IsoFormat('/', 0), new IsoFormat('/', 2),
+                        new IsoFormat('/', 3)};
+
+        private final String format;
+        private final char separator;
+        private final int timeFields;
+        private final int length;
+
+        private IsoFormat(char separator, int timeFields) {
+            this.separator = separator;
+            this.timeFields = timeFields;
+            this.format = "%Y" + separator + "%m" + separator + "%d" + (timeFields == 0 ? "" : timeFields == 2 ? " %H:%M" : " %H:%M:%S");
+            this.length = 10 + 3 * timeFields;
+        }
+
+        static IsoFormat get(String format) {
+            for (IsoFormat iso : FORMATS) {
+                if (iso.format.equals(format)) {
+                    return iso;
+                }
+            }
+            return null;
+        }
+
+        private static int digits(String str, int offset, int count) {
+            int result = 0;
+            for (int i = offset; i < offset + count; i++) {
+                char c = str.charAt(i);
+                if (c < '0' || c > '9') {
+                    return -1;
+                }
+                result = result * 10 + (c - '0');
+            }
+            return result;
+        }
+
+        /**
+         * Parses {@code str} into entry {@code index} of {@code builder}. Trailing characters are
+         * ignored, like in the general formatter. Returns {@code false} if the string needs to be
+         * parsed by the general formatter.
+         */
+        boolean parse(String str, POSIXltBuilder builder, int index) {
+            if (str.length() < length || str.charAt(4) != separator || str.charAt(7) != separator) {
+                return false;
+            }
+            int year = digits(str, 0, 4);
+            int month = digits(str, 5, 2);
+            int day = digits(str, 8, 2);
+            if (year < 0 || month < 1 || month > 12 || day < 1 || day > lengthOfMonth(year, month)) {
+                return false;
+            }
+            int hour = 0;
+            int minute = 0;
+            int second = 0;
+            if (timeFields > 0) {
+                if (str.charAt(10) != ' ' || str.charAt(13) != ':' || (timeFields == 3 && str.charAt(16) != ':')) {
+                    return false;
+                }
+                hour = digits(str, 11, 2);
+                minute = digits(str, 14, 2);
+                second = timeFields == 3 ? digits(str, 17, 2) : 0;
+                if (hour < 0 || hour > 23 || minute < 0 || minute > 59 || second < 0 || second > 59) {
+                    return false;
+                }
+            }
+            builder.setDate(index, epochDay(year, month, day), second, minute, hour);
+            return true;
+        }
+
+        private static int putDigits(char[] buffer, int offset, int value, int count) {
+            int v = value;
+            for (int i = offset + count - 1; i >= offset; i--) {
+                buffer[i] = (char) ('0' + v % 10);
+                v /= 10;
+            }
+            return offset + count;
+        }
+
+        /**
+         * Formats the given fields of a POSIXlt entry. Returns {@code null} if the fields are out
+         * of range and need to be formatted by the general formatter.
+         */
+        String format(char[] buffer, double sec, int min, int hour, int mday, int mon, int year) {
+            if (year < 0 || year > 9999 || mon < 1 || mon > 12 || mday < 1 || mday > lengthOfMonth(year, mon) || hour < 0 || hour > 23 || min < 0 || min > 59 || !(sec >= 0 && sec < 60)) {
+                return null;
+            }
+            int pos = putDigits(buffer, 0, year, 4);
+            buffer[pos++] = separator;
+            pos = putDigits(buffer, pos, mon, 2);
+            buffer[pos++] = separator;
+            pos = putDigits(buffer, pos, mday, 2);
+            if (timeFields > 0) {
+                buffer[pos++] = ' ';
+                pos = putDigits(buffer, pos, hour, 2);
+                buffer[pos++] = ':';
+                pos = putDigits(buffer, pos, min, 2);
+                if (timeFields == 3) {
+                    buffer[pos++] = ':';
+                    pos = putDigits(buffer, pos, (int) sec, 2);
+                }
+            }
+            return new String(buffer, 0, pos);
+        }
+    }
+
     @RBuiltin(name = "Date2POSIXlt", kind = RBuiltinKind.INTERNAL, parameterNames = "x")
     public abstract static class Date2POSIXlt extends RBuiltinNode {
 
@@ -140,16 +408,18 @@ public class DatePOSIXFunctions {
         @TruffleBoundary
         protected RList doDate2POSIXlt(RAbstractDoubleVector x) {
             int xLen = x.getLength();
-            TimeZone zone = TimeZone.getTimeZone("UTC");
+            double[] days = x.materialize().getDataWithoutCopying();
             POSIXltBuilder builder = new POSIXltBuilder(xLen, "UTC");
+            RParallel.forEach(xLen, 4, (from, to) -> {
+                for (int i = from; i < to; i++) {
+                    double d = days[i];
+                    if (RRuntime.isFinite(d)) {
+                        builder.setDate(i, (int) Math.floor(d), 0, 0, 0);
+                    }
+                }
+            });
             for (int i = 0; i < xLen; i++) {
-                double d = x.getDataAt(i);
-                if (RRuntime.isFinite(d)) {
-                    int day = (int) Math.floor(d);
-                    Instant instant = Instant.ofEpochSecond(day * 3600L * 24L);
-                    ZonedDateTime date = ZonedDateTime.ofInstant(instant, zone.toZoneId());
-                    builder.setEntry(i, 0, 0, 0, date.getDayOfMonth(), date.getMonthValue() - 1, date.getYear() - 1900, date.getDayOfWeek().ordinal(), date.getDayOfYear(), 0);
-                } else {
+                if (!RRuntime.isFinite(days[i])) {
                     builder.setIncompleteEntry(i);
                 }
             }
@@ -175,23 +445,22 @@ public class DatePOSIXFunctions {
         @Specialization
         @TruffleBoundary
         protected RList asPOSIXlt(RAbstractDoubleVector x, RAbstractStringVector tz) {
-            TimeZone zone;
-            String tzone = RRuntime.asString(tz);
-            if (tzone.isEmpty()) {
-                zone = RContext.getInstance().getSystemTimeZone();
-            } else {
-                zone = TimeZone.getTimeZone(tzone);
-            }
+            ResolvedZone zone = getZone(RRuntime.asString(tz));
             int xLen = x.getLength();
-            POSIXltBuilder builder = new POSIXltBuilder(xLen, zone.getDisplayName(false, TimeZone.SHORT));
+            double[] seconds = x.materialize().getDataWithoutCopying();
+            POSIXltBuilder builder = new POSIXltBuilder(xLen, zone.abbreviation);
+            RParallel.forEach(xLen, 8, (from, to) -> {
+                OffsetCursor offsets = new OffsetCursor(zone.rules);
+                for (int i = from; i < to; i++) {
+                    double second = seconds[i];
+                    if (RRuntime.isFinite(second)) {
+                        long epochSecond = (long) second;
+                        builder.setLocalTime(i, epochSecond + offsets.getOffset(epochSecond));
+                    }
+                }
+            });
             for (int i = 0; i < xLen; i++) {
-                double second = x.getDataAt(i);
-                if (RRuntime.isFinite(second)) {
-                    Instant instant = Instant.ofEpochSecond((long) second);
-                    ZonedDateTime date = ZonedDateTime.ofInstant(instant, zone.toZoneId());
-                    builder.setEntry(i, date.getSecond(), date.getMinute(), date.getHour(), date.getDayOfMonth(), date.getMonthValue() - 1, date.getYear() - 1900, date.getDayOfWeek().ordinal(),
-                                    date.getDayOfYear(), 0);
-                } else {
+                if (!RRuntime.isFinite(seconds[i])) {
                     builder.setIncompleteEntry(i);
                 }
             }
@@ -216,15 +485,9 @@ public class DatePOSIXFunctions {
             RAbstractVector mdayVector = (RAbstractVector) RRuntime.asAbstractVector(x.getDataAt(3));
             RAbstractVector monVector = (RAbstractVector) RRuntime.asAbstractVector(x.getDataAt(4));
             RAbstractVector yearVector = (RAbstractVector) RRuntime.asAbstractVector(x.getDataAt(5));
-            TimeZone zone;
-            String tzone = RRuntime.asString(tz);
-            if (tzone.isEmpty()) {
-                zone = RContext.getInstance().getSystemTimeZone();
-            } else {
-                zone = TimeZone.getTimeZone(tzone);
-            }
-
-            ZoneId zoneId = zone.toZoneId();
+            ResolvedZone zone = getZone(RRuntime.asString(tz));
+            ZoneId zoneId = zone.id;
+            ZoneOffset fixedOffset = zone.getFixedOffset();
             int length = max(secVector.getLength(), minVector.getLength(), hourVector.getLength(), mdayVector.getLength(), monVector.getLength(), yearVector.getLength());
             double[] data = new double[length];
             boolean complete = true;
@@ -245,6 +508,12 @@ public class DatePOSIXFunctions {
                         year -= delta;
                         mon += delta * 12;
                     }
+                    if (fixedOffset != null && hour >= 0 && hour <= 23 && min >= 0 && min <= 59 && sec >= 0 && sec < 60) {
+                        // no transitions, no need to go through java.time
+                        long days = epochDay(year + 1900L, mon + 1, 1) + mday - 1;
+                        data[i] = days * SECONDS_PER_DAY + hour * 3600 + min * 60 - fixedOffset.getTotalSeconds() + sec;
+                        continue;
+                    }
                     LocalDateTime time = LocalDateTime.of(year + 1900, mon + 1, 1, hour, min, (int) sec).plusDays(mday - 1);
                     ZonedDateTime zoned = time.atZone(zoneId);
                     data[i] = zoned.toInstant().getEpochSecond() + (sec - Math.floor(sec));
@@ -323,28 +592,46 @@ public class DatePOSIXFunctions {
             RAbstractIntVector monVector = (RAbstractIntVector) RRuntime.asAbstractVector(x.getDataAt(4));
             RAbstractIntVector yearVector = (RAbstractIntVector) RRuntime.asAbstractVector(x.getDataAt(5));
             ZoneId zone;
-            DateTimeFormatterBuilder builder = createFormatter(format.getDataAt(0), false);
+            String formatString = format.getDataAt(0);
             String tzone = getTimeZomeFromAttribute(x);
-            if (usetz.getDataAt(0) == RRuntime.LOGICAL_TRUE && !tzone.isEmpty()) {
+            boolean withZone = usetz.getDataAt(0) == RRuntime.LOGICAL_TRUE && !tzone.isEmpty();
+            if (withZone) {
                 zone = ZoneId.of(tzone, TIME_ZONE_MAPPING);
-                builder.appendLiteral(' ').appendZoneText(TextStyle.SHORT);
             } else {
-                zone = RContext.getInstance().getSystemTimeZone().toZoneId();
+                zone = getZone("").id;
             }
 
-            DateTimeFormatter formatter = builder.toFormatter();
             int length = secVector.getLength();
+            double[] secs = secVector.materialize().getDataWithoutCopying();
+            int[] mins = minVector.materialize().getDataWithoutCopying();
+            int[] hours = hourVector.materialize().getDataWithoutCopying();
+            int[] mdays = mdayVector.materialize().getDataWithoutCopying();
+            int[] mons = monVector.materialize().getDataWithoutCopying();
+            int[] years = yearVector.materialize().getDataWithoutCopying();
             String[] data = new String[length];
+            IsoFormat iso = withZone ? null : IsoFormat.get(formatString);
+            if (iso != null) {
+                RParallel.forEach(length, 8, (from, to) -> {
+                    char[] buffer = new char[iso.length];
+                    for (int i = from; i < to; i++) {
+                        if (RRuntime.isFinite(secs[i])) {
+                            data[i] = iso.format(buffer, secs[i], mins[i], hours[i], mdays[i], mons[i] + 1, years[i] + 1900);
+                        }
+                    }
+                });
+            }
+            DateTimeFormatter formatter = null;
             boolean complete = true;
             for (int i = 0; i < length; i++) {
-                double sec = secVector.getDataAt(i);
+                if (data[i] != null) {
+                    continue;
+                }
+                double sec = secs[i];
                 if (RRuntime.isFinite(sec)) {
-                    int min = minVector.getDataAt(i);
-                    int hour = hourVector.getDataAt(i);
-                    int mday = mdayVector.getDataAt(i);
-                    int mon = monVector.getDataAt(i) + 1;
-                    int year = yearVector.getDataAt(i) + 1900;
-                    LocalDateTime time = LocalDateTime.of(year, mon, mday, hour, min, (int) sec, (int) ((sec - Math.floor(sec)) * 1000000000L));
+                    if (formatter == null) {
+                        formatter = getFormatter(formatString, false, withZone);
+                    }
+                    LocalDateTime time = LocalDateTime.of(years[i] + 1900, mons[i] + 1, mdays[i], hours[i], mins[i], (int) sec, (int) ((sec - Math.floor(sec)) * 1000000000L));
                     ZonedDateTime zoned = time.atZone(zone);
                     data[i] = formatter.format(zoned);
                 } else {
@@ -362,19 +649,29 @@ public class DatePOSIXFunctions {
         @Specialization
         @TruffleBoundary
         protected RList strptime(RAbstractStringVector x, RAbstractStringVector format, RAbstractStringVector tz) {
-            TimeZone zone;
-            String zoneString = RRuntime.asString(tz);
-            if (zoneString.isEmpty()) {
-                zone = RContext.getInstance().getSystemTimeZone();
-            } else {
-                zone = TimeZone.getTimeZone(zoneString);
-            }
+            ResolvedZone zone = getZone(RRuntime.asString(tz));
             int length = x.getLength();
-            POSIXltBuilder builder = new POSIXltBuilder(length, zone.getDisplayName(false, TimeZone.SHORT));
-            DateTimeFormatter formatter = createFormatter(format.getDataAt(0), true).toFormatter();
-
+            String[] strings = x.materialize().getDataWithoutCopying();
+            POSIXltBuilder builder = new POSIXltBuilder(length, zone.abbreviation);
+            String formatString = format.getDataAt(0);
+            IsoFormat iso = IsoFormat.get(formatString);
+            boolean[] parsed = new boolean[length];
+            if (iso != null) {
+                RParallel.forEach(length, 8, (from, to) -> {
+                    for (int i = from; i < to; i++) {
+                        parsed[i] = iso.parse(strings[i], builder, i);
+                    }
+                });
+            }
+            DateTimeFormatter formatter = null;
             for (int i = 0; i < length; i++) {
-                String str = x.getDataAt(i);
+                if (parsed[i]) {
+                    continue;
+                }
+                if (formatter == null) {
+                    formatter = getFormatter(formatString, true, false);
+                }
+                String str = strings[i];
                 TemporalAccessor parse;
                 try {
                     parse = formatter.parse(str, new ParsePosition(0));
@@ -490,7 +787,7 @@ public class DatePOSIXFunctions {
                          * Hours as decimal number (00–23). As a special exception strings such as
                          * 24:00:00 are accepted for input, since ISO 8601 allows these.
                          */
-                        builder.appendValue(ChronoField.CLOCK_HOUR_OF_DAY, 2);
+                        builder.appendValue(ChronoField.HOUR_OF_DAY, 2);
                         break;
                     case 'I':
                         // Hours as decimal number (01–12).
@@ -539,7 +836,7 @@ public class DatePOSIXFunctions {
                         break;
                     case 'R':
                         // Equivalent to %H:%M.
-                        builder.appendValue(ChronoField.CLOCK_HOUR_OF_DAY, 2).appendLiteral(':').appendValue(ChronoField.MINUTE_OF_HOUR, 2);
+                        builder.appendValue(ChronoField.HOUR_OF_DAY, 2).appendLiteral(':').appendValue(ChronoField.MINUTE_OF_HOUR, 2);
                         break;
                     case 'S':
                         /*
@@ -554,7 +851,7 @@ public class DatePOSIXFunctions {
                         break;
                     case 'T':
                         // Equivalent to %H:%M:%S.
-                        builder.appendValue(ChronoField.CLOCK_HOUR_OF_DAY, 2).appendLiteral(':').appendValue(ChronoField.MINUTE_OF_HOUR, 2).appendLiteral(':').appendValue(
+                        builder.appendValue(ChronoField.HOUR_OF_DAY, 2).appendLiteral(':').appendValue(ChronoField.MINUTE_OF_HOUR, 2).appendLiteral(':').appendValue(
                                         ChronoField.SECOND_OF_MINUTE, 2);
                         break;
                     case 'u':
@@ -29,6 +29,8 @@ import java.util.ArrayList;
 import java.util.function.Function;
 
 import com.oracle.truffle.api.CompilerAsserts;
+import com.oracle.truffle.api.CompilerDirectives;
+import com.oracle.truffle.api.CompilerDirectives.CompilationFinal;
 import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
 import com.oracle.truffle.api.dsl.Cached;
 import com.oracle.truffle.api.dsl.Specialization;
@@ -95,6 +97,7 @@ public class FrameFunctions {
         private final ConditionProfile caller1Profile = ConditionProfile.createBinaryProfile();
         private final ConditionProfile caller2Profile = ConditionProfile.createBinaryProfile();
         protected final BranchProfile errorProfile = BranchProfile.create();
+        @CompilationFinal private boolean needsStackWalk;
 
         /**
          * Determine the frame access mode of a subclass. The rule of thumb is that subclasses that
@@ -137,20 +140,44 @@ public class FrameFunctions {
                 return frame;
             } else {
                 MaterializedFrame caller1 = RArguments.getCallerFrame(frame);
+                MaterializedFrame caller2 = null;
                 if (caller1Profile.profile(caller1 != null)) {
                     if (RArguments.getDepth(caller1) == actualFrame) {
                         return caller1;
                     }
-                    MaterializedFrame caller2 = RArguments.getCallerFrame(caller1);
+                    caller2 = RArguments.getCallerFrame(caller1);
                     if (caller2Profile.profile(caller2 != null)) {
                         if (RArguments.getDepth(caller2) == actualFrame) {
                             return caller2;
                         }
                     }
                 }
+                if (!needsStackWalk) {
+                    CompilerDirectives.transferToInterpreterAndInvalidate();
+                    needsStackWalk = requestCallerFrames(frame, caller1, caller2, actualFrame);
+                }
                 return Utils.getStackFrame(frameAccess(), actualFrame);
             }
         }
+
+        /**
+         * Asks the call sites on the way to the frame {@code actualFrame} to pass their caller
+         * frames, so that the next access to a frame that is at most two levels up does not need a
+         * stack walk. Returns {@code true} if nothing new could be requested.
+         */
+        private static boolean requestCallerFrames(Frame frame, MaterializedFrame caller1, MaterializedFrame caller2, int actualFrame) {
+            int depth = RArguments.getDepth(frame);
+            if (actualFrame < depth - 2) {
+                return true;
+            }
+            boolean requested = false;
+            if (caller1 == null) {
+                requested = !GetCallerFrameNode.requestCallerFrame(RArguments.getCall(frame));
+            } else if (caller2 == null && actualFrame == depth - 2) {
+                requested = !GetCallerFrameNode.requestCallerFrame(RArguments.getCall(caller1));
+            }
+            return !requested;
+        }
     }
 
     @RBuiltin(name = "sys.call", kind = INTERNAL, parameterNames = {"which"})
@@ -0,0 +1,340 @@
+/*
+ * Copyright (c) 2016, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.truffle.r.nodes.builtin.base;
+
+import static com.oracle.truffle.r.nodes.builtin.CastBuilder.Predef.doubleValue;
+import static com.oracle.truffle.r.nodes.builtin.CastBuilder.Predef.gte0;
+import static com.oracle.truffle.r.nodes.builtin.CastBuilder.Predef.integerValue;
+import static com.oracle.truffle.r.nodes.builtin.CastBuilder.Predef.stringValue;
+import static com.oracle.truffle.r.nodes.builtin.CastBuilder.Predef.toBoolean;
+import static com.oracle.truffle.r.runtime.RBuiltinKind.INTERNAL;
+
+import java.util.HashMap;
+
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+import com.oracle.truffle.api.dsl.Specialization;
+import com.oracle.truffle.r.nodes.builtin.CastBuilder;
+import com.oracle.truffle.r.nodes.builtin.RBuiltinNode;
+import com.oracle.truffle.r.runtime.RBuiltin;
+import com.oracle.truffle.r.runtime.RError;
+import com.oracle.truffle.r.runtime.RParallel;
+import com.oracle.truffle.r.runtime.RRuntime;
+import com.oracle.truffle.r.runtime.data.RDataFactory;
+import com.oracle.truffle.r.runtime.data.RNull;
+import com.oracle.truffle.r.runtime.data.model.RAbstractDoubleVector;
+import com.oracle.truffle.r.runtime.data.model.RAbstractIntVector;
+import com.oracle.truffle.r.runtime.data.model.RAbstractVector;
+
+/**
+ * Single pass grouped aggregation of a numeric vector, the FastR specific internal behind the fast
+ * paths of {@code tapply}, {@code aggregate} and {@code rowsum}. The groups are given as 1-based integer codes (e.g.
+ * the codes of a factor, or the result of {@code match(x, unique(x))}), {@code NA} codes are
+ * ignored. The result has one element per group, groups without any element are {@code NA}.
+ *
+ * Returns {@code NULL} if the result would differ from the one obtained by applying the R function
+ * to each group separately (e.g. {@code min} of a group containing only {@code NA}s with
+ * {@code na.rm=TRUE}), in which case the caller is expected to take the general path.
+ *
+ * The groups are partitioned between threads (see {@link RParallel}), each thread scanning the
+ * whole input, so that every group is always accumulated in input order and the result does not
+ * depend on the number of threads.
+ */
+@RBuiltin(name = "grouped_aggregate", kind = INTERNAL, parameterNames = {"x", "g", "ngroups", "fun", "na.rm"})
+public abstract class GroupedAggregate extends RBuiltinNode {
+
+    public enum Function {
+        SUM("sum"),
+        MEAN("mean"),
+        MIN("min"),
+        MAX("max"),
+        COUNT("count");
+
+        private final String rName;
+
+        Function(String rName) {
+            this.rName = rName;
+        }
+
+        public static Function fromName(String name) {
+            for (Function f : values()) {
+                if (f.rName.equals(name)) {
+                    return f;
+                }
+            }
+            return null;
+        }
+    }
+
+    /*
+     * Per group state flags.
+     */
+    private static final byte PRESENT = 1;
+    private static final byte SEEN_NAN = 2;
+    private static final byte SEEN_NA = 4;
+
+    @Override
+    protected void createCasts(CastBuilder casts) {
+        casts.arg("x").mustBe(integerValue().or(doubleValue()), RError.Message.INVALID_ARGUMENT, "x");
+        casts.arg("g").mustBe(integerValue(), RError.Message.INVALID_ARGUMENT, "g").asIntegerVector();
+        casts.arg("ngroups").asIntegerVector().findFirst().mustBe(gte0(), RError.Message.INVALID_ARGUMENT, "ngroups");
+        casts.arg("fun").mustBe(stringValue(), RError.Message.INVALID_ARGUMENT, "fun").asStringVector().findFirst();
+        casts.arg("na.rm").asLogicalVector().findFirst().notNA(RError.Message.INVALID_LOGICAL, "na.rm").map(toBoolean());
+    }
+
+    @Specialization
+    @TruffleBoundary
+    protected Object aggregate(RAbstractVector x, RAbstractIntVector g, int ngroups, String fun, boolean narm) {
+        Function function = Function.fromName(fun);
+        if (function == null) {
+            throw RError.error(this, RError.Message.INVALID_ARGUMENT, "fun");
+        }
+        int n = x.getLength();
+        if (g.getLength() != n) {
+            throw RError.error(this, RError.Message.INVALID_ARGUMENT, "g");
+        }
+        int[] groups = g.materialize().getDataWithoutCopying();
+        int[] counts = new int[ngroups];
+        byte[] state = new byte[ngroups];
+        long groupCost = n / Math.max(1, ngroups) + 1;
+        if (x instanceof RAbstractIntVector && function != Function.MEAN) {
+            int[] data = ((RAbstractIntVector) x).materialize().getDataWithoutCopying();
+            int[] result = new int[ngroups];
+            boolean[] overflow = new boolean[1];
+            RParallel.forEach(ngroups, groupCost, (from, to) -> {
+                if (aggregateInt(data, 0, n, groups, from, to, function, narm, result, state, counts)) {
+                    overflow[0] = true;
+                }
+            });
+            if (!finishInt(function, result, state, counts)) {
+                return RNull.instance;
+            }
+            if (overflow[0]) {
+                RError.warning(this, RError.Message.INTEGER_OVERFLOW);
+            }
+            return RDataFactory.createIntVector(result, false);
+        } else {
+            double[] data = x instanceof RAbstractIntVector ? intToDouble(((RAbstractIntVector) x).materialize().getDataWithoutCopying())
+                            : ((RAbstractDoubleVector) x).materialize().getDataWithoutCopying();
+            double[] result = new double[ngroups];
+            RParallel.forEach(ngroups, groupCost, (from, to) -> aggregateDouble(data, 0, n, groups, from, to, function, narm, result, state, counts));
+            if (function == Function.COUNT) {
+                int[] countResult = new int[ngroups];
+                finishInt(function, countResult, state, counts);
+                return RDataFactory.createIntVector(countResult, false);
+            }
+            if (!finishDouble(function, result, state, counts)) {
+                return RNull.instance;
+            }
+            return RDataFactory.createDoubleVector(result, false);
+        }
+    }
+
+    private static double[] intToDouble(int[] data) {
+        double[] result = new double[data.length];
+        for (int i = 0; i < data.length; i++) {
+            result[i] = RRuntime.isNA(data[i]) ? RRuntime.DOUBLE_NA : data[i];
+        }
+        return result;
+    }
+
+    /**
+     * Matches the elements of {@code g} against {@code uniqueg} (which has no duplicates by
+     * definition) using a hash table, returning the 1-based group code of every element of
+     * {@code g} or {@code NA} if there is no match.
+     */
+    @TruffleBoundary
+    public static int[] matchGroups(RAbstractVector g, RAbstractVector uniqueg) {
+        int ng = uniqueg.getLength();
+        HashMap<Object, Integer> table = new HashMap<>(Math.max(16, ng * 2));
+        for (int i = 0; i < ng; i++) {
+            table.put(uniqueg.getDataAtAsObject(i), i);
+        }
+        int n = g.getLength();
+        int[] matches = new int[n];
+        for (int i = 0; i < n; i++) {
+            Integer hi = table.get(g.getDataAtAsObject(i));
+            matches[i] = hi == null ? RRuntime.INT_NA : hi + 1;
+        }
+        return matches;
+    }
+
+    /**
+     * Accumulates {@code data[offset, offset + n)} into the groups [{@code from}, {@code to}),
+     * {@code counts} receives the number of values that were not removed. Returns {@code true} if
+     * an integer overflow occurred in a sum.
+     */
+    static boolean aggregateInt(int[] data, int offset, int n, int[] groups, int from, int to, Function function, boolean narm, int[] result, byte[] state, int[] counts) {
+        boolean overflow = false;
+        for (int i = 0; i < n; i++) {
+            int k = groups[i] - 1;
+            if (k < from || k >= to) {
+                // other partition or NA group
+                continue;
+            }
+            state[k] |= PRESENT;
+            int value = data[offset + i];
+            if (function != Function.COUNT && RRuntime.isNA(value)) {
+                if (!narm) {
+                    result[k] = RRuntime.INT_NA;
+                    state[k] |= SEEN_NA;
+                    counts[k]++;
+                }
+                continue;
+            }
+            int current = result[k];
+            int seen = counts[k]++;
+            switch (function) {
+                case COUNT:
+                    break;
+                case SUM:
+                    if (seen == 0) {
+                        result[k] = value;
+                    } else if (!RRuntime.isNA(current)) {
+                        long sum = (long) current + value;
+                        if (sum < -Integer.MAX_VALUE || sum > Integer.MAX_VALUE) {
+                            overflow = true;
+                            result[k] = RRuntime.INT_NA;
+                        } else {
+                            result[k] = (int) sum;
+                        }
+                    }
+                    break;
+                case MIN:
+                    if (seen == 0 || (!RRuntime.isNA(current) && value < current)) {
+                        result[k] = value;
+                    }
+                    break;
+                case MAX:
+                    if (seen == 0 || (!RRuntime.isNA(current) && value > current)) {
+                        result[k] = value;
+                    }
+                    break;
+                default:
+                    throw new IllegalArgumentException(function.toString());
+            }
+        }
+        return overflow;
+    }
+
+    /**
+     * Fills in {@code NA} for empty groups, returns {@code false} if the result cannot be computed
+     * by the kernel.
+     */
+    private static boolean finishInt(Function function, int[] result, byte[] state, int[] counts) {
+        for (int i = 0; i < result.length; i++) {
+            if ((state[i] & PRESENT) == 0) {
+                result[i] = RRuntime.INT_NA;
+            } else if (function == Function.COUNT) {
+                result[i] = counts[i];
+            } else if (counts[i] == 0) {
+                switch (function) {
+                    case SUM:
+                        result[i] = 0;
+                        break;
+                    case MIN:
+                    case MAX:
+                        // only NAs that were removed: R gives +/-Inf with a warning
+                        return false;
+                    default:
+                        result[i] = RRuntime.INT_NA;
+                        break;
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Accumulates {@code data[offset, offset + n)} into the groups [{@code from}, {@code to}). A
+     * non-removed {@code NA} always wins over a {@code NaN}, as in the R summary functions.
+     */
+    static void aggregateDouble(double[] data, int offset, int n, int[] groups, int from, int to, Function function, boolean narm, double[] result, byte[] state, int[] counts) {
+        for (int i = 0; i < n; i++) {
+            int k = groups[i] - 1;
+            if (k < from || k >= to) {
+                continue;
+            }
+            state[k] |= PRESENT;
+            double value = data[offset + i];
+            if (function != Function.COUNT && Double.isNaN(value)) {
+                if (narm) {
+                    continue;
+                }
+                state[k] |= RRuntime.isNA(value) ? SEEN_NA : SEEN_NAN;
+                counts[k]++;
+                continue;
+            }
+            int seen = counts[k]++;
+            switch (function) {
+                case COUNT:
+                    break;
+                case SUM:
+                case MEAN:
+                    result[k] += value;
+                    break;
+                case MIN:
+                    if (seen == 0 || value < result[k]) {
+                        result[k] = value;
+                    }
+                    break;
+                case MAX:
+                    if (seen == 0 || value > result[k]) {
+                        result[k] = value;
+                    }
+                    break;
+                default:
+                    throw new IllegalArgumentException(function.toString());
+            }
+        }
+    }
+
+    static boolean finishDouble(Function function, double[] result, byte[] state, int[] counts) {
+        for (int i = 0; i < result.length; i++) {
+            if ((state[i] & PRESENT) == 0) {
+                result[i] = RRuntime.DOUBLE_NA;
+            } else if ((state[i] & SEEN_NA) != 0) {
+                result[i] = RRuntime.DOUBLE_NA;
+            } else if ((state[i] & SEEN_NAN) != 0) {
+                result[i] = Double.NaN;
+            } else if (counts[i] == 0) {
+                switch (function) {
+                    case SUM:
+                        result[i] = 0;
+                        break;
+                    case MEAN:
+                        result[i] = Double.NaN;
+                        break;
+                    case MIN:
+                    case MAX:
+                        return false;
+                    default:
+                        result[i] = RRuntime.DOUBLE_NA;
+                        break;
+                }
+            } else if (function == Function.MEAN) {
+                result[i] /= counts[i];
+            }
+        }
+        return true;
+    }
+}
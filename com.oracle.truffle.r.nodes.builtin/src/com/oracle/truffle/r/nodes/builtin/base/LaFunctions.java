@@ -13,6 +13,8 @@ package com.oracle.truffle.r.nodes.builtin.base;
 
 import static com.oracle.truffle.r.runtime.RBuiltinKind.INTERNAL;
 
+import java.nio.DoubleBuffer;
+
 import com.oracle.truffle.api.CompilerDirectives.CompilationFinal;
 import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
 import com.oracle.truffle.api.dsl.Fallback;
@@ -38,7 +40,10 @@ import com.oracle.truffle.r.runtime.data.model.RAbstractDoubleVector;
 import com.oracle.truffle.r.runtime.data.model.RAbstractIntVector;
 import com.oracle.truffle.r.runtime.data.model.RAbstractLogicalVector;
 import com.oracle.truffle.r.runtime.data.model.RAbstractVector;
+import com.oracle.truffle.r.runtime.ffi.LapackBuffers;
+import com.oracle.truffle.r.runtime.ffi.LapackRFFI;
 import com.oracle.truffle.r.runtime.ffi.RFFIFactory;
+import com.oracle.truffle.r.runtime.nodes.RBaseNode;
 
 /*
  * Logic derived from GNU-R, src/modules/lapack/Lapack.c
@@ -46,9 +51,41 @@ import com.oracle.truffle.r.runtime.ffi.RFFIFactory;
 
 /**
  * Lapack builtins.
+ *
+ * The matrices are passed to Lapack in off-heap {@link LapackBuffers}, i.e., each matrix is copied
+ * once into native memory and the result once back, and the optimal workspace sizes are only
+ * queried once per routine and argument shape.
  */
 public class LaFunctions {
 
+    @FunctionalInterface
+    private interface WorkspaceQuery {
+        /**
+         * Calls the Lapack routine with {@code lwork = -1} and returns its info.
+         */
+        int query(DoubleBuffer work);
+    }
+
+    /**
+     * Returns the optimal workspace size of {@code routine} for arguments of the given
+     * {@code shape}, running the {@code query} only if the size is not cached yet.
+     */
+    @TruffleBoundary
+    private static int workspaceSize(RBaseNode node, String routine, String shape, WorkspaceQuery query) {
+        String key = routine + ":" + shape;
+        int lwork = LapackBuffers.getWorkspaceSize(key);
+        if (lwork < 0) {
+            DoubleBuffer work = DoubleBuffer.allocate(1);
+            int info = query.query(work);
+            if (info != 0) {
+                throw RError.error(node, RError.Message.LAPACK_ERROR, info, routine);
+            }
+            lwork = (int) work.get(0);
+            LapackBuffers.putWorkspaceSize(key, lwork);
+        }
+        return lwork;
+    }
+
     @RBuiltin(name = "La_version", kind = INTERNAL, parameterNames = {})
     public abstract static class Version extends RBuiltinNode {
         @Specialization
@@ -81,33 +118,25 @@ public class LaFunctions {
             }
             // copy array component of matrix as Lapack destroys it
             int n = dims[0];
-            double[] a = matrix.getDataCopy();
+            LapackRFFI lapack = RFFIFactory.getRFFI().getLapackRFFI();
+            double[] matrixData = matrix.getDataWithoutCopying();
+            DoubleBuffer a = LapackBuffers.matrix(0, matrixData, matrixData.length);
             char jobVL = 'N';
-            char jobVR = 'N';
             boolean vectors = onlyValues == RRuntime.LOGICAL_FALSE;
             if (vectors) {
                 // TODO fix
                 RError.nyi(this, "\"only.values == FALSE\"");
             }
-            double[] left = null;
-            double[] right = null;
-            if (vectors) {
-                jobVR = 'V';
-                right = new double[a.length];
-            }
+            DoubleBuffer left = null;
+            char jobVR = vectors ? 'V' : 'N';
+            DoubleBuffer right = vectors ? LapackBuffers.matrix(1, matrixData.length) : null;
             double[] wr = new double[n];
             double[] wi = new double[n];
-            double[] work = new double[1];
-            // ask for optimal size of work array
-            int info = RFFIFactory.getRFFI().getLapackRFFI().dgeev(jobVL, jobVR, n, a, n, wr, wi, left, n, right, n, work, -1);
-            if (info != 0) {
-                errorProfile.enter();
-                throw RError.error(this, RError.Message.LAPACK_ERROR, info, "dgeev");
-            }
-            // now allocate work array and make the actual call
-            int lwork = (int) work[0];
-            work = new double[lwork];
-            info = RFFIFactory.getRFFI().getLapackRFFI().dgeev(jobVL, jobVR, n, a, n, wr, wi, left, n, right, n, work, lwork);
+            DoubleBuffer wrBuffer = DoubleBuffer.wrap(wr);
+            DoubleBuffer wiBuffer = DoubleBuffer.wrap(wi);
+            // ask for optimal size of work array (unless known), then make the actual call
+            int lwork = workspaceSize(this, "dgeev", jobVR + "" + n, work -> lapack.dgeev(jobVL, jobVR, n, a, n, wrBuffer, wiBuffer, left, n, right, n, work, -1));
+            int info = lapack.dgeev(jobVL, jobVR, n, a, n, wrBuffer, wiBuffer, left, n, right, n, LapackBuffers.workspace(lwork), lwork);
             if (info != 0) {
                 errorProfile.enter();
                 throw RError.error(this, RError.Message.LAPACK_ERROR, info, "dgeev");
@@ -165,28 +194,24 @@ public class LaFunctions {
             RDoubleVector daIn = (RDoubleVector) aIn;
             int[] dims = daIn.getDimensions();
             // copy array component of matrix as Lapack destroys it
-            int n = dims[0];
-            int m = dims[1];
-            double[] a = daIn.getDataCopy();
+            int m = dims[0];
+            int n = dims[1];
+            LapackRFFI lapack = RFFIFactory.getRFFI().getLapackRFFI();
+            double[] aData = daIn.getDataWithoutCopying();
+            DoubleBuffer a = LapackBuffers.matrix(0, aData, aData.length);
             int[] jpvt = new int[n];
             double[] tau = new double[m < n ? m : n];
-            double[] work = new double[1];
-            // ask for optimal size of work array
-            int info = RFFIFactory.getRFFI().getLapackRFFI().dgeqp3(m, n, a, m, jpvt, tau, work, -1);
-            if (info < 0) {
-                errorProfile.enter();
-                throw RError.error(this, RError.Message.LAPACK_ERROR, info, "dgeqp3");
-            }
-            int lwork = (int) work[0];
-            work = new double[lwork];
-            info = RFFIFactory.getRFFI().getLapackRFFI().dgeqp3(m, n, a, m, jpvt, tau, work, lwork);
+            DoubleBuffer tauBuffer = DoubleBuffer.wrap(tau);
+            // ask for optimal size of work array (unless known), then make the actual call
+            int lwork = workspaceSize(this, "dgeqp3", m + "x" + n, work -> lapack.dgeqp3(m, n, a, m, jpvt, tauBuffer, work, -1));
+            int info = lapack.dgeqp3(m, n, a, m, jpvt, tauBuffer, LapackBuffers.workspace(lwork), lwork);
             if (info < 0) {
                 errorProfile.enter();
                 throw RError.error(this, RError.Message.LAPACK_ERROR, info, "dgeqp3");
             }
             Object[] data = new Object[4];
             // TODO check complete
-            RDoubleVector ra = RDataFactory.createDoubleVector(a, RDataFactory.COMPLETE_VECTOR);
+            RDoubleVector ra = RDataFactory.createDoubleVector(LapackBuffers.toArray(a, aData.length), RDataFactory.COMPLETE_VECTOR);
             // TODO check pivot
             ra.setDimensions(dims);
             data[0] = ra;
@@ -201,6 +226,7 @@ public class LaFunctions {
     public abstract static class QrCoefReal extends RBuiltinNode {
 
         private final BranchProfile errorProfile = BranchProfile.create();
+        private final RAttributeProfiles attrProfiles = RAttributeProfiles.create();
 
         private static final char SIDE = 'L';
         private static final char TRANS = 'T';
@@ -216,9 +242,6 @@ public class LaFunctions {
                 errorProfile.enter();
                 throw RError.error(this, RError.Message.MUST_BE_NUMERIC_MATRIX, "b");
             }
-            // If bIn was coerced this extra copy is unnecessary
-            RDoubleVector b = (RDoubleVector) bIn.copy();
-
             RDoubleVector qr = (RDoubleVector) qIn.getDataAt(0);
 
             RDoubleVector tau = (RDoubleVector) qIn.getDataAt(2);
@@ -232,31 +255,29 @@ public class LaFunctions {
                 throw RError.error(this, RError.Message.RHS_SHOULD_HAVE_ROWS, n, bDims[0]);
             }
             int nrhs = bDims[1];
-            double[] work = new double[1];
-            // qr and tau do not really need copying
-            double[] qrData = qr.getDataWithoutCopying();
-            double[] tauData = tau.getDataWithoutCopying();
-            // we work directly in the internal data of b
-            double[] bData = b.getDataWithoutCopying();
-            // ask for optimal size of work array
-            int info = RFFIFactory.getRFFI().getLapackRFFI().dormqr(SIDE, TRANS, n, nrhs, k, qrData, n, tauData, bData, n, work, -1);
+            LapackRFFI lapack = RFFIFactory.getRFFI().getLapackRFFI();
+            // qr is copied off-heap once for both calls, tau is small
+            double[] qrArray = qr.getDataWithoutCopying();
+            DoubleBuffer qrData = LapackBuffers.matrix(0, qrArray, qrArray.length);
+            DoubleBuffer tauData = DoubleBuffer.wrap(tau.getDataWithoutCopying());
+            // b is overwritten by the result
+            double[] bArray = bIn.getDataWithoutCopying();
+            DoubleBuffer bData = LapackBuffers.matrix(1, bArray, bArray.length);
+            // ask for optimal size of work array (unless known), then make the actual call
+            int lwork = workspaceSize(this, "dormqr", n + "x" + nrhs + "x" + k, work -> lapack.dormqr(SIDE, TRANS, n, nrhs, k, qrData, n, tauData, bData, n, work, -1));
+            int info = lapack.dormqr(SIDE, TRANS, n, nrhs, k, qrData, n, tauData, bData, n, LapackBuffers.workspace(lwork), lwork);
             if (info < 0) {
                 errorProfile.enter();
                 throw RError.error(this, RError.Message.LAPACK_ERROR, info, "dormqr");
             }
-            int lwork = (int) work[0];
-            work = new double[lwork];
-            info = RFFIFactory.getRFFI().getLapackRFFI().dormqr(SIDE, TRANS, n, nrhs, k, qrData, n, tauData, bData, n, work, lwork);
-            if (info < 0) {
-                errorProfile.enter();
-                throw RError.error(this, RError.Message.LAPACK_ERROR, info, "dormqr");
-            }
-            info = RFFIFactory.getRFFI().getLapackRFFI().dtrtrs('U', 'N', 'N', k, nrhs, qrData, n, bData, n);
+            info = lapack.dtrtrs('U', 'N', 'N', k, nrhs, qrData, n, bData, n);
             if (info < 0) {
                 errorProfile.enter();
                 throw RError.error(this, RError.Message.LAPACK_ERROR, info, "dtrtrs");
             }
             // TODO check complete
+            RDoubleVector b = RDataFactory.createDoubleVector(LapackBuffers.toArray(bData, bArray.length), RDataFactory.COMPLETE_VECTOR);
+            b.copyAttributesFrom(attrProfiles, bIn);
             return b;
         }
     }
@@ -277,7 +298,6 @@ public class LaFunctions {
                 errorProfile.enter();
                 throw RError.error(this, RError.Message.MUST_BE_NUMERIC_MATRIX, "a");
             }
-            RDoubleVector a = (RDoubleVector) aIn.copy();
             int[] aDims = aIn.getDimensions();
             int n = aDims[0];
             if (n != aDims[1]) {
@@ -287,7 +307,9 @@ public class LaFunctions {
             int[] ipiv = new int[n];
             double modulus = 0;
             boolean useLog = RRuntime.fromLogical(useLogIn);
-            double[] aData = a.getDataWithoutCopying();
+            // only the diagonal of the factorization is needed, it is read directly off-heap
+            double[] aArray = aIn.getDataWithoutCopying();
+            DoubleBuffer aData = LapackBuffers.matrix(0, aArray, aArray.length);
             int info = RFFIFactory.getRFFI().getLapackRFFI().dgetrf(n, n, aData, n, ipiv);
             int sign = 1;
             if (info < 0) {
@@ -305,7 +327,7 @@ public class LaFunctions {
                     modulus = 0.0;
                     int n1 = n + 1;
                     for (int i = 0; i < n; i++) {
-                        double dii = aData[i * n1]; /* ith diagonal element */
+                        double dii = aData.get(i * n1); /* ith diagonal element */
                         modulus += Math.log(dii < 0 ? -dii : dii);
                         if (dii < 0) {
                             sign = -sign;
@@ -315,7 +337,7 @@ public class LaFunctions {
                     modulus = 1.0;
                     int n1 = n + 1;
                     for (int i = 0; i < n; i++) {
-                        modulus *= aData[i * n1];
+                        modulus *= aData.get(i * n1);
                     }
                     if (modulus < 0) {
                         modulus = -modulus;
@@ -335,11 +357,11 @@ public class LaFunctions {
     public abstract static class LaChol extends RBuiltinNode {
 
         private final BranchProfile errorProfile = BranchProfile.create();
+        private final RAttributeProfiles attrProfiles = RAttributeProfiles.create();
         private final ConditionProfile noPivot = ConditionProfile.createBinaryProfile();
 
         @Specialization
         protected RDoubleVector doDetGeReal(RDoubleVector aIn, byte pivot, double tol) {
-            RDoubleVector a = (RDoubleVector) aIn.copy();
             int[] aDims = aIn.getDimensions();
             int n = aDims[0];
             int m = aDims[1];
@@ -351,15 +373,16 @@ public class LaFunctions {
                 errorProfile.enter();
                 throw RError.error(this, RError.Message.DIMS_GT_ZERO, "a");
             }
-            double[] aData = a.getDataWithoutCopying();
-            /* zero the lower triangle */
-            for (int j = 0; j < n; j++) {
-                for (int i = j + 1; i < n; i++) {
-                    aData[i + n * j] = 0;
-                }
-            }
+            /*
+             * dpotrf and dpstrf only reference the upper triangle, the lower triangle is zeroed
+             * when copying the result back
+             */
+            double[] aArray = aIn.getDataWithoutCopying();
+            DoubleBuffer aData = LapackBuffers.matrix(0, aArray, aArray.length);
             boolean piv = RRuntime.fromLogical(pivot);
             int info;
+            int[] ipiv = null;
+            int[] rank = null;
             if (noPivot.profile(!piv)) {
                 info = RFFIFactory.getRFFI().getLapackRFFI().dpotrf('U', m, aData, m);
                 if (info != 0) {
@@ -368,15 +391,25 @@ public class LaFunctions {
                     throw RError.error(this, RError.Message.LAPACK_ERROR, info, "dpotrf");
                 }
             } else {
-                int[] ipiv = new int[m];
-                double[] work = new double[2 * m];
-                int[] rank = new int[1];
-                info = RFFIFactory.getRFFI().getLapackRFFI().dpstrf('U', n, aData, n, ipiv, rank, tol, work);
+                ipiv = new int[m];
+                rank = new int[1];
+                info = RFFIFactory.getRFFI().getLapackRFFI().dpstrf('U', n, aData, n, ipiv, rank, tol, LapackBuffers.workspace(2 * m));
                 if (info != 0) {
                     errorProfile.enter();
                     // TODO informative error message (aka GnuR)
                     throw RError.error(this, RError.Message.LAPACK_ERROR, info, "dpotrf");
                 }
+            }
+            double[] result = LapackBuffers.toArray(aData, aArray.length);
+            /* zero the lower triangle */
+            for (int j = 0; j < n; j++) {
+                for (int i = j + 1; i < n; i++) {
+                    result[i + n * j] = 0;
+                }
+            }
+            RDoubleVector a = RDataFactory.createDoubleVector(result, aIn.isComplete());
+            a.copyAttributesFrom(attrProfiles, aIn);
+            if (ipiv != null) {
                 a.setAttr("pivot", pivot);
                 a.setAttr("rank", rank[0]);
                 RList dn = a.getDimNames();
@@ -463,30 +496,32 @@ public class LaFunctions {
                 }
             }
 
-            System.arraycopy(bin.getInternalStore(), 0, bData, 0, n * p);
+            LapackRFFI lapack = RFFIFactory.getRFFI().getLapackRFFI();
+            DoubleBuffer bBuffer = LapackBuffers.matrix(1, bin.getInternalStore(), n * p);
 
             int[] ipiv = new int[n];
-            // work on a copy of A
-            double[] avals = new double[n * n];
+            // work on an off-heap copy of A
+            RDoubleVector aDouble;
             if (a instanceof RAbstractDoubleVector) {
-                System.arraycopy(a.getInternalStore(), 0, avals, 0, n * n);
+                aDouble = ((RAbstractDoubleVector) a).materialize();
             } else {
-                RDoubleVector aDouble = (RDoubleVector) castDouble.execute(a);
+                aDouble = (RDoubleVector) castDouble.execute(a);
                 assert aDouble != a;
-                avals = aDouble.getInternalStore();
             }
-            int info = RFFIFactory.getRFFI().getLapackRFFI().dgesv(n, p, avals, n, ipiv, bData, n);
+            DoubleBuffer avals = LapackBuffers.matrix(0, aDouble.getInternalStore(), n * n);
+            int info = lapack.dgesv(n, p, avals, n, ipiv, bBuffer, n);
             if (info < 0) {
                 RError.error(this, RError.Message.LAPACK_INVALID_VALUE, -info, "dgesv");
             }
             if (info > 0) {
                 RError.error(this, RError.Message.LAPACK_EXACTLY_SINGULAR, "dgesv", info, info);
             }
+            bBuffer.get(bData, 0, n * p);
             if (tol > 0) {
-                double anorm = RFFIFactory.getRFFI().getLapackRFFI().dlange('1', n, n, avals, n, null);
-                double[] work = new double[4 * n];
+                double anorm = lapack.dlange('1', n, n, avals, n, null);
+                DoubleBuffer work = LapackBuffers.workspace(4 * n);
                 double[] rcond = new double[1];
-                RFFIFactory.getRFFI().getLapackRFFI().dgecon('1', n, avals, n, anorm, rcond, work, ipiv);
+                lapack.dgecon('1', n, avals, n, anorm, DoubleBuffer.wrap(rcond), work, ipiv);
                 if (rcond[0] < tol) {
                     RError.error(this, RError.Message.SYSTEM_COMP_SINGULAR, rcond[0]);
                 }
@@ -0,0 +1,271 @@
+/*
+ * Copyright (c) 2016, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.truffle.r.nodes.builtin.base;
+
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+import com.oracle.truffle.r.runtime.RInternalError;
+import com.oracle.truffle.r.runtime.RParallel;
+import com.oracle.truffle.r.runtime.RRuntime;
+import com.oracle.truffle.r.runtime.data.model.RAbstractDoubleVector;
+import com.oracle.truffle.r.runtime.data.model.RAbstractIntVector;
+import com.oracle.truffle.r.runtime.data.model.RAbstractLogicalVector;
+import com.oracle.truffle.r.runtime.data.model.RAbstractVector;
+
+/**
+ * Row and column sums and means over column-major matrices, shared by {@link RowSums},
+ * {@link ColSums}, {@link RowMeans} and {@link ColMeans}.
+ *
+ * The kernels work directly on the backing arrays. Row reductions scan each column contiguously and
+ * accumulate into a block of partial sums (one per row) that stays in the cache, instead of
+ * striding across the columns for every row. Rows (resp. columns) are split into independent
+ * ranges that are processed in parallel for large matrices, see {@link RParallel}.
+ *
+ * NA semantics follow GNU R: without {@code na.rm}, the first NA/NaN encountered (in storage
+ * order) becomes the result; with {@code na.rm}, NA and NaN values are skipped and the mean is
+ * computed over the remaining values ({@code NaN} if there are none).
+ */
+final class MatrixReductions {
+
+    /**
+     * Number of rows whose partial sums are accumulated together while scanning the columns.
+     */
+    private static final int ROW_BLOCK = 1024;
+
+    private MatrixReductions() {
+        // no instances
+    }
+
+    @TruffleBoundary
+    static double[] rowReduce(RAbstractVector x, int rowNum, int colNum, boolean naRm, boolean mean) {
+        double[] sums = new double[rowNum];
+        int[] counts = naRm && mean ? new int[rowNum] : null;
+        Object store = getStore(x);
+        RParallel.forEach(rowNum, colNum, (from, to) -> {
+            for (int block = from; block < to; block += ROW_BLOCK) {
+                int blockEnd = Math.min(to, block + ROW_BLOCK);
+                if (store instanceof double[]) {
+                    rowSums((double[]) store, rowNum, colNum, block, blockEnd, naRm, sums, counts);
+                } else if (store instanceof int[]) {
+                    rowSums((int[]) store, rowNum, colNum, block, blockEnd, naRm, sums, counts);
+                } else {
+                    rowSums((byte[]) store, rowNum, colNum, block, blockEnd, naRm, sums, counts);
+                }
+            }
+        });
+        if (mean) {
+            finishMeans(sums, counts, colNum);
+        }
+        return sums;
+    }
+
+    @TruffleBoundary
+    static double[] colReduce(RAbstractVector x, int rowNum, int colNum, boolean naRm, boolean mean) {
+        double[] sums = new double[colNum];
+        int[] counts = naRm && mean ? new int[colNum] : null;
+        Object store = getStore(x);
+        RParallel.forEach(colNum, rowNum, (from, to) -> {
+            if (store instanceof double[]) {
+                colSums((double[]) store, rowNum, from, to, naRm, sums, counts);
+            } else if (store instanceof int[]) {
+                colSums((int[]) store, rowNum, from, to, naRm, sums, counts);
+            } else {
+                colSums((byte[]) store, rowNum, from, to, naRm, sums, counts);
+            }
+        });
+        if (mean) {
+            finishMeans(sums, counts, rowNum);
+        }
+        return sums;
+    }
+
+    /**
+     * Determines whether a result produced by these kernels can be marked complete.
+     */
+    static boolean isComplete(double[] result) {
+        for (int i = 0; i < result.length; i++) {
+            if (Double.isNaN(result[i])) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static Object getStore(RAbstractVector x) {
+        if (x instanceof RAbstractDoubleVector) {
+            return ((RAbstractDoubleVector) x).materialize().getDataWithoutCopying();
+        } else if (x instanceof RAbstractIntVector) {
+            return ((RAbstractIntVector) x).materialize().getDataWithoutCopying();
+        } else if (x instanceof RAbstractLogicalVector) {
+            return ((RAbstractLogicalVector) x).materialize().getDataWithoutCopying();
+        }
+        throw RInternalError.shouldNotReachHere();
+    }
+
+    private static void finishMeans(double[] sums, int[] counts, int n) {
+        for (int i = 0; i < sums.length; i++) {
+            if (counts != null) {
+                sums[i] = counts[i] == 0 ? Double.NaN : sums[i] / counts[i];
+            } else if (!Double.isNaN(sums[i])) {
+                sums[i] /= n;
+            }
+        }
+    }
+
+    private static void rowSums(double[] data, int rowNum, int colNum, int from, int to, boolean naRm, double[] sums, int[] counts) {
+        int offset = 0;
+        for (int c = 0; c < colNum; c++) {
+            for (int i = from; i < to; i++) {
+                double el = data[offset + i];
+                if (Double.isNaN(el)) {
+                    if (!naRm && !Double.isNaN(sums[i])) {
+                        sums[i] = el;
+                    }
+                } else if (naRm) {
+                    sums[i] += el;
+                    if (counts != null) {
+                        counts[i]++;
+                    }
+                } else if (!Double.isNaN(sums[i])) {
+                    sums[i] += el;
+                }
+            }
+            offset += rowNum;
+        }
+    }
+
+    private static void rowSums(int[] data, int rowNum, int colNum, int from, int to, boolean naRm, double[] sums, int[] counts) {
+        int offset = 0;
+        for (int c = 0; c < colNum; c++) {
+            for (int i = from; i < to; i++) {
+                int el = data[offset + i];
+                if (el == RRuntime.INT_NA) {
+                    if (!naRm) {
+                        sums[i] = RRuntime.DOUBLE_NA;
+                    }
+                } else if (naRm) {
+                    sums[i] += el;
+                    if (counts != null) {
+                        counts[i]++;
+                    }
+                } else if (!RRuntime.isNA(sums[i])) {
+                    sums[i] += el;
+                }
+            }
+            offset += rowNum;
+        }
+    }
+
+    private static void rowSums(byte[] data, int rowNum, int colNum, int from, int to, boolean naRm, double[] sums, int[] counts) {
+        int offset = 0;
+        for (int c = 0; c < colNum; c++) {
+            for (int i = from; i < to; i++) {
+                byte el = data[offset + i];
+                if (el == RRuntime.LOGICAL_NA) {
+                    if (!naRm) {
+                        sums[i] = RRuntime.DOUBLE_NA;
+                    }
+                } else if (naRm) {
+                    sums[i] += el;
+                    if (counts != null) {
+                        counts[i]++;
+                    }
+                } else if (!RRuntime.isNA(sums[i])) {
+                    sums[i] += el;
+                }
+            }
+            offset += rowNum;
+        }
+    }
+
+    private static void colSums(double[] data, int rowNum, int from, int to, boolean naRm, double[] sums, int[] counts) {
+        for (int c = from; c < to; c++) {
+            int offset = c * rowNum;
+            double sum = 0;
+            int count = 0;
+            for (int i = 0; i < rowNum; i++) {
+                double el = data[offset + i];
+                if (Double.isNaN(el)) {
+                    if (!naRm) {
+                        sum = el;
+                        break;
+                    }
+                } else {
+                    sum += el;
+                    count++;
+                }
+            }
+            sums[c] = sum;
+            if (counts != null) {
+                counts[c] = count;
+            }
+        }
+    }
+
+    private static void colSums(int[] data, int rowNum, int from, int to, boolean naRm, double[] sums, int[] counts) {
+        for (int c = from; c < to; c++) {
+            int offset = c * rowNum;
+            double sum = 0;
+            int count = 0;
+            for (int i = 0; i < rowNum; i++) {
+                int el = data[offset + i];
+                if (el == RRuntime.INT_NA) {
+                    if (!naRm) {
+                        sum = RRuntime.DOUBLE_NA;
+                        break;
+                    }
+                } else {
+                    sum += el;
+                    count++;
+                }
+            }
+            sums[c] = sum;
+            if (counts != null) {
+                counts[c] = count;
+            }
+        }
+    }
+
+    private static void colSums(byte[] data, int rowNum, int from, int to, boolean naRm, double[] sums, int[] counts) {
+        for (int c = from; c < to; c++) {
+            int offset = c * rowNum;
+            double sum = 0;
+            int count = 0;
+            for (int i = 0; i < rowNum; i++) {
+                byte el = data[offset + i];
+                if (el == RRuntime.LOGICAL_NA) {
+                    if (!naRm) {
+                        sum = RRuntime.DOUBLE_NA;
+                        break;
+                    }
+                } else {
+                    sum += el;
+                    count++;
+                }
+            }
+            sums[c] = sum;
+            if (counts != null) {
+                counts[c] = count;
+            }
+        }
+    }
+}
@@ -14,12 +14,16 @@ package com.oracle.truffle.r.nodes.builtin.base;
 
 import static com.oracle.truffle.r.runtime.RBuiltinKind.INTERNAL;
 
+import java.util.Arrays;
+
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
 import com.oracle.truffle.api.dsl.Fallback;
 import com.oracle.truffle.api.dsl.Specialization;
 import com.oracle.truffle.r.nodes.builtin.CastBuilder;
 import com.oracle.truffle.r.nodes.builtin.RBuiltinNode;
 import com.oracle.truffle.r.runtime.RBuiltin;
 import com.oracle.truffle.r.runtime.RError;
+import com.oracle.truffle.r.runtime.RParallel;
 import com.oracle.truffle.r.runtime.RRuntime;
 import com.oracle.truffle.r.runtime.data.RDataFactory;
 import com.oracle.truffle.r.runtime.data.RIntVector;
@@ -36,98 +40,75 @@ public abstract class Merge extends RBuiltinNode {
         casts.firstLogical(3);
     }
 
-    private static void isortWithIndex(int[] x, int[] indx, int n) {
-        int i;
-        int j;
-        int h;
-        int iv;
-        int v;
-
-        for (h = 1; h <= n / 9; h = 3 * h + 1) {
-        }
-        for (; h > 0; h /= 3) {
-            for (i = h; i < n; i++) {
-                v = x[i];
-                iv = indx[i];
-                j = i;
-                while (j >= h && x[j - h] > v) {
-                    x[j] = x[j - h];
-                    indx[j] = indx[j - h];
-                    j -= h;
-                }
-                x[j] = v;
-                indx[j] = iv;
+    /**
+     * The key codes of one side of the join, grouped by code. The rows (1-based) having code
+     * {@code c} are {@code rows[start[c]]} to {@code rows[start[c + 1] - 1]}, in their original
+     * order; rows with a non-positive code (no partner) come first, in {@code rows[0]} to
+     * {@code rows[start[1] - 1]}.
+     */
+    private static final class Buckets {
+        final int[] start;
+        final int[] rows;
+
+        /**
+         * Groups {@code codes} by a counting sort over {@code [0, maxCode]}; since the codes come
+         * from {@code match}, they are dense and serve directly as perfect hash values.
+         */
+        Buckets(int[] codes, int maxCode) {
+            start = new int[maxCode + 2];
+            for (int i = 0; i < codes.length; i++) {
+                start[Math.max(codes[i], 0) + 1]++;
+            }
+            for (int c = 1; c < start.length; c++) {
+                start[c] += start[c - 1];
+            }
+            int[] next = Arrays.copyOf(start, start.length - 1);
+            rows = new int[codes.length];
+            for (int i = 0; i < codes.length; i++) {
+                rows[next[Math.max(codes[i], 0)]++] = i + 1;
             }
         }
-    }
 
-    @Specialization(guards = {"xIndsAbstract.getLength() > 0", "xIndsAbstract.getLength() > 0", "!isNA(allX)", "!isNA(allY)"})
-    RList merge(RAbstractIntVector xIndsAbstract, RAbstractIntVector yIndsAbstract, byte allX, byte allY) {
-        RIntVector xInds = xIndsAbstract.materialize();
-        RIntVector yInds = yIndsAbstract.materialize();
-
-        /* 0. sort the indices */
-        int nx = xInds.getLength();
-        int ny = yInds.getLength();
-        int[] ix = new int[nx];
-        int[] iy = new int[ny];
-        for (int i = 0; i < nx; i++) {
-            ix[i] = i + 1;
+        int count(int c) {
+            return start[c + 1] - start[c];
         }
-        for (int i = 0; i < ny; i++) {
-            iy[i] = i + 1;
-        }
-        int[] xIndsData = xInds.getDataWithoutCopying();
-        int[] yIndsData = yInds.getDataWithoutCopying();
-        isortWithIndex(xIndsData, ix, nx);
-        isortWithIndex(yIndsData, iy, ny);
-
-        /* 1. determine result sizes */
-        int nxLone = 0;
-        int nyLone = 0;
-        int l;
-        for (l = 0; l < nx; l++) {
-            if (xIndsData[l] > 0) {
-                break;
-            }
+
+        RIntVector lone() {
+            return RDataFactory.createIntVector(Arrays.copyOf(rows, start[1]), RDataFactory.COMPLETE_VECTOR);
         }
-        nxLone = l;
+    }
 
-        for (l = 0; l < ny; l++) {
-            if (yIndsData[l] > 0) {
-                break;
-            }
+    private static int maxCode(int[] codes) {
+        int max = 0;
+        for (int i = 0; i < codes.length; i++) {
+            max = Math.max(max, codes[i]);
         }
-        nyLone = l;
+        return max;
+    }
+
+    @Specialization(guards = {"xIndsAbstract.getLength() > 0", "yIndsAbstract.getLength() > 0", "!isNA(allX)", "!isNA(allY)"})
+    @TruffleBoundary
+    RList merge(RAbstractIntVector xIndsAbstract, RAbstractIntVector yIndsAbstract, byte allX, byte allY) {
+        int[] xIndsData = xIndsAbstract.materialize().getDataWithoutCopying();
+        int[] yIndsData = yIndsAbstract.materialize().getDataWithoutCopying();
+
+        /* 0. group both sides by key code */
+        int maxCode = Math.max(maxCode(xIndsData), maxCode(yIndsData));
+        Buckets xb = new Buckets(xIndsData, maxCode);
+        Buckets yb = new Buckets(yIndsData, maxCode);
 
-        int nnx;
-        int nny;
+        /* 1. determine result size and the offset of each key's block of pairs */
+        int[] resultStart = new int[maxCode + 2];
         double dnans = 0;
-        int j = nyLone;
-        for (int i = nxLone; i < nx; i = nnx, j = nny) {
-            int tmp = xIndsData[i];
-            for (nnx = i; nnx < nx; nnx++) {
-                if (xIndsData[nnx] != tmp) {
-                    break;
-                }
-            }
-            // the next is not in theory necessary, since we have the common values only
-            for (; j < ny; j++) {
-                if (yIndsData[j] >= tmp) {
-                    break;
-                }
+        for (int c = 1; c <= maxCode; c++) {
+            resultStart[c] = (int) dnans;
+            dnans += (double) xb.count(c) * yb.count(c);
+            if (dnans > RRuntime.INT_MAX_VALUE) {
+                throw RError.error(this, RError.Message.GENERIC, "number of rows in the result exceeds maximum vector length");
             }
-            for (nny = j; nny < ny; nny++) {
-                if (yIndsData[nny] != tmp) {
-                    break;
-                }
-            }
-            dnans += ((double) (nnx - i)) * (nny - j);
-        }
-        if (dnans > RRuntime.INT_MAX_VALUE) {
-            throw RError.error(this, RError.Message.GENERIC, "number of rows in the result exceeds maximum vector length");
         }
         int nans = (int) dnans;
+        resultStart[maxCode + 1] = nans;
 
         /* 2. allocate and store result components */
 
@@ -137,52 +118,21 @@ public abstract class Merge extends RBuiltinNode {
         RList ans = RDataFactory.createList(new Object[4], RDataFactory.createStringVector(new String[]{"xi", "yi", "x.alone", "y.alone"}, RDataFactory.COMPLETE_VECTOR));
         ans.updateDataAt(0, RDataFactory.createIntVector(ansXData, RDataFactory.COMPLETE_VECTOR), null);
         ans.updateDataAt(1, RDataFactory.createIntVector(ansYData, RDataFactory.COMPLETE_VECTOR), null);
-
-        if (allX == RRuntime.LOGICAL_TRUE) {
-            int[] xLoneData = new int[nxLone];
-            ans.updateDataAt(2, RDataFactory.createIntVector(xLoneData, RDataFactory.COMPLETE_VECTOR), null);
-            for (int i = 0, ll = 0; i < nxLone; i++) {
-                xLoneData[ll++] = ix[i];
-            }
-        } else {
-            ans.updateDataAt(2, RNull.instance, null);
-        }
-
-        if (allY == RRuntime.LOGICAL_TRUE) {
-            int[] yLoneData = new int[nyLone];
-            ans.updateDataAt(3, RDataFactory.createIntVector(yLoneData, RDataFactory.COMPLETE_VECTOR), null);
-            for (int i = 0, ll = 0; i < nyLone; i++) {
-                yLoneData[ll++] = iy[i];
-            }
-        } else {
-            ans.updateDataAt(3, RNull.instance, null);
-        }
-
-        j = nyLone;
-        for (int i = nxLone, k = 0; i < nx; i = nnx, j = nny) {
-            int tmp = xIndsData[i];
-            for (nnx = i; nnx < nx; nnx++) {
-                if (xIndsData[nnx] != tmp) {
-                    break;
+        ans.updateDataAt(2, allX == RRuntime.LOGICAL_TRUE ? xb.lone() : RNull.instance, null);
+        ans.updateDataAt(3, allY == RRuntime.LOGICAL_TRUE ? yb.lone() : RNull.instance, null);
+
+        // the blocks of different keys are disjoint, so they can be filled independently
+        RParallel.forEach(maxCode, Math.max(1, nans / Math.max(1, maxCode)), (from, to) -> {
+            for (int c = from + 1; c <= to; c++) {
+                int k = resultStart[c];
+                for (int i = xb.start[c]; i < xb.start[c + 1]; i++) {
+                    for (int j = yb.start[c]; j < yb.start[c + 1]; j++) {
+                        ansXData[k] = xb.rows[i];
+                        ansYData[k++] = yb.rows[j];
+                    }
                 }
             }
-            for (; j < ny; j++) {
-                if (yIndsData[j] >= tmp) {
-                    break;
-                }
-            }
-            for (nny = j; nny < ny; nny++) {
-                if (yIndsData[nny] != tmp) {
-                    break;
-                }
-            }
-            for (int i0 = i; i0 < nnx; i0++) {
-                for (int j0 = j; j0 < nny; j0++) {
-                    ansXData[k] = ix[i0];
-                    ansYData[k++] = iy[j0];
-                }
-            }
-        }
+        });
 
         return ans;
     }
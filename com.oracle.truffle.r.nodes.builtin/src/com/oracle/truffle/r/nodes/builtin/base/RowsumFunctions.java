@@ -17,7 +17,6 @@ import static com.oracle.truffle.r.nodes.builtin.CastBuilder.Predef.doubleValue;
 import static com.oracle.truffle.r.nodes.builtin.CastBuilder.Predef.stringValue;
 import static com.oracle.truffle.r.nodes.builtin.CastBuilder.Predef.toBoolean;
 
-import java.util.HashMap;
 import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
 import com.oracle.truffle.api.dsl.Specialization;
 import com.oracle.truffle.api.profiles.ConditionProfile;
@@ -26,16 +25,15 @@ import com.oracle.truffle.r.nodes.builtin.RBuiltinNode;
 import com.oracle.truffle.r.runtime.RBuiltin;
 import com.oracle.truffle.r.runtime.RBuiltinKind;
 import com.oracle.truffle.r.runtime.RError;
-import com.oracle.truffle.r.runtime.RRuntime;
+import com.oracle.truffle.r.runtime.RParallel;
 import com.oracle.truffle.r.runtime.data.RDataFactory;
-import com.oracle.truffle.r.runtime.data.RDoubleVector;
-import com.oracle.truffle.r.runtime.data.RIntVector;
 import com.oracle.truffle.r.runtime.data.RList;
 import com.oracle.truffle.r.runtime.data.RNull;
 import com.oracle.truffle.r.runtime.data.RVector;
+import com.oracle.truffle.r.runtime.data.model.RAbstractDoubleVector;
+import com.oracle.truffle.r.runtime.data.model.RAbstractIntVector;
 import com.oracle.truffle.r.runtime.data.model.RAbstractStringVector;
 import com.oracle.truffle.r.runtime.data.model.RAbstractVector;
-import com.oracle.truffle.r.runtime.ops.na.NACheck;
 
 // Translated from main/unique.c
 
@@ -46,7 +44,6 @@ public class RowsumFunctions {
     public abstract static class Rowsum extends RBuiltinNode {
 
         private final ConditionProfile typeProfile = ConditionProfile.createBinaryProfile();
-        private final NACheck na = NACheck.create();
 
         @Override
         protected void createCasts(CastBuilder casts) {
@@ -67,68 +64,35 @@ public class RowsumFunctions {
             int p = xv.isMatrix() ? xv.getDimensions()[1] : 1;
             int n = g.getLength();
             int ng = uniqueg.getLength();
-            HashMap<Object, Integer> table = new HashMap<>();
-            for (int i = 0; i < ng; i++) {
-                // uniqueg has no duplicates (by definition)
-                table.put(uniqueg.getDataAtAsObject(i), i);
-            }
-            int[] matches = new int[n];
-            for (int i = 0; i < n; i++) {
-                Integer hi = table.get(g.getDataAtAsObject(i));
-                matches[i] = xv == null ? 0 : hi + 1;
-            }
-            int offset = 0;
-            int offsetg = 0;
+            int[] matches = GroupedAggregate.matchGroups(g, uniqueg);
 
-            boolean isInt = xv instanceof RIntVector;
             RVector result;
-            na.enable(xv);
-            boolean complete = xv.isComplete();
-
-            if (typeProfile.profile(isInt)) {
-                RIntVector xi = (RIntVector) xv;
+            // columns are independent, so they can be processed in parallel
+            if (typeProfile.profile(xv instanceof RAbstractIntVector)) {
+                int[] x = ((RAbstractIntVector) xv).materialize().getDataWithoutCopying();
                 int[] ansi = new int[ng * p];
-                for (int i = 0; i < p; i++) {
-                    for (int j = 0; j < n; j++) {
-                        int midx = matches[j] - 1 + offsetg;
-                        int itmp = ansi[midx];
-                        if (na.check(xi.getDataAt(j + offset))) {
-                            if (!narm) {
-                                ansi[midx] = RRuntime.INT_NA;
-                                complete = RDataFactory.INCOMPLETE_VECTOR;
-                            }
-                        } else if (!na.check(itmp)) {
-                            long dtmp = itmp;
-                            int jtmp = xi.getDataAt(j + offset);
-                            dtmp += jtmp;
-                            if (dtmp < Integer.MIN_VALUE || dtmp > Integer.MAX_VALUE) {
-                                itmp = RRuntime.INT_NA;
-                                complete = RDataFactory.INCOMPLETE_VECTOR;
-                            } else {
-                                itmp += jtmp;
-                            }
-                            ansi[midx] = itmp;
-                        }
+                RParallel.forEach(p, n, (from, to) -> {
+                    for (int i = from; i < to; i++) {
+                        int[] column = new int[ng];
+                        GroupedAggregate.aggregateInt(x, i * n, n, matches, 0, ng, GroupedAggregate.Function.SUM, narm, column, new byte[ng], new int[ng]);
+                        System.arraycopy(column, 0, ansi, i * ng, ng);
                     }
-                    offset += n;
-                    offsetg += ng;
-                }
-                result = RDataFactory.createIntVector(ansi, complete, new int[]{ng, p});
+                });
+                result = RDataFactory.createIntVector(ansi, false, new int[]{ng, p});
             } else {
-                RDoubleVector xd = (RDoubleVector) xv;
+                double[] x = ((RAbstractDoubleVector) xv).materialize().getDataWithoutCopying();
                 double[] ansd = new double[ng * p];
-                for (int i = 0; i < p; i++) {
-                    for (int j = 0; j < n; j++) {
-                        int midx = matches[j] - 1 + offsetg;
-                        double dtmp = xd.getDataAt(j + offset);
-                        if (!narm || !Double.isNaN(dtmp)) {
-                            ansd[midx] += dtmp;
-                        }
+                RParallel.forEach(p, n, (from, to) -> {
+                    for (int i = from; i < to; i++) {
+                        double[] column = new double[ng];
+                        byte[] state = new byte[ng];
+                        int[] counts = new int[ng];
+                        GroupedAggregate.aggregateDouble(x, i * n, n, matches, 0, ng, GroupedAggregate.Function.SUM, narm, column, state, counts);
+                        GroupedAggregate.finishDouble(GroupedAggregate.Function.SUM, column, state, counts);
+                        System.arraycopy(column, 0, ansd, i * ng, ng);
                     }
-                    offset += n;
-                    offsetg += ng;
-                }
-                result = RDataFactory.createDoubleVector(ansd, complete, new int[]{ng, p});
+                });
+                result = RDataFactory.createDoubleVector(ansd, false, new int[]{ng, p});
             }
             Object[] dimNamesData = new Object[2];
             dimNamesData[0] = rn;
@@ -33,6 +33,12 @@ import com.oracle.truffle.r.runtime.rng.RRNG;
 
 @RBuiltin(name = "sample", kind = RBuiltinKind.INTERNAL, parameterNames = {"x", "size", "replace", "prob"})
 public abstract class Sample extends RBuiltinNode {
+    /**
+     * Above this number of (population * sample size) steps, sampling without replacement uses the
+     * Fenwick tree variant instead of the O(n * size) transcription of GNU R.
+     */
+    private static final long FENWICK_THRESHOLD = 100000;
+
     private final ConditionProfile sampleSizeProfile = ConditionProfile.createBinaryProfile();
 
     @Override
@@ -86,8 +92,7 @@ public abstract class Sample extends RBuiltinNode {
             }
         }
         if (nc > 200) {
-            // TODO implement walker
-            throw new UnsupportedOperationException("walker_ProbSampleReplace is not yet implemented");
+            return RDataFactory.createIntVector(walkerProbSampleReplace(x, probArray, size), RDataFactory.COMPLETE_VECTOR);
         } else {
             return RDataFactory.createIntVector(probSampleReplace(x, probArray, size), RDataFactory.COMPLETE_VECTOR);
         }
@@ -235,6 +240,54 @@ public abstract class Sample extends RBuiltinNode {
         return result;
     }
 
+    @TruffleBoundary
+    private static int[] walkerProbSampleReplace(int n, double[] probArray, int resultSize) {
+        // The following code is transcribed from GNU R src/main/random.c lines 337-394
+        int[] result = new int[resultSize];
+        int[] a = new int[n];
+        double[] q = new double[n];
+        /*
+         * Create the alias tables. hl[0] ... h label the entries with q < 1 and l ... hl[n - 1]
+         * label those >= 1. By rounding error we could have q[i] < 1 or > 1 for all entries.
+         */
+        int[] hl = new int[n];
+        int h = -1;
+        int l = n;
+        for (int i = 0; i < n; i++) {
+            q[i] = probArray[i] * n;
+            if (q[i] < 1.) {
+                hl[++h] = i;
+            } else {
+                hl[--l] = i;
+            }
+        }
+        if (h >= 0 && l < n) {
+            // some q[i] are >= 1 and some < 1
+            for (int k = 0; k < n - 1; k++) {
+                int i = hl[k];
+                int j = hl[l];
+                a[i] = j;
+                q[j] += q[i] - 1;
+                if (q[j] < 1.) {
+                    l++;
+                }
+                if (l >= n) {
+                    // now all are >= 1
+                    break;
+                }
+            }
+        }
+        for (int i = 0; i < n; i++) {
+            q[i] += i;
+        }
+        for (int i = 0; i < resultSize; i++) {
+            double rU = RRNG.unifRand() * n;
+            int k = (int) rU;
+            result[i] = (rU < q[k]) ? k + 1 : a[k] + 1;
+        }
+        return result;
+    }
+
     @TruffleBoundary
     private int[] probSampleWithoutReplace(int n, double[] probArray, int resultSize) {
         // The following code is transcribed from GNU R src/main/random.c lines 396-428
@@ -244,6 +297,10 @@ public abstract class Sample extends RBuiltinNode {
             perm[i] = i + 1;
         }
         heapSort(perm, probArray);
+        if ((long) n * resultSize > FENWICK_THRESHOLD) {
+            fenwickProbSampleWithoutReplace(n, probArray, perm, ans);
+            return ans;
+        }
         double totalMass = 1;
         for (int i = 0, n1 = n - 1; i < resultSize; i++, n1--) {
             double rT = totalMass * RRNG.unifRand();
@@ -265,6 +322,58 @@ public abstract class Sample extends RBuiltinNode {
         return ans;
     }
 
+    /**
+     * Variant of the GNU R algorithm above that keeps the remaining probabilities in a Fenwick
+     * (binary indexed) tree rather than shifting the arrays after every draw, which makes each draw
+     * O(log n) instead of O(n). It consumes the same uniforms and searches the same sorted order
+     * for the first item whose cumulative mass reaches {@code rT}, so it selects the same items as
+     * GNU R up to rounding in the cumulative sums, which are associated differently.
+     */
+    private static void fenwickProbSampleWithoutReplace(int n, double[] probArray, int[] perm, int[] ans) {
+        double[] tree = new double[n + 1];
+        for (int i = 1; i <= n; i++) {
+            tree[i] += probArray[i - 1];
+            int parent = i + (i & -i);
+            if (parent <= n) {
+                tree[parent] += tree[i];
+            }
+        }
+        int topBit = Integer.highestOneBit(n);
+        int last = n - 1;
+        double totalMass = 1;
+        for (int i = 0; i < ans.length; i++) {
+            double rT = totalMass * RRNG.unifRand();
+            // find the first position whose prefix sum is >= rT
+            int pos = 0;
+            double rest = rT;
+            for (int step = topBit; step > 0; step >>= 1) {
+                int next = pos + step;
+                if (next <= n && tree[next] < rest) {
+                    pos = next;
+                    rest -= tree[next];
+                }
+            }
+            int j = pos;
+            // skip over already drawn entries that rounding may have left with a tiny mass
+            while (j < last && perm[j] == 0) {
+                j++;
+            }
+            if (j > last) {
+                // as in GNU R, the last remaining entry is taken if rT is not reached
+                j = last;
+            }
+            ans[i] = perm[j];
+            perm[j] = 0;
+            totalMass -= probArray[j];
+            for (int k = j + 1; k <= n; k += k & -k) {
+                tree[k] -= probArray[j];
+            }
+            while (last > 0 && perm[last] == 0) {
+                last--;
+            }
+        }
+    }
+
     @TruffleBoundary
     private void buildheap(double[] keys, int[] values) {
         for (int i = (keys.length >> 1); i >= 0; i--) {
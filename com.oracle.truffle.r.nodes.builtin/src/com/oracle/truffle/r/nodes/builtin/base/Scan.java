@@ -42,6 +42,7 @@ import com.oracle.truffle.r.runtime.data.RLogical;
 import com.oracle.truffle.r.runtime.data.RNull;
 import com.oracle.truffle.r.runtime.data.RRaw;
 import com.oracle.truffle.r.runtime.data.RString;
+import com.oracle.truffle.r.runtime.data.RStringPool;
 import com.oracle.truffle.r.runtime.data.RVector;
 import com.oracle.truffle.r.runtime.data.model.RAbstractIntVector;
 import com.oracle.truffle.r.runtime.data.model.RAbstractLogicalVector;
@@ -541,7 +542,7 @@ public abstract class Scan extends RBuiltinNode {
             if (isNaString(buffer, 1, data)) {
                 return RRuntime.STRING_NA;
             } else {
-                return buffer;
+                return RStringPool.intern(buffer);
             }
         }
 
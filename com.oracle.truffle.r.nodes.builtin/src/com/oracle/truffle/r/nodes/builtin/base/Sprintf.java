@@ -24,8 +24,6 @@ package com.oracle.truffle.r.nodes.builtin.base;
 
 import static com.oracle.truffle.r.runtime.RBuiltinKind.INTERNAL;
 
-import java.util.Locale;
-
 import com.oracle.truffle.api.CompilerDirectives;
 import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
 import com.oracle.truffle.api.dsl.Specialization;
@@ -33,7 +31,6 @@ import com.oracle.truffle.api.frame.VirtualFrame;
 import com.oracle.truffle.r.nodes.builtin.RBuiltinNode;
 import com.oracle.truffle.r.runtime.RBuiltin;
 import com.oracle.truffle.r.runtime.RError;
-import com.oracle.truffle.r.runtime.RRuntime;
 import com.oracle.truffle.r.runtime.data.RArgsValuesAndNames;
 import com.oracle.truffle.r.runtime.data.RDataFactory;
 import com.oracle.truffle.r.runtime.data.RMissing;
@@ -50,6 +47,8 @@ public abstract class Sprintf extends RBuiltinNode {
 
     @Child private Sprintf sprintfRecursive;
 
+    private SprintfFormat cachedFormat;
+
     @Specialization
     protected String sprintf(String fmt, @SuppressWarnings("unused") RMissing x) {
         return fmt;
@@ -64,7 +63,7 @@ public abstract class Sprintf extends RBuiltinNode {
     @Specialization
     @TruffleBoundary
     protected String sprintf(String fmt, int x) {
-        return format(fmt, x);
+        return getFormat(fmt).format(new StringBuilder(), x);
     }
 
     @Specialization(guards = "fmtLengthOne(fmt)")
@@ -82,9 +81,11 @@ public abstract class Sprintf extends RBuiltinNode {
     @Specialization
     @TruffleBoundary
     protected RStringVector sprintf(String fmt, RAbstractIntVector x) {
+        SprintfFormat format = getFormat(fmt);
+        StringBuilder sb = new StringBuilder();
         String[] r = new String[x.getLength()];
         for (int k = 0; k < r.length; k++) {
-            r[k] = format(fmt, x.getDataAt(k));
+            r[k] = format.format(sb, x.getDataAt(k));
         }
         return RDataFactory.createStringVector(r, RDataFactory.COMPLETE_VECTOR);
     }
@@ -98,14 +99,18 @@ public abstract class Sprintf extends RBuiltinNode {
     @Specialization
     @TruffleBoundary
     protected String sprintf(String fmt, double x) {
-        char f = Character.toLowerCase(firstFormatChar(fmt));
+        return sprintfDouble(getFormat(fmt), new StringBuilder(), x);
+    }
+
+    private String sprintfDouble(SprintfFormat format, StringBuilder sb, double x) {
+        char f = Character.toLowerCase(format.firstConversion());
         if (f == 'x' || f == 'd') {
             if (Math.floor(x) == x) {
-                return format(fmt, (long) x);
+                return format.format(sb, (long) x);
             }
-            throw RError.error(this, RError.Message.INVALID_FORMAT_DOUBLE, fmt);
+            throw RError.error(this, RError.Message.INVALID_FORMAT_DOUBLE, format.fmt);
         }
-        return format(fmt, x);
+        return format.format(sb, x);
     }
 
     @Specialization(guards = "fmtLengthOne(fmt)")
@@ -117,9 +122,11 @@ public abstract class Sprintf extends RBuiltinNode {
     @Specialization
     @TruffleBoundary
     protected RStringVector sprintf(String fmt, RAbstractDoubleVector x) {
+        SprintfFormat format = getFormat(fmt);
+        StringBuilder sb = new StringBuilder();
         String[] r = new String[x.getLength()];
         for (int k = 0; k < r.length; k++) {
-            r[k] = sprintf(fmt, x.getDataAt(k));
+            r[k] = sprintfDouble(format, sb, x.getDataAt(k));
         }
         return RDataFactory.createStringVector(r, RDataFactory.COMPLETE_VECTOR);
     }
@@ -145,9 +152,11 @@ public abstract class Sprintf extends RBuiltinNode {
     @Specialization
     @TruffleBoundary
     protected RStringVector sprintf(String fmt, RAbstractStringVector x) {
+        SprintfFormat format = getFormat(fmt);
+        StringBuilder sb = new StringBuilder();
         String[] r = new String[x.getLength()];
         for (int k = 0; k < r.length; k++) {
-            r[k] = format(fmt, x.getDataAt(k));
+            r[k] = format.format(sb, x.getDataAt(k));
         }
         return RDataFactory.createStringVector(r, RDataFactory.COMPLETE_VECTOR);
     }
@@ -204,10 +213,12 @@ public abstract class Sprintf extends RBuiltinNode {
                 return RDataFactory.createStringVector(fmt);
             }
         } else {
+            SprintfFormat format = getFormat(fmt);
+            StringBuilder sb = new StringBuilder();
             String[] r = new String[maxLength];
             for (int k = 0; k < r.length; k++) {
                 Object[] sprintfArgs = createSprintfArgs(values, k, maxLength);
-                r[k] = format(fmt, sprintfArgs);
+                r[k] = format.format(sb, sprintfArgs);
             }
             return RDataFactory.createStringVector(r, RDataFactory.COMPLETE_VECTOR);
 
@@ -264,305 +275,21 @@ public abstract class Sprintf extends RBuiltinNode {
         }
     }
 
-    private static String format(String fmt, Object... args) {
-        char[] conversions = new char[args.length];
-        String format = processFormat(fmt, args, conversions);
-        adjustValues(args, conversions);
-        return stringFormat(format, args);
-    }
-
-    private static String processFormat(String fmt, Object[] args, char[] conversions) {
-        int i = 0;
-        char[] cs = fmt.toCharArray();
-        StringBuilder sb = new StringBuilder();
-        int argc = 1;
-
-        while (i < cs.length) {
-            // skip up to and including next %
-            while (i < cs.length && cs[i] != '%') {
-                sb.append(cs[i++]);
-            }
-            if (i == cs.length) {
-                break;
-            }
-            sb.append(cs[i++]);
-
-            FormatInfo fi = extractFormatInfo(cs, i, argc);
-            argc = fi.argc;
-            if (fi.conversion != '%') {
-                // take care of width/precision being defined by args
-                int w = 0;
-                int p = 0;
-                if (fi.width != 0 || fi.widthIsArg) {
-                    w = fi.widthIsArg ? intValue(args[fi.width - 1]) : fi.width;
-                }
-                if (fi.precision != 0 || fi.precisionIsArg) {
-                    p = fi.precisionIsArg ? intValue(args[fi.precision - 1]) : fi.precision;
-                }
-                // which argument to print
-                sb.append(intString(fi.numArg)).append('$');
-                // flags
-                if (fi.adjustLeft) {
-                    sb.append('-');
-                }
-                if (fi.alwaysSign) {
-                    sb.append('+');
-                }
-                if (fi.alternate) {
-                    sb.append('#');
-                }
-                if (fi.padZero) {
-                    sb.append('0');
-                }
-                if (fi.spacePrefix) {
-                    sb.append(' ');
-                }
-                // width and precision
-                if (fi.width != 0 || fi.widthIsArg) {
-                    sb.append(intString(w));
-                }
-                if (fi.precision != 0 || fi.precisionIsArg) {
-                    sb.append('.').append(intString(p));
-                }
-                conversions[fi.numArg - 1] = fi.conversion;
-            }
-            sb.append(fi.conversion);
-            i = fi.nextChar;
-        }
-
-        return sb.toString();
-    }
-
-    private static int intValue(Object o) {
-        if (o instanceof Double) {
-            return ((Double) o).intValue();
-        } else if (o instanceof Integer) {
-            return ((Integer) o).intValue();
-        } else {
-            throw fail("unexpected type");
-        }
-    }
-
-    @TruffleBoundary
-    private static String intString(int x) {
-        return Integer.toString(x);
-    }
-
-    private static char firstFormatChar(String fmt) {
-        int pos = 0;
-        char f;
-        for (f = '\0'; f == '\0'; f = fmt.charAt(pos + 1)) {
-            pos = fmt.indexOf('%', pos);
-            if (pos == -1 || pos >= fmt.length() - 1) {
-                return '\0';
-            }
-            if (fmt.charAt(pos + 1) == '%') {
-                continue;
-            }
-            while (!Character.isLetter(fmt.charAt(pos + 1)) && pos < fmt.length() - 1) {
-                pos++;
-            }
-        }
-        return f;
-    }
-
-    @TruffleBoundary
-    private static String stringFormat(String format, Object[] args) {
-        return String.format((Locale) null, format, args);
-    }
-
-    private static void adjustValues(Object[] args, char[] conversions) {
-        for (int i = 0; i < args.length; i++) {
-            if (conversions[i] == 0) {
-                continue;
-            }
-            if (conversions[i] == 'd') {
-                if (args[i] instanceof Double) {
-                    args[i] = ((Double) args[i]).intValue();
-                }
-            }
-            if (conversions[i] == 's') {
-                if (args[i] instanceof Byte) {
-                    args[i] = RRuntime.logicalToString((Byte) args[i]);
-                }
-            }
-        }
-    }
-
-    //
-    // format info parsing
-    //
-
-    private static class FormatInfo {
-        char conversion;
-        int width;
-        int precision;
-        boolean adjustLeft;
-        boolean alwaysSign;
-        boolean spacePrefix;
-        boolean padZero;
-        boolean alternate;
-        int numArg;
-        boolean widthIsArg;
-        boolean precisionIsArg;
-        int nextChar;
-        int argc;
-    }
-
-    //@formatter:off
     /**
-     * The grammar understood by the format info extractor is as follows. Note that the
-     * leading {@code %} has already been consumed in the caller and is not given in the
-     * grammar.
-     *
-     * formatInfo        = '%'
-     *                   | arg? (widthAndPrecision | '-' | '+' | ' ' | '0' | '#')* conversion
-     * arg               = number '$'
-     * widthAndPrecision = oneWidth
-     *                   | number '.' number
-     *                   | number '.' argWidth
-     *                   | argWidth '.' number
-     * oneWidth          = number
-     *                   | argWidth
-     * argWidth          = '*' arg?
-     * conversion        = < one of the conversion characters, save % >
+     * Returns the parsed form of {@code fmt}, reusing the one of the previous call if the format
+     * did not change.
      */
-    //@formatter:on
-    private static FormatInfo extractFormatInfo(char[] cs, int i, int argc) {
-        int j = i;
-        FormatInfo fi = new FormatInfo();
-        fi.argc = argc;
-        char c = cs[j];
-        // finished if % is the conversion
-        if (c != '%') {
-            // look ahead for a $ (indicates arg)
-            if (isNumeric(c) && lookahead(cs, j, '$')) {
-                fi.numArg = number(cs, j, fi);
-                j = fi.nextChar + 1; // advance past $
-                c = cs[j];
-            }
-            // now loop until the conversion is found
-            while (!isConversion(c)) {
-                switch (c) {
-                    case '-':
-                        fi.adjustLeft = true;
-                        j++;
-                        break;
-                    case '+':
-                        fi.alwaysSign = true;
-                        j++;
-                        break;
-                    case ' ':
-                        fi.spacePrefix = true;
-                        j++;
-                        break;
-                    case '0':
-                        fi.padZero = true;
-                        j++;
-                        break;
-                    case '#':
-                        fi.alternate = true;
-                        j++;
-                        break;
-                    case '*':
-                        widthAndPrecision(cs, j, fi);
-                        j = fi.nextChar;
-                        break;
-                    default:
-                        // it can still be a widthAndPrecision if a number is given
-                        if (isNumeric(c)) {
-                            widthAndPrecision(cs, j, fi);
-                            j = fi.nextChar;
-                        } else if (c == '.') {
-                            // apparently precision can be specified without width as well
-                            oneWidth(cs, j + 1, fi, false);
-                            j = fi.nextChar;
-                        } else {
-                            throw fail("problem with format expression");
-                        }
-                }
-                c = cs[j];
-            }
-        }
-        fi.conversion = c;
-        if (c == 'i') {
-            // they seem to be equivalent but 'i' is not handled correctly by the java formatter
-            fi.conversion = 'd';
-        }
-        fi.nextChar = j + 1;
-        if (fi.numArg == 0 && c != '%') {
-            // no arg explicitly given, use args array
-            fi.numArg = fi.argc++;
-        }
-        return fi;
-    }
-
-    private static void widthAndPrecision(char[] cs, int i, FormatInfo fi) {
-        int j = i;
-        oneWidth(cs, j, fi, true);
-        j = fi.nextChar;
-        if (cs[j] == '.') {
-            oneWidth(cs, j + 1, fi, false);
-        }
-    }
-
-    private static void oneWidth(char[] cs, int i, FormatInfo fi, boolean width) {
-        int j = i;
-        int n;
-        if (isNumeric(cs[j])) {
-            n = number(cs, j, fi);
-            j = fi.nextChar;
-        } else {
-            assert cs[j] == '*';
-            if (width) {
-                fi.widthIsArg = true;
-            } else {
-                fi.precisionIsArg = true;
-            }
-            j++;
-            if (isNumeric(cs[j])) {
-                n = number(cs, j, fi);
-                j = fi.nextChar;
-                assert cs[j] == '$';
-                fi.nextChar = ++j;
-            } else {
-                n = fi.argc++;
-            }
-        }
-        if (width) {
-            fi.width = n;
-        } else {
-            fi.precision = n;
+    private SprintfFormat getFormat(String fmt) {
+        SprintfFormat format = cachedFormat;
+        if (format == null || !format.fmt.equals(fmt)) {
+            format = SprintfFormat.parse(fmt);
+            cachedFormat = format;
         }
-        fi.nextChar = j;
-    }
-
-    private static boolean isConversion(char c) {
-        return "aAdifeEgGosxX".indexOf(c) != -1;
+        return format;
     }
 
-    private static boolean isNumeric(char c) {
-        return c >= 48 && c <= 57;
-    }
-
-    private static int number(char[] cs, int i, FormatInfo fi) {
-        int j = i;
-        int num = cs[j++] - 48;
-        while (isNumeric(cs[j])) {
-            num = 10 * num + cs[j++];
-        }
-        fi.nextChar = j;
-        return num;
-    }
-
-    private static boolean lookahead(char[] cs, int i, char c) {
-        int j = i;
-        while (!isConversion(cs[j])) {
-            if (cs[j++] == c) {
-                return true;
-            }
-        }
-        return false;
+    private String format(String fmt, Object... args) {
+        return getFormat(fmt).format(new StringBuilder(), args);
     }
 
     protected boolean fmtLengthOne(RAbstractStringVector fmt) {
@@ -572,9 +299,4 @@ public abstract class Sprintf extends RBuiltinNode {
     protected boolean oneElement(RArgsValuesAndNames args) {
         return args.getLength() == 1;
     }
-
-    @TruffleBoundary
-    private static IllegalStateException fail(String message) {
-        throw new IllegalStateException(message);
-    }
 }
@@ -0,0 +1,638 @@
+/*
+ * Copyright (c) 2016, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.truffle.r.nodes.builtin.base;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.Locale;
+
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+import com.oracle.truffle.r.runtime.RRuntime;
+
+/**
+ * A parsed {@code sprintf} format string. Parsing is done once per distinct format (see
+ * {@link Sprintf}, which keeps the last one per call site), and the common conversions
+ * ({@code %d}, {@code %f}, {@code %s}) are then rendered directly into a {@link StringBuilder}
+ * without going through {@link String#format}. Anything not handled here falls back to a Java
+ * format string derived from the same parse.
+ *
+ * Fixed-point output follows C's {@code printf}, i.e. it rounds the exact binary value half-even,
+ * which is what GNU R produces (e.g. {@code sprintf("%.2f", 0.125)} gives {@code "0.12"}).
+ */
+final class SprintfFormat {
+
+    private static final double[] POWERS_OF_TEN = {1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11, 1e12, 1e13, 1e14, 1e15};
+
+    /**
+     * Scaled values below this bound have an ulp of at most 2^-10, so that the rounding decision
+     * can be taken on the double product unless the fraction is very close to one half.
+     */
+    private static final double MAX_FAST_SCALED = 0x1p42;
+    private static final double TIE_MARGIN = 0x1p-9;
+
+    final String fmt;
+    /** {@code literals[i]} precedes {@code infos[i]}, the last entry is the trailing text. */
+    private final String[] literals;
+    private final FormatInfo[] infos;
+
+    private SprintfFormat(String fmt, String[] literals, FormatInfo[] infos) {
+        this.fmt = fmt;
+        this.literals = literals;
+        this.infos = infos;
+    }
+
+    /**
+     * The conversion character of the first conversion, or {@code '\0'} if there is none.
+     */
+    char firstConversion() {
+        return infos.length == 0 ? '\0' : infos[0].conversion;
+    }
+
+    /**
+     * Whether this format consists of exactly one conversion that consumes the first argument,
+     * with no width or precision taken from the arguments.
+     */
+    private boolean isSingleConversion() {
+        if (infos.length != 1) {
+            return false;
+        }
+        FormatInfo fi = infos[0];
+        return fi.numArg == 1 && !fi.widthIsArg && !fi.precisionIsArg;
+    }
+
+    String format(StringBuilder sb, double x) {
+        if (isSingleConversion()) {
+            sb.setLength(0);
+            sb.append(literals[0]);
+            if (appendDouble(sb, infos[0], infos[0].width, infos[0].precision, x)) {
+                return sb.append(literals[1]).toString();
+            }
+        }
+        return format(sb, new Object[]{x});
+    }
+
+    String format(StringBuilder sb, int x) {
+        if (isSingleConversion()) {
+            sb.setLength(0);
+            sb.append(literals[0]);
+            if (appendInt(sb, infos[0], infos[0].width, x)) {
+                return sb.append(literals[1]).toString();
+            }
+        }
+        return format(sb, new Object[]{x});
+    }
+
+    String format(StringBuilder sb, long x) {
+        if (isSingleConversion() && infos[0].conversion == 'd') {
+            sb.setLength(0);
+            sb.append(literals[0]);
+            if (appendLong(sb, infos[0], infos[0].width, x)) {
+                return sb.append(literals[1]).toString();
+            }
+        }
+        return format(sb, new Object[]{x});
+    }
+
+    String format(StringBuilder sb, Object... args) {
+        sb.setLength(0);
+        if (formatTo(sb, args)) {
+            return sb.toString();
+        }
+        return javaFormat(args);
+    }
+
+    private boolean formatTo(StringBuilder sb, Object[] args) {
+        for (int i = 0; i < infos.length; i++) {
+            FormatInfo fi = infos[i];
+            sb.append(literals[i]);
+            int w = fi.width;
+            int p = fi.precision;
+            if (fi.widthIsArg) {
+                if (fi.width > args.length || !isIntLike(args[fi.width - 1])) {
+                    return false;
+                }
+                w = intValue(args[fi.width - 1]);
+                if (w < 0) {
+                    return false;
+                }
+            }
+            if (fi.precisionIsArg) {
+                if (fi.precision > args.length || !isIntLike(args[fi.precision - 1])) {
+                    return false;
+                }
+                p = intValue(args[fi.precision - 1]);
+            }
+            if (fi.numArg > args.length) {
+                return false;
+            }
+            Object arg = args[fi.numArg - 1];
+            boolean done;
+            if (arg instanceof Double) {
+                done = appendDouble(sb, fi, w, p, (Double) arg);
+            } else if (arg instanceof Integer) {
+                done = appendInt(sb, fi, w, (Integer) arg);
+            } else if (arg instanceof Long) {
+                done = fi.conversion == 'd' && appendLong(sb, fi, w, (Long) arg);
+            } else if (arg instanceof String) {
+                done = appendString(sb, fi, w, p, (String) arg);
+            } else if (arg instanceof Byte && fi.conversion == 's') {
+                done = appendString(sb, fi, w, p, RRuntime.logicalToString((Byte) arg));
+            } else {
+                done = false;
+            }
+            if (!done) {
+                return false;
+            }
+        }
+        sb.append(literals[infos.length]);
+        return true;
+    }
+
+    private static boolean isIntLike(Object o) {
+        return o instanceof Integer || o instanceof Double;
+    }
+
+    //
+    // direct formatting of the common conversions
+    //
+
+    private static boolean appendDouble(StringBuilder sb, FormatInfo fi, int width, int precision, double x) {
+        if (fi.conversion == 'd') {
+            // matches the (int) conversion done for the Java formatter
+            return appendInt(sb, fi, width, (int) x);
+        }
+        if (fi.conversion != 'f' || fi.alternate || precision < 0) {
+            return false;
+        }
+        int start = sb.length();
+        if (Double.isNaN(x)) {
+            sb.append(RRuntime.isNA(x) ? RRuntime.STRING_NA : "NaN");
+            pad(sb, fi, start, width, false);
+            return true;
+        }
+        boolean negative = x < 0 || (x == 0 && 1 / x < 0);
+        appendSign(sb, fi, negative);
+        double ax = Math.abs(x);
+        if (Double.isInfinite(ax)) {
+            sb.append("Inf");
+            pad(sb, fi, start, width, false);
+            return true;
+        }
+        int p = fi.hasPrecision ? precision : 6;
+        if (!appendFixed(sb, ax, p)) {
+            appendFixedExact(sb, ax, p);
+        }
+        pad(sb, fi, start, width, fi.padZero);
+        return true;
+    }
+
+    private static boolean appendFixed(StringBuilder sb, double ax, int p) {
+        if (p >= POWERS_OF_TEN.length) {
+            return false;
+        }
+        double scaled = ax * POWERS_OF_TEN[p];
+        if (!(scaled < MAX_FAST_SCALED)) {
+            return false;
+        }
+        double floor = Math.floor(scaled);
+        double frac = scaled - floor;
+        if (Math.abs(frac - 0.5) < TIE_MARGIN) {
+            return false;
+        }
+        long digits = (long) floor + (frac > 0.5 ? 1 : 0);
+        for (int n = digitCount(digits); n <= p; n++) {
+            sb.append('0');
+        }
+        sb.append(digits);
+        if (p > 0) {
+            sb.insert(sb.length() - p, '.');
+        }
+        return true;
+    }
+
+    @TruffleBoundary
+    private static void appendFixedExact(StringBuilder sb, double ax, int p) {
+        sb.append(new BigDecimal(ax).setScale(p, RoundingMode.HALF_EVEN).toPlainString());
+    }
+
+    private static boolean appendInt(StringBuilder sb, FormatInfo fi, int width, int x) {
+        if (fi.conversion == 'd' && RRuntime.isNA(x) && !fi.alternate) {
+            int start = sb.length();
+            sb.append(RRuntime.STRING_NA);
+            pad(sb, fi, start, width, false);
+            return true;
+        }
+        return fi.conversion == 'd' && appendLong(sb, fi, width, x);
+    }
+
+    private static boolean appendLong(StringBuilder sb, FormatInfo fi, int width, long x) {
+        if (fi.hasPrecision || fi.alternate || x == Long.MIN_VALUE) {
+            return false;
+        }
+        int start = sb.length();
+        appendSign(sb, fi, x < 0);
+        sb.append(Math.abs(x));
+        pad(sb, fi, start, width, fi.padZero);
+        return true;
+    }
+
+    private static boolean appendString(StringBuilder sb, FormatInfo fi, int width, int precision, String x) {
+        if (fi.conversion != 's' || fi.alwaysSign || fi.spacePrefix || fi.padZero || fi.alternate || precision < 0) {
+            return false;
+        }
+        int start = sb.length();
+        if (fi.hasPrecision && precision < x.length()) {
+            sb.append(x, 0, precision);
+        } else {
+            sb.append(x);
+        }
+        pad(sb, fi, start, width, false);
+        return true;
+    }
+
+    private static void appendSign(StringBuilder sb, FormatInfo fi, boolean negative) {
+        if (negative) {
+            sb.append('-');
+        } else if (fi.alwaysSign) {
+            sb.append('+');
+        } else if (fi.spacePrefix) {
+            sb.append(' ');
+        }
+    }
+
+    /**
+     * Pads the field that starts at {@code start} to {@code width}: on the right if left-adjusted,
+     * otherwise with zeros after the sign or with spaces in front.
+     */
+    private static void pad(StringBuilder sb, FormatInfo fi, int start, int width, boolean zeros) {
+        int missing = width - (sb.length() - start);
+        if (missing <= 0) {
+            return;
+        }
+        if (fi.adjustLeft) {
+            for (int i = 0; i < missing; i++) {
+                sb.append(' ');
+            }
+        } else {
+            int at = start;
+            char c = ' ';
+            if (zeros) {
+                c = '0';
+                char first = sb.charAt(start);
+                if (first == '-' || first == '+' || first == ' ') {
+                    at++;
+                }
+            }
+            for (int i = 0; i < missing; i++) {
+                sb.insert(at, c);
+            }
+        }
+    }
+
+    private static int digitCount(long x) {
+        int n = 1;
+        for (long v = x; v >= 10; v /= 10) {
+            n++;
+        }
+        return n;
+    }
+
+    //
+    // fallback via the Java formatter
+    //
+
+    private String javaFormat(Object[] args) {
+        char[] conversions = new char[args.length];
+        String format = toJavaFormat(args, conversions);
+        adjustValues(args, conversions);
+        return stringFormat(format, args);
+    }
+
+    private String toJavaFormat(Object[] args, char[] conversions) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < infos.length; i++) {
+            appendEscaped(sb, literals[i]);
+            FormatInfo fi = infos[i];
+            sb.append('%');
+            // take care of width/precision being defined by args
+            int w = 0;
+            int p = 0;
+            if (fi.width != 0 || fi.widthIsArg) {
+                w = fi.widthIsArg ? intValue(args[fi.width - 1]) : fi.width;
+            }
+            if (fi.hasPrecision) {
+                p = fi.precisionIsArg ? intValue(args[fi.precision - 1]) : fi.precision;
+            }
+            // which argument to print
+            sb.append(fi.numArg).append('$');
+            // flags
+            if (fi.adjustLeft) {
+                sb.append('-');
+            }
+            if (fi.alwaysSign) {
+                sb.append('+');
+            }
+            if (fi.alternate) {
+                sb.append('#');
+            }
+            if (fi.padZero) {
+                sb.append('0');
+            }
+            if (fi.spacePrefix) {
+                sb.append(' ');
+            }
+            // width and precision
+            if (fi.width != 0 || fi.widthIsArg) {
+                sb.append(w);
+            }
+            if (fi.hasPrecision) {
+                sb.append('.').append(p);
+            }
+            if (fi.numArg <= conversions.length) {
+                conversions[fi.numArg - 1] = fi.conversion;
+            }
+            sb.append(fi.conversion);
+        }
+        appendEscaped(sb, literals[infos.length]);
+        return sb.toString();
+    }
+
+    private static void appendEscaped(StringBuilder sb, String literal) {
+        for (int i = 0; i < literal.length(); i++) {
+            char c = literal.charAt(i);
+            sb.append(c);
+            if (c == '%') {
+                sb.append('%');
+            }
+        }
+    }
+
+    private static int intValue(Object o) {
+        if (o instanceof Double) {
+            return ((Double) o).intValue();
+        } else if (o instanceof Integer) {
+            return ((Integer) o).intValue();
+        } else {
+            throw fail("unexpected type");
+        }
+    }
+
+    @TruffleBoundary
+    private static String stringFormat(String format, Object[] args) {
+        return String.format((Locale) null, format, args);
+    }
+
+    private static void adjustValues(Object[] args, char[] conversions) {
+        for (int i = 0; i < args.length; i++) {
+            if (conversions[i] == 0) {
+                continue;
+            }
+            if (conversions[i] == 'd') {
+                if (args[i] instanceof Double) {
+                    args[i] = ((Double) args[i]).intValue();
+                }
+            }
+            if (conversions[i] == 's') {
+                if (args[i] instanceof Byte) {
+                    args[i] = RRuntime.logicalToString((Byte) args[i]);
+                }
+            }
+        }
+    }
+
+    //
+    // format info parsing
+    //
+
+    private static class FormatInfo {
+        char conversion;
+        int width;
+        int precision;
+        boolean hasPrecision;
+        boolean adjustLeft;
+        boolean alwaysSign;
+        boolean spacePrefix;
+        boolean padZero;
+        boolean alternate;
+        int numArg;
+        boolean widthIsArg;
+        boolean precisionIsArg;
+        int nextChar;
+        int argc;
+    }
+
+    @TruffleBoundary
+    static SprintfFormat parse(String fmt) {
+        ArrayList<String> literals = new ArrayList<>();
+        ArrayList<FormatInfo> infos = new ArrayList<>();
+        char[] cs = fmt.toCharArray();
+        StringBuilder literal = new StringBuilder();
+        int i = 0;
+        int argc = 1;
+        while (i < cs.length) {
+            // skip up to and including next %
+            while (i < cs.length && cs[i] != '%') {
+                literal.append(cs[i++]);
+            }
+            if (i == cs.length) {
+                break;
+            }
+            i++;
+            FormatInfo fi = extractFormatInfo(cs, i, argc);
+            argc = fi.argc;
+            if (fi.conversion == '%') {
+                literal.append('%');
+            } else {
+                literals.add(literal.toString());
+                literal.setLength(0);
+                infos.add(fi);
+            }
+            i = fi.nextChar;
+        }
+        literals.add(literal.toString());
+        return new SprintfFormat(fmt, literals.toArray(new String[literals.size()]), infos.toArray(new FormatInfo[infos.size()]));
+    }
+
+    //@formatter:off
+    /**
+     * The grammar understood by the format info extractor is as follows. Note that the
+     * leading {@code %} has already been consumed in the caller and is not given in the
+     * grammar.
+     *
+     * formatInfo        = '%'
+     *                   | arg? (widthAndPrecision | '-' | '+' | ' ' | '0' | '#')* conversion
+     * arg               = number '$'
+     * widthAndPrecision = oneWidth
+     *                   | number '.' number
+     *                   | number '.' argWidth
+     *                   | argWidth '.' number
+     * oneWidth          = number
+     *                   | argWidth
+     * argWidth          = '*' arg?
+     * conversion        = < one of the conversion characters, save % >
+     */
+    //@formatter:on
+    private static FormatInfo extractFormatInfo(char[] cs, int i, int argc) {
+        int j = i;
+        FormatInfo fi = new FormatInfo();
+        fi.argc = argc;
+        char c = cs[j];
+        // finished if % is the conversion
+        if (c != '%') {
+            // look ahead for a $ (indicates arg)
+            if (isNumeric(c) && lookahead(cs, j, '$')) {
+                fi.numArg = number(cs, j, fi);
+                j = fi.nextChar + 1; // advance past $
+                c = cs[j];
+            }
+            // now loop until the conversion is found
+            while (!isConversion(c)) {
+                switch (c) {
+                    case '-':
+                        fi.adjustLeft = true;
+                        j++;
+                        break;
+                    case '+':
+                        fi.alwaysSign = true;
+                        j++;
+                        break;
+                    case ' ':
+                        fi.spacePrefix = true;
+                        j++;
+                        break;
+                    case '0':
+                        fi.padZero = true;
+                        j++;
+                        break;
+                    case '#':
+                        fi.alternate = true;
+                        j++;
+                        break;
+                    case '*':
+                        widthAndPrecision(cs, j, fi);
+                        j = fi.nextChar;
+                        break;
+                    default:
+                        // it can still be a widthAndPrecision if a number is given
+                        if (isNumeric(c)) {
+                            widthAndPrecision(cs, j, fi);
+                            j = fi.nextChar;
+                        } else if (c == '.') {
+                            // apparently precision can be specified without width as well
+                            oneWidth(cs, j + 1, fi, false);
+                            j = fi.nextChar;
+                        } else {
+                            throw fail("problem with format expression");
+                        }
+                }
+                c = cs[j];
+            }
+        }
+        fi.conversion = c;
+        if (c == 'i') {
+            // they seem to be equivalent but 'i' is not handled correctly by the java formatter
+            fi.conversion = 'd';
+        }
+        fi.nextChar = j + 1;
+        if (fi.numArg == 0 && c != '%') {
+            // no arg explicitly given, use args array
+            fi.numArg = fi.argc++;
+        }
+        return fi;
+    }
+
+    private static void widthAndPrecision(char[] cs, int i, FormatInfo fi) {
+        int j = i;
+        oneWidth(cs, j, fi, true);
+        j = fi.nextChar;
+        if (cs[j] == '.') {
+            oneWidth(cs, j + 1, fi, false);
+        }
+    }
+
+    private static void oneWidth(char[] cs, int i, FormatInfo fi, boolean width) {
+        int j = i;
+        int n;
+        if (isNumeric(cs[j])) {
+            n = number(cs, j, fi);
+            j = fi.nextChar;
+        } else {
+            assert cs[j] == '*';
+            if (width) {
+                fi.widthIsArg = true;
+            } else {
+                fi.precisionIsArg = true;
+            }
+            j++;
+            if (isNumeric(cs[j])) {
+                n = number(cs, j, fi);
+                j = fi.nextChar;
+                assert cs[j] == '$';
+                fi.nextChar = ++j;
+            } else {
+                n = fi.argc++;
+            }
+        }
+        if (width) {
+            fi.width = n;
+        } else {
+            fi.precision = n;
+            fi.hasPrecision = true;
+        }
+        fi.nextChar = j;
+    }
+
+    private static boolean isConversion(char c) {
+        return "aAdifeEgGosxX".indexOf(c) != -1;
+    }
+
+    private static boolean isNumeric(char c) {
+        return c >= 48 && c <= 57;
+    }
+
+    private static int number(char[] cs, int i, FormatInfo fi) {
+        int j = i;
+        int num = cs[j++] - 48;
+        while (isNumeric(cs[j])) {
+            num = 10 * num + cs[j++] - 48;
+        }
+        fi.nextChar = j;
+        return num;
+    }
+
+    private static boolean lookahead(char[] cs, int i, char c) {
+        int j = i;
+        while (!isConversion(cs[j])) {
+            if (cs[j++] == c) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @TruffleBoundary
+    private static IllegalStateException fail(String message) {
+        throw new IllegalStateException(message);
+    }
+}
@@ -17,6 +17,7 @@ import com.oracle.truffle.api.dsl.Specialization;
 import com.oracle.truffle.api.dsl.TypeSystemReference;
 import com.oracle.truffle.api.frame.VirtualFrame;
 import com.oracle.truffle.api.nodes.Node;
+import com.oracle.truffle.api.profiles.ConditionProfile;
 import com.oracle.truffle.r.nodes.builtin.CastBuilder;
 import com.oracle.truffle.r.nodes.builtin.RBuiltinNode;
 import com.oracle.truffle.r.nodes.builtin.base.UnlistNodeGen.RecursiveLengthNodeGen;
@@ -32,10 +33,12 @@ import com.oracle.truffle.r.runtime.data.RDataFactory;
 import com.oracle.truffle.r.runtime.data.RFunction;
 import com.oracle.truffle.r.runtime.data.RLanguage;
 import com.oracle.truffle.r.runtime.data.RList;
+import com.oracle.truffle.r.runtime.data.RListBase;
 import com.oracle.truffle.r.runtime.data.RNull;
 import com.oracle.truffle.r.runtime.data.RRaw;
 import com.oracle.truffle.r.runtime.data.RStringVector;
 import com.oracle.truffle.r.runtime.data.RTypes;
+import com.oracle.truffle.r.runtime.data.RVector;
 import com.oracle.truffle.r.runtime.data.model.RAbstractVector;
 
 @RBuiltin(name = "unlist", kind = RBuiltinKind.INTERNAL, parameterNames = {"x", "recursive", "use.names"})
@@ -54,6 +57,7 @@ public abstract class Unlist extends RBuiltinNode {
     @Child private RecursiveLength recursiveLengthNode;
 
     private final RAttributeProfiles attrProfiles = RAttributeProfiles.create();
+    private final ConditionProfile homogeneousProfile = ConditionProfile.createBinaryProfile();
 
     @TypeSystemReference(RTypes.class)
     protected abstract static class RecursiveLength extends Node {
@@ -163,6 +167,10 @@ public abstract class Unlist extends RBuiltinNode {
     // the slow path as well; ultimately we may consider (non-recursive) optimization
     @Specialization(guards = "!isEmpty(list)")
     protected Object unlistList(VirtualFrame frame, RList list, boolean recursive, boolean useNames) {
+        RVector homogeneous = unlistHomogeneous(list, useNames);
+        if (homogeneousProfile.profile(homogeneous != null)) {
+            return homogeneous;
+        }
         int precedence = PrecedenceNode.NO_PRECEDENCE;
         int totalSize = 0;
         for (int i = 0; i < list.getLength(); i++) {
@@ -182,6 +190,82 @@ public abstract class Unlist extends RBuiltinNode {
         }
     }
 
+    /**
+     * Fast path for the common case of a list whose elements are all atomic vectors (or scalars) of
+     * the same type and no names need to be produced: the result is built in a single pass over the
+     * list with bulk copies from the elements' backing arrays. Returns {@code null} if the list does
+     * not qualify.
+     */
+    @TruffleBoundary
+    private RVector unlistHomogeneous(RList list, boolean useNames) {
+        if (useNames && list.getNames(attrProfiles) != null) {
+            return null;
+        }
+        Object first = list.getDataAt(0);
+        if (first instanceof RVector && !(first instanceof RListBase)) {
+            Class<?> elementClass = first.getClass();
+            int totalSize = 0;
+            boolean complete = true;
+            for (int i = 0; i < list.getLength(); i++) {
+                Object element = list.getDataAt(i);
+                if (element.getClass() != elementClass) {
+                    return null;
+                }
+                RVector v = (RVector) element;
+                if (useNames && v.getNames(attrProfiles) != null) {
+                    return null;
+                }
+                totalSize += v.getLength();
+                complete &= v.isComplete();
+            }
+            RVector result = ((RVector) first).createEmptySameType(totalSize, complete);
+            int position = 0;
+            for (int i = 0; i < list.getLength(); i++) {
+                RVector v = (RVector) list.getDataAt(i);
+                result.transferElementsSameType(position, v, 0, v.getLength());
+                position += v.getLength();
+            }
+            return result;
+        } else if (first instanceof Double) {
+            double[] result = new double[list.getLength()];
+            boolean complete = true;
+            for (int i = 0; i < result.length; i++) {
+                Object element = list.getDataAt(i);
+                if (!(element instanceof Double)) {
+                    return null;
+                }
+                result[i] = (double) element;
+                complete &= !RRuntime.isNA(result[i]);
+            }
+            return RDataFactory.createDoubleVector(result, complete);
+        } else if (first instanceof Integer) {
+            int[] result = new int[list.getLength()];
+            boolean complete = true;
+            for (int i = 0; i < result.length; i++) {
+                Object element = list.getDataAt(i);
+                if (!(element instanceof Integer)) {
+                    return null;
+                }
+                result[i] = (int) element;
+                complete &= !RRuntime.isNA(result[i]);
+            }
+            return RDataFactory.createIntVector(result, complete);
+        } else if (first instanceof String) {
+            String[] result = new String[list.getLength()];
+            boolean complete = true;
+            for (int i = 0; i < result.length; i++) {
+                Object element = list.getDataAt(i);
+                if (!(element instanceof String)) {
+                    return null;
+                }
+                result[i] = (String) element;
+                complete &= !RRuntime.isNA(result[i]);
+            }
+            return RDataFactory.createStringVector(result, complete);
+        }
+        return null;
+    }
+
     @TruffleBoundary
     private RAbstractVector unlistHelper(RList list, boolean recursive, boolean useNames, int precedence, int totalSize) {
         String[] namesData = useNames ? new String[totalSize] : null;
@@ -170,7 +170,7 @@ public abstract class UpdateDimNames extends RBuiltinNode {
                 }
             }
             if (vector.getAttributes() == null) {
-                vector.initAttributes(RAttributes.createInitialized(new String[]{RRuntime.DIMNAMES_ATTR_KEY}, new Object[]{resDimNames}));
+                vector.initAttributes(RAttributes.createInitialized(RAttributes.Shape.DIMNAMES, new Object[]{resDimNames}));
             } else {
                 put.execute(vector.getAttributes(), resDimNames);
             }
@@ -12,6 +12,7 @@
 
 package com.oracle.truffle.r.nodes.builtin.base.foreign;
 
+import com.oracle.truffle.r.library.stats.StatsFunctions.Function1;
 import com.oracle.truffle.r.library.stats.StatsFunctions.Function3_1;
 
 /**
@@ -48,8 +49,36 @@ public final class Dnorm4 implements Function3_1 {
         }
 
         if (giveLog) {
-            return -(M_LN_SQRT_2PI + 0.5 * x * x + Math.log10(sigma));
+            return -(M_LN_SQRT_2PI + 0.5 * x * x + Math.log(sigma));
         }
         return M_1_SQRT_2PI * Math.exp(-0.5 * x * x) / sigma;
     }
+
+    @Override
+    public Function1 prepare(double mu, double sigma, boolean giveLog) {
+        if (!Double.isFinite(sigma) || sigma <= 0) {
+            // degenerate or invalid, left to evaluate
+            return null;
+        }
+        double negInfOrZero = giveLog ? Double.NEGATIVE_INFINITY : 0;
+        double logSigma = Math.log(sigma);
+        return xa -> {
+            if (!Double.isFinite(xa) && !Double.isFinite(mu)) {
+                return Double.NaN;
+            }
+            double x = (xa - mu) / sigma;
+            if (!Double.isFinite(x)) {
+                return negInfOrZero;
+            }
+            if (giveLog) {
+                return -(M_LN_SQRT_2PI + 0.5 * x * x + logSigma);
+            }
+            return M_1_SQRT_2PI * Math.exp(-0.5 * x * x) / sigma;
+        };
+    }
+
+    @Override
+    public boolean isParallelizable() {
+        return true;
+    }
 }
@@ -40,6 +40,7 @@ import com.oracle.truffle.r.library.stats.CompleteCases;
 import com.oracle.truffle.r.library.stats.Covcor;
 import com.oracle.truffle.r.library.stats.Dbinom;
 import com.oracle.truffle.r.library.stats.GammaFunctionsFactory.QgammaNodeGen;
+import com.oracle.truffle.r.library.stats.Pbeta;
 import com.oracle.truffle.r.library.stats.Pbinom;
 import com.oracle.truffle.r.library.stats.Pnorm;
 import com.oracle.truffle.r.library.stats.Qbinom;
@@ -335,6 +336,8 @@ public class ForeignFunctions {
 
                 case "fft":
                     return new Fft();
+                case "mvfft":
+                    return new Mvfft();
                 case "cov":
                     return new Covcor(false);
                 case "cor":
@@ -361,6 +364,8 @@ public class ForeignFunctions {
                     return RbinomNodeGen.create();
                 case "pbinom":
                     return StatsFunctionsFactory.Function3_2NodeGen.create(new Pbinom());
+                case "pbeta":
+                    return StatsFunctionsFactory.Function3_2NodeGen.create(new Pbeta());
                 case "cutree":
                 case "isoreg":
                 case "monoFC_m":
@@ -400,7 +405,6 @@ public class ForeignFunctions {
                 case "rWishart":
                 case "Cdist":
                 case "updateform":
-                case "mvfft":
                 case "nextn":
                 case "r2dtable":
                 case "cfilter":
@@ -555,6 +559,8 @@ public class ForeignFunctions {
                         return new DevicesCCalls.C_DevOff();
                     case "devcur":
                         return new DevicesCCalls.C_DevCur();
+                    case "devCairo":
+                        return new DevicesCCalls.C_DevCairo();
                 }
             }
             switch (name) {
@@ -0,0 +1,43 @@
+/*
+ * This material is distributed under the GNU General Public License
+ * Version 2. You may review the terms of this license at
+ * http://www.gnu.org/licenses/gpl-2.0.html
+ *
+ * Copyright (c) 1995-2012, The R Core Team
+ * Copyright (c) 2003, The R Foundation
+ * Copyright (c) 2016, 2016, Oracle and/or its affiliates
+ *
+ * All rights reserved.
+ */
+package com.oracle.truffle.r.nodes.builtin.base.foreign;
+
+import com.oracle.truffle.r.library.stats.FastFourierTransform;
+import com.oracle.truffle.r.nodes.builtin.RExternalBuiltinNode;
+import com.oracle.truffle.r.runtime.RError;
+import com.oracle.truffle.r.runtime.RRuntime;
+import com.oracle.truffle.r.runtime.data.RArgsValuesAndNames;
+import com.oracle.truffle.r.runtime.data.RComplexVector;
+import com.oracle.truffle.r.runtime.data.RDataFactory;
+
+/**
+ * The {@code mvfft} function, which transforms each column of a matrix. The columns are
+ * independent, so long batches are transformed in parallel.
+ */
+public final class Mvfft extends RExternalBuiltinNode {
+
+    @Override
+    public RComplexVector call(RArgsValuesAndNames args) {
+        Object[] argValues = args.getArguments();
+        RComplexVector zVec = castComplexVector(castVector(argValues[0]));
+        byte inverse = castLogical(castVector(argValues[1]));
+        boolean inv = !(RRuntime.isNA(inverse) || inverse == RRuntime.LOGICAL_FALSE);
+        int[] d = zVec.getDimensions();
+        if (d == null || d.length != 2) {
+            errorProfile.enter();
+            throw RError.error(this, RError.Message.VECTOR_VALUED_SERIES);
+        }
+        double[] z = zVec.getDataTemp();
+        FastFourierTransform.transformColumns(z, d[0], d[1], inv);
+        return RDataFactory.createComplexVector(z, zVec.isComplete(), d);
+    }
+}
@@ -27,18 +27,45 @@ import java.io.Writer;
 
 import com.oracle.truffle.r.runtime.conn.StdConnections;
 
+/**
+ * Writes the printer output to the standard output connection. The output is collected in chunks of
+ * {@link #CHUNK_SIZE} characters, so that large objects are not written piecewise for every element
+ * nor built up in memory as a whole. Code that lets other code write to the standard output while
+ * printing (e.g., a {@code show} method) must flush this writer first.
+ */
 class RWriter extends Writer {
 
+    private static final int CHUNK_SIZE = 8192;
+
+    private final StringBuilder buffer = new StringBuilder();
+
     @Override
     public void write(char[] cbuf, int off, int len) throws IOException {
-        StdConnections.getStdout().writeString(new String(cbuf, off, len), false);
+        buffer.append(cbuf, off, len);
+        if (buffer.length() >= CHUNK_SIZE) {
+            flush();
+        }
+    }
+
+    @Override
+    public void write(String str, int off, int len) throws IOException {
+        buffer.append(str, off, off + len);
+        if (buffer.length() >= CHUNK_SIZE) {
+            flush();
+        }
     }
 
     @Override
     public void flush() throws IOException {
+        if (buffer.length() > 0) {
+            String chunk = buffer.toString();
+            buffer.setLength(0);
+            StdConnections.getStdout().writeString(chunk, false);
+        }
     }
 
     @Override
     public void close() throws IOException {
+        flush();
     }
 }
@@ -60,6 +60,8 @@ final class S4ObjectPrinter implements ValuePrinter<RS4Object> {
 
     static void printS4(PrintContext printCtx, Object o) {
         Frame frame = com.oracle.truffle.r.runtime.Utils.getActualCurrentFrame();
+        // the show method writes to the standard output directly
+        printCtx.output().flush();
         RContext.getEngine().evalFunction(createShowFunction(frame), null, null, o);
         // The show function prints an additional new line character. The following attribute
         // instructs the ValuePrinter.println method not to print the new line since it was
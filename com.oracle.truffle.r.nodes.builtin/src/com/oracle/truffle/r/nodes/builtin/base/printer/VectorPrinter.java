@@ -178,7 +178,8 @@ abstract class VectorPrinter<T extends RAbstractVector> extends AbstractValuePri
 
             width = doLab(0);
 
-            FormatMetrics fm = formatVector(0, n);
+            // only the printed elements determine the format
+            FormatMetrics fm = formatVector(0, nPr);
             final int w = fm.maxWidth;
 
             for (int i = 0; i < nPr; i++) {
@@ -207,11 +208,11 @@ abstract class VectorPrinter<T extends RAbstractVector> extends AbstractValuePri
             int nperline;
             int wn;
 
-            FormatMetrics fm = formatVector(0, n);
+            FormatMetrics fm = formatVector(0, nPr);
 
             PrintParameters pp = printCtx.parameters();
 
-            wn = StringVectorPrinter.formatString(names, 0, n, false, pp);
+            wn = StringVectorPrinter.formatString(names, 0, nPr, false, pp);
             if (fm.maxWidth < wn) {
                 fm.maxWidth = wn;
             }
@@ -222,8 +223,8 @@ abstract class VectorPrinter<T extends RAbstractVector> extends AbstractValuePri
             if (nperline <= 0) {
                 nperline = 1;
             }
-            nlines = n / nperline;
-            if (n % nperline != 0) {
+            nlines = nPr / nperline;
+            if (nPr % nperline != 0) {
                 nlines += 1;
             }
 
@@ -235,16 +236,19 @@ abstract class VectorPrinter<T extends RAbstractVector> extends AbstractValuePri
                 if (i > 0) {
                     out.println();
                 }
-                for (j = 0; j < nperline && (k = i * nperline + j) < n; j++) {
+                for (j = 0; j < nperline && (k = i * nperline + j) < nPr; j++) {
                     StringVectorPrinter.printString(names.getDataAt(k), w, namesPrintCtx);
                     out.printf("%" + asBlankArg(gap) + "s", "");
                 }
                 out.println();
-                for (j = 0; j < nperline && (k = i * nperline + j) < n; j++) {
+                for (j = 0; j < nperline && (k = i * nperline + j) < nPr; j++) {
                     printElementAndNotify(k, fm);
                     out.printf("%" + asBlankArg(gap) + "s", "");
                 }
             }
+            if (nPr < n) {
+                out.printf("\n [ reached getOption(\"max.print\") -- omitted %d entries ]", n - nPr);
+            }
         }
 
         private void printMatrix() throws IOException {
@@ -325,7 +329,7 @@ abstract class VectorPrinter<T extends RAbstractVector> extends AbstractValuePri
             /* compute w[j] = column-width of j(+1)-th column : */
             for (j = 0; j < c; j++) {
                 if (printij) {
-                    w[j] = formatVector(offset + j * r, r);
+                    w[j] = formatVector(offset + j * r, rpr);
                 } else {
                     w[j] = formatVector(0, 0);
                 }
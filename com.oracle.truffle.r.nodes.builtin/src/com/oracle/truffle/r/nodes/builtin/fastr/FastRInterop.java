@@ -36,10 +36,85 @@ import com.oracle.truffle.r.runtime.RRuntime;
 import com.oracle.truffle.r.runtime.RSource;
 import com.oracle.truffle.r.runtime.RVisibility;
 import com.oracle.truffle.r.runtime.context.RContext;
+import com.oracle.truffle.r.runtime.data.RDataFactory;
 import com.oracle.truffle.r.runtime.data.RNull;
 import com.oracle.truffle.r.runtime.data.RTypedValue;
 
 public class FastRInterop {
+
+    /**
+     * Converts the Java primitive and {@code String} arrays that Java hosts and languages may pass
+     * in to R vectors, copying the data in bulk instead of boxing each element. {@code long} and
+     * {@code float} elements become doubles, {@code short} and {@code char} elements integers and
+     * {@code null} strings {@code NA}. Other values are returned unchanged.
+     */
+    @TruffleBoundary
+    static Object fromJavaArray(Object value) {
+        if (value instanceof double[]) {
+            double[] data = ((double[]) value).clone();
+            boolean complete = true;
+            for (int i = 0; i < data.length && complete; i++) {
+                complete = !RRuntime.isNA(data[i]);
+            }
+            return RDataFactory.createDoubleVector(data, complete);
+        } else if (value instanceof int[]) {
+            int[] data = ((int[]) value).clone();
+            boolean complete = true;
+            for (int i = 0; i < data.length && complete; i++) {
+                complete = data[i] != RRuntime.INT_NA;
+            }
+            return RDataFactory.createIntVector(data, complete);
+        } else if (value instanceof byte[]) {
+            return RDataFactory.createRawVector(((byte[]) value).clone());
+        } else if (value instanceof boolean[]) {
+            boolean[] array = (boolean[]) value;
+            byte[] data = new byte[array.length];
+            for (int i = 0; i < array.length; i++) {
+                data[i] = array[i] ? RRuntime.LOGICAL_TRUE : RRuntime.LOGICAL_FALSE;
+            }
+            return RDataFactory.createLogicalVector(data, RDataFactory.COMPLETE_VECTOR);
+        } else if (value instanceof long[]) {
+            long[] array = (long[]) value;
+            double[] data = new double[array.length];
+            for (int i = 0; i < array.length; i++) {
+                data[i] = array[i];
+            }
+            return RDataFactory.createDoubleVector(data, RDataFactory.COMPLETE_VECTOR);
+        } else if (value instanceof float[]) {
+            float[] array = (float[]) value;
+            double[] data = new double[array.length];
+            for (int i = 0; i < array.length; i++) {
+                data[i] = array[i];
+            }
+            return RDataFactory.createDoubleVector(data, RDataFactory.COMPLETE_VECTOR);
+        } else if (value instanceof short[]) {
+            short[] array = (short[]) value;
+            int[] data = new int[array.length];
+            for (int i = 0; i < array.length; i++) {
+                data[i] = array[i];
+            }
+            return RDataFactory.createIntVector(data, RDataFactory.COMPLETE_VECTOR);
+        } else if (value instanceof char[]) {
+            char[] array = (char[]) value;
+            int[] data = new int[array.length];
+            for (int i = 0; i < array.length; i++) {
+                data[i] = array[i];
+            }
+            return RDataFactory.createIntVector(data, RDataFactory.COMPLETE_VECTOR);
+        } else if (value instanceof String[]) {
+            String[] data = ((String[]) value).clone();
+            boolean complete = true;
+            for (int i = 0; i < data.length; i++) {
+                if (data[i] == null) {
+                    data[i] = RRuntime.STRING_NA;
+                    complete = false;
+                }
+            }
+            return RDataFactory.createStringVector(data, complete);
+        }
+        return value;
+    }
+
     @RBuiltin(name = ".fastr.interop.eval", visibility = RVisibility.OFF, kind = RBuiltinKind.PRIMITIVE, parameterNames = {"mimeType", "source"})
     public abstract static class Eval extends RBuiltinNode {
 
@@ -57,7 +132,7 @@ public class FastRInterop {
                 throw new RuntimeException(e);
             }
 
-            return callTarget.call();
+            return fromJavaArray(callTarget.call());
         }
 
         @SuppressWarnings("unused")
@@ -94,7 +169,7 @@ public class FastRInterop {
             if (object == null) {
                 throw RError.error(this, RError.Message.NO_IMPORT_OBJECT, stringName);
             }
-            return object;
+            return fromJavaArray(object);
         }
     }
 
@@ -422,7 +422,7 @@ final class CachedExtractVectorNode extends CachedVectorNode {
             assert container.getInternalDimensions() == null;
             if (container.getAttributes() == null) {
                 // usual case
-                container.initAttributes(RAttributes.createInitialized(new String[]{RRuntime.NAMES_ATTR_KEY}, new Object[]{newNames1}));
+                container.initAttributes(RAttributes.createInitialized(RAttributes.Shape.NAMES, new Object[]{newNames1}));
                 container.setInternalNames(newNames1);
             } else {
                 // from an RLanguage extraction that set a name
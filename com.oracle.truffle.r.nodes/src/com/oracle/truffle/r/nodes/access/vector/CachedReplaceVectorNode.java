@@ -83,6 +83,7 @@ final class CachedReplaceVectorNode extends CachedVectorNode {
     private final ConditionProfile valueLengthOneProfile = ConditionProfile.createBinaryProfile();
     private final ConditionProfile emptyReplacementProfile = ConditionProfile.createBinaryProfile();
     private final ConditionProfile completeVectorProfile = ConditionProfile.createBinaryProfile();
+    private final ConditionProfile copyStatsProfile = ConditionProfile.createBinaryProfile();
 
     private final RType valueType;
     private final RType castType;
@@ -214,8 +215,13 @@ final class CachedReplaceVectorNode extends CachedVectorNode {
 
         PositionProfile[] positionProfiles = positionsCheckNode.executeCheck(vector, vectorDimensions, vectorLength, positions);
 
+        ReplaceCopyStats.Reason copyReason = null;
         if (castVectorNode != null) {
+            RAbstractVector uncastVector = vector;
             vector = (RAbstractVector) castVectorNode.execute(vector);
+            if (copyStatsProfile.profile(ReplaceCopyStats.enabled()) && vector != uncastVector) {
+                copyReason = ReplaceCopyStats.Reason.TYPE_CHANGE;
+            }
         }
 
         int replacementLength = positionsCheckNode.getSelectedPositionsCount(positionProfiles);
@@ -236,7 +242,11 @@ final class CachedReplaceVectorNode extends CachedVectorNode {
             value = ((RAbstractVector) value).castSafe(castType, valueIsNA);
         }
 
+        RAbstractVector unsharedVector = vector;
         vector = share(vector, value);
+        if (copyStatsProfile.profile(ReplaceCopyStats.enabled()) && vector != unsharedVector) {
+            copyReason = getCopyReason(unsharedVector, value);
+        }
 
         int maxOutOfBounds = positionsCheckNode.getMaxOutOfBounds(positionProfiles);
         if (maxOutOfBounds > vectorLength) {
@@ -245,6 +255,9 @@ final class CachedReplaceVectorNode extends CachedVectorNode {
                 return wrapResult(vector, repType);
             }
             vector = resizeVector(vector, maxOutOfBounds);
+            if (copyReason == null) {
+                copyReason = ReplaceCopyStats.Reason.RESIZE;
+            }
         }
         vector = vector.materialize();
 
@@ -297,6 +310,9 @@ final class CachedReplaceVectorNode extends CachedVectorNode {
             updateVectorWithPositionNames(vector, positions);
         }
 
+        if (copyStatsProfile.profile(ReplaceCopyStats.enabled())) {
+            ReplaceCopyStats.record(this, copyReason, vectorLength);
+        }
         return wrapResult(vector, repType);
     }
 
@@ -498,6 +514,18 @@ final class CachedReplaceVectorNode extends CachedVectorNode {
         return returnVector;
     }
 
+    @TruffleBoundary
+    private ReplaceCopyStats.Reason getCopyReason(RAbstractVector vector, Object value) {
+        if (vector instanceof RShareable && ((RShareable) vector).isShared()) {
+            return ReplaceCopyStats.Reason.SHARED;
+        } else if (vector == value) {
+            return ReplaceCopyStats.Reason.SELF_ASSIGN;
+        } else {
+            assert recursive;
+            return ReplaceCopyStats.Reason.RECURSIVE;
+        }
+    }
+
     private final ConditionProfile rightIsNotTemporary = ConditionProfile.createBinaryProfile();
 
     private RTypedValue copyValueOnAssignment(RTypedValue value) {
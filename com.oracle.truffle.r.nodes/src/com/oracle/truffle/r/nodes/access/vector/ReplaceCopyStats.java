@@ -0,0 +1,148 @@
+/*
+ * Copyright (c) 2016, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.truffle.r.nodes.access.vector;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+
+import com.oracle.truffle.api.CompilerDirectives.CompilationFinal;
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+import com.oracle.truffle.api.source.SourceSection;
+import com.oracle.truffle.r.runtime.RPerfStats;
+import com.oracle.truffle.r.runtime.RSource;
+import com.oracle.truffle.r.runtime.nodes.RBaseNode;
+import com.oracle.truffle.r.runtime.nodes.RSyntaxNode;
+
+/**
+ * Counts the vector copies made by replacements ({@code x[i] <- v}, {@code x[[i]] <- v}, etc.) per
+ * replacement site, together with the reason of the copy. Enabled by
+ * {@code -DR:PerfStats=replacecopies}, the sites are reported in descending order of the number of
+ * copied elements.
+ */
+final class ReplaceCopyStats {
+
+    enum Reason {
+        SHARED("shared"),
+        RECURSIVE("recursive"),
+        SELF_ASSIGN("value is target"),
+        RESIZE("resize"),
+        TYPE_CHANGE("type change");
+
+        private final String description;
+
+        Reason(String description) {
+            this.description = description;
+        }
+    }
+
+    @CompilationFinal private static PerfHandler stats;
+
+    private ReplaceCopyStats() {
+        // no instances
+    }
+
+    static boolean enabled() {
+        return stats != null;
+    }
+
+    /**
+     * Records a replacement performed by {@code site}, {@code reason} is {@code null} if the target
+     * vector was updated in place. Must only be called if {@link #enabled()}.
+     */
+    static void record(RBaseNode site, Reason reason, int length) {
+        stats.record(site, reason, length);
+    }
+
+    static {
+        RPerfStats.register(new PerfHandler());
+    }
+
+    private static final class Site {
+        private final String location;
+        private long updates;
+        private long copies;
+        private long copiedElements;
+        private final long[] reasons = new long[Reason.values().length];
+
+        Site(String location) {
+            this.location = location;
+        }
+    }
+
+    private static final class PerfHandler implements RPerfStats.Handler {
+
+        private final HashMap<Object, Site> sites = new HashMap<>();
+
+        @TruffleBoundary
+        synchronized void record(RBaseNode site, Reason reason, int length) {
+            RSyntaxNode syntaxNode = site.checkasRSyntaxNode();
+            SourceSection ss = syntaxNode == null ? null : syntaxNode.getSourceSection();
+            Object key = ss == null ? (Object) site : ss;
+            Site info = sites.get(key);
+            if (info == null) {
+                info = new Site(ss == null ? "<unknown>" : RSource.getOrigin(ss.getSource()) + ":" + ss.getStartLine() + ": " + ss.getCode());
+                sites.put(key, info);
+            }
+            info.updates++;
+            if (reason != null) {
+                info.copies++;
+                info.copiedElements += length;
+                info.reasons[reason.ordinal()]++;
+            }
+        }
+
+        @Override
+        public void initialize(String optionData) {
+            stats = this;
+        }
+
+        @Override
+        public String getName() {
+            return "replacecopies";
+        }
+
+        @Override
+        public synchronized void report() {
+            ArrayList<Site> list = new ArrayList<>(sites.values());
+            list.sort((a, b) -> Long.compare(b.copiedElements, a.copiedElements));
+            long totalCopies = 0;
+            for (Site site : list) {
+                totalCopies += site.copies;
+            }
+            RPerfStats.out().printf("NUMBER OF VECTOR COPIES IN REPLACEMENTS: %d%n", totalCopies);
+            for (Site site : list) {
+                if (site.copies == 0) {
+                    continue;
+                }
+                StringBuilder reasons = new StringBuilder();
+                for (Reason reason : Reason.values()) {
+                    long count = site.reasons[reason.ordinal()];
+                    if (count > 0) {
+                        reasons.append(reasons.length() == 0 ? "" : ", ").append(reason.description).append('=').append(count);
+                    }
+                }
+                RPerfStats.out().printf("%10d copies of %12d updates, %14d elements copied (%s): %s%n", site.copies, site.updates, site.copiedElements, reasons, site.location);
+            }
+        }
+    }
+}
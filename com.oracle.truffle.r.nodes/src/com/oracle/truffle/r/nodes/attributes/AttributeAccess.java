@@ -22,26 +22,22 @@
  */
 package com.oracle.truffle.r.nodes.attributes;
 
-import com.oracle.truffle.api.CompilerDirectives;
-import com.oracle.truffle.api.CompilerDirectives.CompilationFinal;
 import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
 import com.oracle.truffle.api.dsl.Cached;
 import com.oracle.truffle.api.dsl.Specialization;
-import com.oracle.truffle.api.nodes.ExplodeLoop;
-import com.oracle.truffle.api.profiles.BranchProfile;
 import com.oracle.truffle.r.runtime.data.RAttributes;
+import com.oracle.truffle.r.runtime.data.RAttributes.Shape;
 import com.oracle.truffle.r.runtime.nodes.RBaseNode;
 
 /**
- * Simple attribute access node that specializes on the position at which the attribute was found
- * last time.
+ * Simple attribute access node that specializes on the {@link Shape} of the attributes, caching the
+ * position of the attribute (or its absence) per shape.
  */
 public abstract class AttributeAccess extends RBaseNode {
 
-    private static final int MAX_SIZE_BOUND = 10;
+    protected static final int CACHE_LIMIT = 3;
 
     protected final String name;
-    @CompilationFinal private int maximumSize = 2;
 
     protected AttributeAccess(String name) {
         this.name = name.intern();
@@ -53,63 +49,14 @@ public abstract class AttributeAccess extends RBaseNode {
 
     public abstract Object execute(RAttributes attr);
 
-    protected boolean nameMatches(RAttributes attr, int index) {
-        /*
-         * The length check is against names.length instead of size, so that the check folds into
-         * the array bounds check.
-         */
-        return index != -1 && attr.size() > index && attr.getNameAtIndex(index) == name;
-    }
-
-    @Specialization(limit = "1", guards = "nameMatches(attr, index)")
+    @Specialization(limit = "CACHE_LIMIT", guards = "attr.getShape() == cachedShape")
     protected Object accessCached(RAttributes attr, //
-                    @Cached("attr.find(name)") int index) {
-        return attr.getValueAtIndex(index);
-    }
-
-    @Specialization(limit = "1", guards = "cachedSize == attr.size()", contains = "accessCached")
-    @ExplodeLoop
-    protected Object accessCachedSize(RAttributes attr, //
-                    @Cached("attr.size()") int cachedSize, //
-                    @Cached("create()") BranchProfile foundProfile, //
-                    @Cached("create()") BranchProfile notFoundProfile) {
-        for (int i = 0; i < cachedSize; i++) {
-            if (attr.getNameAtIndex(i) == name) {
-                foundProfile.enter();
-                return attr.getValueAtIndex(i);
-            }
-        }
-        notFoundProfile.enter();
-        return null;
-    }
-
-    @Specialization(contains = {"accessCached", "accessCachedSize"}, rewriteOn = IndexOutOfBoundsException.class)
-    @ExplodeLoop
-    protected Object accessCachedMaximumSize(RAttributes attr, //
-                    @Cached("create()") BranchProfile foundProfile, //
-                    @Cached("create()") BranchProfile notFoundProfile) {
-        int size = attr.size();
-        if (size > maximumSize) {
-            CompilerDirectives.transferToInterpreterAndInvalidate();
-            if (size > MAX_SIZE_BOUND) {
-                throw new IndexOutOfBoundsException();
-            }
-            maximumSize = size;
-        }
-        for (int i = 0; i < maximumSize; i++) {
-            if (i >= size) {
-                break;
-            }
-            if (attr.getNameAtIndex(i) == name) {
-                foundProfile.enter();
-                return attr.getValueAtIndex(i);
-            }
-        }
-        notFoundProfile.enter();
-        return null;
+                    @Cached("attr.getShape()") Shape cachedShape, //
+                    @Cached("cachedShape.find(name)") int index) {
+        return index == -1 ? null : attr.getValueAtIndex(index);
     }
 
-    @Specialization(contains = {"accessCached", "accessCachedSize", "accessCachedMaximumSize"})
+    @Specialization(contains = "accessCached")
     @TruffleBoundary
     protected Object access(RAttributes attr) {
         return attr.get(name);
@@ -89,7 +89,7 @@ public abstract class CopyOfRegAttributesNode extends RBaseNode {
 
     @Specialization(guards = "onlyClassAttribute(source)")
     protected void copyClassOnly(RAbstractVector source, RVector target) {
-        target.initAttributes(RAttributes.createInitialized(new String[]{RRuntime.CLASS_ATTR_KEY}, new Object[]{source.getAttributes().getValueAtIndex(0)}));
+        target.initAttributes(RAttributes.createInitialized(RAttributes.Shape.CLASS, new Object[]{source.getAttributes().getValueAtIndex(0)}));
     }
 
     @Specialization
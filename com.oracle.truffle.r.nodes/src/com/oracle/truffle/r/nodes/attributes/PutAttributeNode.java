@@ -25,18 +25,19 @@ package com.oracle.truffle.r.nodes.attributes;
 import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
 import com.oracle.truffle.api.dsl.Cached;
 import com.oracle.truffle.api.dsl.Specialization;
-import com.oracle.truffle.api.nodes.ExplodeLoop;
-import com.oracle.truffle.api.profiles.BranchProfile;
 import com.oracle.truffle.r.runtime.RRuntime;
 import com.oracle.truffle.r.runtime.data.RAttributes;
+import com.oracle.truffle.r.runtime.data.RAttributes.Shape;
 import com.oracle.truffle.r.runtime.nodes.RBaseNode;
 
 /**
- * Simple attribute access node that specializes on the position at which the attribute was found
- * last time.
+ * Simple attribute update node that specializes on the {@link Shape} of the attributes, caching the
+ * position of the attribute, or the shape to transition to if it is new, per shape.
  */
 public abstract class PutAttributeNode extends RBaseNode {
 
+    protected static final int CACHE_LIMIT = 3;
+
     protected final String name;
 
     protected PutAttributeNode(String name) {
@@ -61,45 +62,22 @@ public abstract class PutAttributeNode extends RBaseNode {
 
     public abstract void execute(RAttributes attr, Object value);
 
-    protected boolean nameMatches(RAttributes attr, int index) {
-        /*
-         * The length check is against names.length instead of size, so that the check folds into
-         * the array bounds check.
-         */
-        return index != -1 && attr.size() > index && attr.getNameAtIndex(index) == name;
-    }
-
-    @Specialization(limit = "1", guards = "nameMatches(attr, index)")
-    protected void putCached(RAttributes attr, Object value, //
-                    @Cached("attr.find(name)") int index) {
+    @Specialization(limit = "CACHE_LIMIT", guards = {"attr.getShape() == cachedShape", "index != -1"})
+    protected void putExisting(RAttributes attr, Object value, //
+                    @Cached("attr.getShape()") Shape cachedShape, //
+                    @Cached("cachedShape.find(name)") int index) {
         attr.setValueAtIndex(index, value);
     }
 
-    @Specialization(limit = "1", guards = "cachedSize == attr.size()")
-    @ExplodeLoop
-    protected void putCachedSize(RAttributes attr, Object value, //
-                    @Cached("attr.size()") int cachedSize, //
-                    @Cached("create()") BranchProfile foundProfile, //
-                    @Cached("create()") BranchProfile notFoundProfile, //
-                    @Cached("create()") BranchProfile resizeProfile) {
-        for (int i = 0; i < cachedSize; i++) {
-            if (attr.getNameAtIndex(i) == name) {
-                foundProfile.enter();
-                attr.setValueAtIndex(i, value);
-                return;
-            }
-        }
-        notFoundProfile.enter();
-        if (attr.size() == cachedSize) {
-            resizeProfile.enter();
-            attr.ensureFreeSpace();
-        }
-        attr.setNameAtIndex(cachedSize, name);
-        attr.setValueAtIndex(cachedSize, value);
-        attr.setSize(cachedSize + 1);
+    @Specialization(limit = "CACHE_LIMIT", guards = {"attr.getShape() == cachedShape", "index == -1"})
+    protected void putNew(RAttributes attr, Object value, //
+                    @Cached("attr.getShape()") Shape cachedShape, //
+                    @Cached("cachedShape.find(name)") int index, //
+                    @Cached("cachedShape.add(name)") Shape newShape) {
+        attr.append(newShape, value);
     }
 
-    @Specialization(contains = {"putCached", "putCachedSize"})
+    @Specialization(contains = {"putExisting", "putNew"})
     @TruffleBoundary
     protected void put(RAttributes attr, Object value) {
         attr.put(name, value);
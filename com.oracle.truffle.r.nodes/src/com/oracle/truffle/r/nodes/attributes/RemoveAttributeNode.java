@@ -22,20 +22,22 @@
  */
 package com.oracle.truffle.r.nodes.attributes;
 
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
 import com.oracle.truffle.api.dsl.Cached;
 import com.oracle.truffle.api.dsl.Specialization;
-import com.oracle.truffle.api.nodes.ExplodeLoop;
-import com.oracle.truffle.api.profiles.BranchProfile;
 import com.oracle.truffle.r.runtime.RRuntime;
 import com.oracle.truffle.r.runtime.data.RAttributes;
+import com.oracle.truffle.r.runtime.data.RAttributes.Shape;
 import com.oracle.truffle.r.runtime.nodes.RBaseNode;
 
 /**
- * Simple attribute access node that specializes on the position at which the attribute was found
- * last time.
+ * Simple attribute removal node that specializes on the {@link Shape} of the attributes, caching
+ * the position of the attribute and the resulting shape per shape.
  */
 public abstract class RemoveAttributeNode extends RBaseNode {
 
+    protected static final int CACHE_LIMIT = 3;
+
     protected final String name;
 
     protected RemoveAttributeNode(String name) {
@@ -56,53 +58,23 @@ public abstract class RemoveAttributeNode extends RBaseNode {
 
     public abstract void execute(RAttributes attr);
 
-    protected boolean nameMatches(RAttributes attr, int index) {
-        /*
-         * The length check is against names.length instead of size, so that the check folds into
-         * the array bounds check.
-         */
-        return index != -1 && attr.size() > index && attr.getNameAtIndex(index) == name;
-    }
-
-    @Specialization(limit = "1", guards = "nameMatches(attr, index)")
-    @ExplodeLoop
-    protected void accessCached(RAttributes attr, //
-                    @Cached("attr.find(name)") int index, //
-                    @Cached("attr.size()") int cachedSize) {
-        attr.setSize(cachedSize - 1);
-        for (int i = index + 1; i < cachedSize; i++) {
-            attr.setNameAtIndex(i - 1, attr.getNameAtIndex(i));
-            attr.setValueAtIndex(i - 1, attr.getValueAtIndex(i));
-        }
-        attr.setValueAtIndex(cachedSize - 1, null);
-    }
-
-    @Specialization(limit = "1", guards = "cachedSize == attr.size()")
-    @ExplodeLoop
-    protected void accessCachedSize(RAttributes attr, //
-                    @Cached("attr.size()") int cachedSize, //
-                    @Cached("create()") BranchProfile foundProfile, //
-                    @Cached("create()") BranchProfile notFoundProfile) {
-        for (int i = 0; i < cachedSize; i++) {
-            if (attr.getNameAtIndex(i) == name) {
-                foundProfile.enter();
-                removeAt(attr, i, cachedSize);
-                return;
-            }
-        }
-        notFoundProfile.enter();
+    protected static Shape removedShape(Shape shape, int index) {
+        return index == -1 ? shape : shape.remove(index);
     }
 
-    private static void removeAt(RAttributes attr, int index, int cachedSize) {
-        for (int i = index + 1; i < cachedSize; i++) {
-            attr.setNameAtIndex(i - 1, attr.getNameAtIndex(i));
-            attr.setValueAtIndex(i - 1, attr.getValueAtIndex(i));
+    @Specialization(limit = "CACHE_LIMIT", guards = "attr.getShape() == cachedShape")
+    protected void removeCached(RAttributes attr, //
+                    @Cached("attr.getShape()") Shape cachedShape, //
+                    @Cached("cachedShape.find(name)") int index, //
+                    @Cached("removedShape(cachedShape, index)") Shape newShape) {
+        if (index != -1) {
+            attr.removeAt(index, newShape);
         }
-        attr.setValueAtIndex(cachedSize - 1, null);
     }
 
-    @Specialization(contains = {"accessCached", "accessCachedSize"})
-    protected void access(RAttributes attr) {
+    @Specialization(contains = "removeCached")
+    @TruffleBoundary
+    protected void remove(RAttributes attr) {
         attr.remove(name);
     }
 }
@@ -484,7 +484,31 @@ public class ArgumentMatcher {
     }
 
     /**
-     * /** This method does the heavy lifting of re-arranging arguments by their names and position,
+     * Looks up the permutation in the {@link MatchPermutationCache} and only does the actual
+     * matching if it is not cached yet. A permutation is not cached if the matching consulted
+     * {@code isVarSuppliedVarargs}, as the result then depends on the supplied arguments rather
+     * than just on their signature.
+     */
+    @TruffleBoundary
+    private static MatchPermutation permuteArguments(ArgumentsSignature signature, ArgumentsSignature formalSignature, RBaseNode callingNode, boolean forNextMethod, IntPredicate isVarSuppliedVarargs,
+                    IntFunction<String> errorString, RBuiltinDescriptor builtin) {
+        boolean primitive = builtin != null && builtin.getKind() == RBuiltinKind.PRIMITIVE;
+        MatchPermutation match = MatchPermutationCache.get(signature, formalSignature, forNextMethod, primitive);
+        if (match == null) {
+            boolean[] argumentDependent = new boolean[1];
+            match = computePermutation(signature, formalSignature, callingNode, forNextMethod, index -> {
+                argumentDependent[0] = true;
+                return isVarSuppliedVarargs.test(index);
+            }, errorString, builtin);
+            if (!argumentDependent[0]) {
+                MatchPermutationCache.put(signature, formalSignature, forNextMethod, primitive, match);
+            }
+        }
+        return match;
+    }
+
+    /**
+     * This method does the heavy lifting of re-arranging arguments by their names and position,
      * also handling varargs.
      *
      * @param signature The signature (==names) of the supplied arguments
@@ -494,9 +518,8 @@ public class ArgumentMatcher {
      * @param builtin builtin function descriptor (or null if not a builtin)
      * @return An array of type <T> with the supplied arguments in the correct order
      */
-    @TruffleBoundary
-    private static MatchPermutation permuteArguments(ArgumentsSignature signature, ArgumentsSignature formalSignature, RBaseNode callingNode, boolean forNextMethod, IntPredicate isVarSuppliedVarargs,
-                    IntFunction<String> errorString, RBuiltinDescriptor builtin) {
+    private static MatchPermutation computePermutation(ArgumentsSignature signature, ArgumentsSignature formalSignature, RBaseNode callingNode, boolean forNextMethod,
+                    IntPredicate isVarSuppliedVarargs, IntFunction<String> errorString, RBuiltinDescriptor builtin) {
         // assert Arrays.stream(suppliedNames).allMatch(name -> name == null || !name.isEmpty());
 
         // Preparations
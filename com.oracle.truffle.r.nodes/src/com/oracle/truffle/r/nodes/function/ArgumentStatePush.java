@@ -50,6 +50,11 @@ public abstract class ArgumentStatePush extends Node {
     @Child private WriteLocalFrameVariableNode writeArgNode;
 
     public static final int MAX_COUNTED_ARGS = 8;
+    /**
+     * Maximal number of counted arguments in {@link FastROptions#PreciseRefCount} mode, limited by
+     * the (positive) bits available in {@link PostProcessArgumentsNode#transArgsBitSet}.
+     */
+    public static final int MAX_PRECISE_COUNTED_ARGS = 30;
     public static final int INVALID_INDEX = -1;
     public static final int REF_COUNT_SIZE_THRESHOLD = 64;
 
@@ -70,9 +75,9 @@ public abstract class ArgumentStatePush extends Node {
             if (mask == 0) {
                 CompilerDirectives.transferToInterpreterAndInvalidate();
                 if (shareable instanceof RAbstractContainer) {
-                    if (shareable instanceof RLanguage || ((RAbstractContainer) shareable).getLength() < REF_COUNT_SIZE_THRESHOLD) {
+                    if (shareable instanceof RLanguage || (((RAbstractContainer) shareable).getLength() < REF_COUNT_SIZE_THRESHOLD && !FastROptions.PreciseRefCount.getBooleanValue())) {
                         // don't decrement ref count for small objects or language objects- this is
-                        // pretty conservative and can be further finessed
+                        // pretty conservative and can be further finessed (see PreciseRefCount)
                         mask = -1;
                         return;
                     }
@@ -97,7 +102,7 @@ public abstract class ArgumentStatePush extends Node {
                 }
                 // this is needed for when FunctionDefinitionNode is split by the Truffle runtime
                 postProcessNode = postProcessNode.getActualNode();
-                if (index >= Math.min(postProcessNode.getLength(), MAX_COUNTED_ARGS)) {
+                if (index >= Math.min(postProcessNode.getLength(), getMaxCountedArgs())) {
                     mask = -1;
                     return;
                 }
@@ -112,6 +117,14 @@ public abstract class ArgumentStatePush extends Node {
         }
     }
 
+    /**
+     * Returns the number of leading arguments of a function whose reference counts are decremented
+     * when the function returns.
+     */
+    public static int getMaxCountedArgs() {
+        return FastROptions.PreciseRefCount.getBooleanValue() ? MAX_PRECISE_COUNTED_ARGS : MAX_COUNTED_ARGS;
+    }
+
     @Specialization(guards = "!isShareable(o)")
     public void transitionStateNonShareable(VirtualFrame frame, @SuppressWarnings("unused") Object o) {
         if (mask > 0) {
@@ -22,6 +22,7 @@
  */
 package com.oracle.truffle.r.nodes.function;
 
+import com.oracle.truffle.api.CompilerAsserts;
 import com.oracle.truffle.api.CompilerDirectives;
 import com.oracle.truffle.api.CompilerDirectives.CompilationFinal;
 import com.oracle.truffle.api.frame.Frame;
@@ -36,6 +37,11 @@ import com.oracle.truffle.r.runtime.RError;
 import com.oracle.truffle.r.runtime.Utils;
 import com.oracle.truffle.r.runtime.nodes.RBaseNode;
 
+/**
+ * Provides the frame of the caller of the current function. The caller frame is not passed in the
+ * arguments by default, the first access that finds it missing requests it from the call site (see
+ * {@link #requestCallerFrame(RCaller)}) and falls back to a stack walk for this one time.
+ */
 public final class GetCallerFrameNode extends RBaseNode {
 
     private final BranchProfile topLevelProfile = BranchProfile.create();
@@ -51,16 +57,7 @@ public final class GetCallerFrameNode extends RBaseNode {
         if (funFrame == null) {
             if (!needsSlowPath) {
                 CompilerDirectives.transferToInterpreterAndInvalidate();
-                needsSlowPath = true;
-                RCaller call = RArguments.getCall(frame);
-                while (call != null && call.isPromise()) {
-                    call = call.getParent();
-                }
-                if (call != null && call.isValidCaller() && call.getSyntaxNode() instanceof RCallNode) {
-                    if (!((RCallNode) call.getSyntaxNode()).setNeedsCallerFrame()) {
-                        needsSlowPath = false;
-                    }
-                }
+                needsSlowPath = requestCallerFrame(RArguments.getCall(frame));
             }
             // TODO This does not just occur in UseMethod dispatch
             RError.performanceWarning("slow caller frame access");
@@ -75,4 +72,21 @@ public final class GetCallerFrameNode extends RBaseNode {
         }
         return funFrame;
     }
+
+    /**
+     * Requests that the call site that created {@code call} passes the caller frame from now on.
+     * Returns {@code true} if the frame was already requested before (and is therefore not going
+     * to be passed in this case) or if there is no call site to ask.
+     */
+    public static boolean requestCallerFrame(RCaller call) {
+        CompilerAsserts.neverPartOfCompilation();
+        RCaller c = call;
+        while (c != null && c.isPromise()) {
+            c = c.getParent();
+        }
+        if (c != null && c.isValidCaller() && c.getSyntaxNode() instanceof RCallNode) {
+            return ((RCallNode) c.getSyntaxNode()).setNeedsCallerFrame();
+        }
+        return true;
+    }
 }
@@ -0,0 +1,133 @@
+/*
+ * Copyright (c) 2016, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.truffle.r.nodes.function;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+import com.oracle.truffle.r.nodes.function.ArgumentMatcher.MatchPermutation;
+import com.oracle.truffle.r.runtime.ArgumentsSignature;
+import com.oracle.truffle.r.runtime.RPerfStats;
+
+/**
+ * A global, bounded (least recently used) cache of the {@link MatchPermutation}s computed by
+ * {@link ArgumentMatcher}. A permutation only depends on the supplied and formal signatures (which
+ * are interned, so they are compared by identity), on whether the matching is done for
+ * {@code NextMethod} and on whether the callee is a primitive. This makes the cache useful for the
+ * generic (megamorphic) call paths, e.g., in {@code do.call} or higher-order functions, that would
+ * otherwise repeat the full matching (exact, partial and positional matching, varargs) on every
+ * call.
+ *
+ * Only successful matches are cached, errors are always reported by the actual matching. The hits
+ * and misses are reported by {@code -DR:PerfStats=argmatchcache}.
+ */
+final class MatchPermutationCache {
+
+    private static final int MAX_ENTRIES = 1024;
+
+    private static final class Key {
+        private final ArgumentsSignature supplied;
+        private final ArgumentsSignature formal;
+        private final boolean forNextMethod;
+        private final boolean primitive;
+
+        Key(ArgumentsSignature supplied, ArgumentsSignature formal, boolean forNextMethod, boolean primitive) {
+            this.supplied = supplied;
+            this.formal = formal;
+            this.forNextMethod = forNextMethod;
+            this.primitive = primitive;
+        }
+
+        @Override
+        public int hashCode() {
+            return (System.identityHashCode(supplied) * 31 + System.identityHashCode(formal)) * 4 + (forNextMethod ? 2 : 0) + (primitive ? 1 : 0);
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (!(obj instanceof Key)) {
+                return false;
+            }
+            Key other = (Key) obj;
+            return supplied == other.supplied && formal == other.formal && forNextMethod == other.forNextMethod && primitive == other.primitive;
+        }
+    }
+
+    private static final LinkedHashMap<Key, MatchPermutation> cache = new LinkedHashMap<Key, MatchPermutation>(16, 0.75f, true) {
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Key, MatchPermutation> eldest) {
+            return size() > MAX_ENTRIES;
+        }
+    };
+
+    private static long hits;
+    private static long misses;
+
+    private MatchPermutationCache() {
+        // no instances
+    }
+
+    @TruffleBoundary
+    static synchronized MatchPermutation get(ArgumentsSignature supplied, ArgumentsSignature formal, boolean forNextMethod, boolean primitive) {
+        MatchPermutation match = cache.get(new Key(supplied, formal, forNextMethod, primitive));
+        if (match == null) {
+            misses++;
+        } else {
+            hits++;
+        }
+        return match;
+    }
+
+    @TruffleBoundary
+    static synchronized void put(ArgumentsSignature supplied, ArgumentsSignature formal, boolean forNextMethod, boolean primitive, MatchPermutation match) {
+        cache.put(new Key(supplied, formal, forNextMethod, primitive), match);
+    }
+
+    static {
+        RPerfStats.register(new PerfHandler());
+    }
+
+    private static final class PerfHandler implements RPerfStats.Handler {
+
+        @Override
+        public void initialize(String optionData) {
+        }
+
+        @Override
+        public String getName() {
+            return "argmatchcache";
+        }
+
+        @Override
+        public void report() {
+            synchronized (MatchPermutationCache.class) {
+                long total = hits + misses;
+                RPerfStats.out().printf("ARGUMENT MATCH CACHE: %d lookups, %d hits, %d misses (%.1f%% hit rate), %d entries%n", total, hits, misses, total == 0 ? 0.0 : 100.0 * hits / total,
+                                cache.size());
+            }
+        }
+    }
+}
@@ -57,7 +57,7 @@ public final class PostProcessArgumentsNode extends RNode {
     }
 
     public static PostProcessArgumentsNode create(int length) {
-        int maxLength = Math.min(length, ArgumentStatePush.MAX_COUNTED_ARGS);
+        int maxLength = Math.min(length, ArgumentStatePush.getMaxCountedArgs());
         LocalReadVariableNode[] argReadNodes = new LocalReadVariableNode[maxLength];
         for (int i = 0; i < maxLength; i++) {
             argReadNodes[i] = LocalReadVariableNode.create(Integer.valueOf(1 << i), false);
@@ -131,7 +131,7 @@ public class PromiseHelperNode extends RBaseNode {
 
     @Child private PromiseHelperNode nextNode = null;
 
-    @Children private final WrapArgumentNode[] wrapNodes = new WrapArgumentNode[ArgumentStatePush.MAX_COUNTED_ARGS];
+    @Children private final WrapArgumentNode[] wrapNodes = new WrapArgumentNode[ArgumentStatePush.getMaxCountedArgs()];
     private final ConditionProfile shouldWrap = ConditionProfile.createBinaryProfile();
 
     private final ValueProfile optStateProfile = ValueProfile.createIdentityProfile();
@@ -385,7 +385,7 @@ public class PromiseHelperNode extends RBaseNode {
                 cachedWrapIndex = GENERIC;
             }
             if (cachedWrapIndex != GENERIC) {
-                if (cachedWrapIndex < ArgumentStatePush.MAX_COUNTED_ARGS) {
+                if (cachedWrapIndex < wrapNodes.length) {
                     if (wrapNodes[cachedWrapIndex] == null) {
                         CompilerDirectives.transferToInterpreterAndInvalidate();
                         wrapNodes[cachedWrapIndex] = insert(WrapArgumentNode.create(cachedWrapIndex));
@@ -393,7 +393,7 @@ public class PromiseHelperNode extends RBaseNode {
                     wrapNodes[cachedWrapIndex].execute(frame, o);
                 }
             } else {
-                for (int i = 0; i < ArgumentStatePush.MAX_COUNTED_ARGS; i++) {
+                for (int i = 0; i < wrapNodes.length; i++) {
                     if (wrapIndex == i) {
                         if (wrapNodes[i] == null) {
                             CompilerDirectives.transferToInterpreterAndInvalidate();
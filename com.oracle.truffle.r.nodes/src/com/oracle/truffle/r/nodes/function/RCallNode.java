@@ -25,6 +25,7 @@ package com.oracle.truffle.r.nodes.function;
 import java.util.ArrayList;
 import java.util.List;
 
+import com.oracle.truffle.api.Assumption;
 import com.oracle.truffle.api.CompilerAsserts;
 import com.oracle.truffle.api.CompilerDirectives;
 import com.oracle.truffle.api.CompilerDirectives.CompilationFinal;
@@ -167,14 +168,23 @@ public abstract class RCallNode extends RCallBaseNode implements RSyntaxNode, RS
     // needed for INTERNAL_GENERIC calls:
     @Child private FunctionDispatch internalDispatchCall;
 
-    @CompilationFinal private boolean needsCallerFrame;
+    /**
+     * Valid as long as no callee reached through this call site needed the caller frame. Callees
+     * that do need it invalidate this assumption, which deoptimizes code that compiled this call
+     * site with a {@code null} caller frame, so that the frame is only materialized on demand.
+     */
+    private final Assumption callerFrameNotNeeded = Truffle.getRuntime().createAssumption("caller frame not needed");
 
+    /**
+     * Requests that subsequent calls through this call site pass the caller frame. Returns whether
+     * it was requested before.
+     */
     boolean setNeedsCallerFrame() {
-        try {
-            return needsCallerFrame;
-        } finally {
-            needsCallerFrame = true;
+        if (callerFrameNotNeeded.isValid()) {
+            callerFrameNotNeeded.invalidate();
+            return false;
         }
+        return true;
     }
 
     protected RCaller createCaller(VirtualFrame frame, RFunction function) {
@@ -998,7 +1008,9 @@ public abstract class RCallNode extends RCallBaseNode implements RSyntaxNode, RS
             this.fastPathFactory = root.getFastPath();
             this.fastPath = fastPathFactory == null ? null : fastPathFactory.create();
             this.fastPathVisibility = fastPathFactory == null ? null : fastPathFactory.getVisibility();
-            originalCall.needsCallerFrame |= root.containsDispatch();
+            if (root.containsDispatch()) {
+                originalCall.setNeedsCallerFrame();
+            }
         }
 
         @Override
@@ -1020,7 +1032,7 @@ public abstract class RCallNode extends RCallBaseNode implements RSyntaxNode, RS
                     call.cloneCallTarget();
                 }
             }
-            MaterializedFrame callerFrame = /* CompilerDirectives.inInterpreter() || */originalCall.needsCallerFrame ? frame.materialize() : null;
+            MaterializedFrame callerFrame = originalCall.callerFrameNotNeeded.isValid() ? null : frame.materialize();
 
             Object[] argsObject = RArguments.create(function, originalCall.createCaller(frame, function), callerFrame, orderedArguments.getArguments(), orderedArguments.getSignature(),
                             function.getEnclosingFrame(), s3Args);
@@ -33,6 +33,8 @@ import com.oracle.truffle.r.runtime.nodes.RBaseNode;
 
 public abstract class DispatchGeneric extends RBaseNode {
 
+    protected static final int CACHE_LIMIT = 8;
+
     public abstract Object executeObject(VirtualFrame frame, REnvironment mtable, RStringVector classes, RFunction fdef, String fname);
 
     private final ConditionProfile singleStringProfile = ConditionProfile.createBinaryProfile();
@@ -81,14 +83,22 @@ public abstract class DispatchGeneric extends RBaseNode {
         return ret;
     }
 
+    /**
+     * Caches the dispatch per methods table and signature classes (compared by contents, the
+     * vector is created anew for each call). The method is read from the table on each call, so
+     * that changes to the table are seen, but it is profiled by identity so that the method that
+     * is found (almost always the same one) is a constant in compiled code.
+     */
     @SuppressWarnings("unused")
-    @Specialization(guards = "equalClasses(classes, cachedClasses)")
+    @Specialization(limit = "CACHE_LIMIT", guards = {"mtable == cachedTable", "equalClasses(classes, cachedClasses)"})
     protected Object dispatchCached(VirtualFrame frame, REnvironment mtable, RStringVector classes, RFunction fdef, String fname,
+                    @Cached("mtable") REnvironment cachedTable, //
                     @Cached("classes") RStringVector cachedClasses, //
                     @Cached("createDispatchString(cachedClasses)") String dispatchString, //
                     @Cached("createTableRead(dispatchString)") LocalReadVariableNode tableRead, //
-                    @Cached("createClassProfile()") ValueProfile frameAccessProfile) {
-        RFunction method = (RFunction) tableRead.execute(frame, mtable.getFrame(frameAccessProfile));
+                    @Cached("createClassProfile()") ValueProfile frameAccessProfile, //
+                    @Cached("createIdentityProfile()") ValueProfile methodProfile) {
+        RFunction method = methodProfile.profile((RFunction) tableRead.execute(frame, cachedTable.getFrame(frameAccessProfile)));
         return dispatchInternal(frame, mtable, classes, fdef, fname, method);
     }
 
@@ -100,15 +110,17 @@ public abstract class DispatchGeneric extends RBaseNode {
     }
 
     protected boolean equalClasses(RStringVector classes, RStringVector cachedClasses) {
+        if (cachedClasses == classes) {
+            return true;
+        }
         if (cachedClasses.getLength() == classes.getLength()) {
             for (int i = 0; i < cachedClasses.getLength(); i++) {
-                // TODO: makes sure equality is good enough here, but it's for optimization only
-                // anwyay
-                if (cachedClasses.getDataAt(i) != classes.getDataAt(i)) {
+                String cachedClass = cachedClasses.getDataAt(i);
+                String currentClass = classes.getDataAt(i);
+                // class names are mostly interned, so == usually suffices
+                if (cachedClass != currentClass) {
                     equalsMethodRequired.enter();
-                    if (cachedClasses.getDataAt(i).equals(classes.getDataAt(i))) {
-                        return true;
-                    } else {
+                    if (!cachedClass.equals(currentClass)) {
                         return false;
                     }
                 }
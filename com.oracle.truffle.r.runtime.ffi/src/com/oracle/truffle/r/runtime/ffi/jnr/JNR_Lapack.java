@@ -26,6 +26,8 @@ import static com.oracle.truffle.r.runtime.ffi.RFFIUtils.wrapChar;
 import static com.oracle.truffle.r.runtime.ffi.RFFIUtils.wrapDouble;
 import static com.oracle.truffle.r.runtime.ffi.RFFIUtils.wrapInt;
 
+import java.nio.DoubleBuffer;
+
 import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
 import com.oracle.truffle.r.runtime.ffi.LapackRFFI;
 
@@ -35,35 +37,35 @@ import jnr.ffi.annotations.Out;
 
 public class JNR_Lapack implements LapackRFFI {
     /**
-     * Fortran does call by reference for everything, which we handle with arrays. Evidently, this
-     * is not as efficient as it could be. This implementation assumes a single-threaded
-     * environment.
+     * Fortran does call by reference for everything, which we handle with arrays for the scalar
+     * arguments and with {@link DoubleBuffer}s for the matrices, which are passed without copying
+     * when they are direct buffers. This implementation assumes a single-threaded environment.
      */
     public interface Lapack {
         // Checkstyle: stop method name
         void ilaver_(@Out int[] major, @Out int[] minor, @Out int[] patch);
 
-        void dgeev_(@In byte[] jobVL, @In byte[] jobVR, @In int[] n, @In double[] a, @In int[] lda, @Out double[] wr, @Out double[] wi, @Out double[] vl, @In int[] ldvl, @Out double[] vr,
-                        @In int[] ldvr, @Out double[] work, @In int[] lwork, @Out int[] info);
+        void dgeev_(@In byte[] jobVL, @In byte[] jobVR, @In int[] n, @In DoubleBuffer a, @In int[] lda, @Out DoubleBuffer wr, @Out DoubleBuffer wi, @Out DoubleBuffer vl, @In int[] ldvl,
+                        @Out DoubleBuffer vr, @In int[] ldvr, @Out DoubleBuffer work, @In int[] lwork, @Out int[] info);
 
-        void dgeqp3_(@In int[] m, @In int[] n, double[] a, @In int[] lda, int[] jpvt, @Out double[] tau, @Out double[] work, @In int[] lwork, @Out int[] info);
+        void dgeqp3_(@In int[] m, @In int[] n, DoubleBuffer a, @In int[] lda, int[] jpvt, @Out DoubleBuffer tau, @Out DoubleBuffer work, @In int[] lwork, @Out int[] info);
 
-        void dormqr_(@In byte[] side, @In byte[] trans, @In int[] m, @In int[] n, @In int[] k, @In double[] a, @In int[] lda, @In double[] tau, double[] c, @In int[] ldc, @Out double[] work,
-                        @In int[] lwork, @Out int[] info);
+        void dormqr_(@In byte[] side, @In byte[] trans, @In int[] m, @In int[] n, @In int[] k, @In DoubleBuffer a, @In int[] lda, @In DoubleBuffer tau, DoubleBuffer c, @In int[] ldc,
+                        @Out DoubleBuffer work, @In int[] lwork, @Out int[] info);
 
-        void dtrtrs_(@In byte[] uplo, @In byte[] trans, @In byte[] diag, @In int[] n, @In int[] nrhs, @In double[] a, @In int[] lda, double[] b, @In int[] ldb, @Out int[] info);
+        void dtrtrs_(@In byte[] uplo, @In byte[] trans, @In byte[] diag, @In int[] n, @In int[] nrhs, @In DoubleBuffer a, @In int[] lda, DoubleBuffer b, @In int[] ldb, @Out int[] info);
 
-        void dgetrf_(@In int[] m, @In int[] n, double[] a, @In int[] lda, @Out int[] ipiv, @Out int[] info);
+        void dgetrf_(@In int[] m, @In int[] n, DoubleBuffer a, @In int[] lda, @Out int[] ipiv, @Out int[] info);
 
-        void dpotrf_(@In byte[] uplo, @In int[] n, double[] a, @In int[] lda, @Out int[] info);
+        void dpotrf_(@In byte[] uplo, @In int[] n, DoubleBuffer a, @In int[] lda, @Out int[] info);
 
-        void dpstrf_(@In byte[] uplo, @In int[] n, double[] a, @In int[] lda, @Out int[] piv, @Out int[] rank, @In double[] tol, @Out double[] work, @Out int[] info);
+        void dpstrf_(@In byte[] uplo, @In int[] n, DoubleBuffer a, @In int[] lda, @Out int[] piv, @Out int[] rank, @In double[] tol, @Out DoubleBuffer work, @Out int[] info);
 
-        void dgesv_(@In int[] n, @In int[] nrhs, double[] a, @In int[] lda, @Out int[] ipiv, double[] b, @In int[] ldb, @Out int[] info);
+        void dgesv_(@In int[] n, @In int[] nrhs, DoubleBuffer a, @In int[] lda, @Out int[] ipiv, DoubleBuffer b, @In int[] ldb, @Out int[] info);
 
-        double dlange_(@In byte[] norm, @In int[] m, @In int[] n, @In double[] a, @In int[] lda, @Out double[] work);
+        double dlange_(@In byte[] norm, @In int[] m, @In int[] n, @In DoubleBuffer a, @In int[] lda, @Out DoubleBuffer work);
 
-        void dgecon_(@In byte[] norm, @In int[] n, @In double[] a, @In int[] lda, @In double[] anorm, @Out double[] rcond, @Out double[] work, @Out int[] iwork, @Out int[] info);
+        void dgecon_(@In byte[] norm, @In int[] n, @In DoubleBuffer a, @In int[] lda, @In double[] anorm, @Out DoubleBuffer rcond, @Out DoubleBuffer work, @Out int[] iwork, @Out int[] info);
 
     }
 
@@ -101,7 +103,7 @@ public class JNR_Lapack implements LapackRFFI {
 
     @Override
     @TruffleBoundary
-    public int dgeev(char jobVL, char jobVR, int n, double[] a, int lda, double[] wr, double[] wi, double[] vl, int ldvl, double[] vr, int ldvr, double[] work, int lwork) {
+    public int dgeev(char jobVL, char jobVR, int n, DoubleBuffer a, int lda, DoubleBuffer wr, DoubleBuffer wi, DoubleBuffer vl, int ldvl, DoubleBuffer vr, int ldvr, DoubleBuffer work, int lwork) {
         int[] info = new int[1];
         lapack().dgeev_(wrapChar(jobVL), wrapChar(jobVR), wrapInt(n), a, wrapInt(lda), wr, wi, vl, wrapInt(ldvl), vr, wrapInt(ldvr), work, wrapInt(lwork), info);
         return info[0];
@@ -109,7 +111,7 @@ public class JNR_Lapack implements LapackRFFI {
 
     @Override
     @TruffleBoundary
-    public int dgeqp3(int m, int n, double[] a, int lda, int[] jpvt, double[] tau, double[] work, int lwork) {
+    public int dgeqp3(int m, int n, DoubleBuffer a, int lda, int[] jpvt, DoubleBuffer tau, DoubleBuffer work, int lwork) {
         int[] info = new int[1];
         lapack().dgeqp3_(wrapInt(m), wrapInt(n), a, wrapInt(lda), jpvt, tau, work, wrapInt(lwork), info);
         return info[0];
@@ -117,7 +119,7 @@ public class JNR_Lapack implements LapackRFFI {
 
     @Override
     @TruffleBoundary
-    public int dormqr(char side, char trans, int m, int n, int k, double[] a, int lda, double[] tau, double[] c, int ldc, double[] work, int lwork) {
+    public int dormqr(char side, char trans, int m, int n, int k, DoubleBuffer a, int lda, DoubleBuffer tau, DoubleBuffer c, int ldc, DoubleBuffer work, int lwork) {
         int[] info = new int[1];
         lapack().dormqr_(wrapChar(side), wrapChar(trans), wrapInt(m), wrapInt(n), wrapInt(k), a, wrapInt(lda), tau, c, wrapInt(ldc), work, wrapInt(lwork), info);
         return info[0];
@@ -125,7 +127,7 @@ public class JNR_Lapack implements LapackRFFI {
 
     @Override
     @TruffleBoundary
-    public int dtrtrs(char uplo, char trans, char diag, int n, int nrhs, double[] a, int lda, double[] b, int ldb) {
+    public int dtrtrs(char uplo, char trans, char diag, int n, int nrhs, DoubleBuffer a, int lda, DoubleBuffer b, int ldb) {
         int[] info = new int[1];
         lapack().dtrtrs_(wrapChar(uplo), wrapChar(trans), wrapChar(diag), wrapInt(n), wrapInt(nrhs), a, wrapInt(lda), b, wrapInt(ldb), info);
         return info[0];
@@ -133,7 +135,7 @@ public class JNR_Lapack implements LapackRFFI {
 
     @Override
     @TruffleBoundary
-    public int dgetrf(int m, int n, double[] a, int lda, int[] ipiv) {
+    public int dgetrf(int m, int n, DoubleBuffer a, int lda, int[] ipiv) {
         int[] info = new int[1];
         lapack().dgetrf_(wrapInt(m), wrapInt(n), a, wrapInt(lda), ipiv, info);
         return info[0];
@@ -141,7 +143,7 @@ public class JNR_Lapack implements LapackRFFI {
 
     @Override
     @TruffleBoundary
-    public int dpotrf(char uplo, int n, double[] a, int lda) {
+    public int dpotrf(char uplo, int n, DoubleBuffer a, int lda) {
         int[] info = new int[1];
         lapack().dpotrf_(wrapChar(uplo), wrapInt(n), a, wrapInt(lda), info);
         return info[0];
@@ -149,7 +151,7 @@ public class JNR_Lapack implements LapackRFFI {
 
     @Override
     @TruffleBoundary
-    public int dpstrf(char uplo, int n, double[] a, int lda, int[] piv, int[] rank, double tol, double[] work) {
+    public int dpstrf(char uplo, int n, DoubleBuffer a, int lda, int[] piv, int[] rank, double tol, DoubleBuffer work) {
         int[] info = new int[1];
         lapack().dpstrf_(wrapChar(uplo), wrapInt(n), a, wrapInt(lda), piv, rank, wrapDouble(tol), work, info);
         return info[0];
@@ -157,7 +159,7 @@ public class JNR_Lapack implements LapackRFFI {
 
     @Override
     @TruffleBoundary
-    public int dgesv(int n, int nrhs, double[] a, int lda, int[] ipiv, double[] b, int ldb) {
+    public int dgesv(int n, int nrhs, DoubleBuffer a, int lda, int[] ipiv, DoubleBuffer b, int ldb) {
         int[] info = new int[1];
         lapack().dgesv_(wrapInt(n), wrapInt(nrhs), a, wrapInt(lda), ipiv, b, wrapInt(ldb), info);
         return info[0];
@@ -165,13 +167,13 @@ public class JNR_Lapack implements LapackRFFI {
 
     @Override
     @TruffleBoundary
-    public double dlange(char norm, int m, int n, double[] a, int lda, double[] work) {
+    public double dlange(char norm, int m, int n, DoubleBuffer a, int lda, DoubleBuffer work) {
         return lapack().dlange_(wrapChar(norm), wrapInt(m), wrapInt(n), a, wrapInt(lda), work);
     }
 
     @Override
     @TruffleBoundary
-    public int dgecon(char norm, int n, double[] a, int lda, double anorm, double[] rcond, double[] work, int[] iwork) {
+    public int dgecon(char norm, int n, DoubleBuffer a, int lda, double anorm, DoubleBuffer rcond, DoubleBuffer work, int[] iwork) {
         int[] info = new int[1];
         lapack().dgecon_(wrapChar(norm), wrapInt(n), a, wrapInt(lda), wrapDouble(anorm), rcond, work, iwork, info);
         return info[0];
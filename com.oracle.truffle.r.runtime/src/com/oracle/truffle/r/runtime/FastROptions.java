@@ -52,7 +52,14 @@ public enum FastROptions {
     LoadPkgSourcesIndex("Load R package sources index", true),
     InvisibleArgs("Argument writes do not trigger state transitions", true),
     RefCountIncrementOnly("Disable reference count decrements for experimental state transition implementation", false),
+    PreciseRefCount("Decrement reference counts of arguments of any size and position after a call, so that more replacements can update vectors in place", false),
     UseInternalGraphics("Whether the internal (Java) graphics subsystem should be used", false),
+    ParallelKernels("Allow builtins to split large vector kernels across multiple threads", true),
+    ParallelKernelsThreshold("Minimal amount of work (in vector elements) for which a kernel is split across threads", "1000000", true),
+    ParallelKernelsThreads("Maximal number of threads used by a parallel kernel, 0 means number of available processors", "0", true),
+    CompressionThreads("Number of threads compressing gzip and xz output, 0 means number of available processors", "0", true),
+    CompressionBlockSize("Size in KB of the blocks in which gzip and xz output is compressed in parallel, 0 means the default of the format", "0", true),
+    InternStrings("Share equal strings produced by readers and converters through a global weak pool", true),
 
     // Promises optimizations
     EagerEval("If enabled, overrides all other EagerEval switches (see EagerEvalHelper)", false),
@@ -22,17 +22,24 @@
  */
 package com.oracle.truffle.r.runtime;
 
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FilterInputStream;
+import java.io.FilterOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.lang.ProcessBuilder.Redirect;
 
+import com.oracle.truffle.r.runtime.conn.GZIPConnections;
 import com.oracle.truffle.r.runtime.conn.GZIPConnections.GZIPRConnection;
 import com.oracle.truffle.r.runtime.ffi.RFFIFactory;
 
 /**
  * Abstracts the implementation of the various forms of compression used in R. Since the C API for
- * LZMA is very complex (as used by GnuR), we use an 'xz' subprocess to do the work.
+ * LZMA is very complex (as used by GnuR), we use an 'xz' subprocess to do the work, and likewise a
+ * 'bzip2' subprocess for BZIP2 files.
  */
 public class RCompression {
     public enum Type {
@@ -78,7 +85,7 @@ public class RCompression {
             case GZIP:
                 return gzipUncompress(udata, cdata);
             case BZIP2:
-                throw RInternalError.unimplemented("BZIP2 compression");
+                return bzip2Uncompress(udata, cdata);
             case LZMA:
                 return lzmaUncompress(udata, cdata);
             default:
@@ -95,7 +102,7 @@ public class RCompression {
             case GZIP:
                 return gzipCompress(udata, cdata);
             case BZIP2:
-                throw RInternalError.unimplemented("BZIP2 compression");
+                return bzip2Compress(udata, cdata);
             case LZMA:
                 return lzmaCompress(udata, cdata);
             default:
@@ -119,14 +126,34 @@ public class RCompression {
     }
 
     private static boolean lzmaCompress(byte[] udata, byte[] cdata) {
+        return processCompress(udata, cdata, "xz", "--compress", "--format=raw", "--lzma2", "--stdout");
+    }
+
+    private static boolean lzmaUncompress(byte[] udata, byte[] data) {
+        return processUncompress(udata, data, "xz", "--decompress", "--format=raw", "--lzma2", "--stdout");
+    }
+
+    private static boolean bzip2Compress(byte[] udata, byte[] cdata) {
+        return processCompress(udata, cdata, "bzip2", "--compress", "--stdout", "-9");
+    }
+
+    private static boolean bzip2Uncompress(byte[] udata, byte[] data) {
+        return processUncompress(udata, data, "bzip2", "--decompress", "--stdout");
+    }
+
+    /**
+     * Pipes {@code udata} through the compression process given by {@code command}, writing the
+     * result into {@code cdata}.
+     */
+    private static boolean processCompress(byte[] udata, byte[] cdata, String... command) {
         int rc;
-        ProcessBuilder pb = new ProcessBuilder("xz", "--compress", "--format=raw", "--lzma2", "--stdout");
+        ProcessBuilder pb = new ProcessBuilder(command);
         pb.redirectError(Redirect.INHERIT);
         try {
             Process p = pb.start();
             OutputStream os = p.getOutputStream();
             InputStream is = p.getInputStream();
-            ProcessOutputManager.OutputThread readThread = new ProcessOutputManager.OutputThreadFixed("xz", is, cdata);
+            ProcessOutputManager.OutputThread readThread = new ProcessOutputManager.OutputThreadFixed(command[0], is, cdata);
             readThread.start();
             os.write(udata);
             os.close();
@@ -139,18 +166,21 @@ public class RCompression {
             return false;
         }
         return rc == 0;
-
     }
 
-    private static boolean lzmaUncompress(byte[] udata, byte[] data) {
+    /**
+     * Pipes {@code data} through the decompression process given by {@code command}, which must
+     * produce exactly {@code udata.length} bytes.
+     */
+    private static boolean processUncompress(byte[] udata, byte[] data, String... command) {
         int rc;
-        ProcessBuilder pb = new ProcessBuilder("xz", "--decompress", "--format=raw", "--lzma2", "--stdout");
+        ProcessBuilder pb = new ProcessBuilder(command);
         pb.redirectError(Redirect.INHERIT);
         try {
             Process p = pb.start();
             OutputStream os = p.getOutputStream();
             InputStream is = p.getInputStream();
-            ProcessOutputManager.OutputThread readThread = new ProcessOutputManager.OutputThreadFixed("xz", is, udata);
+            ProcessOutputManager.OutputThread readThread = new ProcessOutputManager.OutputThreadFixed(command[0], is, udata);
             readThread.start();
             os.write(data);
             os.close();
@@ -168,42 +198,146 @@ public class RCompression {
     }
 
     /**
-     * This is used by {@link GZIPRConnection}.
+     * Returns a stream that decompresses the {@code xz} or {@code bzip2} file at {@code path} as it
+     * is read. This is used by {@link GZIPRConnection}. The data is piped through an external
+     * process, so only a bounded amount of it is held in memory regardless of the size of the file.
      */
-    public static byte[] lzmaUncompressFromFile(String path) {
-        return genericUncompressFromFile(new String[]{"xz", "--decompress", "--lzma2", "--stdout", path});
-    }
-
-    public static byte[] bzipUncompressFromFile(String path) {
-        return genericUncompressFromFile(new String[]{"bzip2", "-dc", path});
+    public static InputStream uncompressFromFileStream(Type type, String path) throws IOException {
+        String[] command;
+        switch (type) {
+            case LZMA:
+                command = new String[]{"xz", "--decompress", "--stdout", path};
+                break;
+            case BZIP2:
+                command = new String[]{"bzip2", "-dc", path};
+                break;
+            default:
+                throw RInternalError.shouldNotReachHere();
+        }
+        ProcessBuilder pb = new ProcessBuilder(command);
+        pb.redirectError(Redirect.INHERIT);
+        Process p = pb.start();
+        p.getOutputStream().close();
+        return new ProcessInputStream(command[0], p);
     }
 
-    private static byte[] genericUncompressFromFile(String[] command) {
-        int rc;
+    /**
+     * Returns a stream that compresses the data written to it into the file at {@code path} using
+     * {@code xz} or {@code bzip2}. A negative {@code level} requests the "extreme" variant of
+     * {@code xz} compression. {@code xz} compresses independent blocks in parallel, with the thread
+     * count and block size given by the {@code CompressionThreads} and {@code CompressionBlockSize}
+     * options.
+     */
+    public static OutputStream compressToFileStream(Type type, String path, int level) throws IOException {
+        int absLevel = Math.min(9, Math.abs(level));
+        String[] command;
+        switch (type) {
+            case LZMA:
+                String threads = "--threads=" + FastROptions.CompressionThreads.getNonNegativeIntValue();
+                String preset = "-" + absLevel + (level < 0 ? "e" : "");
+                int blockSize = FastROptions.CompressionBlockSize.getNonNegativeIntValue();
+                if (blockSize == 0) {
+                    // xz picks blocks of three times the dictionary size
+                    command = new String[]{"xz", "--compress", "--stdout", threads, preset};
+                } else {
+                    command = new String[]{"xz", "--compress", "--stdout", threads, "--block-size=" + blockSize + "KiB", preset};
+                }
+                break;
+            case BZIP2:
+                command = new String[]{"bzip2", "--compress", "--stdout", "-" + Math.max(1, absLevel)};
+                break;
+            default:
+                throw RInternalError.shouldNotReachHere();
+        }
         ProcessBuilder pb = new ProcessBuilder(command);
+        pb.redirectOutput(new File(path));
         pb.redirectError(Redirect.INHERIT);
-        try {
-            Process p = pb.start();
-            InputStream is = p.getInputStream();
-            ProcessOutputManager.OutputThreadVariable readThread = new ProcessOutputManager.OutputThreadVariable(command[0], is);
-            readThread.start();
-            rc = p.waitFor();
-            if (rc == 0) {
-                readThread.join();
-                return readThread.getData();
+        Process p = pb.start();
+        return new ProcessOutputStream(command[0], p);
+    }
+
+    /**
+     * The output of a decompression process. Reaching the end of the data checks the exit status
+     * of the process, so that corrupt or truncated input is reported rather than read as a short
+     * stream. Closing the stream before the end of the data has been reached terminates the
+     * process.
+     */
+    private static final class ProcessInputStream extends FilterInputStream {
+        private final String name;
+        private final Process process;
+        private boolean exited;
+
+        ProcessInputStream(String name, Process process) {
+            super(new BufferedInputStream(process.getInputStream(), GZIPConnections.GZIP_BUFFER_SIZE));
+            this.name = name;
+            this.process = process;
+        }
+
+        private int checkEnd(int result) throws IOException {
+            if (result == -1 && !exited) {
+                exited = true;
+                waitFor(name, process, true);
+            }
+            return result;
+        }
+
+        @Override
+        public int read() throws IOException {
+            return checkEnd(super.read());
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            return checkEnd(super.read(b, off, len));
+        }
+
+        @Override
+        public void close() throws IOException {
+            super.close();
+            if (!exited) {
+                exited = true;
+                process.destroy();
+                waitFor(name, process, false);
             }
-        } catch (InterruptedException | IOException ex) {
-            // fall through
         }
-        throw RInternalError.shouldNotReachHere(join(command));
     }
 
-    private static String join(String[] args) {
-        StringBuilder sb = new StringBuilder();
-        for (String s : args) {
-            sb.append(s);
-            sb.append(' ');
+    /**
+     * The input of a compression process. Closing the stream waits for the process to write the
+     * remaining compressed data.
+     */
+    private static final class ProcessOutputStream extends FilterOutputStream {
+        private final String name;
+        private final Process process;
+
+        ProcessOutputStream(String name, Process process) {
+            super(new BufferedOutputStream(process.getOutputStream(), GZIPConnections.GZIP_BUFFER_SIZE));
+            this.name = name;
+            this.process = process;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            // FilterOutputStream writes byte by byte
+            out.write(b, off, len);
+        }
+
+        @Override
+        public void close() throws IOException {
+            super.close();
+            waitFor(name, process, true);
+        }
+    }
+
+    private static void waitFor(String name, Process process, boolean checkStatus) throws IOException {
+        try {
+            int rc = process.waitFor();
+            if (checkStatus && rc != 0) {
+                throw new IOException(name + " exited with status " + rc);
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IOException(ex);
         }
-        return sb.toString();
     }
 }
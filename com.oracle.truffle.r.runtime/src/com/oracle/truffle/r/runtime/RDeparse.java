@@ -11,6 +11,7 @@
  */
 package com.oracle.truffle.r.runtime;
 
+import java.io.IOException;
 import java.text.DecimalFormat;
 import java.text.DecimalFormatSymbols;
 import java.util.ArrayList;
@@ -23,6 +24,7 @@ import com.oracle.truffle.api.CompilerDirectives.CompilationFinal;
 import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
 import com.oracle.truffle.api.source.Source;
 import com.oracle.truffle.api.source.SourceSection;
+import com.oracle.truffle.r.runtime.conn.RConnection;
 import com.oracle.truffle.r.runtime.context.RContext;
 import com.oracle.truffle.r.runtime.data.RAttributable;
 import com.oracle.truffle.r.runtime.data.RAttributes;
@@ -226,7 +228,7 @@ public class RDeparse {
     public static void ensureSourceSection(RSyntaxElement node) {
         SourceSection ss = node.getSourceSection();
         if (ss == RSyntaxNode.EAGER_DEPARSE) {
-            new DeparseVisitor(true, RDeparse.MAX_Cutoff, false, -1, 0, null).append(node).fixupSources();
+            new DeparseVisitor(true, RDeparse.MAX_Cutoff, false, -1, 0, null, null).append(node).fixupSources();
         }
     }
 
@@ -272,6 +274,12 @@ public class RDeparse {
 
         private final ArrayList<SourceSectionElement> sources;
 
+        /**
+         * If non-null, complete lines are written to this connection whenever {@link #sb} grows
+         * beyond {@link #FLUSH_THRESHOLD} characters.
+         */
+        private final RConnection sink;
+
         private final int cutoff;
         private final boolean backtick;
         private int opts;
@@ -282,15 +290,19 @@ public class RDeparse {
         private int indent = 0;
         private int lastLineStart = 0;
 
+        private static final int FLUSH_THRESHOLD = 8192;
+
         private final Map<String, Object> constants;
 
-        DeparseVisitor(boolean storeSource, int cutoff, boolean backtick, int opts, int nlines, Map<String, Object> constants) {
+        DeparseVisitor(boolean storeSource, int cutoff, boolean backtick, int opts, int nlines, Map<String, Object> constants, RConnection sink) {
+            assert !storeSource || sink == null : "source sections refer to the whole output";
             this.cutoff = cutoff;
             this.backtick = backtick;
             this.opts = opts;
             this.nlines = nlines;
             this.constants = constants;
             this.sources = storeSource ? new ArrayList<>() : null;
+            this.sink = sink;
         }
 
         public String getContents() {
@@ -367,11 +379,34 @@ public class RDeparse {
         private void printline() {
             sb.append("\n");
             lastLineStart = sb.length();
+            if (sink != null && lastLineStart > FLUSH_THRESHOLD) {
+                flushLines();
+            }
             for (int i = 0; i < indent; i++) {
                 sb.append(i < 4 ? "    " : "  ");
             }
         }
 
+        /**
+         * Writes the complete lines to {@link #sink}. Trailing blanks and newlines are kept in the
+         * buffer, since they are stripped if nothing follows (see {@link #getContents()}).
+         */
+        private void flushLines() {
+            int end = lastLineStart;
+            while (end > 0 && (sb.charAt(end - 1) == '\n' || sb.charAt(end - 1) == ' ')) {
+                end--;
+            }
+            if (end > 0) {
+                try {
+                    sink.writeString(sb.substring(0, end), false);
+                } catch (IOException e) {
+                    throw new DeparseIOException(e);
+                }
+                sb.delete(0, end);
+                lastLineStart -= end;
+            }
+        }
+
         private static boolean isSequence(RSyntaxElement element) {
             if (element instanceof RSyntaxCall) {
                 RSyntaxElement lhs = ((RSyntaxCall) element).getSyntaxLHS();
@@ -874,11 +909,15 @@ public class RDeparse {
                     // TODO COMPAT?
                     append("c(");
                     for (int i = 0; i < len; i++) {
-                        Object element = vec.getDataAtAsObject(i);
-                        vecElement2buff(type, element, false);
-                        if (i < len - 1) {
+                        if (i > 0) {
                             append(", ");
                         }
+                        // as in GnuR's vector2buff, continuation lines keep the current indent
+                        if ((sb.length() - lastLineStart) > cutoff) {
+                            printline();
+                        }
+                        Object element = vec.getDataAtAsObject(i);
+                        vecElement2buff(type, element, false);
                     }
                     append(')');
                 }
@@ -1054,22 +1093,53 @@ public class RDeparse {
                 root = list.getDataAtAsObject(0);
             }
         }
-        return new DeparseVisitor(false, 80, true, 0, -1, constants).process(root).getContents();
+        return new DeparseVisitor(false, 80, true, 0, -1, constants, null).process(root).getContents();
     }
 
     @TruffleBoundary
     public static String deparseSyntaxElement(RSyntaxElement element) {
-        return new DeparseVisitor(false, RDeparse.MAX_Cutoff, true, 0, -1, null).append(element).getContents();
+        return new DeparseVisitor(false, RDeparse.MAX_Cutoff, true, 0, -1, null, null).append(element).getContents();
     }
 
     @TruffleBoundary
     public static String deparse(Object expr) {
-        return new DeparseVisitor(false, RDeparse.MAX_Cutoff, true, 0, -1, null).process(expr).getContents();
+        return new DeparseVisitor(false, RDeparse.MAX_Cutoff, true, 0, -1, null, null).process(expr).getContents();
     }
 
     @TruffleBoundary
     public static String deparse(Object expr, int cutoff, boolean backtick, int opts, int nlines) {
-        return new DeparseVisitor(false, cutoff, backtick, opts, nlines, null).process(expr).getContents();
+        return new DeparseVisitor(false, cutoff, backtick, opts, nlines, null, null).process(expr).getContents();
+    }
+
+    /**
+     * Deparses {@code expr} like {@link #deparse(Object, int, boolean, int, int)}, but writes the
+     * result to {@code conn} (terminated by a newline) in chunks of complete lines, so that the
+     * memory needed does not grow with the size of the result.
+     */
+    @TruffleBoundary
+    public static void deparse(RConnection conn, Object expr, int cutoff, boolean backtick, int opts) throws IOException {
+        try {
+            String rest = new DeparseVisitor(false, cutoff, backtick, opts, -1, null, conn).process(expr).getContents();
+            conn.writeString(rest, true);
+        } catch (DeparseIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * Carries an {@link IOException} of the sink through the visitor.
+     */
+    private static final class DeparseIOException extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        DeparseIOException(IOException cause) {
+            super(cause);
+        }
+
+        @Override
+        public synchronized IOException getCause() {
+            return (IOException) super.getCause();
+        }
     }
 
     // TODO: this should use the DoubleVectorPrinter
@@ -307,6 +307,7 @@ public final class RError extends RuntimeException {
         ONLY_READ_BINARY_CONNECTION("can only read from a binary connection"),
         ONLY_WRITE_BINARY_CONNECTION("can only write to a binary connection"),
         NOT_A_TEXT_CONNECTION("'con' is not a textConnection"),
+        NOT_A_SOCKET_CONNECTION("not a socket connection"),
         UNSEEKABLE_CONNECTION("'con' is not seekable"),
         MORE_CHARACTERS("more characters requested than are in the string - will zero-pad"),
         TOO_FEW_LINES_READ_LINES("too few lines read in readLineWRITE_ONs"),
@@ -348,6 +349,11 @@ public final class RError extends RuntimeException {
         INDEX_RETURN_REMOVE_NA("'index.return' only for 'na.last(NA'"),
         SUPPLY_X_Y_MATRIX("supply both 'x' and 'y' or a matrix-like 'x'"),
         SD_ZERO("the standard deviation is zero"),
+        INCOMPATIBLE_DIMENSIONS("incompatible dimensions"),
+        NO_COMPLETE_ELEMENT_PAIRS("no complete element pairs"),
+        MISSING_OBSERVATIONS_COV("missing observations in cov/cor"),
+        INVALID_USE_METHOD("invalid 'use' (computational method)"),
+        IS_EMPTY("'%s' is empty"),
         INVALID_UNNAMED_ARGUMENTS("invalid arguments"),
         INVALID_INPUT("invalid input"),
         INVALID_INPUT_TYPE("invalid input type"),
@@ -355,6 +361,7 @@ public final class RError extends RuntimeException {
         DETERMINANT_COMPLEX("determinant not currently defined for complex matrices"),
         NON_NUMERIC_ARGUMENT("non-numeric argument"),
         FFT_FACTORIZATION("fft factorization error"),
+        VECTOR_VALUED_SERIES("vector-valued (multivariate) series required"),
         COMPLEX_NOT_PERMITTED("complex matrices not permitted at present"),
         FIRST_QR("first argument must be a QR decomposition"),
         ONLY_SQUARE_INVERTED("only square matrices can be inverted"),
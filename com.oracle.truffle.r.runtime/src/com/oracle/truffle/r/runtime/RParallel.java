@@ -0,0 +1,123 @@
+/*
+ * Copyright (c) 2016, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.truffle.r.runtime;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+
+/**
+ * Support for splitting a computation on primitive data (typically the backing array of a vector)
+ * into several independent ranges that are processed on the common fork/join pool. The bodies must
+ * not touch any {@code RContext} state, i.e., they may only read their input arrays and write to
+ * disjoint parts of their output arrays.
+ *
+ * Parallelism is controlled by the {@link FastROptions#ParallelKernels},
+ * {@link FastROptions#ParallelKernelsThreshold} and {@link FastROptions#ParallelKernelsThreads}
+ * options. Kernels are expected to split the work such that the result does not depend on the
+ * number of partitions, e.g., by partitioning the result (columns, groups) rather than the input.
+ */
+public final class RParallel {
+
+    @FunctionalInterface
+    public interface RangeBody {
+        /**
+         * Processes the elements in the range [{@code from}, {@code to}).
+         */
+        void execute(int from, int to);
+    }
+
+    private RParallel() {
+        // no instances
+    }
+
+    /**
+     * Returns the number of partitions into which a kernel over {@code n} independent units of
+     * work, each of cost (in vector elements) {@code unitCost}, should be split. Returns {@code 1}
+     * if the kernel should run sequentially.
+     */
+    @TruffleBoundary
+    public static int getPartitions(int n, long unitCost) {
+        if (n < 2 || !FastROptions.ParallelKernels.getBooleanValue()) {
+            return 1;
+        }
+        if ((long) n * unitCost < FastROptions.ParallelKernelsThreshold.getNonNegativeIntValue()) {
+            return 1;
+        }
+        int threads = FastROptions.ParallelKernelsThreads.getNonNegativeIntValue();
+        if (threads == 0) {
+            threads = Runtime.getRuntime().availableProcessors();
+        }
+        return Math.max(1, Math.min(n, threads));
+    }
+
+    /**
+     * Executes {@code body} over the range [0, {@code n}) split into (at most) {@code partitions}
+     * contiguous sub-ranges. The call returns after all sub-ranges have been processed.
+     */
+    @TruffleBoundary
+    public static void forEachPartition(int n, int partitions, RangeBody body) {
+        if (partitions <= 1 || n <= 1) {
+            body.execute(0, n);
+            return;
+        }
+        int chunk = (n + partitions - 1) / partitions;
+        ForkJoinPool pool = ForkJoinPool.commonPool();
+        List<Future<?>> tasks = new ArrayList<>(partitions);
+        for (int from = chunk; from < n; from += chunk) {
+            int start = from;
+            int end = Math.min(n, from + chunk);
+            tasks.add(pool.submit(() -> body.execute(start, end)));
+        }
+        // the calling thread processes the first chunk itself
+        body.execute(0, Math.min(n, chunk));
+        for (Future<?> task : tasks) {
+            try {
+                task.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RInternalError(e, "interrupted while waiting for a parallel kernel");
+            } catch (ExecutionException e) {
+                Throwable cause = e.getCause();
+                if (cause instanceof RuntimeException) {
+                    throw (RuntimeException) cause;
+                } else if (cause instanceof Error) {
+                    throw (Error) cause;
+                }
+                throw new RInternalError(cause, "error in parallel kernel");
+            }
+        }
+    }
+
+    /**
+     * Convenience combination of {@link #getPartitions(int, long)} and
+     * {@link #forEachPartition(int, int, RangeBody)}.
+     */
+    public static void forEach(int n, long unitCost, RangeBody body) {
+        forEachPartition(n, getPartitions(n, unitCost), body);
+    }
+}
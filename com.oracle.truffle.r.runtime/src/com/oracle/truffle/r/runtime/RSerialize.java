@@ -60,6 +60,7 @@ import com.oracle.truffle.r.runtime.data.RPromise.PromiseState;
 import com.oracle.truffle.r.runtime.data.RRawVector;
 import com.oracle.truffle.r.runtime.data.RScalar;
 import com.oracle.truffle.r.runtime.data.RShareable;
+import com.oracle.truffle.r.runtime.data.RStringPool;
 import com.oracle.truffle.r.runtime.data.RStringVector;
 import com.oracle.truffle.r.runtime.data.RSymbol;
 import com.oracle.truffle.r.runtime.data.RTypedValue;
@@ -773,7 +774,7 @@ public class RSerialize {
                     if (len == -1) {
                         return RRuntime.STRING_NA;
                     } else {
-                        result = stream.readString(len);
+                        result = RStringPool.intern(stream.readString(len));
                     }
                     break;
                 }
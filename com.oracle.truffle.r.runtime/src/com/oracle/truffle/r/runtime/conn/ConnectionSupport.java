@@ -306,6 +306,8 @@ public class ConnectionSupport {
         Terminal("terminal"),
         File("file"),
         GZFile("gzfile"),
+        BZFile("bzfile"),
+        XZFile("xzfile"),
         Socket("sockconn"),
         Text("textConnection"),
         URL("url"),
@@ -696,6 +698,12 @@ public class ConnectionSupport {
             return theConnection.readBin(buffer);
         }
 
+        @Override
+        public ByteBuffer readBinBuffer(int nbytes) throws IOException {
+            checkOpen();
+            return theConnection.readBinBuffer(nbytes);
+        }
+
         @Override
         public byte[] readBinChars() throws IOException {
             checkOpen();
@@ -31,6 +31,9 @@ import java.io.InputStream;
 import java.io.OutputStream;
 import java.io.RandomAccessFile;
 import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
 import java.util.zip.GZIPInputStream;
 
 import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
@@ -213,11 +216,29 @@ public class FileConnections {
     }
 
     private static class FileReadBinaryRConnection extends DelegateReadRConnection implements ReadWriteHelper {
+        /**
+         * Bulk reads of at least this many bytes are served from a mapping of the file rather than
+         * copied through a heap buffer.
+         */
+        private static final int MAP_THRESHOLD = 64 * 1024;
+
+        /**
+         * Size of the mapped window that consecutive bulk reads are served from. Mappings are only
+         * released by the GC, so they are reused rather than created per read.
+         */
+        private static final int MAP_WINDOW = 64 * 1024 * 1024;
+
+        private MappedByteBuffer window;
+        private long windowStart;
+
         private FileInputStream inputStream;
+        private final FileChannel channel;
 
         FileReadBinaryRConnection(FileRConnection base) throws IOException {
             super(base);
             inputStream = new FileInputStream(base.path);
+            // shares its position with the stream, so both can be used interchangeably
+            channel = inputStream.getChannel();
         }
 
         @Override
@@ -227,7 +248,26 @@ public class FileConnections {
 
         @Override
         public int readBin(ByteBuffer buffer) throws IOException {
-            return inputStream.getChannel().read(buffer);
+            return channel.read(buffer);
+        }
+
+        @Override
+        public ByteBuffer readBinBuffer(int nbytes) throws IOException {
+            if (nbytes < MAP_THRESHOLD) {
+                return super.readBinBuffer(nbytes);
+            }
+            long position = channel.position();
+            long size = channel.size();
+            int length = (int) Math.max(0, Math.min(nbytes, size - position));
+            if (window == null || position < windowStart || position + length > windowStart + window.capacity()) {
+                window = channel.map(MapMode.READ_ONLY, position, Math.min(Math.max(MAP_WINDOW, length), size - position));
+                windowStart = position;
+            }
+            ByteBuffer buffer = window.duplicate();
+            int start = (int) (position - windowStart);
+            buffer.limit(start + length).position(start);
+            channel.position(position + length);
+            return buffer.slice();
         }
 
         @Override
@@ -246,6 +286,28 @@ public class FileConnections {
             return inputStream;
         }
 
+        @Override
+        public boolean isSeekable() {
+            return true;
+        }
+
+        @Override
+        public long seek(long offset, SeekMode seekMode, SeekRWMode seekRWMode) throws IOException {
+            long result = channel.position();
+            switch (seekMode) {
+                case START:
+                    channel.position(offset);
+                    break;
+                case CURRENT:
+                    channel.position(result + offset);
+                    break;
+                case END:
+                    channel.position(channel.size() + offset);
+                    break;
+            }
+            return result;
+        }
+
         @Override
         public void closeAndDestroy() throws IOException {
             base.closed = true;
@@ -254,6 +316,7 @@ public class FileConnections {
 
         @Override
         public void close() throws IOException {
+            window = null;
             inputStream.close();
         }
     }
@@ -273,7 +336,10 @@ public class FileConnections {
 
         @Override
         public void writeBin(ByteBuffer buffer) throws IOException {
-            outputStream.getChannel().write(buffer);
+            FileChannel channel = outputStream.getChannel();
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
         }
 
         @Override
@@ -371,24 +437,26 @@ public class FileConnections {
 
         @Override
         public long seek(long offset, SeekMode seekMode, SeekRWMode seekRWMode) throws IOException {
-            long result = raf.getFilePointer();
-            if (seekMode != SeekMode.START) {
-                throw RError.nyi(null, "seek mode");
-            }
-            switch (seekRWMode) {
-                case LAST:
-                    if (lastMode == SeekRWMode.READ) {
-                        readOffset = offset;
-                    } else {
-                        writeOffset = offset;
-                    }
+            SeekRWMode mode = seekRWMode == SeekRWMode.LAST ? lastMode : seekRWMode;
+            long result = mode == SeekRWMode.WRITE ? writeOffset : readOffset;
+            long newOffset;
+            switch (seekMode) {
+                case START:
+                    newOffset = offset;
                     break;
-                case READ:
-                    readOffset = offset;
+                case CURRENT:
+                    newOffset = result + offset;
                     break;
-                case WRITE:
-                    writeOffset = offset;
+                case END:
+                    newOffset = raf.length() + offset;
                     break;
+                default:
+                    throw RInternalError.shouldNotReachHere();
+            }
+            if (mode == SeekRWMode.WRITE) {
+                writeOffset = newOffset;
+            } else {
+                readOffset = newOffset;
             }
             return result;
         }
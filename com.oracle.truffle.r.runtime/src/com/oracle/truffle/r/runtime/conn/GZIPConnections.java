@@ -22,7 +22,6 @@
  */
 package com.oracle.truffle.r.runtime.conn;
 
-import java.io.ByteArrayInputStream;
 import java.io.FileInputStream;
 import java.io.FileOutputStream;
 import java.io.IOException;
@@ -30,7 +29,6 @@ import java.io.InputStream;
 import java.io.OutputStream;
 import java.nio.ByteBuffer;
 import java.util.zip.GZIPInputStream;
-import java.util.zip.GZIPOutputStream;
 
 import com.oracle.truffle.r.runtime.RCompression;
 import com.oracle.truffle.r.runtime.RError;
@@ -52,11 +50,35 @@ public class GZIPConnections {
      * bytes of the file and detecting the type of the file.
      */
     public static class GZIPRConnection extends BasePathRConnection {
+        /**
+         * The compression used when writing, which also determines the connection class, i.e.,
+         * whether this is a {@code gzfile}, {@code bzfile} or {@code xzfile} connection.
+         */
+        private final RCompression.Type writeType;
+        private final int compressionLevel;
+
         public GZIPRConnection(String path, String modeString) throws IOException {
-            super(path, ConnectionClass.GZFile, modeString, AbstractOpenMode.ReadBinary);
+            this(path, modeString, RCompression.Type.GZIP, 6);
+        }
+
+        public GZIPRConnection(String path, String modeString, RCompression.Type writeType, int compressionLevel) throws IOException {
+            super(path, connectionClass(writeType), modeString, AbstractOpenMode.ReadBinary);
+            this.writeType = writeType;
+            this.compressionLevel = compressionLevel;
             openNonLazyConnection();
         }
 
+        private static ConnectionClass connectionClass(RCompression.Type writeType) {
+            switch (writeType) {
+                case BZIP2:
+                    return ConnectionClass.BZFile;
+                case LZMA:
+                    return ConnectionClass.XZFile;
+                default:
+                    return ConnectionClass.GZFile;
+            }
+        }
+
         @Override
         protected void createDelegateConnection() throws IOException {
             DelegateRConnection delegate = null;
@@ -79,22 +101,22 @@ public class GZIPConnections {
                             delegate = new GZIPInputRConnection(this);
                             break;
                         case LZMA:
+                        case BZIP2:
                             /*
-                             * no lzma support in Java. For now we use RCompression to a byte array
-                             * and return a ByteArrayInputStream on that.
+                             * no lzma/bzip2 support in Java, the data is decompressed by an
+                             * external process as it is read.
                              */
-                            byte[] lzmaUdata = RCompression.lzmaUncompressFromFile(path);
-                            delegate = new ByteGZipInputRConnection(this, new ByteArrayInputStream(lzmaUdata));
+                            delegate = new GZIPInputRConnection(this, RCompression.uncompressFromFileStream(cType, path));
                             break;
-                        case BZIP2:
-                            // ditto
-                            byte[] bzipUdata = RCompression.bzipUncompressFromFile(path);
-                            delegate = new ByteGZipInputRConnection(this, new ByteArrayInputStream(bzipUdata));
                     }
                     break;
                 case Write:
                 case WriteBinary:
-                    delegate = new GZIPOutputRConnection(this);
+                    if (writeType == RCompression.Type.GZIP) {
+                        delegate = new GZIPOutputRConnection(this, new ParallelGZIPOutputStream(new FileOutputStream(path), compressionLevel));
+                    } else {
+                        delegate = new GZIPOutputRConnection(this, RCompression.compressToFileStream(writeType, path, compressionLevel));
+                    }
                     break;
                 default:
                     throw RError.nyi(RError.SHOW_CALLER2, "open mode: " + getOpenMode());
@@ -161,18 +183,12 @@ public class GZIPConnections {
         }
     }
 
-    private static class ByteGZipInputRConnection extends GZIPInputRConnection {
-        ByteGZipInputRConnection(GZIPRConnection base, ByteArrayInputStream is) {
-            super(base, is);
-        }
-    }
-
     private static class GZIPOutputRConnection extends DelegateWriteRConnection implements ReadWriteHelper {
-        private GZIPOutputStream outputStream;
+        private OutputStream outputStream;
 
-        GZIPOutputRConnection(GZIPRConnection base) throws IOException {
+        GZIPOutputRConnection(GZIPRConnection base, OutputStream os) {
             super(base);
-            outputStream = new GZIPOutputStream(new FileOutputStream(base.path), GZIP_BUFFER_SIZE);
+            this.outputStream = os;
         }
 
         @Override
@@ -0,0 +1,202 @@
+/*
+ * Copyright (c) 2016, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.truffle.r.runtime.conn;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+import com.oracle.truffle.r.runtime.FastROptions;
+
+/**
+ * A gzip output stream that compresses blocks of the data in parallel, in the manner of
+ * {@code pigz}. Each block is deflated on its own, primed with the last 32K of the preceding block
+ * as dictionary, and all but the last block end with a sync flush, so that the concatenated blocks
+ * form a single deflate stream and the result is an ordinary single member gzip file. At most twice
+ * as many blocks as there are threads are in flight, which bounds the memory used regardless of the
+ * amount of data written.
+ */
+final class ParallelGZIPOutputStream extends OutputStream {
+    private static final int DICTIONARY_SIZE = 32 * 1024;
+    private static final int DEFAULT_BLOCK_SIZE = 1024 * 1024;
+    private static final byte[] HEADER = {0x1f, (byte) 0x8b, Deflater.DEFLATED, 0, 0, 0, 0, 0, 0, 0};
+
+    private final OutputStream out;
+    private final int level;
+    private final int blockSize;
+    private final int threads;
+    private final ArrayDeque<Future<ByteBuffer>> pending = new ArrayDeque<>();
+    private final CRC32 crc = new CRC32();
+
+    private byte[] block;
+    private int count;
+    private byte[] previousBlock;
+    private int previousCount;
+    private long totalIn;
+    private boolean closed;
+
+    ParallelGZIPOutputStream(OutputStream out, int level) throws IOException {
+        this.out = out;
+        this.level = level;
+        int size = FastROptions.CompressionBlockSize.getNonNegativeIntValue();
+        this.blockSize = size == 0 ? DEFAULT_BLOCK_SIZE : Math.max(DICTIONARY_SIZE, size * 1024);
+        int n = FastROptions.CompressionThreads.getNonNegativeIntValue();
+        this.threads = n == 0 ? Runtime.getRuntime().availableProcessors() : n;
+        this.block = new byte[blockSize];
+        out.write(HEADER);
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        if (count == blockSize) {
+            submitBlock(false);
+        }
+        block[count++] = (byte) b;
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        int offset = off;
+        int remaining = len;
+        while (remaining > 0) {
+            if (count == blockSize) {
+                submitBlock(false);
+            }
+            int n = Math.min(remaining, blockSize - count);
+            System.arraycopy(b, offset, block, count, n);
+            count += n;
+            offset += n;
+            remaining -= n;
+        }
+    }
+
+    private void submitBlock(boolean last) throws IOException {
+        byte[] data = block;
+        int length = count;
+        byte[] dictionary = previousBlock;
+        int dictionaryEnd = previousCount;
+        crc.update(data, 0, length);
+        totalIn += length;
+        if (threads <= 1) {
+            pending.add(CompletableFuture.completedFuture(deflate(data, length, dictionary, dictionaryEnd, last)));
+        } else {
+            pending.add(ForkJoinPool.commonPool().submit(() -> deflate(data, length, dictionary, dictionaryEnd, last)));
+        }
+        previousBlock = data;
+        previousCount = length;
+        block = last ? null : new byte[blockSize];
+        count = 0;
+        while (pending.size() > 2 * threads) {
+            writeBlock(pending.poll());
+        }
+    }
+
+    private ByteBuffer deflate(byte[] data, int length, byte[] dictionary, int dictionaryEnd, boolean last) {
+        Deflater deflater = new Deflater(level, true);
+        try {
+            if (dictionary != null) {
+                int dictionaryLength = Math.min(DICTIONARY_SIZE, dictionaryEnd);
+                deflater.setDictionary(dictionary, dictionaryEnd - dictionaryLength, dictionaryLength);
+            }
+            deflater.setInput(data, 0, length);
+            if (last) {
+                deflater.finish();
+            }
+            byte[] result = new byte[length + (length >> 3) + 64];
+            int n = 0;
+            while (true) {
+                int space = result.length - n;
+                n += deflater.deflate(result, n, space, last ? Deflater.NO_FLUSH : Deflater.SYNC_FLUSH);
+                if (last ? deflater.finished() : n < result.length) {
+                    break;
+                }
+                if (n == result.length) {
+                    result = Arrays.copyOf(result, result.length * 2);
+                }
+            }
+            return ByteBuffer.wrap(result, 0, n);
+        } finally {
+            deflater.end();
+        }
+    }
+
+    private void writeBlock(Future<ByteBuffer> future) throws IOException {
+        ByteBuffer compressed;
+        try {
+            compressed = future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException(e);
+        } catch (ExecutionException e) {
+            throw new IOException(e.getCause());
+        }
+        out.write(compressed.array(), 0, compressed.limit());
+    }
+
+    /**
+     * Writes the blocks compressed so far, the current block is not cut short (like in
+     * {@link java.util.zip.GZIPOutputStream} without sync flush).
+     */
+    @Override
+    public void flush() throws IOException {
+        while (!pending.isEmpty() && pending.peek().isDone()) {
+            writeBlock(pending.poll());
+        }
+        out.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        try {
+            submitBlock(true);
+            while (!pending.isEmpty()) {
+                writeBlock(pending.poll());
+            }
+            byte[] trailer = new byte[8];
+            putInt(trailer, 0, (int) crc.getValue());
+            putInt(trailer, 4, (int) totalIn);
+            out.write(trailer);
+        } finally {
+            out.close();
+        }
+    }
+
+    private static void putInt(byte[] b, int offset, int value) {
+        b[offset] = (byte) value;
+        b[offset + 1] = (byte) (value >> 8);
+        b[offset + 2] = (byte) (value >> 16);
+        b[offset + 3] = (byte) (value >> 24);
+    }
+}
@@ -311,6 +311,19 @@ public abstract class RConnection extends RAttributeStorage implements AutoClose
      */
     public abstract int readBin(ByteBuffer buffer) throws IOException;
 
+    /**
+     * Bulk variant of {@link #readBin(ByteBuffer)} for the {@code readBin} builtin. Returns a buffer
+     * positioned at the next {@code nbytes} of data, or less if EOS is reached. The default
+     * implementation reads into a fresh heap buffer; connections that can expose their data
+     * without copying, i.e., memory-mapped files, override this.
+     */
+    public ByteBuffer readBinBuffer(int nbytes) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(nbytes);
+        readBin(buffer);
+        buffer.flip();
+        return buffer;
+    }
+
     /**
      * Internal connection-specific support for the {@code readBin} builtin on character data.
      * character data is null-terminated and, therefore of length unknown to the caller. The result
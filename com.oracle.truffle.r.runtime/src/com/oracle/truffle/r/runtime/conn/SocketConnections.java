@@ -22,15 +22,21 @@
  */
 package com.oracle.truffle.r.runtime.conn;
 
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.net.InetSocketAddress;
-import java.net.ServerSocket;
-import java.net.Socket;
 import java.nio.ByteBuffer;
+import java.nio.channels.SelectableChannel;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
 import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
+import java.util.HashMap;
 
+import com.oracle.truffle.r.runtime.RError;
 import com.oracle.truffle.r.runtime.conn.ConnectionSupport.AbstractOpenMode;
 import com.oracle.truffle.r.runtime.conn.ConnectionSupport.BaseRConnection;
 import com.oracle.truffle.r.runtime.conn.ConnectionSupport.ConnectionClass;
@@ -39,7 +45,19 @@ import com.oracle.truffle.r.runtime.conn.ConnectionSupport.DelegateReadWriteRCon
 import com.oracle.truffle.r.runtime.conn.ConnectionSupport.ReadWriteHelper;
 import com.oracle.truffle.r.runtime.data.model.RAbstractStringVector;
 
+/**
+ * Socket connections are implemented with non-blocking {@link SocketChannel}s. A blocking
+ * connection waits on a {@link Selector} (with the connection's timeout) whenever the channel
+ * cannot make progress, a non-blocking connection only returns what is available. Selectors also
+ * implement {@code socketSelect}.
+ *
+ * Server connections accept from a listening channel that is shared by all server connections on
+ * the same port and stays open as long as any of them is open, so a server can accept the next
+ * client while still serving the previous ones.
+ */
 public class SocketConnections {
+    private static final int BUFFER_SIZE = 8192;
+
     /**
      * Base class for socket connections.
      *
@@ -73,11 +91,104 @@ public class SocketConnections {
         public String getSummaryDescription() {
             return (server ? "<-" : "->") + host + ":" + port;
         }
+
+        long getTimeoutMillis() {
+            return timeout < 0 ? -1 : timeout * 1000L;
+        }
+    }
+
+    /**
+     * Implements {@code socketSelect}: waits for at most {@code timeoutMillis} (forever if negative)
+     * until at least one of the connections is ready for reading, resp. writing if the
+     * corresponding element of {@code write} is set. Input that is already buffered counts as
+     * ready.
+     */
+    public static boolean[] select(RSocketConnection[] connections, boolean[] write, long timeoutMillis) throws IOException {
+        SelectableChannel[] channels = new SelectableChannel[connections.length];
+        int[] ops = new int[connections.length];
+        boolean[] ready = new boolean[connections.length];
+        for (int i = 0; i < connections.length; i++) {
+            RSocketReadWriteConnection delegate = (RSocketReadWriteConnection) connections[i].theConnection;
+            channels[i] = delegate.channel;
+            ops[i] = write[i] ? SelectionKey.OP_WRITE : SelectionKey.OP_READ;
+            ready[i] = !write[i] && delegate.readBuffer.hasRemaining();
+        }
+        return ChannelSelector.select(channels, ops, ready, timeoutMillis);
+    }
+
+    /**
+     * Waits for channels to become ready. Every wait selects with a selector of its own that is
+     * closed when the wait ends, so a wait (possibly forever) never holds up reads, writes or
+     * selects of other threads and contexts, and no selector outlives the thread or context that
+     * opened it. A channel may be registered with several selectors at the same time.
+     */
+    private static final class ChannelSelector {
+
+        static boolean await(SelectableChannel channel, int op, long timeoutMillis) throws IOException {
+            return select(new SelectableChannel[]{channel}, new int[]{op}, new boolean[1], timeoutMillis)[0];
+        }
+
+        static boolean[] select(SelectableChannel[] channels, int[] ops, boolean[] ready, long timeoutMillis) throws IOException {
+            // closing the selector also deregisters the channels
+            try (Selector selector = Selector.open()) {
+                boolean anyReady = false;
+                SelectionKey[] keys = new SelectionKey[channels.length];
+                for (int i = 0; i < channels.length; i++) {
+                    if (ready[i]) {
+                        anyReady = true;
+                    } else {
+                        SelectionKey key = channels[i].keyFor(selector);
+                        if (key == null) {
+                            key = channels[i].register(selector, ops[i]);
+                        } else {
+                            // the same channel may appear more than once
+                            key.interestOps(key.interestOps() | ops[i]);
+                        }
+                        keys[i] = key;
+                    }
+                }
+                long deadline = System.currentTimeMillis() + timeoutMillis;
+                while (true) {
+                    long remaining = deadline - System.currentTimeMillis();
+                    if (anyReady || (timeoutMillis >= 0 && remaining <= 0)) {
+                        selector.selectNow();
+                    } else if (timeoutMillis < 0) {
+                        selector.select();
+                    } else {
+                        selector.select(remaining);
+                    }
+                    for (int i = 0; i < channels.length; i++) {
+                        SelectionKey key = keys[i];
+                        if (key != null && selector.selectedKeys().contains(key) && (key.readyOps() & ops[i]) != 0) {
+                            ready[i] = true;
+                            anyReady = true;
+                        }
+                    }
+                    selector.selectedKeys().clear();
+                    if (anyReady || (timeoutMillis >= 0 && deadline - System.currentTimeMillis() <= 0)) {
+                        return ready;
+                    }
+                }
+            }
+        }
     }
 
     private abstract static class RSocketReadWriteConnection extends DelegateReadWriteRConnection implements ReadWriteHelper {
-        private Socket socket;
-        private SocketChannel socketChannel;
+        private SocketChannel channel;
+        /**
+         * Always in "get" mode, i.e., the data between position and limit is unread.
+         */
+        private final ByteBuffer readBuffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+        /**
+         * Always in "put" mode, i.e., the data between 0 and position is not yet sent.
+         */
+        private final ByteBuffer writeBuffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+        /**
+         * The incomplete last line of a {@code readLines} on a non-blocking connection, which is
+         * completed by the next {@code readLines}.
+         */
+        private final ByteArrayOutputStream pendingLine = new ByteArrayOutputStream();
+        private boolean skipLF;
         protected InputStream inputStream;
         protected OutputStream outputStream;
         protected final RSocketConnection thisBase;
@@ -85,28 +196,82 @@ public class SocketConnections {
         protected RSocketReadWriteConnection(RSocketConnection base) {
             super(base);
             this.thisBase = base;
+            readBuffer.limit(0);
+        }
+
+        protected void openChannel(SocketChannel channelArg) throws IOException {
+            this.channel = channelArg;
+            channel.configureBlocking(false);
+            inputStream = new ChannelInputStream();
+            outputStream = new ChannelOutputStream();
+        }
+
+        /**
+         * Reads from the channel into {@link #readBuffer}, waiting for data on a blocking
+         * connection. Returns the number of bytes read, {@code 0} if no data is available and
+         * {@code -1} at end of stream.
+         */
+        private int fill() throws IOException {
+            readBuffer.compact();
+            try {
+                int n = channel.read(readBuffer);
+                while (n == 0 && thisBase.blocking && ChannelSelector.await(channel, SelectionKey.OP_READ, thisBase.getTimeoutMillis())) {
+                    n = channel.read(readBuffer);
+                }
+                return n;
+            } finally {
+                readBuffer.flip();
+            }
         }
 
-        protected void openStreams(Socket socketArg) throws IOException {
-            this.socket = socketArg;
-            this.socketChannel = socket.getChannel();
-            if (thisBase.blocking) {
-                // Java (int) timeouts do not meet the POSIX standard of 31 days
-                long millisTimeout = ((long) thisBase.timeout) * 1000;
-                if (millisTimeout > Integer.MAX_VALUE) {
-                    millisTimeout = Integer.MAX_VALUE;
+        /**
+         * Sends the content of {@link #writeBuffer}. Even a non-blocking connection waits for the
+         * channel rather than dropping data.
+         */
+        private void drain() throws IOException {
+            writeBuffer.flip();
+            try {
+                while (writeBuffer.hasRemaining()) {
+                    if (channel.write(writeBuffer) == 0 && !ChannelSelector.await(channel, SelectionKey.OP_WRITE, thisBase.blocking ? thisBase.getTimeoutMillis() : -1)) {
+                        throw new IOException("timeout writing to socket");
+                    }
                 }
-                socket.setSoTimeout((int) millisTimeout);
-            } else {
-                socketChannel.configureBlocking(false);
+            } finally {
+                writeBuffer.compact();
             }
-            inputStream = socket.getInputStream();
-            outputStream = socket.getOutputStream();
         }
 
         @Override
         public String[] readLinesInternal(int n, boolean warn, boolean skipNul) throws IOException {
-            return readLinesHelper(inputStream, n, warn, skipNul);
+            ArrayList<String> lines = new ArrayList<>();
+            while (n <= 0 || lines.size() < n) {
+                if (!readBuffer.hasRemaining()) {
+                    int read = fill();
+                    if (read < 0 && pendingLine.size() > 0) {
+                        lines.add(pendingLine.toString());
+                        pendingLine.reset();
+                        if (warn) {
+                            RError.warning(RError.SHOW_CALLER2, RError.Message.INCOMPLETE_FINAL_LINE, thisBase.getSummaryDescription());
+                        }
+                    }
+                    if (read <= 0) {
+                        // a non-blocking connection keeps the incomplete line for the next call
+                        break;
+                    }
+                }
+                byte b = readBuffer.get();
+                if (b == '\n' && skipLF) {
+                    skipLF = false;
+                } else if (b == '\n' || b == '\r') {
+                    lines.add(pendingLine.toString());
+                    pendingLine.reset();
+                    skipLF = b == '\r';
+                } else {
+                    skipLF = false;
+                    pendingLine.write(b);
+                }
+            }
+            return lines.toArray(new String[lines.size()]);
         }
 
         @Override
@@ -122,11 +287,22 @@ public class SocketConnections {
         @Override
         public void writeLines(RAbstractStringVector lines, String sep, boolean useBytes) throws IOException {
             writeLinesHelper(outputStream, lines, sep);
+            drain();
         }
 
         @Override
         public void writeBin(ByteBuffer buffer) throws IOException {
-            writeBinHelper(buffer, outputStream);
+            while (buffer.hasRemaining()) {
+                if (!writeBuffer.hasRemaining()) {
+                    drain();
+                }
+                int n = Math.min(buffer.remaining(), writeBuffer.remaining());
+                ByteBuffer slice = buffer.duplicate();
+                slice.limit(slice.position() + n);
+                writeBuffer.put(slice);
+                buffer.position(buffer.position() + n);
+            }
+            drain();
         }
 
         @Override
@@ -137,11 +313,13 @@ public class SocketConnections {
         @Override
         public void writeChar(String s, int pad, String eos, boolean useBytes) throws IOException {
             writeCharHelper(outputStream, s, pad, eos);
+            drain();
         }
 
         @Override
         public void writeString(String s, boolean nl) throws IOException {
             writeStringHelper(outputStream, s, nl);
+            drain();
         }
 
         @Override
@@ -156,7 +334,7 @@ public class SocketConnections {
 
         @Override
         public void flush() throws IOException {
-            outputStream.flush();
+            drain();
         }
 
         @Override
@@ -167,32 +345,165 @@ public class SocketConnections {
 
         @Override
         public void close() throws IOException {
-            socket.close();
+            channel.close();
+        }
+
+        /**
+         * Input stream on the channel that returns {@code -1} only at the end of the stream. A
+         * blocking connection waits for data and fails if none arrives within the timeout. On a
+         * non-blocking connection, {@link #read(byte[], int, int)} returns {@code 0} if no data is
+         * available, so that e.g. {@code readBin} returns what has arrived so far, whereas
+         * {@link #read()}, which cannot report that, waits like a blocking connection.
+         */
+        private final class ChannelInputStream extends InputStream {
+            private IOException timeout() {
+                return new IOException("timeout reading from socket");
+            }
+
+            @Override
+            public int read() throws IOException {
+                while (!readBuffer.hasRemaining()) {
+                    int n = fill();
+                    if (n < 0) {
+                        return -1;
+                    }
+                    if (n == 0 && (thisBase.blocking || !ChannelSelector.await(channel, SelectionKey.OP_READ, thisBase.getTimeoutMillis()))) {
+                        throw timeout();
+                    }
+                }
+                return readBuffer.get() & 0xFF;
+            }
+
+            @Override
+            public int read(byte[] b, int off, int len) throws IOException {
+                if (len == 0) {
+                    return 0;
+                }
+                if (!readBuffer.hasRemaining()) {
+                    int n = fill();
+                    if (n < 0) {
+                        return -1;
+                    }
+                    if (n == 0) {
+                        if (thisBase.blocking) {
+                            throw timeout();
+                        }
+                        return 0;
+                    }
+                }
+                int n = Math.min(len, readBuffer.remaining());
+                readBuffer.get(b, off, n);
+                return n;
+            }
+
+            @Override
+            public int available() {
+                return readBuffer.remaining();
+            }
+        }
+
+        private final class ChannelOutputStream extends OutputStream {
+            @Override
+            public void write(int b) throws IOException {
+                if (!writeBuffer.hasRemaining()) {
+                    drain();
+                }
+                writeBuffer.put((byte) b);
+            }
+
+            @Override
+            public void write(byte[] b, int off, int len) throws IOException {
+                int offset = off;
+                int remaining = len;
+                while (remaining > 0) {
+                    if (!writeBuffer.hasRemaining()) {
+                        drain();
+                    }
+                    int n = Math.min(remaining, writeBuffer.remaining());
+                    writeBuffer.put(b, offset, n);
+                    offset += n;
+                    remaining -= n;
+                }
+            }
+
+            @Override
+            public void flush() throws IOException {
+                drain();
+            }
+        }
+    }
+
+    /**
+     * A listening channel, shared by the server connections on its port.
+     */
+    private static final class Listener {
+        private static final HashMap<Integer, Listener> listeners = new HashMap<>();
+
+        private final ServerSocketChannel channel;
+        private int users;
+
+        private Listener(ServerSocketChannel channel) {
+            this.channel = channel;
+        }
+
+        static synchronized Listener acquire(int port) throws IOException {
+            Listener listener = listeners.get(port);
+            if (listener == null) {
+                ServerSocketChannel channel = ServerSocketChannel.open();
+                // allow the port to be bound again right after the listener is closed
+                channel.socket().setReuseAddress(true);
+                channel.bind(new InetSocketAddress(port));
+                channel.configureBlocking(false);
+                listener = new Listener(channel);
+                listeners.put(port, listener);
+            }
+            listener.users++;
+            return listener;
+        }
+
+        static synchronized void release(int port, Listener listener) throws IOException {
+            if (--listener.users == 0) {
+                listeners.remove(port);
+                listener.channel.close();
+            }
         }
     }
 
     private static class RServerSocketConnection extends RSocketReadWriteConnection {
-        private Socket connectionSocket;
+        private Listener listener;
 
         RServerSocketConnection(RSocketConnection base) throws IOException {
             super(base);
-            InetSocketAddress addr = new InetSocketAddress(base.port);
-            ServerSocket serverSocket = new ServerSocket();
-            // we expect only one connection per-server socket; furthermore, we need to accommodate
-            // for multiple connections being established locally on the same server port;
-            // consequently, we close the server socket at the end of the constructor and allow
-            // address reuse to be able to open the next connection after the current one closes
-            serverSocket.setReuseAddress(true);
-            serverSocket.bind(addr);
-            connectionSocket = serverSocket.accept();
-            openStreams(connectionSocket);
-            serverSocket.close();
+            listener = Listener.acquire(base.port);
+            try {
+                SocketChannel accepted = listener.channel.accept();
+                while (accepted == null) {
+                    if (!ChannelSelector.await(listener.channel, SelectionKey.OP_ACCEPT, base.getTimeoutMillis())) {
+                        throw new IOException("timeout accepting a connection on port " + base.port);
+                    }
+                    accepted = listener.channel.accept();
+                }
+                openChannel(accepted);
+            } catch (IOException ex) {
+                releaseListener();
+                throw ex;
+            }
+        }
+
+        private void releaseListener() throws IOException {
+            if (listener != null) {
+                Listener.release(thisBase.port, listener);
+                listener = null;
+            }
         }
 
         @Override
         public void close() throws IOException {
-            super.close();
-            connectionSocket.close();
+            try {
+                super.close();
+            } finally {
+                releaseListener();
+            }
         }
     }
 
@@ -200,8 +511,7 @@ public class SocketConnections {
 
         RClientSocketConnection(RSocketConnection base) throws IOException {
             super(base);
-            SocketChannel socketChannel = SocketChannel.open(new InetSocketAddress(base.host, base.port));
-            openStreams(socketChannel.socket());
+            openChannel(SocketChannel.open(new InetSocketAddress(base.host, base.port)));
         }
     }
 }
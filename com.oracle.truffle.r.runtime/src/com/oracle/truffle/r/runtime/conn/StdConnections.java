@@ -317,6 +317,9 @@ public class StdConnections {
                 state.top--;
                 if (state.diversions[ctop].closeOnExit) {
                     state.diversions[ctop].conn.closeAndDestroy();
+                } else {
+                    // e.g. publishes the output collected by a text connection
+                    state.diversions[ctop].conn.flush();
                 }
             }
         }
@@ -26,7 +26,7 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.nio.ByteBuffer;
-import java.util.ArrayList;
+import java.util.Arrays;
 
 import com.oracle.truffle.r.runtime.RError;
 import com.oracle.truffle.r.runtime.RInternalError;
@@ -37,7 +37,6 @@ import com.oracle.truffle.r.runtime.conn.ConnectionSupport.DelegateRConnection;
 import com.oracle.truffle.r.runtime.conn.ConnectionSupport.DelegateReadRConnection;
 import com.oracle.truffle.r.runtime.conn.ConnectionSupport.DelegateWriteRConnection;
 import com.oracle.truffle.r.runtime.data.RDataFactory;
-import com.oracle.truffle.r.runtime.data.RStringVector;
 import com.oracle.truffle.r.runtime.data.model.RAbstractStringVector;
 import com.oracle.truffle.r.runtime.env.REnvironment;
 import com.oracle.truffle.r.runtime.env.REnvironment.PutException;
@@ -98,7 +97,7 @@ public class TextConnections {
                 // vector elements are implicitly terminated with a newline
                 sb.append('\n');
             }
-            lines = sb.toString().split("\\n");
+            lines = base.object.getLength() == 0 ? new String[0] : sb.toString().split("\\n");
         }
 
         @Override
@@ -156,30 +155,63 @@ public class TextConnections {
         }
     }
 
+    /**
+     * The output text connection collects the completed lines in a buffer that grows
+     * geometrically, so that appending a line has amortized constant cost. For a named connection
+     * the variable is only re-bound to the lines written so far when the connection is flushed
+     * (including when a sink to it is removed) or closed, not after every write, which would copy
+     * all the lines each time. Unlike in GnuR, the variable therefore does not reflect the output
+     * in between. An anonymous connection ({@code textConnection(NULL, "w")}) has no variable and
+     * its value is only materialized by {@code textConnectionValue}.
+     */
     private static class TextWriteRConnection extends DelegateWriteRConnection implements GetConnectionValue {
-        private String incompleteLine;
-        private RStringVector textVec;
-        private String idName;
+        private static final int INITIAL_CAPACITY = 16;
+
+        private StringBuilder incompleteLine;
+        private String[] lines = new String[INITIAL_CAPACITY];
+        private int lineCount;
+        /**
+         * Whether lines were completed since the variable was last bound.
+         */
+        private boolean unpublished;
+        /**
+         * Name of the variable bound to the output, {@code null} for an anonymous connection.
+         */
+        private final String idName;
 
-        private void initTextVec(RStringVector v, TextRConnection textBase) {
+        protected TextWriteRConnection(BaseRConnection base) {
+            super(base);
+            TextRConnection textBase = (TextRConnection) base;
             if (textBase.description.equals("NULL")) {
-                throw RError.nyi(null, "anonymous text output connection");
+                idName = null;
+            } else {
+                idName = textBase.object.getDataAt(0);
+                bindValue(textBase);
+                // lock the binding
+                textBase.env.lockBinding(idName);
             }
-            idName = textBase.object.getDataAt(0);
+        }
+
+        private void bindValue(TextRConnection textBase) {
             try {
-                textVec = v;
-                textBase.env.put(idName, textVec);
+                textBase.env.put(idName, RDataFactory.createStringVector(getValue(), RDataFactory.COMPLETE_VECTOR));
             } catch (PutException ex) {
                 throw RError.error(RError.SHOW_CALLER2, ex);
             }
-            // lock the binding
-            textBase.env.lockBinding(idName);
         }
 
-        protected TextWriteRConnection(BaseRConnection base) {
-            super(base);
-            TextRConnection textBase = (TextRConnection) base;
-            initTextVec(RDataFactory.createStringVector(0), textBase);
+        private void updateBinding() {
+            if (idName != null && unpublished) {
+                unpublished = false;
+                TextRConnection textBase = (TextRConnection) base;
+                /*
+                 * N.B. This assumes one thread per RContext else another thread could be calling
+                 * lockBinding
+                 */
+                textBase.env.unlockBinding(idName);
+                bindValue(textBase);
+                textBase.env.lockBinding(idName);
+            }
         }
 
         @Override
@@ -191,75 +223,53 @@ public class TextConnections {
         public void closeAndDestroy() throws IOException {
             /* Check if we ended up with an incomplete line */
             if (incompleteLine != null) {
-                appendData(new String[]{incompleteLine});
+                appendLine(incompleteLine.toString());
                 incompleteLine = null;
             }
+            updateBinding();
             base.closed = true;
-            TextRConnection textBase = (TextRConnection) base;
-            textBase.env.unlockBinding(idName);
+            if (idName != null) {
+                TextRConnection textBase = (TextRConnection) base;
+                textBase.env.unlockBinding(idName);
+            }
         }
 
         @Override
         public void close() throws IOException {
         }
 
+        private void appendLine(String line) {
+            if (lineCount == lines.length) {
+                lines = Arrays.copyOf(lines, lines.length << 1);
+            }
+            lines[lineCount++] = line;
+            unpublished = true;
+        }
+
         private void writeStringInternal(String result) {
             int nlIndex;
             int px = 0;
-            boolean endOfLine = false;
-            ArrayList<String> appendedLines = new ArrayList<>();
             while ((nlIndex = result.indexOf('\n', px)) >= 0) {
                 if (incompleteLine != null) {
-                    appendedLines.add(new StringBuffer(incompleteLine).append(result.substring(px, nlIndex)).toString());
+                    appendLine(incompleteLine.append(result, px, nlIndex).toString());
                     incompleteLine = null;
                 } else {
-                    appendedLines.add(result.substring(px, nlIndex));
+                    appendLine(result.substring(px, nlIndex));
                 }
-                nlIndex++;
-                px = nlIndex;
-                endOfLine = true;
+                px = nlIndex + 1;
             }
-            if (incompleteLine != null && !endOfLine) {
+            if (px < result.length()) {
                 // end of line not found - accumulate incomplete line
-                incompleteLine = new StringBuffer(incompleteLine).append(result).toString();
-            } else if (px < result.length()) {
-                // only reset incompleteLine if
-                incompleteLine = result.substring(px);
-            }
-            if (appendedLines.size() > 0) {
-                // update the vector data
-                String[] appendedData = new String[appendedLines.size()];
-                appendedLines.toArray(appendedData);
-                appendData(appendedData);
-            }
-
-        }
-
-        void appendData(String[] appendedData) {
-            String[] existingData = textVec.getDataWithoutCopying();
-            String[] updateData = appendedData;
-            if (existingData.length > 0) {
-                updateData = new String[existingData.length + appendedData.length];
-                System.arraycopy(existingData, 0, updateData, 0, existingData.length);
-                System.arraycopy(appendedData, 0, updateData, existingData.length, appendedData.length);
+                if (incompleteLine == null) {
+                    incompleteLine = new StringBuilder();
+                }
+                incompleteLine.append(result, px, result.length());
             }
-            TextRConnection textBase = (TextRConnection) base;
-            /*
-             * N.B. This assumes one thread per RContext else another thread could be calling
-             * lockBinding
-             */
-            textBase.env.unlockBinding(idName);
-            // TODO: is vector really complete?
-            initTextVec(RDataFactory.createStringVector(updateData, RDataFactory.COMPLETE_VECTOR), textBase);
         }
 
         @Override
         public void writeLines(RAbstractStringVector lines, String sep, boolean useBytes) throws IOException {
-            StringBuffer sb = new StringBuffer();
-            if (incompleteLine != null) {
-                sb.append(incompleteLine);
-                incompleteLine = null;
-            }
+            StringBuilder sb = new StringBuilder();
             for (int i = 0; i < lines.getLength(); i++) {
                 sb.append(lines.getDataAt(i));
                 sb.append(sep);
@@ -269,11 +279,12 @@ public class TextConnections {
 
         @Override
         public void flush() throws IOException {
+            updateBinding();
         }
 
         @Override
         public void writeString(String s, boolean nl) throws IOException {
-            writeStringInternal(nl ? new StringBuffer(s).append('\n').toString() : s);
+            writeStringInternal(nl ? s + '\n' : s);
         }
 
         @Override
@@ -288,7 +299,7 @@ public class TextConnections {
 
         @Override
         public String[] getValue() {
-            throw RError.nyi(null, "textConnectionValue");
+            return Arrays.copyOf(lines, lineCount);
         }
 
         private class ConnectionOutputStream extends OutputStream {
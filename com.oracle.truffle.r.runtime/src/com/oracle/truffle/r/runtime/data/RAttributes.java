@@ -22,9 +22,11 @@
  */
 package com.oracle.truffle.r.runtime.data;
 
+import java.lang.ref.WeakReference;
 import java.util.Arrays;
 import java.util.Iterator;
 import java.util.NoSuchElementException;
+import java.util.WeakHashMap;
 
 import com.oracle.truffle.api.CompilerAsserts;
 import com.oracle.truffle.api.CompilerDirectives.CompilationFinal;
@@ -32,10 +34,16 @@ import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
 import com.oracle.truffle.api.CompilerDirectives.ValueType;
 import com.oracle.truffle.api.profiles.ConditionProfile;
 import com.oracle.truffle.r.runtime.RPerfStats;
+import com.oracle.truffle.r.runtime.RRuntime;
 
 /**
  * Provides the generic mechanism for associating attributes with a R object. It does no special
  * analysis of the "name" of the attribute; that is left to other classes, e.g. {@link RVector}.
+ *
+ * The attribute names are kept in an immutable {@link Shape} that is shared by all attribute sets
+ * with the same names in the same order, so that nodes can cache the position of an attribute per
+ * shape. The values array is copied lazily: {@link #copy()} shares it between the original and the
+ * copy until one of them is modified.
  */
 public final class RAttributes implements Iterable<RAttributes.RAttribute> {
 
@@ -71,14 +79,135 @@ public final class RAttributes implements Iterable<RAttributes.RAttribute> {
         }
     }
 
+    /**
+     * The (interned) attribute names of an attribute set, in order. Shapes are created only by
+     * transitions from {@link #EMPTY}, so two attribute sets with the same names in the same order
+     * always have the identical shape. Transitions are held weakly and every shape holds its
+     * parent, so a shape and the shapes on its path from {@link #EMPTY} live as long as some
+     * attribute set or node refers to it.
+     */
+    public static final class Shape {
+
+        public static final Shape EMPTY = new Shape(null, new String[0]);
+
+        /*
+         * The shapes of the attribute sets created by the runtime itself, so that these do not go
+         * through the transitions.
+         */
+        public static final Shape NAMES = EMPTY.add(RRuntime.NAMES_ATTR_KEY);
+        public static final Shape DIM = EMPTY.add(RRuntime.DIM_ATTR_KEY);
+        public static final Shape DIMNAMES = EMPTY.add(RRuntime.DIMNAMES_ATTR_KEY);
+        public static final Shape CLASS = EMPTY.add(RRuntime.CLASS_ATTR_KEY);
+        public static final Shape NAMES_DIM = NAMES.add(RRuntime.DIM_ATTR_KEY);
+        public static final Shape DIM_DIMNAMES = DIM.add(RRuntime.DIMNAMES_ATTR_KEY);
+
+        private final Shape parent;
+        private final String[] names;
+        private final WeakHashMap<String, WeakReference<Shape>> transitions = new WeakHashMap<>(2);
+
+        /**
+         * The last transition taken, to avoid the lock in the common case of attribute sets that
+         * are built up the same way over and over.
+         */
+        private volatile Transition lastTransition;
+
+        private Shape(Shape parent, String[] names) {
+            this.parent = parent;
+            this.names = names;
+        }
+
+        public int size() {
+            return names.length;
+        }
+
+        public String getNameAtIndex(int i) {
+            return names[i];
+        }
+
+        public int find(String name) {
+            for (int i = 0; i < names.length; i++) {
+                if (names[i] == name) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+
+        /**
+         * Returns the shape with {@code name} appended, which must not be part of this shape yet.
+         */
+        @TruffleBoundary
+        public Shape add(String name) {
+            assert isInterned(name) && find(name) == -1;
+            Transition last = lastTransition;
+            if (last != null && last.name == name) {
+                return last.target;
+            }
+            Shape result;
+            synchronized (transitions) {
+                WeakReference<Shape> ref = transitions.get(name);
+                result = ref == null ? null : ref.get();
+                if (result == null) {
+                    String[] newNames = Arrays.copyOf(names, names.length + 1);
+                    newNames[names.length] = name;
+                    result = new Shape(this, newNames);
+                    transitions.put(name, new WeakReference<>(result));
+                    if (statsProfile.profile(stats != null)) {
+                        stats.shapeCreated();
+                    }
+                }
+            }
+            lastTransition = new Transition(name, result);
+            return result;
+        }
+
+        /**
+         * Returns the shape without the name at {@code index}.
+         */
+        @TruffleBoundary
+        public Shape remove(int index) {
+            if (index == names.length - 1) {
+                return parent;
+            }
+            Shape result = EMPTY;
+            for (int i = 0; i < names.length; i++) {
+                if (i != index) {
+                    result = result.add(names[i]);
+                }
+            }
+            return result;
+        }
+
+        @Override
+        public String toString() {
+            CompilerAsserts.neverPartOfCompilation();
+            return Arrays.toString(names);
+        }
+    }
+
+    private static final class Transition {
+        private final String name;
+        private final Shape target;
+
+        Transition(String name, Shape target) {
+            this.name = name;
+            this.target = target;
+        }
+    }
+
     private static final ConditionProfile statsProfile = ConditionProfile.createBinaryProfile();
 
     public static RAttributes create() {
         return new RAttributes();
     }
 
-    public static RAttributes createInitialized(String[] names, Object[] values) {
-        return new RAttributes(names, values);
+    /**
+     * Creates an attribute set with the given names and values, {@code shape} is typically one of
+     * the predefined shapes like {@link Shape#NAMES} or a shape cached by the caller.
+     */
+    public static RAttributes createInitialized(Shape shape, Object[] values) {
+        assert shape.size() == values.length;
+        return new RAttributes(shape, values, false);
     }
 
     /**
@@ -92,52 +221,48 @@ public final class RAttributes implements Iterable<RAttributes.RAttribute> {
         }
     }
 
-    private RAttributes(RAttributes attrs) {
-        if (attrs.size != 0) {
-            size = attrs.size;
-            names = attrs.names.clone();
-            values = attrs.values.clone();
-        }
+    private RAttributes(Shape shape, Object[] values, boolean shared) {
+        this.shape = shape;
+        this.values = values;
+        this.shared = shared;
     }
 
-    private RAttributes(String[] names, Object[] values) {
-        this.names = names;
-        this.values = values;
-        this.size = names.length;
+    public Shape getShape() {
+        return shape;
     }
 
     public int find(String name) {
-        for (int i = 0; i < size; i++) {
-            assert names[i] != null;
-            if (names[i] == name) {
-                return i;
-            }
-        }
-        return -1;
+        return shape.find(name);
     }
 
     public void put(String name, Object value) {
         assert isInterned(name);
         int pos = find(name);
-        if (pos == -1) {
-            ensureFreeSpace();
-            pos = size++;
-            names[pos] = name;
-        }
         // TODO: this assertion should hold in general
         // assert value == null || !(value instanceof RShareable) || !((RShareable)
         // value).isTemporary();
-        values[pos] = value;
-        if (statsProfile.profile(stats != null)) {
-            stats.update(this);
+        if (pos == -1) {
+            append(shape.add(name), value);
+        } else {
+            setValueAtIndex(pos, value);
         }
     }
 
-    public void ensureFreeSpace() {
-        if (size == names.length) {
-            names = Arrays.copyOf(names, (size + 1) * 2);
+    /**
+     * Adds a new attribute, {@code newShape} must be the result of adding its name to the current
+     * shape.
+     */
+    public void append(Shape newShape, Object value) {
+        int size = shape.size();
+        assert newShape.size() == size + 1;
+        if (shared || size == values.length) {
             values = Arrays.copyOf(values, (size + 1) * 2);
-            assert names.length == values.length;
+            shared = false;
+        }
+        values[size] = value;
+        shape = newShape;
+        if (statsProfile.profile(stats != null)) {
+            stats.update(this);
         }
     }
 
@@ -147,51 +272,68 @@ public final class RAttributes implements Iterable<RAttributes.RAttribute> {
         return true;
     }
 
-    private static final String[] EMPTY_STRING_ARRAY = new String[0];
     private static final Object[] EMPTY_OBJECT_ARRAY = new Object[0];
 
-    private String[] names = EMPTY_STRING_ARRAY;
+    private Shape shape = Shape.EMPTY;
     private Object[] values = EMPTY_OBJECT_ARRAY;
-    private int size;
+    /**
+     * Whether {@link #values} may be referenced by another attribute set, in which case it has to
+     * be copied before it is modified.
+     */
+    private boolean shared;
 
     public int size() {
-        return size;
+        return shape.size();
     }
 
     public String getNameAtIndex(int i) {
-        return names[i];
+        return shape.getNameAtIndex(i);
     }
 
     public Object getValueAtIndex(int i) {
         return values[i];
     }
 
-    public void setNameAtIndex(int i, String v) {
-        names[i] = v;
-    }
-
     public void setValueAtIndex(int i, Object v) {
         // TODO: this assertion should hold in general
         // assert v == null || !(v instanceof RShareable) || !((RShareable) v).isTemporary();
+        if (shared) {
+            values = values.clone();
+            shared = false;
+        }
         values[i] = v;
     }
 
     public boolean isEmpty() {
-        return size == 0;
+        return shape.size() == 0;
     }
 
     public void remove(String name) {
         assert isInterned(name);
         int pos = find(name);
         if (pos != -1) {
-            size--;
-            for (int i = pos; i < size; i++) {
-                names[i] = names[i + 1];
-                values[i] = values[i + 1];
-            }
-            names[size] = null;
-            values[size] = null;
+            removeAt(pos, shape.remove(pos));
+        }
+    }
+
+    /**
+     * Removes the attribute at {@code index}, {@code newShape} must be the result of removing it
+     * from the current shape.
+     */
+    public void removeAt(int index, Shape newShape) {
+        int newSize = newShape.size();
+        assert newSize == shape.size() - 1;
+        if (shared) {
+            Object[] newValues = new Object[values.length];
+            System.arraycopy(values, 0, newValues, 0, index);
+            System.arraycopy(values, index + 1, newValues, index, newSize - index);
+            values = newValues;
+            shared = false;
+        } else {
+            System.arraycopy(values, index + 1, values, index, newSize - index);
+            values[newSize] = null;
         }
+        shape = newShape;
     }
 
     public Object get(String name) {
@@ -201,13 +343,21 @@ public final class RAttributes implements Iterable<RAttributes.RAttribute> {
     }
 
     public void clear() {
-        names = EMPTY_STRING_ARRAY;
+        shape = Shape.EMPTY;
         values = EMPTY_OBJECT_ARRAY;
-        size = 0;
+        shared = false;
     }
 
+    /**
+     * Creates a copy that shares the shape and the values array with this attribute set, the array
+     * is copied by whichever of them is modified first.
+     */
     public RAttributes copy() {
-        return new RAttributes(this);
+        if (shape.size() == 0) {
+            return new RAttributes(Shape.EMPTY, EMPTY_OBJECT_ARRAY, false);
+        }
+        shared = true;
+        return new RAttributes(shape, values, true);
     }
 
     /**
@@ -223,11 +373,11 @@ public final class RAttributes implements Iterable<RAttributes.RAttribute> {
     public String toString() {
         CompilerAsserts.neverPartOfCompilation();
         StringBuffer sb = new StringBuffer().append('{');
-        for (int i = 0; i < size; i++) {
+        for (int i = 0; i < shape.size(); i++) {
             if (i != 0) {
                 sb.append(", ");
             }
-            sb.append(names[i]).append('=').append(values[i]);
+            sb.append(shape.getNameAtIndex(i)).append('=').append(values[i]);
         }
         sb.append('}');
         return sb.toString();
@@ -242,12 +392,12 @@ public final class RAttributes implements Iterable<RAttributes.RAttribute> {
 
         @Override
         public boolean hasNext() {
-            return index < size;
+            return index < shape.size();
         }
 
         @Override
         public RAttribute next() {
-            return new AttrInstance(names[index], values[index++]);
+            return new AttrInstance(shape.getNameAtIndex(index), values[index++]);
         }
     }
 
@@ -270,6 +420,7 @@ public final class RAttributes implements Iterable<RAttributes.RAttribute> {
      */
     private static class PerfHandler implements RPerfStats.Handler {
         private static final RPerfStats.Histogram hist = new RPerfStats.Histogram(5);
+        private int shapes;
 
         @TruffleBoundary
         void init() {
@@ -286,6 +437,11 @@ public final class RAttributes implements Iterable<RAttributes.RAttribute> {
             hist.inc(effectiveSizeNow);
         }
 
+        @TruffleBoundary
+        synchronized void shapeCreated() {
+            shapes++;
+        }
+
         @Override
         public void initialize(String optionText) {
             stats = this;
@@ -299,12 +455,8 @@ public final class RAttributes implements Iterable<RAttributes.RAttribute> {
 
         @Override
         public void report() {
-            RPerfStats.out().printf("RAttributes: %d, max size %d%n", hist.getTotalCount(), hist.getMaxSize());
+            RPerfStats.out().printf("RAttributes: %d, max size %d, shapes %d%n", hist.getTotalCount(), hist.getMaxSize(), shapes);
             hist.report();
         }
     }
-
-    public void setSize(int size) {
-        this.size = size;
-    }
 }
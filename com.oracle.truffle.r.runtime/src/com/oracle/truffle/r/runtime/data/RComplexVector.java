@@ -222,6 +222,15 @@ public final class RComplexVector extends RVector implements RAbstractComplexVec
         data[toIndex2 + 1] = value.getImaginaryPart();
     }
 
+    @Override
+    public void transferElementsSameType(int toIndex, RAbstractVector fromVector, int fromIndex, int length) {
+        if (fromVector instanceof RComplexVector) {
+            System.arraycopy(((RComplexVector) fromVector).data, fromIndex << 1, data, toIndex << 1, length << 1);
+        } else {
+            super.transferElementsSameType(toIndex, fromVector, fromIndex, length);
+        }
+    }
+
     @Override
     public RStringVector getImplicitClass() {
         return getClassHierarchyHelper(implicitClassHeader);
@@ -232,6 +232,15 @@ public final class RDoubleVector extends RVector implements RAbstractDoubleVecto
         data[toIndex] = other.getDataAt(fromIndex);
     }
 
+    @Override
+    public void transferElementsSameType(int toIndex, RAbstractVector fromVector, int fromIndex, int length) {
+        if (fromVector instanceof RDoubleVector) {
+            System.arraycopy(((RDoubleVector) fromVector).data, fromIndex, data, toIndex, length);
+        } else {
+            super.transferElementsSameType(toIndex, fromVector, fromIndex, length);
+        }
+    }
+
     @Override
     public Object getDataAtAsObject(int index) {
         return getDataAt(index);
@@ -229,6 +229,15 @@ public final class RIntVector extends RVector implements RAbstractIntVector {
         data[toIndex] = other.getDataAt(fromIndex);
     }
 
+    @Override
+    public void transferElementsSameType(int toIndex, RAbstractVector fromVector, int fromIndex, int length) {
+        if (fromVector instanceof RIntVector) {
+            System.arraycopy(((RIntVector) fromVector).data, fromIndex, data, toIndex, length);
+        } else {
+            super.transferElementsSameType(toIndex, fromVector, fromIndex, length);
+        }
+    }
+
     @Override
     public Object getDataAtAsObject(int index) {
         return getDataAt(index);
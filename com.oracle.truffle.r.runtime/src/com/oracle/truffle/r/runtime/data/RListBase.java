@@ -137,6 +137,15 @@ public abstract class RListBase extends RVector implements RAbstractListVector {
         data[toIndex] = other.getDataAtAsObject(fromIndex);
     }
 
+    @Override
+    public final void transferElementsSameType(int toIndex, RAbstractVector fromVector, int fromIndex, int length) {
+        if (fromVector instanceof RListBase) {
+            System.arraycopy(((RListBase) fromVector).data, fromIndex, data, toIndex, length);
+        } else {
+            super.transferElementsSameType(toIndex, fromVector, fromIndex, length);
+        }
+    }
+
     @Override
     public final Class<?> getElementClass() {
         return Object.class;
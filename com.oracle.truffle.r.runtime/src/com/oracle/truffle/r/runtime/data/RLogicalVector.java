@@ -185,6 +185,15 @@ public final class RLogicalVector extends RVector implements RAbstractLogicalVec
         data[toIndex] = other.getDataAt(fromIndex);
     }
 
+    @Override
+    public void transferElementsSameType(int toIndex, RAbstractVector fromVector, int fromIndex, int length) {
+        if (fromVector instanceof RLogicalVector) {
+            System.arraycopy(((RLogicalVector) fromVector).data, fromIndex, data, toIndex, length);
+        } else {
+            super.transferElementsSameType(toIndex, fromVector, fromIndex, length);
+        }
+    }
+
     public byte[] getDataCopy() {
         return Arrays.copyOf(data, data.length);
     }
@@ -203,6 +203,15 @@ public final class RRawVector extends RVector implements RAbstractRawVector {
         data[toIndex] = other.getRawDataAt(fromIndex);
     }
 
+    @Override
+    public void transferElementsSameType(int toIndex, RAbstractVector fromVector, int fromIndex, int length) {
+        if (fromVector instanceof RRawVector) {
+            System.arraycopy(((RRawVector) fromVector).data, fromIndex, data, toIndex, length);
+        } else {
+            super.transferElementsSameType(toIndex, fromVector, fromIndex, length);
+        }
+    }
+
     @Override
     public Object getDataAtAsObject(int index) {
         return getDataAt(index);
@@ -0,0 +1,143 @@
+/*
+ * Copyright (c) 2016, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.truffle.r.runtime.data;
+
+import java.lang.ref.WeakReference;
+import java.util.WeakHashMap;
+
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+import com.oracle.truffle.r.runtime.FastROptions;
+import com.oracle.truffle.r.runtime.RPerfStats;
+import com.oracle.truffle.r.runtime.RRuntime;
+
+/**
+ * A process-wide pool of the strings stored in character vectors, the analogue of GNU R's
+ * {@code CHARSXP} cache. The readers of string data (connections, {@code unserialize},
+ * {@code scan}, {@code type.convert}) pass their results through {@link #intern(String)}, so that
+ * equal values share one {@link String} instance. Besides saving memory for columns with many
+ * repeated values, this makes {@link String#equals} succeed on the identity check and lets
+ * {@link String#hashCode} be computed once per distinct value. Strings computed by builtins like
+ * {@code paste} are not pooled, the lookup would cost more than it saves for mostly unique results.
+ *
+ * The pool only holds its entries weakly, so strings that are no longer referenced from any vector
+ * are collected as usual. It is shared by all contexts and split into independently locked
+ * segments. {@link RRuntime#STRING_NA} is compared by identity and is therefore never pooled.
+ *
+ * Enabled by the {@link FastROptions#InternStrings} option; statistics are reported by
+ * {@code -DR:PerfStats=stringpool}.
+ */
+public final class RStringPool {
+
+    private static final int SEGMENTS = 64;
+
+    private static final class Segment {
+        private final WeakHashMap<String, WeakReference<String>> map = new WeakHashMap<>();
+        private long lookups;
+        private long hits;
+        private long savedChars;
+    }
+
+    private static final Segment[] segments = new Segment[SEGMENTS];
+
+    static {
+        for (int i = 0; i < SEGMENTS; i++) {
+            segments[i] = new Segment();
+        }
+    }
+
+    private RStringPool() {
+        // no instances
+    }
+
+    /**
+     * Returns the pooled instance equal to {@code s}, adding {@code s} to the pool if there is
+     * none.
+     */
+    @TruffleBoundary
+    public static String intern(String s) {
+        if (s == null || s == RRuntime.STRING_NA || !FastROptions.InternStrings.getBooleanValue()) {
+            return s;
+        }
+        int hash = s.hashCode();
+        Segment segment = segments[(hash ^ (hash >>> 16)) & (SEGMENTS - 1)];
+        synchronized (segment) {
+            segment.lookups++;
+            WeakReference<String> ref = segment.map.get(s);
+            String pooled = ref == null ? null : ref.get();
+            if (pooled != null) {
+                segment.hits++;
+                segment.savedChars += s.length();
+                return pooled;
+            }
+            segment.map.put(s, new WeakReference<>(s));
+            return s;
+        }
+    }
+
+    /**
+     * Replaces the elements of {@code data} by their pooled instances, in place.
+     */
+    @TruffleBoundary
+    public static String[] internAll(String[] data) {
+        if (FastROptions.InternStrings.getBooleanValue()) {
+            for (int i = 0; i < data.length; i++) {
+                data[i] = intern(data[i]);
+            }
+        }
+        return data;
+    }
+
+    static {
+        RPerfStats.register(new PerfHandler());
+    }
+
+    private static final class PerfHandler implements RPerfStats.Handler {
+
+        @Override
+        public void initialize(String optionData) {
+        }
+
+        @Override
+        public String getName() {
+            return "stringpool";
+        }
+
+        @Override
+        public void report() {
+            long lookups = 0;
+            long hits = 0;
+            long savedChars = 0;
+            long entries = 0;
+            for (Segment segment : segments) {
+                synchronized (segment) {
+                    lookups += segment.lookups;
+                    hits += segment.hits;
+                    savedChars += segment.savedChars;
+                    entries += segment.map.size();
+                }
+            }
+            RPerfStats.out().printf("STRING POOL: %d lookups, %d hits (%.1f%% hit rate), %d live entries, %d duplicate chars shared%n", lookups, hits, lookups == 0 ? 0.0 : 100.0 * hits / lookups,
+                            entries, savedChars);
+        }
+    }
+}
@@ -210,6 +210,15 @@ public final class RStringVector extends RVector implements RAbstractStringVecto
         data[toIndex] = other.getDataAt(fromIndex);
     }
 
+    @Override
+    public void transferElementsSameType(int toIndex, RAbstractVector fromVector, int fromIndex, int length) {
+        if (fromVector instanceof RStringVector) {
+            System.arraycopy(((RStringVector) fromVector).data, fromIndex, data, toIndex, length);
+        } else {
+            super.transferElementsSameType(toIndex, fromVector, fromIndex, length);
+        }
+    }
+
     @Override
     public RStringVector copyWithNewDimensions(int[] newDimensions) {
         return RDataFactory.createStringVector(data, isComplete(), newDimensions);
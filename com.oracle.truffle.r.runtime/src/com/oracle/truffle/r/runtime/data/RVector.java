@@ -79,21 +79,21 @@ public abstract class RVector extends RSharingAttributeStorage implements RShare
             // since this constructor is for internal use only, the assertion shouldn't fail
             assert names.getLength() == length : "size mismatch: " + names.getLength() + " vs. " + length;
             if (dimensions == null) {
-                initAttributes(RAttributes.createInitialized(new String[]{RRuntime.NAMES_ATTR_KEY}, new Object[]{names}));
+                initAttributes(RAttributes.createInitialized(RAttributes.Shape.NAMES, new Object[]{names}));
             } else {
                 RIntVector dimensionsVector = RDataFactory.createIntVector(dimensions, true);
                 if (dimensions.length != 1) {
-                    initAttributes(RAttributes.createInitialized(new String[]{RRuntime.NAMES_ATTR_KEY, RRuntime.DIM_ATTR_KEY}, new Object[]{names, dimensionsVector}));
+                    initAttributes(RAttributes.createInitialized(RAttributes.Shape.NAMES_DIM, new Object[]{names, dimensionsVector}));
                 } else {
                     // one-dimensional arrays do not have names, only dimnames with one value
                     RList newDimNames = RDataFactory.createList(new Object[]{names});
-                    initAttributes(RAttributes.createInitialized(new String[]{RRuntime.DIM_ATTR_KEY, RRuntime.DIMNAMES_ATTR_KEY}, new Object[]{dimensionsVector, newDimNames}));
+                    initAttributes(RAttributes.createInitialized(RAttributes.Shape.DIM_DIMNAMES, new Object[]{dimensionsVector, newDimNames}));
                     this.dimNames = newDimNames;
                 }
             }
         } else {
             if (dimensions != null) {
-                initAttributes(RAttributes.createInitialized(new String[]{RRuntime.DIM_ATTR_KEY}, new Object[]{RDataFactory.createIntVector(dimensions, true)}));
+                initAttributes(RAttributes.createInitialized(RAttributes.Shape.DIM, new Object[]{RDataFactory.createIntVector(dimensions, true)}));
             }
         }
     }
@@ -605,6 +605,17 @@ public abstract class RVector extends RSharingAttributeStorage implements RShare
 
     public abstract void transferElementSameType(int toIndex, RAbstractVector fromVector, int fromIndex);
 
+    /**
+     * Bulk variant of {@link #transferElementSameType}: copies {@code length} elements starting at
+     * {@code fromIndex} into this vector starting at {@code toIndex}. Subclasses copy directly
+     * between the backing arrays when {@code fromVector} is materialized and of the same class.
+     */
+    public void transferElementsSameType(int toIndex, RAbstractVector fromVector, int fromIndex, int length) {
+        for (int i = 0; i < length; i++) {
+            transferElementSameType(toIndex + i, fromVector, fromIndex + i);
+        }
+    }
+
     public final RAttributable copyAttributesFrom(RAttributeProfiles attrProfiles, RAbstractContainer vector) {
         // it's meant to be used on a "fresh" vector with only dimensions potentially set
         assert (this.names == null);
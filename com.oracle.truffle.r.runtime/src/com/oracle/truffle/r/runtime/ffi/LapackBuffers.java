@@ -0,0 +1,156 @@
+/*
+ * Copyright (c) 2016, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.truffle.r.runtime.ffi;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+
+/**
+ * Off-heap buffers for the arguments of {@link LapackRFFI} calls. A direct buffer is passed to the
+ * native code as is, whereas a Java array is copied into native memory and back on every call, so
+ * a matrix copied into a direct buffer crosses the Java/native boundary exactly once in each
+ * direction, however many Lapack routines work on it.
+ *
+ * The buffers handed out by {@link #matrix(int, int)} and {@link #workspace(int)} are owned by the
+ * current thread and are reused by the next call, so their content must be copied out before
+ * returning to R code. In addition, the optimal workspace sizes reported by the Lapack workspace
+ * queries ({@code lwork = -1}) are cached per routine and argument shape.
+ */
+public final class LapackBuffers {
+
+    /**
+     * The number of matrix buffers per thread, i.e., the maximal number of matrices one builtin
+     * can have off-heap at the same time.
+     */
+    public static final int MATRIX_SLOTS = 2;
+
+    /**
+     * Buffers up to this length (in doubles) are retained for reuse by the thread, larger ones are
+     * allocated for each call.
+     */
+    private static final int MAX_RETAINED_LENGTH = 1 << 24;
+
+    /**
+     * Direct buffers can hold at most {@link Integer#MAX_VALUE} bytes, beyond that a heap buffer is
+     * used.
+     */
+    private static final int MAX_DIRECT_LENGTH = Integer.MAX_VALUE / Double.BYTES;
+
+    private static final int MAX_WORKSPACE_SIZES = 256;
+
+    private static final ThreadLocal<DoubleBuffer[]> buffers = ThreadLocal.withInitial(() -> new DoubleBuffer[MATRIX_SLOTS + 1]);
+
+    private static final LinkedHashMap<String, Integer> workspaceSizes = new LinkedHashMap<String, Integer>(16, 0.75f, true) {
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Integer> eldest) {
+            return size() > MAX_WORKSPACE_SIZES;
+        }
+    };
+
+    private LapackBuffers() {
+        // no instances
+    }
+
+    private static DoubleBuffer get(int slot, int length) {
+        DoubleBuffer[] threadBuffers = buffers.get();
+        DoubleBuffer buffer = threadBuffers[slot];
+        if (buffer == null || buffer.capacity() < length) {
+            if (length > MAX_DIRECT_LENGTH) {
+                buffer = DoubleBuffer.allocate(length);
+            } else {
+                buffer = ByteBuffer.allocateDirect(length * Double.BYTES).order(ByteOrder.nativeOrder()).asDoubleBuffer();
+            }
+            threadBuffers[slot] = length <= MAX_RETAINED_LENGTH ? buffer : null;
+        }
+        buffer.clear();
+        return buffer;
+    }
+
+    /**
+     * Returns the matrix buffer {@code slot} of the current thread with room for at least
+     * {@code length} elements. The content is undefined.
+     */
+    @TruffleBoundary
+    public static DoubleBuffer matrix(int slot, int length) {
+        assert slot >= 0 && slot < MATRIX_SLOTS;
+        return get(slot, length);
+    }
+
+    /**
+     * Returns the matrix buffer {@code slot} of the current thread holding the first
+     * {@code length} elements of {@code data}.
+     */
+    @TruffleBoundary
+    public static DoubleBuffer matrix(int slot, double[] data, int length) {
+        DoubleBuffer buffer = matrix(slot, length);
+        buffer.put(data, 0, length);
+        buffer.clear();
+        return buffer;
+    }
+
+    /**
+     * Returns the workspace buffer of the current thread with room for at least {@code length}
+     * elements. The content is undefined.
+     */
+    @TruffleBoundary
+    public static DoubleBuffer workspace(int length) {
+        return get(MATRIX_SLOTS, Math.max(1, length));
+    }
+
+    /**
+     * Copies the first {@code length} elements of {@code buffer} into a new array.
+     */
+    @TruffleBoundary
+    public static double[] toArray(DoubleBuffer buffer, int length) {
+        double[] result = new double[length];
+        buffer.get(result, 0, length);
+        buffer.clear();
+        return result;
+    }
+
+    /**
+     * Returns the optimal workspace size cached for {@code key}, which identifies the routine and
+     * the shape of its arguments, or {@code -1} if it is not known yet.
+     */
+    @TruffleBoundary
+    public static int getWorkspaceSize(String key) {
+        synchronized (workspaceSizes) {
+            Integer size = workspaceSizes.get(key);
+            return size == null ? -1 : size;
+        }
+    }
+
+    @TruffleBoundary
+    public static void putWorkspaceSize(String key, int size) {
+        synchronized (workspaceSizes) {
+            workspaceSizes.put(key, size);
+        }
+    }
+}
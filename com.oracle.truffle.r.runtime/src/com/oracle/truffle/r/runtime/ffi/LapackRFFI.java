@@ -22,10 +22,16 @@
  */
 package com.oracle.truffle.r.runtime.ffi;
 
+import java.nio.DoubleBuffer;
+
 /**
  * Collection of statically typed Lapack methods that are used in the {@code base} package. The
  * signatures match the Fortran definition with the exception that the "info" value is returned as
  * the result of the call.
+ *
+ * The matrices, vectors and workspaces are passed as {@link DoubleBuffer}s, which should be direct
+ * buffers (see {@link LapackBuffers}) for anything but small arrays, as heap buffers are copied
+ * into native memory and back on every call.
  */
 public interface LapackRFFI {
     /**
@@ -36,50 +42,50 @@ public interface LapackRFFI {
     /**
      * See <a href="http://www.netlib.org/lapack/explore-html/d9/d28/dgeev_8f.html">spec</a>.
      */
-    int dgeev(char jobVL, char jobVR, int n, double[] a, int lda, double[] wr, double[] wi, double[] vl, int ldvl, double[] vr, int ldvr, double[] work, int lwork);
+    int dgeev(char jobVL, char jobVR, int n, DoubleBuffer a, int lda, DoubleBuffer wr, DoubleBuffer wi, DoubleBuffer vl, int ldvl, DoubleBuffer vr, int ldvr, DoubleBuffer work, int lwork);
 
     /**
      * See <a href="http://www.netlib.org/lapack/explore-html/db/de5/dgeqp3_8f.html">spec</a>.
      */
-    int dgeqp3(int m, int n, double[] a, int lda, int[] jpvt, double[] tau, double[] work, int lwork);
+    int dgeqp3(int m, int n, DoubleBuffer a, int lda, int[] jpvt, DoubleBuffer tau, DoubleBuffer work, int lwork);
 
     /**
      * See <a href="http://www.netlib.org/lapack/explore-html/da/d82/dormqr_8f.html">spec</a>.
      */
-    int dormqr(char side, char trans, int m, int n, int k, double[] a, int lda, double[] tau, double[] c, int ldc, double[] work, int lwork);
+    int dormqr(char side, char trans, int m, int n, int k, DoubleBuffer a, int lda, DoubleBuffer tau, DoubleBuffer c, int ldc, DoubleBuffer work, int lwork);
 
     /**
      * See <a href="http://www.netlib.org/lapack/explore-html/d6/d6f/dtrtrs_8f.html">spec</a>.
      */
-    int dtrtrs(char uplo, char trans, char diag, int n, int nrhs, double[] a, int lda, double[] b, int ldb);
+    int dtrtrs(char uplo, char trans, char diag, int n, int nrhs, DoubleBuffer a, int lda, DoubleBuffer b, int ldb);
 
     /**
      * See <a href="http://www.netlib.org/lapack/explore-html/d3/d6a/dgetrf_8f.html">spec</a>.
      */
-    int dgetrf(int m, int n, double[] a, int lda, int[] ipiv);
+    int dgetrf(int m, int n, DoubleBuffer a, int lda, int[] ipiv);
 
     /**
      * See <a href="http://www.netlib.org/lapack/explore-html/d0/d8a/dpotrf_8f.html">spec</a>.
      */
-    int dpotrf(char uplo, int n, double[] a, int lda);
+    int dpotrf(char uplo, int n, DoubleBuffer a, int lda);
 
     /**
      * See <a href="http://www.netlib.org/lapack/explore-html/dd/dad/dpstrf_8f.html">spec</a>.
      */
-    int dpstrf(char uplo, int n, double[] a, int lda, int[] piv, int[] rank, double tol, double[] work);
+    int dpstrf(char uplo, int n, DoubleBuffer a, int lda, int[] piv, int[] rank, double tol, DoubleBuffer work);
 
     /**
      * See <a href="http://www.netlib.org/lapack/explore-html/d8/d72/dgesv_8f.html">spec</a>.
      */
-    int dgesv(int n, int nrhs, double[] a, int lda, int[] ipiv, double[] b, int ldb);
+    int dgesv(int n, int nrhs, DoubleBuffer a, int lda, int[] ipiv, DoubleBuffer b, int ldb);
 
     /**
      * See <a href="http://www.netlib.org/lapack/explore-html/dc/d09/dlange_8f.html">spec</a>.
      */
-    double dlange(char norm, int m, int n, double[] a, int lda, double[] work);
+    double dlange(char norm, int m, int n, DoubleBuffer a, int lda, DoubleBuffer work);
 
     /**
      * See <a href="http://www.netlib.org/lapack/explore-html/db/de4/dgecon_8f.html">spec</a>.
      */
-    int dgecon(char norm, int n, double[] a, int lda, double anorm, double[] rcond, double[] work, int[] iwork);
+    int dgecon(char norm, int n, DoubleBuffer a, int lda, double anorm, DoubleBuffer rcond, DoubleBuffer work, int[] iwork);
 }
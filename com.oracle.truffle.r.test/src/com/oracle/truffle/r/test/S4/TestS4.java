@@ -112,6 +112,14 @@ public class TestS4 extends TestRBase {
 
     }
 
+    @Test
+    public void testMethodsDispatchCache() {
+        assertEval("{ setGeneric(\"gen\", function(o) standardGeneric(\"gen\")); for (i in 1:12) { cl <- paste0(\"c\", i); setClass(cl, representation(d=\"numeric\")); setMethod(\"gen\", cl, eval(substitute(function(o) o@d * i, list(i=i)))) }; " +
+                        "objs <- lapply(1:12, function(i) new(paste0(\"c\", i), d=1)); s <- 0; for (k in 1:200) for (o in objs) s <- s + gen(o); removeGeneric(\"gen\"); s }");
+        assertEval("{ setClass(\"foo\", representation(d=\"numeric\")); setGeneric(\"gen\", function(o) standardGeneric(\"gen\")); setMethod(\"gen\", \"foo\", function(o) 1); x <- new(\"foo\", d=1); s <- 0; for (i in 1:100) s <- s + gen(x); " +
+                        "setMethod(\"gen\", \"foo\", function(o) 2); for (i in 1:100) s <- s + gen(x); removeGeneric(\"gen\"); s }");
+    }
+
     @Override
     public String getTestDir() {
         return "S4";
@@ -0,0 +1,30 @@
+/*
+ * This material is distributed under the GNU General Public License
+ * Version 2. You may review the terms of this license at
+ * http://www.gnu.org/licenses/gpl-2.0.html
+ *
+ * Copyright (c) 2016, Oracle and/or its affiliates
+ *
+ * All rights reserved.
+ */
+package com.oracle.truffle.r.test.builtins;
+
+import org.junit.Test;
+
+import com.oracle.truffle.r.test.TestBase;
+
+// Checkstyle: stop line length check
+public class TestBuiltin_apply extends TestBase {
+
+    @Test
+    public void testApplyReductions() {
+        assertEval("{ m <- matrix(c(1.5, 2, NA, 4, 5, 6), 2, dimnames=list(c('a', 'b'), NULL)); list(apply(m, 1, sum), apply(m, 2, sum), apply(m, 1, sum, na.rm=TRUE)) }");
+        assertEval("{ m <- matrix(1:6, 2); list(apply(m, 1, sum), apply(m, 2, mean), apply(m, 1, max), apply(m, 2, min)) }");
+        assertEval("{ m <- matrix(c(1L, NA, 3L, 4L), 2); list(apply(m, 1, max), apply(m, 1, max, na.rm=TRUE), apply(m, 2, mean, na.rm=TRUE)) }");
+        assertEval("{ m <- matrix(c(TRUE, FALSE, NA, TRUE), 2); list(apply(m, 1, sum), apply(m, 2, max, na.rm=TRUE)) }");
+        assertEval("{ m <- matrix(c(NaN, NA, 1, 2), 2, dimnames=list(NULL, c('x', 'y'))); list(apply(m, 2, sum), apply(m, 2, mean, na.rm=TRUE), apply(m, 1, min)) }");
+        assertEval("{ m <- matrix(1:6, 2); apply(m, c(1, 2), sum) }");
+        assertEval("{ m <- matrix(1:6, 2); apply(m, 1, function(x) sum(x) * 2) }");
+        assertEval("{ m <- matrix(as.numeric(1:6), 2); apply(m, 2, sum, 10) }");
+    }
+}
@@ -237,4 +237,11 @@ public class TestBuiltin_attr extends TestBase {
     public void testattr45() {
         assertEval("argv <- list(c(35.2589338684655, 59.5005803666983, 12.4529321610302, 2.53579570262684, 10.370198579714, 42.0067149618146, 8.14319638132861, 34.0508943233725, 7.78517191057496, 26.9998965458032, 6.70435391953205, 3.62502215105156, 2.59277105754344, 14.4998960151485, 6.70435391953205, 5.8000097831969, 32.741875696675, 59.5015090627504, 13.5512565366133, 4.46460764999704, 9.62989278443572, 42.0073706103832, 8.86141045052292, 59.9511558158597, 7.22940551532861, 27.0003179651772, 7.29566488446303, 6.38233656214029, 2.40767880256155, 14.5001223322046, 7.29566488446303, 10.2116933242272), 'dim');attr(argv[[1]],argv[[2]]);");
     }
+
+    @Test
+    public void testattrShared() {
+        assertEval("{ x <- 1:3; attr(x, 'a') <- 1; attr(x, 'b') <- 2; y <- x; attr(y, 'a') <- 10; attr(y, 'c') <- 3; list(attributes(x), attributes(y)) }");
+        assertEval("{ x <- 1:3; attr(x, 'a') <- 1; attr(x, 'b') <- 2; attr(x, 'c') <- 3; y <- x; attr(y, 'b') <- NULL; attr(x, 'd') <- 4; list(attributes(x), attributes(y)) }");
+        assertEval("{ f <- function(o, n) attr(o, n); x <- structure(1, a = 1, b = 2); y <- structure(2, b = 3, a = 4); z <- structure(3, c = 5); list(f(x, 'a'), f(y, 'a'), f(z, 'a'), f(x, 'b'), f(y, 'b'), f(z, 'c')) }");
+    }
 }
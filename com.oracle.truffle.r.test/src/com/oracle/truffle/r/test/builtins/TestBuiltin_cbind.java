@@ -87,5 +87,6 @@ public class TestBuiltin_cbind extends TestBase {
         // Note: CachedExtractVectorNode replaces vector 'a', 'b', with a scalar 'b', which caused
         // cbind to fail
         assertEval("x <- matrix(1:20, 10, 2); dimnames(x) <- list(1:10, c('a','b')); cbind(1, x[,-1,drop=FALSE]);");
+        assertEval("{ do.call(cbind, lapply(1:5, function(i) c(i, i * 10, NA))) }");
     }
 }
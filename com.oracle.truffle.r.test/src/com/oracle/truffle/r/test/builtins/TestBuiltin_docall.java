@@ -30,4 +30,12 @@ public class TestBuiltin_docall extends TestBase {
         assertEval("v1 <- as.numeric_version('3.0.0'); v2 <- as.numeric_version('3.1.0'); do.call('<', list(v1, v2))");
         assertEval("v1 <- as.numeric_version('3.0.0'); v2 <- as.numeric_version('3.1.0'); do.call('<', list(quote(v1), quote(v2)))");
     }
+
+    @Test
+    public void testDoCallMegamorphic() {
+        assertEval("{ fs <- lapply(1:10, function(i) eval(substitute(function(alpha, beta=I, ...) alpha * 100 + beta + length(list(...)), list(I=i)))); " +
+                        "unlist(lapply(1:30, function(j) { f <- fs[[(j %% 10) + 1]]; switch(j %% 3 + 1, do.call(f, list(j)), do.call(f, list(be=1, j)), do.call(f, list(j, 2, 3, 4))) })) }");
+        assertEval("{ fs <- list(function(a, b) a - b, function(b, a) a - b, function(x, ...) x, function(aa, ab) aa); sapply(1:8, function(i) do.call(fs[[(i %% 4) + 1]], list(b=1, a=10))) }");
+        assertEval(Output.IgnoreErrorContext, "{ fs <- list(function(a) a, function(b) b, function(c) c, function(d) d, function(e) e); for (i in 1:2) for (f in fs) print(tryCatch(do.call(f, list(1, 2)), error=function(e) 'error')) }");
+    }
 }
@@ -58,4 +58,12 @@ public class TestBuiltin_dput extends TestBase {
     public void testdput8() {
         assertEval("argv <- list(c(0.00508571428571428, 0.876285714285715), structure(1L, class = c('terminal', 'connection')), 69); .Internal(dput(argv[[1]], argv[[2]], argv[[3]]))");
     }
+
+    @Test
+    public void testDputLarge() {
+        assertEval("{ dput(c(1.5, 2, NA, 4)) }");
+        assertEval("{ dput(seq(0.5, 100, by=0.5)) }");
+        assertEval("{ x <- as.character(1:3000); f <- tempfile(); dput(x, f); y <- dget(f); unlink(f); identical(x, y) }");
+        assertEval("{ x <- list(a=seq(0.25, 500, by=0.25), b=letters); f <- tempfile(); dput(x, f); y <- dget(f); unlink(f); identical(x, y) }");
+    }
 }
@@ -61,4 +61,11 @@ public class TestBuiltin_formatPOSIXlt extends TestBase {
     public void testformatPOSIXlt9() {
         assertEval("argv <- list(structure(list(sec = numeric(0), min = integer(0), hour = integer(0), mday = integer(0), mon = integer(0), year = integer(0), wday = integer(0), yday = integer(0), isdst = integer(0)), .Names = c('sec', 'min', 'hour', 'mday', 'mon', 'year', 'wday', 'yday', 'isdst'), class = c('POSIXlt', 'POSIXt'), tzone = 'UTC'), '%Y-%m-%d', TRUE); .Internal(format.POSIXlt(argv[[1]], argv[[2]], argv[[3]]))");
     }
+
+    @Test
+    public void testformatPOSIXltIso() {
+        assertEval("{ x <- as.POSIXlt(c(0, 86399, 951782400, 1e9, NA), tz = 'UTC'); format(x, '%Y-%m-%d %H:%M:%S') }");
+        assertEval("{ x <- as.POSIXlt(c(0, 86399, 951782400, 1e9, NA), tz = 'UTC'); format(x, '%Y/%m/%d') }");
+        assertEval("{ x <- seq(-1e9, 2e9, length.out = 100001); s <- format(as.POSIXlt(x, tz = 'UTC'), '%Y-%m-%d %H:%M:%S'); y <- as.POSIXct(strptime(s, '%Y-%m-%d %H:%M:%S', tz = 'UTC'), tz = 'UTC'); identical(as.numeric(y), floor(x)) }");
+    }
 }
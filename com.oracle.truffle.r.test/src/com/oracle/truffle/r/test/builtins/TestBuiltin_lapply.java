@@ -38,6 +38,9 @@ public class TestBuiltin_lapply extends TestBase {
         assertEval("{ ind <- list(c(1, 2, 2), c(\"A\", \"A\", \"B\")) ; tapply(1:3, ind) }");
         assertEval("{ n <- 17 ; fac <- factor(rep(1:3, length = n), levels = 1:5) ; tapply(1:n, fac, sum) }");
         assertEval("{ ind <- list(c(1, 2, 2), c(\"A\", \"A\", \"B\")) ; tapply(1:3, ind, sum) }");
+        assertEval("{ x <- c(1.5, NA, 3, 4, NaN, 6) ; g <- c(\"a\", \"b\", \"a\", \"b\", \"c\", \"c\") ; list(tapply(x, g, sum), tapply(x, g, mean), tapply(x, g, min), tapply(x, g, max, na.rm = TRUE)) }");
+        assertEval("{ fac <- factor(c(2, 1, 2, 1), levels = 1:3) ; list(tapply(c(3L, 1L, NA, 2L), fac, sum), tapply(c(3L, 1L, NA, 2L), fac, sum, na.rm = TRUE), tapply(c(TRUE, FALSE, TRUE, TRUE), fac, length)) }");
+        assertEval("{ tapply(c(NA, NA, 1), c(1, 1, 2), min, na.rm = TRUE) }");
     }
 
     @Test
@@ -37,4 +37,19 @@ public class TestBuiltin_merge extends TestBase {
         assertEval("argv <- structure(list(x = structure(list(gender = structure(c(1L,     1L, 2L), .Label = c('F', 'M'), class = 'factor'), age = c(20,     30, 40), filename = structure(1:3, .Label = c('q1.csv', 'q2.csv',     'q3.csv'), class = 'factor')), .Names = c('gender', 'age',     'filename'), row.names = c(NA, -3L), class = 'data.frame'),     y = structure(list(effsize = c(3.5, 2, 1.7), constraint = c(0.40625,         0.5, 0.882), outdegree = c(4, 2, 2), indegree = c(4,         2, 3), efficiency = c(0.625, 0.5, 0.444444444444444),         hierarchy = c(0, 0, 0.333333333333333), centralization = c(0.833333333333333,             1, 0.333333333333333), gden = c(0.5, 0.666666666666667,             0.666666666666667), ego.gden = c(0.166666666666667,             0, 0.5), filename = structure(1:3, .Label = c('q1.csv',             'q2.csv', 'q3.csv'), class = 'factor')), .Names = c('effsize',         'constraint', 'outdegree', 'indegree', 'efficiency',         'hierarchy', 'centralization', 'gden', 'ego.gden', 'filename'),         row.names = c('q1.csv', 'q2.csv', 'q3.csv'), class = 'data.frame'),     by = 'filename'), .Names = c('x', 'y', 'by'));" +
                         "do.call('merge', argv)");
     }
+
+    @Test
+    public void testmergeJoin() {
+        assertEval("{ .Internal(merge(c(2L, 0L, 1L, 2L, 3L, 0L), c(1L, 2L, 2L, 0L, 3L, 3L), TRUE, TRUE)) }");
+        assertEval("{ .Internal(merge(c(2L, 0L, 1L, 2L, 3L, 0L), c(1L, 2L, 2L, 0L, 3L, 3L), FALSE, FALSE)) }");
+        assertEval("{ x <- data.frame(k=c(3, 1, 2, 4), a=1:4); y <- data.frame(k=c(1, 2, 2, 5), b=5:8); list(merge(x, y), merge(x, y, all=TRUE), merge(x, y, all.x=TRUE)) }");
+    }
+
+    @Test
+    public void testmergeMultipleKeys() {
+        assertEval("{ x <- data.frame(k1=c(10, 9, 10, 2, NA), k2=c('a', 'b', 'b', 'a', 'c'), v=1:5); y <- data.frame(k1=c(9, 10, 10, 2, NA), k2=factor(c('b', 'a', 'a', 'b', 'c')), w=6:10); list(merge(x, y), merge(x, y, sort=FALSE), merge(x, y, all=TRUE), merge(x, y, by=c('k2', 'k1'), all.y=TRUE)) }");
+        assertEval("{ x <- data.frame(a=c(1L, 1L, 2L), b=c(1, 2, 1), v=1:3); y <- data.frame(a=c('1', '2', '2'), b=c(2L, 1L, 1L), w=4:6); merge(x, y) }");
+        assertEval("{ x <- data.frame(a=c(0.1 + 0.2, 0.3, 1/3, 2), b=c(1L, 1L, 2L, 3L), v=1:4); y <- data.frame(a=c(0.3, 0.3333333333333333, 2L), b=c(1, 2, 3), w=5:7); list(merge(x, y), merge(x, y, all=TRUE)) }");
+        assertEval("{ x <- data.frame(a=1:3, b=c('x', 'y', 'z')); y <- data.frame(a=integer(), b=character()); list(merge(x, y), merge(x, y, all.x=TRUE)) }");
+    }
 }
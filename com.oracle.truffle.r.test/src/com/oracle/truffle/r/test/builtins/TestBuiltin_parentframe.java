@@ -52,4 +52,12 @@ public class TestBuiltin_parentframe extends TestBase {
         assertEval("{ f <- function(frame) frame; g <- function() f(parent.frame()); g() }");
         assertEval("{ f <- function(frame) frame; g <- function() f(parent.frame(3)); g() }");
     }
+
+    @Test
+    public void testParentFrameRepeated() {
+        assertEval("{ f <- function() get('x', envir = parent.frame()); g <- function(x) f(); s <- 0; for (i in 1:10000) s <- s + g(i); s }");
+        assertEval("{ f <- function(type = c('a', 'bb', 'ccc')) { type <- match.arg(type); nchar(type) }; s <- 0; for (i in 1:10000) s <- s + f(c('a', 'bb', 'ccc')[i %% 3 + 1]); s }");
+        assertEval("{ f <- function() sys.function(); g <- function() f(); for (i in 1:10000) r <- g(); r }");
+        assertEval("{ f <- function(x) sys.call(); g <- function(y) f(y + 1); for (i in 1:10000) r <- g(i); r }");
+    }
 }
@@ -174,4 +174,11 @@ public class TestBuiltin_printdefault extends TestBase {
     public void testprintdefault32() {
         assertEval("argv <- list(structure(c(495L, 515L, 535L, 555L, 575L, 595L, 615L, 635L, 655L, 675L, 695L, 715L), .Dim = 3:4, .Dimnames = list(c('a', 'b', 'c'), NULL)), NULL, TRUE, NULL, NULL, FALSE, NULL, TRUE, TRUE); .Internal(print.default(argv[[1]], argv[[2]], argv[[3]], argv[[4]], argv[[5]], argv[[6]], argv[[7]], argv[[8]], argv[[9]]))");
     }
+
+    @Test
+    public void testprintdefaultMaxPrint() {
+        assertEval("{ options(max.print=5); x <- 1:20; names(x) <- letters[1:20]; print(x) }");
+        assertEval("{ options(max.print=10); print(c(1:9, 123456789)) }");
+        assertEval("{ options(max.print=6); print(matrix(c(1:6, 1e10, 1e10, 1e10), 3)) }");
+    }
 }
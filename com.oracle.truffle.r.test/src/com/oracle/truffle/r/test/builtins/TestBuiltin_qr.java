@@ -55,4 +55,11 @@ public class TestBuiltin_qr extends TestBase {
         assertEval("{ round( qr.solve(qr(c(1,3,4,2)), c(1,2,3,4)), digits=5 ) }");
         assertEval("{ round( qr.solve(c(1,3,4,2), c(1,2,3,4)), digits=5) }");
     }
+
+    @Test
+    public void testQrNonSquare() {
+        assertEval("{ qr(matrix(1:6, 3))$rank }");
+        assertEval("{ qr(matrix(c(1,2,3,2,4,6), 3))$rank }");
+        assertEval("{ x <- qr(cbind(1, 1:5)); for (i in 1:3) y <- qr.coef(x, c(2,4,6,8,10)); round(y, digits=5) }");
+    }
 }
@@ -69,5 +69,11 @@ public class TestBuiltin_rbind extends TestBase {
         assertEval("{ info <- c(\"print\", \"AES\", \"print.AES\") ; ns <- integer(0) ; rbind(info, ns) }");
 
         assertEval("{ x<-list(a=7, b=NULL, c=42); y<-as.data.frame(do.call(rbind,x)); y }");
+        assertEval("{ rbind(matrix(1:6, nrow=3), matrix(7:12, nrow=3), 13:14) }");
+        assertEval("{ do.call(rbind, lapply(1:5, function(i) c(i, i * 10))) }");
+        assertEval("{ l <- lapply(1:4, function(i) data.frame(n=i, x=i / 2, s=letters[i], f=factor(c(\"u\", letters[i])), stringsAsFactors=FALSE)); d <- do.call(rbind, l); list(d, levels(d$f), attributes(d)) }");
+        assertEval("{ l <- list(data.frame(a=1:2, b=c(\"x\", \"y\")), data.frame(a=3L, b=NA), data.frame(a=4:5, b=c(\"y\", \"z\"))); d <- do.call(rbind, l); list(d, levels(d$b)) }");
+        assertEval("{ rbind(data.frame(a=1:2, b=3:4), data.frame(b=5L, a=6L), data.frame(a=7L, b=8L, row.names=\"r\")) }");
+        assertEval("{ rbind(data.frame(a=1:2), data.frame(a=c(0.5, 1.5))) }");
     }
 }
@@ -101,5 +101,9 @@ public class TestBuiltin_rowSums extends TestBase {
         assertEval("{ a = rowSums(array(1:24,c(2,3,4))); c(a[1],a[2]) }");
 
         assertEval(Output.IgnoreErrorContext, "{x<-matrix(c(\"1\",\"2\",\"3\",\"4\"),ncol=2);rowSums(x)}");
+
+        assertEval("{ m <- matrix(c(1, NaN, NA, 4, NA, 6, 7, 8), 2); list(rowSums(m), rowSums(m, na.rm=TRUE), rowMeans(m), rowMeans(m, na.rm=TRUE)) }");
+        assertEval("{ m <- matrix(c(1L, NA, 3L, 4L, NA, NA), 2); list(rowSums(m), rowSums(m, na.rm=TRUE), rowMeans(m, na.rm=TRUE), colMeans(m, na.rm=TRUE)) }");
+        assertEval("{ m <- matrix(as.double(1:20000), 2000); sum(rowSums(m)) == sum(m) }");
     }
 }
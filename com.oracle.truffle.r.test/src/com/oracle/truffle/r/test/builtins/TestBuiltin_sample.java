@@ -73,4 +73,12 @@ public class TestBuiltin_sample extends TestBase {
         assertEval(Ignored.Unknown, "{ set.seed(4357, \"default\"); x <- 5 ; sample(x, 6, FALSE, NULL) ;}");
         assertEval(Ignored.Unknown, "{ set.seed(9567, \"Marsaglia-Multicarry\"); x <- 5 ; sample(x, 6, FALSE, NULL) ;}");
     }
+
+    @Test
+    public void testSampleWeightedLarge() {
+        assertEval("{ set.seed(4357, \"default\"); sample(1000, 20, TRUE, (1:1000) / 1000) }");
+        assertEval("{ set.seed(9567, \"Marsaglia-Multicarry\"); sample(500, 10, TRUE, c(rep(1, 250), rep(3, 250))) }");
+        assertEval("{ set.seed(4357, \"default\"); sample(1000, 200, FALSE, (1:1000) / 1000)[190:200] }");
+        assertEval("{ set.seed(4357, \"default\"); x <- sample(2000, 2000, FALSE, c(rep(0.5, 1000), rep(1, 1000))); c(length(unique(x)), range(x)) }");
+    }
 }
@@ -23,4 +23,11 @@ public class TestBuiltin_solve extends TestBase {
         assertEval("argv <- structure(list(a = structure(c(1, 0.5, 0, 0, 0, 0.5,     1, 0.5, 0, 0, 0, 0.5, 1, 0.5, 0, 0, 0, 0.5, 1, 0.5, 0, 0,     0, 0.5, 1), .Dim = c(5L, 5L))), .Names = 'a');" +
                         "do.call('solve', argv)");
     }
+
+    @Test
+    public void testsolveRepeated() {
+        assertEval("{ m <- matrix(c(2,1,1,3,2,1,1,1,4), 3); for (i in 1:3) x <- solve(m); round(x, digits=5) }");
+        assertEval("{ m <- matrix(c(2,1,1,3,2,1,1,1,4), 3); b <- matrix(1:6, 3); round(solve(m, b), digits=5) }");
+        assertEval("{ m <- matrix(c(4,2,2,3), 2); round(solve(m, c(1,2)), digits=5) }");
+    }
 }
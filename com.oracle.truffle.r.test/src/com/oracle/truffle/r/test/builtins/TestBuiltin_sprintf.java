@@ -146,4 +146,20 @@ public class TestBuiltin_sprintf extends TestBase {
         assertEval("{ sprintf(c(\"foo %f %d\", \"bar %f %d\"), c(7,1), c(42L, 2L)) }");
         assertEval("{ sprintf(\"%.3g\", 1.234) }");
     }
+
+    @Test
+    public void testSprintfFixed() {
+        assertEval("{ sprintf(\"%0.3f\", c(3.14159, -2.5, 0, 1e10)) }");
+        assertEval("{ sprintf(\"%.2f\", c(0.125, 2.675, 1.005)) }");
+        assertEval("{ sprintf(\"%.0f\", c(0.5, 1.5, 2.5)) }");
+        assertEval("{ sprintf(\"%08.2f|%-8.2f|%+.1f|% .1f\", -3.14159, 3.14159, 2, 2) }");
+        assertEval("{ sprintf(\"%5.1f\", c(NA, NaN, Inf, -Inf)) }");
+        assertEval("{ sprintf(\"%.20f\", 0.1) }");
+        assertEval("{ sprintf(\"%f\", 1e20) }");
+        assertEval("{ sprintf(\"%5d|%-5d|%+d\", 42L, 42L, 42L) }");
+        assertEval("{ sprintf(\"%5d\", NA_integer_) }");
+        assertEval("{ sprintf(\"%10s|%-10s|%.2s\", \"abc\", \"abc\", \"abc\") }");
+        assertEval("{ sprintf(\"%d%% of %s\", 10L, \"x\") }");
+        assertEval("{ sprintf(\"%12.10f\", 1:3 / 7) }");
+    }
 }
@@ -342,5 +342,12 @@ public class TestBuiltin_unlist extends TestBase {
         assertEval("{ x <- list(1,list(2,3),4) ; z <- list(x,x) ; u <- list(z,z) ; u[[c(2,2,3)]] <- 6 ; unlist(u) }");
 
         assertEval("{ x<-quote(f(1,2)); y<-function(z) 42; l<-list(x, y, NULL); y<-unlist(l); c(length(y), typeof(y)) }");
+
+        assertEval("{ unlist(list(1:3, 4:6, integer(), 7L)) }");
+        assertEval("{ unlist(list(c(1.5, NA), 3, c(a=4))) }");
+        assertEval("{ unlist(lapply(1:10, function(i) i * 2)) }");
+        assertEval("{ unlist(list(\"a\", NA_character_, \"c\")) }");
+        assertEval("{ unlist(list(a=1:2, b=3L)) }");
+        assertEval("{ unlist(list(1L, 2.5, \"x\")) }");
     }
 }
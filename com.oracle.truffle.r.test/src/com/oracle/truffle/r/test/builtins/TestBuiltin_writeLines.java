@@ -24,4 +24,12 @@ public class TestBuiltin_writeLines extends TestBase {
         assertEval(Ignored.SideEffects,
                         "argv <- structure(list(text = ' \\'  A  \\'; \\'B\\' ;\\'C\\';\\' D \\';\\'E \\';  F  ;G  ',     con = 'foo'), .Names = c('text', 'con'));do.call('writeLines', argv)");
     }
+
+    @Test
+    public void testwriteLinesCompressed() {
+        assertEval("{ f <- tempfile(); con <- xzfile(f, 'w'); writeLines(c('a', 'bb', 'ccc'), con); close(con); con <- xzfile(f); x <- readLines(con); close(con); unlink(f); x }");
+        assertEval("{ f <- tempfile(); con <- bzfile(f, 'w'); writeLines(as.character(1:1000), con); close(con); con <- bzfile(f); x <- readLines(con); close(con); unlink(f); length(x) }");
+        assertEval("{ f <- tempfile(); con <- xzfile(f, 'w'); writeLines('abc', con); close(con); con <- gzfile(f); x <- readLines(con); close(con); unlink(f); x }");
+        assertEval("{ f <- tempfile(); con <- bzfile(f, 'w'); x <- summary(con)$class; close(con); unlink(f); x }");
+    }
 }
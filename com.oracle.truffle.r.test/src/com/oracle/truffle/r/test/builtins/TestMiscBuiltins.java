@@ -292,5 +292,8 @@ public class TestMiscBuiltins extends TestBase {
     @Test
     public void testTypeConvert() {
         assertEval("{ x<-as.character(list(a=\"0\", b=\"0\", c=\"0.3\")); type.convert(x, as.is=FALSE) }");
+        assertEval("{ x <- type.convert(c(\"b\", \"a\", \"NA\", \"c\", \"a\", \"b\"), as.is=FALSE); list(levels(x), as.integer(x)) }");
+        assertEval("{ x <- type.convert(c(\"b\", \"a\", \"NA\", \"a\"), na.strings=character(), as.is=FALSE); list(levels(x), as.integer(x)) }");
+        assertEval("{ x <- rep(c(\"x\", \"y\", \"z\"), 1000); y <- type.convert(paste0(x, \"1\"), as.is=FALSE); c(nlevels(y), table(as.integer(y))) }");
     }
 }
@@ -22,6 +22,12 @@
  */
 package com.oracle.truffle.r.test.library.base;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 
@@ -83,6 +89,26 @@ public class TestConnections extends TestBase {
         assertEval(TestBase.template("{ readBin(file(\"%0\", \"rb\"), 3) }", testDir.subDir("wb1")));
     }
 
+    @Test
+    public void testFileWriteReadBinLarge() {
+        assertEval("{ f <- tempfile(); x <- seq(0.5, by=0.25, length.out=300000); writeBin(x, f); y <- readBin(f, 'double', 400000); unlink(f); c(length(y), identical(x, y)) }");
+        assertEval("{ f <- tempfile(); x <- c(1:200000, NA); writeBin(x, f, endian='swap'); y <- readBin(f, 'integer', 200001, endian='swap'); unlink(f); c(length(y), identical(x, y)) }");
+        assertEval("{ f <- tempfile(); writeBin(as.double(1:100000), f); con <- file(f, 'rb'); seek(con, 8 * 99990); y <- readBin(con, 'double', 100000); close(con); unlink(f); y }");
+    }
+
+    @Test
+    public void testFileSeek() {
+        assertEval("{ f <- tempfile(); writeBin(as.double(1:100000), f); con <- file(f, 'rb'); x <- readBin(con, 'double', 100000); p <- seek(con, 0); y <- readBin(con, 'double', 100000); close(con); unlink(f); c(p, identical(x, y), length(y)) }");
+        assertEval("{ f <- tempfile(); writeBin(1:10, f); con <- file(f, 'rb'); p <- seek(con, -8, origin = 'end'); y <- readBin(con, 'integer', 10); close(con); unlink(f); c(p, y) }");
+        assertEval("{ f <- tempfile(); writeBin(1:10, f); con <- file(f, 'rb'); readBin(con, 'integer', 3); seek(con, 4, origin = 'current'); p <- seek(con); y <- readBin(con, 'integer', 1); close(con); unlink(f); c(p, y) }");
+    }
+
+    @Test
+    public void testGzfileWriteReadLarge() {
+        assertEval("{ f <- tempfile(); x <- as.numeric(1:3e6); saveRDS(x, f); y <- readRDS(f); unlink(f); identical(x, y) }");
+        assertEval("{ f <- tempfile(); con <- gzfile(f, 'w'); writeLines(as.character(1:200000), con); close(con); con <- gzfile(f); y <- readLines(con); close(con); unlink(f); c(length(y), y[200000]) }");
+    }
+
     @Test
     public void testWriteTextReadConnection() {
         assertEval(Output.IgnoreErrorContext, "{ writeChar(\"x\", textConnection(\"abc\")) }");
@@ -128,5 +154,80 @@ public class TestConnections extends TestBase {
         assertEval(Ignored.Unimplemented, "c <- textConnection('out', 'w'); cat('testtext', file=c); isIncomplete(c); cat('testtext2\\n', file=c); isIncomplete(c); close(c); out");
 
         assertEval("{ d<-data.frame(c(1,2), c(10, 20)); buf<-character(); c<-textConnection(\"buf\", open=\"w\", local=T); write.table(d, c); buf }");
+        assertEval("{ con <- textConnection(\"tcval\", open=\"w\"); sink(con); print(1:3); sink(); x <- tcval; close(con); list(x, tcval) }");
+    }
+
+    @Test
+    public void testAnonymousTextConnection() {
+        assertEval("{ con <- textConnection(NULL, open=\"w\"); writeLines(c(\"a\", \"b\"), con); cat(\"c\", file=con); x <- textConnectionValue(con); close(con); x }");
+        assertEval("{ con <- textConnection(\"tcval\", open=\"w\"); for (i in 1:1000) cat(i, \"\\n\", file=con); x <- textConnectionValue(con); close(con); c(length(tcval), identical(x, tcval)) }");
+        assertEval("{ con <- textConnection(\"tcval\", open=\"w\"); cat(\"a\", file=con); cat(\"b\\nc\", file=con); flush(con); x <- tcval; close(con); list(x, tcval) }");
+    }
+
+    @Test
+    public void testCaptureOutput() {
+        assertEval("{ capture.output(1:3, cat(\"abc\")) }");
+        assertEval("{ capture.output(cat(\"a\\n\\n\")) }");
+        assertEval("{ capture.output(invisible(1)) }");
+        assertEval("{ x <- capture.output(print(1:1e4)); length(x) }");
+    }
+
+    /**
+     * Loopback stand-in for a remote service: echoes everything back to each client, serving any
+     * number of clients concurrently. Listens on a free port chosen by the system.
+     */
+    private static final class EchoServer implements AutoCloseable {
+        private final ServerSocket serverSocket;
+
+        EchoServer() throws IOException {
+            serverSocket = new ServerSocket(0, 50, InetAddress.getLoopbackAddress());
+            Thread acceptor = new Thread(() -> {
+                try {
+                    while (true) {
+                        Socket client = serverSocket.accept();
+                        Thread echo = new Thread(() -> echo(client));
+                        echo.setDaemon(true);
+                        echo.start();
+                    }
+                } catch (IOException ex) {
+                    // server socket closed
+                }
+            });
+            acceptor.setDaemon(true);
+            acceptor.start();
+        }
+
+        private static void echo(Socket client) {
+            try (Socket s = client; InputStream in = s.getInputStream(); OutputStream out = s.getOutputStream()) {
+                byte[] buffer = new byte[1024];
+                int n;
+                while ((n = in.read(buffer)) > 0) {
+                    out.write(buffer, 0, n);
+                }
+            } catch (IOException ex) {
+                // client went away
+            }
+        }
+
+        String[] port() {
+            return new String[]{Integer.toString(serverSocket.getLocalPort())};
+        }
+
+        @Override
+        public void close() throws IOException {
+            serverSocket.close();
+        }
+    }
+
+    @Test
+    public void testSocketConnection() throws IOException {
+        try (EchoServer server = new EchoServer()) {
+            assertEval(TestBase.template("{ con <- socketConnection(port=%0, open='r+', blocking=TRUE); writeLines(c('a', 'bb', 'ccc'), con); x <- readLines(con, 3); close(con); x }", server.port()));
+            assertEval(TestBase.template("{ con <- socketConnection(port=%0, open='r+b', blocking=TRUE); writeBin(1:1000, con); x <- readBin(con, 'integer', 1000); close(con); sum(x) }", server.port()));
+            assertEval(TestBase.template("{ con <- socketConnection(port=%0, open='r+', blocking=FALSE); r1 <- socketSelect(list(con), write=TRUE, timeout=5); writeLines('abc', con); r2 <- socketSelect(list(con), timeout=5); close(con); c(r1, r2) }", server.port()));
+            assertEval(TestBase.template("{ cons <- lapply(1:3, function(i) socketConnection(port=%0, open='r+', blocking=TRUE)); writeLines('x', cons[[2]]); r <- socketSelect(cons, timeout=5); x <- readLines(cons[[2]], 1); for (con in cons) close(con); list(r, x) }", server.port()));
+            assertEval(TestBase.template("{ con <- socketConnection(port=%0, open='r+', blocking=TRUE); r <- socketSelect(list(con), timeout=0); close(con); r }", server.port()));
+        }
+        assertEval(Output.IgnoreErrorContext, "{ socketSelect(list(stdin())) }");
     }
 }
@@ -40,5 +40,7 @@ public class TestStateTrans extends TestBase {
         // creating a copy
         assertEvalFastR("{ x<-rep(1, 100); xi1<-fastr.identity(x); f<-function(x) { x }; f(x); x[1]<-7; xi2<-fastr.identity(x); xi1 == xi2 }", "TRUE");
         assertEvalFastR("{ x<-rep(1, 100); xi1<-fastr.identity(x); f<-function(x) { y<-x; y }; f(x); x[1]<-7; xi2<-fastr.identity(x); xi1 == xi2 }", "TRUE");
+        // element-wise fill loops should update the vector in place
+        assertEvalFastR("{ f<-function(i) i * 2; x<-numeric(100); xi1<-fastr.identity(x); for (i in 1:100) x[i]<-f(i); xi2<-fastr.identity(x); xi1 == xi2 }", "TRUE");
     }
 }
@@ -0,0 +1,46 @@
+/*
+ * Copyright (c) 2016, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.truffle.r.test.library.grDevices;
+
+import org.junit.Test;
+
+import com.oracle.truffle.r.test.TestBase;
+
+// Checkstyle: stop line length check
+public class TestDevices extends TestBase {
+
+    @Test
+    public void testPng() {
+        assertEval("{ f <- tempfile(fileext='.png'); png(f, type='cairo'); plot(1:10, type='l'); invisible(dev.off()); con <- file(f, 'rb'); sig <- readBin(con, 'raw', 8); close(con); unlink(f); sig }");
+    }
+
+    @Test
+    public void testSvg() {
+        assertEval("{ f <- tempfile(fileext='.svg'); svg(f); plot(1:10, type='l'); invisible(dev.off()); lines <- readLines(f); unlink(f); any(grepl('<path', lines)) }");
+    }
+
+    @Test
+    public void testDevCur() {
+        assertEval("{ f1 <- tempfile(); f2 <- tempfile(); png(f1, type='cairo'); svg(f2); a <- dev.cur(); invisible(dev.off()); b <- dev.cur(); invisible(dev.off()); unlink(c(f1, f2)); list(a, b, dev.cur()) }");
+    }
+}
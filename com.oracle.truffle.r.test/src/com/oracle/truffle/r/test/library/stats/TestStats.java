@@ -35,6 +35,13 @@ public class TestStats extends TestBase {
         assertEval(Output.IgnoreWarningContext, "{ cor(cbind(c(1, 1, 1), c(1, 1, 1))) }");
         assertEval("{ cor(cbind(c(1:9,0/0), 101:110)) }");
         assertEval("{ round( cor(cbind(c(10,5,4,1), c(2,5,10,5))), digits=5 ) }");
+        assertEval("{ m <- cbind(c(1,2,NA,4,5), c(2,1,4,3,6), c(5,NA,3,2,1)); round(cor(m, use='pairwise.complete.obs'), digits=5) }");
+        assertEval("{ m <- cbind(c(1,2,NA,4,5), c(2,1,4,3,6), c(5,NA,3,2,1)); round(cor(m, use='complete.obs'), digits=5) }");
+        assertEval("{ m <- cbind(c(1,2,NA,4,5), c(2,1,4,3,6)); cor(m, use='na.or.complete') }");
+        assertEval(Output.IgnoreErrorContext, "{ cor(cbind(c(1,2,NA), c(1,2,3)), use='all.obs') }");
+        assertEval("{ round(cor(cbind(c(1,3,2,5,4), c(2,1,4,3,5)), method='kendall'), digits=5) }");
+        assertEval("{ round(cor(c(1,3,2,5,4), c(2,1,4,3,5), method='spearman'), digits=5) }");
+        assertEval("{ m <- matrix(sin(1:600), 100); round(cor(m), digits=5) }");
     }
 
     @Test
@@ -42,6 +49,9 @@ public class TestStats extends TestBase {
         assertEval("{ cov(c(1,2,3),c(1,2,3)) }");
         assertEval("{ cov(c(1,2,3),c(1,2,4)) }");
         assertEval("{ cov(c(1,2,3),c(1,2,5)) }");
+        assertEval("{ m <- cbind(c(1,2,NA,4,5), c(2,1,4,3,6)); list(cov(m), cov(m, use='complete.obs'), cov(m, use='pairwise.complete.obs')) }");
+        assertEval("{ cov(cbind(c(1,3,2), c(3,1,2)), cbind(c(1,2,3), c(4,4,5))) }");
+        assertEval("{ cov(c(1,3,2,5,4), c(2,1,4,3,5), method='kendall') }");
     }
 
     @Test
@@ -50,6 +60,23 @@ public class TestStats extends TestBase {
         assertEval("{ fft(1:4, inverse=TRUE) }");
         assertEval("{ fft(10) }");
         assertEval("{ fft(cbind(1:2,3:4)) }");
+        assertEval("{ round(fft(c(1.5, 2, -3, 4, 0.25, 6)), digits=8) }");
+        assertEval("{ round(fft(c(1.5, 2, -3, 4, 0.25, 6), inverse=TRUE), digits=8) }");
+        assertEval("{ round(fft(c(1, 2, 3)), digits=8) }");
+        assertEval("{ x <- sin(1:210 / 7); round(Re(fft(fft(x), inverse=TRUE)) / 210 - x, digits=8) }");
+        assertEval("{ x <- cos(1:211) + 1i * sin(1:211); round(sum(Mod(fft(x))), digits=5) }");
+        assertEval("{ x <- cos(1:1000); round(sum(Mod(fft(x)[1:20])), digits=5) }");
+        assertEval("{ round(fft(array(1:24, c(2, 3, 4))), digits=8) }");
+        assertEval("{ round(mvfft(matrix(c(1, 4, 2, 8, 5, 7), 3)), digits=8) }");
+        assertEval("{ round(mvfft(matrix(c(1, 4, 2, 8, 5, 7), 3), inverse=TRUE), digits=8) }");
+        assertEval(Output.IgnoreErrorContext, "{ mvfft(1:4) }");
+    }
+
+    @Test
+    public void testAggregate() {
+        assertEval("{ df <- data.frame(v=c(1.5, NA, 3, 4, NaN, 6), n=c(3L, 1L, NA, 2L, 5L, 7L), l=c(TRUE, FALSE, TRUE, NA, TRUE, TRUE)); g <- c(\"a\", \"b\", \"a\", \"b\", \"c\", \"c\"); list(aggregate(df, list(g=g), sum), aggregate(df, list(g=g), mean), aggregate(df, list(g=g), max, na.rm=TRUE), aggregate(df, list(g=g), length)) }");
+        assertEval("{ df <- data.frame(v=c(2, 1, 4, 3, 8), f=factor(c(\"x\", \"y\", \"x\", \"y\", \"x\"))); aggregate(df$v, list(df$f, c(1, 1, 2, 2, NA)), min) }");
+        assertEval("{ aggregate(v ~ g, data=data.frame(v=1:6, g=c(2, 1, 2, 1, 3, 3)), sum) }");
     }
 
     @Test
@@ -90,6 +117,8 @@ public class TestStats extends TestBase {
         assertEval("qbinom(0,20,c(0.1,0.9))");
         assertEval("qbinom(0,20,c(0.1,1.9))");
         assertEval("qbinom(0,integer(),c(0.1,0.9))");
+        assertEval("qbinom(c(0.1,NA,NaN,0.5,-1,1e-10), 1000, 0.3)");
+        assertEval("qbinom(log(c(0.1,0.5,0.9)), 200000, 0.4, lower.tail=FALSE, log.p=TRUE)");
     }
 
     @Test
@@ -107,6 +136,9 @@ public class TestStats extends TestBase {
         assertEval("round(dbinom(c(81,2,4,9),c(10,12,14),c(0.3,0.4,0.3,0.1,0.33)),digits=9)");
         assertEval("round(dbinom(0.9,c(10,12,14),c(0.3,0.4,0.3,0.1,0.33)),digits=9)");
         assertEval("round(dbinom(2,14,0.33),digits=9)");
+        assertEval("round(dbinom(c(0:14,NA,NaN,-1,20), 14, 0.33), digits=9)");
+        assertEval("round(dbinom(0:5, 5, c(0, 1)), digits=9)");
+        assertEval("round(dbinom(0:20, 20, 0.4, log=TRUE), digits=7)");
     }
 
     @Test
@@ -116,12 +148,32 @@ public class TestStats extends TestBase {
         assertEval("pnorm(1:10/10,c(2,10.5),c(3))");
         assertEval("round(pnorm(1:10/10,c(2,NaN),c(3)),digits=7)");
         assertEval("round(pnorm(1:10/10,c(2,NA),c(3)),digits=7)");
+        assertEval("round(pnorm(c(-Inf,-1,0,NA,NaN,1,Inf), 0.5, 2, lower.tail=FALSE), digits=7)");
+        assertEval("round(pnorm(c(-1,0,1), 0, 0), digits=7)");
+        assertEval("round(sum(pnorm(seq(-5, 5, length.out=1e6), 0.1, 1.5)), digits=3)");
+        assertEval("round(sum(pnorm(seq(-5, 5, length.out=1e6), log.p=TRUE)), digits=3)");
     }
 
     @Test
     public void testQnorm() {
         assertEval("qnorm(c(0.1,0.9,0.5,0.00001,0.99999), 100, c(20,1))");
         assertEval("round(qnorm(c(0.1,0.9,0.5,1.00001,0.99999), 100, c(20,1)), digits=5)");
+        assertEval("round(qnorm(c(0,0.1,NA,NaN,0.5,1,2), 3, 2), digits=5)");
+        assertEval("round(sum(qnorm(seq(0, 1, length.out=1e6), 1, 2)[2:999999]), digits=3)");
+    }
+
+    @Test
+    public void testDnorm() {
+        assertEval("round(dnorm(c(-1,0,1,NA,NaN,Inf), 1, 2), digits=7)");
+        assertEval("round(dnorm(c(-1,0,1), 1, 2, log=TRUE), digits=7)");
+        assertEval("round(sum(dnorm(seq(-5, 5, length.out=1e6), 0.5, 3)), digits=3)");
+    }
+
+    @Test
+    public void testPbeta() {
+        assertEval("round(pbeta(c(-1,0,0.2,0.5,NA,0.9,1,2), 2, 3), digits=7)");
+        assertEval("round(pbeta(c(0.1,0.5), c(2,0.5), c(3,0.5), lower.tail=FALSE, log.p=TRUE), digits=7)");
+        assertEval("round(pbinom(0:10, 10, 0.3), digits=7)");
     }
 
     @Test
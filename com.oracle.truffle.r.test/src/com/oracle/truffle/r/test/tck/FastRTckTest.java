@@ -22,13 +22,28 @@
  */
 package com.oracle.truffle.r.test.tck;
 
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.Arrays;
 
 import org.junit.Test;
 
+import com.oracle.truffle.api.Truffle;
+import com.oracle.truffle.api.frame.VirtualFrame;
+import com.oracle.truffle.api.interop.ForeignAccess;
+import com.oracle.truffle.api.interop.TruffleObject;
+import com.oracle.truffle.api.nodes.Node;
+import com.oracle.truffle.api.nodes.RootNode;
 import com.oracle.truffle.api.source.Source;
 import com.oracle.truffle.api.vm.PolyglotEngine;
 import com.oracle.truffle.api.vm.PolyglotEngine.Builder;
+import com.oracle.truffle.r.engine.TruffleRLanguage;
+import com.oracle.truffle.r.engine.interop.ReadArrayMessage;
+import com.oracle.truffle.r.runtime.RError;
+import com.oracle.truffle.r.runtime.RRuntime;
 import com.oracle.truffle.r.runtime.RSource;
 import com.oracle.truffle.tck.TruffleTCK;
 
@@ -39,6 +54,74 @@ public class FastRTckTest extends TruffleTCK {
         assertTrue("Our language is present", vm.getLanguages().containsKey("text/x-r"));
     }
 
+    /**
+     * Sends {@link ReadArrayMessage} to the first argument, with the remaining arguments as the
+     * message arguments.
+     */
+    private static final class ReadArrayRootNode extends RootNode {
+        @Child private Node readArray = ReadArrayMessage.INSTANCE.createNode();
+
+        ReadArrayRootNode() {
+            super(TruffleRLanguage.class, null, null);
+        }
+
+        @Override
+        public Object execute(VirtualFrame frame) {
+            Object[] arguments = frame.getArguments();
+            return ForeignAccess.send(readArray, frame, (TruffleObject) arguments[0], Arrays.copyOfRange(arguments, 1, arguments.length));
+        }
+    }
+
+    private static Object readArray(PolyglotEngine vm, String vector, Object... range) throws Exception {
+        Object[] arguments = new Object[range.length + 1];
+        arguments[0] = vm.eval(RSource.fromTextInternal(vector, RSource.Internal.TCK_INIT)).get();
+        System.arraycopy(range, 0, arguments, 1, range.length);
+        return Truffle.getRuntime().createCallTarget(new ReadArrayRootNode()).call(arguments);
+    }
+
+    @Test
+    public void testReadArray() throws Exception {
+        PolyglotEngine vm = PolyglotEngine.newBuilder().build();
+        try {
+            assertArrayEquals(new double[]{1.5, 2.5, 3.5}, (double[]) readArray(vm, "c(1.5, 2.5, 3.5)"), 0);
+            assertArrayEquals(new double[]{2.5, 3.5}, (double[]) readArray(vm, "c(1.5, 2.5, 3.5)", 1, 2), 0);
+            assertArrayEquals(new int[]{1, 2, 3, 4}, (int[]) readArray(vm, "1:4"));
+            assertArrayEquals(new int[]{2, 3}, (int[]) readArray(vm, "1:4", 1, 2));
+            assertArrayEquals(new String[]{"a", "b"}, (String[]) readArray(vm, "c('a', 'b')"));
+            // complex vectors are read as interleaved real and imaginary parts
+            assertArrayEquals(new double[]{1, 3, 2, 4}, (double[]) readArray(vm, "complex(real = c(1, 2), imaginary = c(3, 4))"), 0);
+            assertArrayEquals(new double[]{2, 4}, (double[]) readArray(vm, "complex(real = c(1, 2), imaginary = c(3, 4))", 1, 1), 0);
+            try {
+                readArray(vm, "1:4", 2, 3);
+                fail("range beyond the end of the vector");
+            } catch (RError e) {
+                // expected
+            }
+        } finally {
+            vm.dispose();
+        }
+    }
+
+    @Test
+    public void testImportArrays() throws Exception {
+        Builder builder = PolyglotEngine.newBuilder();
+        builder.globalSymbol("doubles", new double[]{1.5, RRuntime.DOUBLE_NA});
+        builder.globalSymbol("ints", new int[]{1, RRuntime.INT_NA, 3});
+        builder.globalSymbol("strings", new String[]{"a", null});
+        PolyglotEngine vm = builder.build();
+        try {
+            assertEquals(1, evalInt(vm, "as.integer(identical(.fastr.interop.import('doubles'), c(1.5, NA)))"));
+            assertEquals(1, evalInt(vm, "as.integer(identical(.fastr.interop.import('ints'), c(1L, NA, 3L)))"));
+            assertEquals(1, evalInt(vm, "as.integer(identical(.fastr.interop.import('strings'), c('a', NA)))"));
+        } finally {
+            vm.dispose();
+        }
+    }
+
+    private static int evalInt(PolyglotEngine vm, String code) throws Exception {
+        return ((Number) vm.eval(RSource.fromTextInternal(code, RSource.Internal.TCK_INIT)).get()).intValue();
+    }
+
     // @formatter:off
     private static final Source INITIALIZATION = RSource.fromTextInternal(
         "fourtyTwo <- function() {\n" +
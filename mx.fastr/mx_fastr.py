@@ -238,6 +238,12 @@ def _fastr_gate_runner(args, tasks):
             if junit(['--tests', _gate_noapps_unit_tests()]) != 0:
                 t.abort('unit tests failed')
 
+    # options that are fixed when the AST is built need a VM of their own
+    with mx_gate.Task('PreciseRefCount', tasks) as t:
+        if t:
+            if _precise_refcount_check() != 0:
+                t.abort('replacements copied vectors with PreciseRefCount enabled')
+
 mx_gate.add_gate_runner(_fastr_suite, _fastr_gate_runner)
 
 def gate(args):
@@ -253,6 +259,20 @@ def _test_srcdir():
     tp = 'com.oracle.truffle.r.test'
     return join(mx.project(tp).dir, 'src', tp.replace('.', sep))
 
+def _precise_refcount_check():
+    '''
+    Runs the fill loop in library/fastr/R/preciseRefCount.R with PreciseRefCount enabled, the loop
+    must keep the identity of the vector and the replacement copy statistics must not list any
+    replacement site of the script.
+    '''
+    script = join(_test_srcdir(), 'library', 'fastr', 'R', 'preciseRefCount.R')
+    out = mx.OutputCapture()
+    rc = rscript([script], extraVmArgs=['-DR:+PreciseRefCount', '-DR:PerfStats=replacecopies'], out=out, err=out, nonZeroIsFatal=False)
+    print out.data
+    if rc != 0 or '[1] TRUE' not in out.data or 'NUMBER OF VECTOR COPIES IN REPLACEMENTS' not in out.data:
+        return 1
+    return 1 if 'preciseRefCount.R:' in out.data else 0
+
 def _junit_r_harness(args, vmArgs, jdk, junitArgs):
     # always pass the directory where the expected output file should reside
     runlistener_arg = 'expected=' + _test_srcdir()